@@ -16,4 +16,29 @@ public interface EventFactory {
      */
     Event build(String eventType);
 
+    /**
+     * Builds a typed event of a certain type.
+     *
+     * @param eventType the type of event.
+     * @param schema    the enum type of the fields of the event.
+     * @param <F>       the enum type of the fields of the event.
+     * @return a typed event of the given type without fields set.
+     */
+    default <F extends Enum<F>> TypedEvent<F> buildTyped(String eventType, Class<F> schema) {
+        return new TypedEvent<>(eventType, schema);
+    }
+
+    /**
+     * Builds a ring of recycled typed events of a certain type.
+     *
+     * @param eventType the type of event.
+     * @param schema    the enum type of the fields of the events.
+     * @param size      the number of events in the ring.
+     * @param <F>       the enum type of the fields of the events.
+     * @return a ring of typed events of the given type.
+     */
+    default <F extends Enum<F>> EventRing<F> buildRing(String eventType, Class<F> schema,
+            int size) {
+        return new EventRing<>(eventType, schema, size);
+    }
 }
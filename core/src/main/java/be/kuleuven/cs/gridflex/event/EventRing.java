@@ -0,0 +1,72 @@
+package be.kuleuven.cs.gridflex.event;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Ring of recycled typed events of one type, for publishers that publish many events. Taking
+ * the next event from the ring clears it, so an event stays valid until the ring wraps around.
+ * With a synchronous event bus, a ring of size one suffices. Events retained by an asynchronous
+ * event bus are skipped, and the ring grows by one event instead, so it adapts to the number of
+ * events waiting for delivery. A ring is meant to be used by a single publisher.
+ *
+ * @param <F> The enum type of the fields.
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class EventRing<F extends Enum<F>> {
+    private final String type;
+    private final Class<F> schema;
+    private TypedEvent<F>[] events;
+    private int next;
+
+    /**
+     * Create a new ring of events.
+     *
+     * @param type   the event type
+     * @param schema the enum type of the fields
+     * @param size   the number of events in the ring
+     */
+    @SuppressWarnings("unchecked")
+    EventRing(final String type, final Class<F> schema, final int size) {
+        checkArgument(size > 0, "Ring should hold at least one event.");
+        this.type = type;
+        this.schema = schema;
+        this.events = new TypedEvent[size];
+        for (int i = 0; i < size; i++) {
+            events[i] = new TypedEvent<>(type, schema);
+        }
+    }
+
+    /**
+     * Take the next event from the ring, with all fields and attributes cleared.
+     *
+     * @return the next event.
+     */
+    public TypedEvent<F> next() {
+        if (events[next].isRetained()) {
+            grow();
+        }
+        final TypedEvent<F> event = events[next];
+        next = (next + 1) % events.length;
+        event.clearFields();
+        return event;
+    }
+
+    /**
+     * @return the number of events in the ring.
+     */
+    public int size() {
+        return events.length;
+    }
+
+    /**
+     * Insert a new event at the current position, in front of the retained event.
+     */
+    private void grow() {
+        final TypedEvent<F>[] grown = Arrays.copyOf(events, events.length + 1);
+        System.arraycopy(events, next, grown, next + 1, events.length - next);
+        grown[next] = new TypedEvent<>(type, schema);
+        events = grown;
+    }
+}
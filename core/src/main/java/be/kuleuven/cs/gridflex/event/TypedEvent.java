@@ -0,0 +1,276 @@
+package be.kuleuven.cs.gridflex.event;
+
+import javax.naming.directory.NoSuchAttributeException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event with primitive fields defined by an enum schema. Fields are read and written without
+ * boxing, copying or locking. The string representation of a field is used as its key when
+ * the event is accessed through the attribute methods of {@link Event}, which box the values.
+ * Typed events can be recycled, see {@link EventRing}. Subscribers should read the fields of
+ * a typed event while handling it, and not keep a reference to it afterwards. Event buses that
+ * deliver events after posting returns retain the event until it has been delivered, so it is
+ * not recycled in the meantime.
+ *
+ * @param <F> The enum type of the fields.
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class TypedEvent<F extends Enum<F>> extends Event {
+    private static final byte UNSET = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte LONG_ARRAY = 3;
+    private static final long[] EMPTY = new long[0];
+
+    private final Class<F> schema;
+    private final F[] fields;
+    private final byte[] kinds;
+    private final long[] values;
+    private final long[][] arrays;
+    private final AtomicInteger retained;
+
+    /**
+     * Create a new typed event.
+     *
+     * @param type   the event type
+     * @param schema the enum type of the fields
+     */
+    TypedEvent(final String type, final Class<F> schema) {
+        super(type);
+        this.schema = schema;
+        this.fields = schema.getEnumConstants();
+        this.kinds = new byte[fields.length];
+        this.values = new long[fields.length];
+        this.arrays = new long[fields.length][];
+        Arrays.fill(arrays, EMPTY);
+        this.retained = new AtomicInteger();
+    }
+
+    /**
+     * @return The enum type of the fields of this event.
+     */
+    public Class<F> getSchema() {
+        return schema;
+    }
+
+    /**
+     * Set a long field.
+     *
+     * @param field The field.
+     * @param value The value.
+     * @return this event.
+     */
+    public TypedEvent<F> setLong(final F field, final long value) {
+        kinds[field.ordinal()] = LONG;
+        values[field.ordinal()] = value;
+        return this;
+    }
+
+    /**
+     * Set a double field.
+     *
+     * @param field The field.
+     * @param value The value.
+     * @return this event.
+     */
+    public TypedEvent<F> setDouble(final F field, final double value) {
+        kinds[field.ordinal()] = DOUBLE;
+        values[field.ordinal()] = Double.doubleToRawLongBits(value);
+        return this;
+    }
+
+    /**
+     * Set a field to a sequence of long values. The storage for the values is reused when the
+     * event is recycled.
+     *
+     * @param field  The field.
+     * @param values The values.
+     * @return this event.
+     */
+    public TypedEvent<F> setLongs(final F field, final List<? extends Number> values) {
+        final int idx = field.ordinal();
+        if (arrays[idx].length < values.size()) {
+            arrays[idx] = new long[values.size()];
+        }
+        for (int i = 0; i < values.size(); i++) {
+            arrays[idx][i] = values.get(i).longValue();
+        }
+        kinds[idx] = LONG_ARRAY;
+        this.values[idx] = values.size();
+        return this;
+    }
+
+    /**
+     * @param field The field.
+     * @return true if the field has been set.
+     */
+    public boolean isSet(final F field) {
+        return kinds[field.ordinal()] != UNSET;
+    }
+
+    /**
+     * @param field The long field.
+     * @return the value of the field.
+     * @throws IllegalArgumentException if the field has not been set to a long value.
+     */
+    public long getLong(final F field) {
+        checkKind(field, LONG);
+        return values[field.ordinal()];
+    }
+
+    /**
+     * @param field The double field.
+     * @return the value of the field.
+     * @throws IllegalArgumentException if the field has not been set to a double value.
+     */
+    public double getDouble(final F field) {
+        checkKind(field, DOUBLE);
+        return Double.longBitsToDouble(values[field.ordinal()]);
+    }
+
+    /**
+     * @param field The field holding a sequence of long values.
+     * @return the number of values in the field.
+     * @throws IllegalArgumentException if the field has not been set to a sequence of values.
+     */
+    public int getLongCount(final F field) {
+        checkKind(field, LONG_ARRAY);
+        return (int) values[field.ordinal()];
+    }
+
+    /**
+     * @param field The field holding a sequence of long values.
+     * @param index The index of the value.
+     * @return the value at the index.
+     * @throws IllegalArgumentException if the field has not been set to a sequence of values.
+     * @throws IndexOutOfBoundsException if the index is not smaller than the number of values.
+     */
+    public long getLong(final F field, final int index) {
+        if (index < 0 || index >= getLongCount(field)) {
+            throw new IndexOutOfBoundsException("No value at index " + index);
+        }
+        return arrays[field.ordinal()][index];
+    }
+
+    private void checkKind(final F field, final byte kind) {
+        if (kinds[field.ordinal()] != kind) {
+            throw new IllegalArgumentException("Field " + field + " is not set to a "
+                    + (kind == LONG ? "long" : kind == DOUBLE ? "double" : "sequence")
+                    + " value.");
+        }
+    }
+
+    /**
+     * Keep this event from being recycled until it is released again. Every call should be
+     * matched by a call to {@link #release()}.
+     */
+    public void retain() {
+        retained.incrementAndGet();
+    }
+
+    /**
+     * Allow this event to be recycled again, after a call to {@link #retain()}.
+     */
+    public void release() {
+        retained.decrementAndGet();
+    }
+
+    /**
+     * @return true if this event is retained and can not be recycled.
+     */
+    boolean isRetained() {
+        return retained.get() > 0;
+    }
+
+    /**
+     * Unset all fields and remove all attributes.
+     */
+    void clearFields() {
+        Arrays.fill(kinds, UNSET);
+        clearAttributes();
+    }
+
+    /**
+     * Copy the type, fields and attributes of this event into a new event.
+     *
+     * @return the copy.
+     */
+    public TypedEvent<F> copy() {
+        final TypedEvent<F> copy = new TypedEvent<>(getType(), schema);
+        System.arraycopy(kinds, 0, copy.kinds, 0, kinds.length);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        for (int i = 0; i < arrays.length; i++) {
+            if (kinds[i] == LONG_ARRAY) {
+                copy.arrays[i] = Arrays.copyOf(arrays[i], (int) values[i]);
+            }
+        }
+        final Map<String, Object> attributes = new HashMap<>(super.getAttributes());
+        attributes.remove("type");
+        copy.setAttributes(attributes);
+        return copy;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        final Map<String, Object> copy = new HashMap<>(super.getAttributes());
+        for (final F field : fields) {
+            if (isSet(field)) {
+                copy.put(field.toString(), boxed(field.ordinal()));
+            }
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @Override
+    public <T> T getAttribute(final String key, final Class<T> type)
+            throws NoSuchAttributeException {
+        final int idx = indexOf(key);
+        if (idx < 0) {
+            return super.getAttribute(key, type);
+        }
+        final Object value = boxed(idx);
+        if (!type.isInstance(value)) {
+            throw new NoSuchAttributeException();
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public boolean hasAttribute(final String key) {
+        return indexOf(key) >= 0 || super.hasAttribute(key);
+    }
+
+    @Override
+    public boolean hasAttribute(final String key, final Class<?> type) {
+        final int idx = indexOf(key);
+        if (idx < 0) {
+            return super.hasAttribute(key, type);
+        }
+        return type.isAssignableFrom(boxed(idx).getClass());
+    }
+
+    private int indexOf(final String key) {
+        for (int i = 0; i < fields.length; i++) {
+            if (kinds[i] != UNSET && fields[i].toString().equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object boxed(final int idx) {
+        switch (kinds[idx]) {
+        case LONG:
+            return values[idx];
+        case DOUBLE:
+            return Double.longBitsToDouble(values[idx]);
+        default:
+            return Arrays.copyOf(arrays[idx], (int) values[idx]);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Lock-free unique ID generator. IDs are handed out in increasing order starting from zero.
+ * Forked generators hand out IDs from a range of their own, so components that generate IDs
+ * concurrently get the same IDs in every run, as long as they fork their generator in the
+ * same order, for example on registration.
+ *
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class AtomicUIDGenerator implements UIDGenerator {
+    private static final int RANGE_BITS = 40;
+    private static final int MAX_FORKS = (1 << (Long.SIZE - 1 - RANGE_BITS)) - 2;
+    private final AtomicInteger forks;
+    private final AtomicLong next;
+    private final long limit;
+
+    /**
+     * Default constructor.
+     */
+    public AtomicUIDGenerator() {
+        this(new AtomicInteger(), 0);
+    }
+
+    private AtomicUIDGenerator(final AtomicInteger forks, final int range) {
+        this.forks = forks;
+        this.next = new AtomicLong((long) range << RANGE_BITS);
+        this.limit = (long) (range + 1) << RANGE_BITS;
+    }
+
+    @Override
+    public long getNextUID() {
+        final long id = next.getAndIncrement();
+        checkState(id < limit, "All IDs in range have been handed out.");
+        return id;
+    }
+
+    /**
+     * Create a generator handing out IDs from the next free range of IDs.
+     *
+     * @return A new generator.
+     * @throws IllegalStateException If all ranges are in use.
+     */
+    @Override
+    public UIDGenerator fork() {
+        final int range = forks.incrementAndGet();
+        checkState(range <= MAX_FORKS, "No more ID ranges available.");
+        return new AtomicUIDGenerator(forks, range);
+    }
+}
@@ -0,0 +1,181 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import be.kuleuven.cs.gridflex.event.TypedEvent;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.EventBus;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Event bus that delivers events to subscribers on a dedicated consumer thread, so slow
+ * subscribers do not stall the simulation. Events posted during a tick are collected and
+ * handed to the consumer as one batch at the end of the tick. Batches are delivered in order
+ * and events within a batch in order of posting. The queue of batches is bounded. When it is
+ * full, the simulation either waits for the consumer or drops the batch, depending on the
+ * overflow policy. Typed events are retained from posting until delivery, so publishers do not
+ * recycle them in the meantime.
+ * Events posted by subscribers are delivered directly on the consumer thread. After the bus is
+ * closed, events are delivered directly on the posting thread.
+ *
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class BatchingEventBus extends EventBus {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEventBus.class);
+    private static final List<Object> END_OF_STREAM = Lists.newArrayList();
+    private final BlockingQueue<List<Object>> batches;
+    private final Overflow overflow;
+    private final AtomicLong dropped;
+    private final Object lock = new Object();
+    private List<Object> pending;
+    @Nullable
+    private Thread consumer;
+    private boolean closed;
+
+    /**
+     * Creates a new batching event bus.
+     *
+     * @param identifier The identifier of this bus.
+     * @param capacity   The maximum number of batches waiting for delivery.
+     * @param overflow   The policy when the maximum number of batches is reached.
+     */
+    public BatchingEventBus(final String identifier, final int capacity,
+            final Overflow overflow) {
+        super(identifier);
+        checkArgument(capacity > 0, "Capacity should be strictly positive.");
+        this.batches = new ArrayBlockingQueue<>(capacity);
+        this.overflow = overflow;
+        this.dropped = new AtomicLong();
+        this.pending = Lists.newArrayList();
+    }
+
+    @Override
+    public void post(final Object event) {
+        synchronized (lock) {
+            if (!closed && Thread.currentThread() != consumer) {
+                if (event instanceof TypedEvent) {
+                    ((TypedEvent<?>) event).retain();
+                }
+                pending.add(event);
+                return;
+            }
+        }
+        super.post(event);
+    }
+
+    /**
+     * Hand the events posted since the previous call to the consumer as one batch.
+     * Depending on the overflow policy, waits for room in the queue or drops the batch.
+     */
+    public void endTick() {
+        final List<Object> batch;
+        synchronized (lock) {
+            if (pending.isEmpty() || closed) {
+                return;
+            }
+            batch = pending;
+            pending = Lists.newArrayList();
+            startConsumer();
+        }
+        if (overflow == Overflow.BLOCK) {
+            try {
+                batches.put(batch);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to post events.", e);
+            }
+        } else if (!batches.offer(batch)) {
+            batch.forEach(BatchingEventBus::releaseTyped);
+            dropped.addAndGet(batch.size());
+            logger.debug("Dropped batch of {} events.", batch.size());
+        }
+    }
+
+    /**
+     * Deliver all pending events, wait until the consumer has delivered them and stop the
+     * consumer.
+     */
+    public void close() {
+        endTick();
+        final Thread thread;
+        synchronized (lock) {
+            closed = true;
+            thread = consumer;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            batches.put(END_OF_STREAM);
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for event delivery.", e);
+        }
+        if (dropped.get() > 0) {
+            logger.warn("Dropped {} events because subscribers could not keep up.",
+                    dropped.get());
+        }
+    }
+
+    /**
+     * @return The number of events dropped because the queue was full.
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    private void startConsumer() {
+        if (consumer == null) {
+            final Thread thread = new Thread(this::consume, identifier() + "-consumer");
+            thread.setDaemon(true);
+            consumer = thread;
+            thread.start();
+        }
+    }
+
+    private void consume() {
+        try {
+            while (true) {
+                final List<Object> batch = batches.take();
+                if (batch == END_OF_STREAM) {
+                    return;
+                }
+                for (final Object event : batch) {
+                    super.post(event);
+                    releaseTyped(event);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Event delivery interrupted.", e);
+        }
+    }
+
+    private static void releaseTyped(final Object event) {
+        if (event instanceof TypedEvent) {
+            ((TypedEvent<?>) event).release();
+        }
+    }
+
+    /**
+     * Policies for when the queue of batches is full.
+     */
+    public enum Overflow {
+        /**
+         * Wait for the consumer to make room in the queue.
+         */
+        BLOCK,
+        /**
+         * Drop the batch.
+         */
+        DROP
+    }
+}
@@ -0,0 +1,156 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Runs batches of independent seeded simulations on a shared executor.
+ * Simulations running one after the other on the same thread reuse the event bus, event
+ * factory and random generator, so short simulations spend little time in setup. Results are
+ * deterministic for every seed, regardless of the thread a simulation runs on.
+ *
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class SimulationBatch {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationBatch.class);
+    private final ExecutorService executor;
+    private final ThreadLocal<Simulator.Resources> resources;
+
+    private SimulationBatch(final ExecutorService executor) {
+        this.executor = executor;
+        this.resources = ThreadLocal.withInitial(Simulator.Resources::new);
+    }
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param executor The executor to run simulations on.
+     * @return A new batch runner.
+     */
+    public static SimulationBatch create(final ExecutorService executor) {
+        return new SimulationBatch(executor);
+    }
+
+    /**
+     * Run a simulation for every seed and wait for all simulations to end.
+     *
+     * @param duration The duration of every simulation.
+     * @param seeds    The seeds of the simulations.
+     * @param setup    The setup of the simulations.
+     * @param <R>      The type of results.
+     * @return The results of the simulations in order of the seeds.
+     * @throws IllegalStateException If a simulation fails or waiting is interrupted.
+     */
+    public <R> Results<R> run(final int duration, final List<Integer> seeds,
+            final Setup<R> setup) {
+        checkArgument(duration > 0, "Duration should be strictly positive.");
+        final long start = System.nanoTime();
+        final List<Future<R>> futures = Lists.newArrayList();
+        for (final int seed : seeds) {
+            futures.add(executor.submit(() -> runSingle(duration, seed, setup)));
+        }
+        final ImmutableList.Builder<R> results = ImmutableList.builder();
+        try {
+            for (final Future<R> f : futures) {
+                results.add(f.get());
+            }
+        } catch (final InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for simulations.", e);
+        } catch (final ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Simulation failed.", e.getCause());
+        }
+        final Results<R> batch = new Results<>(results.build(), (long) duration * seeds.size(),
+                System.nanoTime() - start);
+        logger.info("Ran {} simulations of {} ticks at {} ticks per second.", seeds.size(),
+                duration, String.format("%.1f", batch.getTicksPerSecond()));
+        return batch;
+    }
+
+    private <R> R runSingle(final int duration, final int seed, final Setup<R> setup) {
+        final Simulator simulator = Simulator
+                .createPooledSimulator(duration, seed, resources.get());
+        try {
+            final Supplier<R> result = setup.setUp(simulator, seed);
+            simulator.start();
+            return result.get();
+        } finally {
+            simulator.release();
+        }
+    }
+
+    /**
+     * Setup of a single simulation in a batch.
+     *
+     * @param <R> The type of results.
+     */
+    @FunctionalInterface
+    public interface Setup<R> {
+        /**
+         * Register the components of a simulation.
+         *
+         * @param simulator The simulator to register components with.
+         * @param seed      The seed of the simulation.
+         * @return The supplier of the results, called after the simulation ended.
+         */
+        Supplier<R> setUp(Simulator simulator, int seed);
+    }
+
+    /**
+     * Results of a batch of simulations.
+     *
+     * @param <R> The type of results.
+     */
+    public static final class Results<R> {
+        private final List<R> results;
+        private final long simulatedTicks;
+        private final long elapsedNanos;
+
+        Results(final List<R> results, final long simulatedTicks, final long elapsedNanos) {
+            this.results = results;
+            this.simulatedTicks = simulatedTicks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return The results of the simulations in order of the seeds.
+         */
+        public List<R> getResults() {
+            return results;
+        }
+
+        /**
+         * @return The total number of ticks simulated.
+         */
+        public long getSimulatedTicks() {
+            return simulatedTicks;
+        }
+
+        /**
+         * @return The wall clock time it took to run the batch, in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return The throughput in simulated ticks per second of wall clock time.
+         */
+        public double getTicksPerSecond() {
+            return simulatedTicks / Math.max(1d, elapsedNanos) * TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+}
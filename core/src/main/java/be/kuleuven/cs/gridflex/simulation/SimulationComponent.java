@@ -11,6 +11,11 @@ import java.util.List;
  * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
  */
 public interface SimulationComponent extends InstrumentationComponent {
+    /**
+     * Phase group of components that do not declare a phase group.
+     */
+    int NO_PHASE_GROUP = -1;
+
     /**
      * This tick method is called after all regular ticks have been performed.
      * The default implementation is to do nothing.
@@ -37,4 +42,20 @@ public interface SimulationComponent extends InstrumentationComponent {
     default List<? extends SimulationComponent> getSimulationSubComponents() {
         return Collections.emptyList();
     }
+
+    /**
+     * Get the phase group of this component, for simulators that tick components in parallel.
+     * Components in the same phase group can tick concurrently, so they should not depend on
+     * each other during a tick, use the shared random generator or post events from their tick
+     * methods. They can depend on components in lower phase groups, which tick before them.
+     * Subcomponents that do not declare a phase group tick right after their parent, on the same
+     * thread and in the same order as in a serial simulation. Other components without a phase
+     * group tick on their own, in order of registration. Default implementation is to return
+     * {@link #NO_PHASE_GROUP}.
+     *
+     * @return the phase group, a non-negative number, or {@link #NO_PHASE_GROUP}.
+     */
+    default int getPhaseGroup() {
+        return NO_PHASE_GROUP;
+    }
 }
@@ -16,7 +16,9 @@ import org.apache.commons.math3.random.RandomGenerator;
 public interface SimulationContext {
 
     /**
-     * Returns the eventbus for this simulation context.
+     * Returns the eventbus for this simulation context. Depending on the context, events can
+     * be delivered asynchronously, so subscribers should not rely on running on the thread
+     * that posted the event.
      *
      * @return the eventbus.
      */
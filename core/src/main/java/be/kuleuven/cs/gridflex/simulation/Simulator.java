@@ -1,20 +1,29 @@
 package be.kuleuven.cs.gridflex.simulation;
 
-import be.kuleuven.cs.gridflex.event.Event;
 import be.kuleuven.cs.gridflex.event.EventFactory;
 import be.kuleuven.cs.gridflex.event.EventFactoryImplementation;
 import be.kuleuven.cs.gridflex.time.SimulationClock;
 import be.kuleuven.cs.gridflex.time.VirtualClock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.eventbus.EventBus;
 import org.apache.commons.math3.random.MersenneTwister;
 import org.apache.commons.math3.random.RandomGenerator;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -22,6 +31,10 @@ import static com.google.common.base.Preconditions.checkArgument;
  * The Class Simulator. This Simulator drives the simulation by sending ticks to
  * signify the passing of time. This simulator implements the
  * <code>SimulationContext</code>-interface.
+ * Optionally, components are ticked in parallel on a fork-join pool, according to the phase
+ * groups they are in. Every phase of ticks and after-ticks completes before the next starts.
+ * Subcomponents without a phase group of their own are ticked together with their parent, in
+ * the same order as when ticking serially.
  */
 public final class Simulator implements SimulationContext {
 
@@ -60,6 +73,21 @@ public final class Simulator implements SimulationContext {
 
     private final UIDGenerator uidgen;
 
+    private final Map<SimulationComponent, Integer> phaseGroups;
+
+    private final Map<SimulationComponent, SimulationComponent> units;
+
+    @Nullable
+    private final ForkJoinPool tickPool;
+
+    private final boolean showProgress;
+
+    @Nullable
+    private final BatchingEventBus asyncBus;
+
+    @Nullable
+    private List<List<List<SimulationComponent>>> phases;
+
     private static final Logger logger = LoggerFactory.getLogger(Simulator.class);
 
     /**
@@ -67,17 +95,40 @@ public final class Simulator implements SimulationContext {
      *
      * @param duration the duration
      * @param seed     The seed.
+     * @param tickPool The pool for ticking components in parallel or null.
+     */
+    private Simulator(final int duration, final int seed, @Nullable final ForkJoinPool tickPool) {
+        this(duration, tickPool, new EventBus("SimBus" + System.currentTimeMillis()),
+                new EventFactoryImplementation(), new MersenneTwister(seed), true);
+    }
+
+    /**
+     * Instantiates a new simulator with the given infrastructure.
+     *
+     * @param duration     the duration
+     * @param tickPool     The pool for ticking components in parallel or null.
+     * @param eventbus     The event bus.
+     * @param eventFac     The event factory.
+     * @param random       The seeded random generator.
+     * @param showProgress Whether to log the progress of the simulation.
      */
-    private Simulator(final int duration, final int seed) {
+    private Simulator(final int duration, @Nullable final ForkJoinPool tickPool,
+            final EventBus eventbus, final EventFactory eventFac, final RandomGenerator random,
+            final boolean showProgress) {
         checkArgument(duration > 0, "Duration should be strictly positive.");
         this.duration = duration;
         this.clock = new SimulationClock();
         this.components = Sets.newLinkedHashSet();
         this.instruComps = Sets.newLinkedHashSet();
-        this.eventbus = new EventBus("SimBus" + System.currentTimeMillis());
-        this.eventFac = new EventFactoryImplementation();
-        this.random = new MersenneTwister(seed);
-        this.uidgen = new MyUIDGenerator();
+        this.eventbus = eventbus;
+        this.eventFac = eventFac;
+        this.random = random;
+        this.uidgen = new AtomicUIDGenerator();
+        this.phaseGroups = Maps.newHashMap();
+        this.units = Maps.newHashMap();
+        this.tickPool = tickPool;
+        this.showProgress = showProgress;
+        this.asyncBus = eventbus instanceof BatchingEventBus ? (BatchingEventBus) eventbus : null;
     }
 
     /**
@@ -86,7 +137,7 @@ public final class Simulator implements SimulationContext {
      * @param duration the duration
      */
     private Simulator(final int duration) {
-        this(duration, duration);
+        this(duration, duration, null);
     }
 
     /**
@@ -141,42 +192,111 @@ public final class Simulator implements SimulationContext {
     }
 
     /**
-     * Starts this simulation by running the simulation loop.
+     * Starts this simulation by running the simulation loop. With asynchronous event delivery,
+     * all events posted have been delivered when this method returns, also when a component
+     * fails.
      */
     public void start() {
-        notifyStart();
-        simloop();
-        notifyStop();
+        try {
+            notifyStart();
+            endTick();
+            simloop();
+            notifyStop();
+        } finally {
+            if (asyncBus != null) {
+                asyncBus.close();
+            }
+        }
+    }
+
+    private void endTick() {
+        if (asyncBus != null) {
+            asyncBus.endTick();
+        }
     }
 
     private void notifyStart() {
-        final Event ev = eventFac.build(SIMSTART_LITERAL);
-        ev.setAttribute(TIMECOUNT_LITERAL, getClock().getTimeCount());
-        this.eventbus.post(ev);
-        logger.info("Simulation started");
+        this.eventbus.post(eventFac.buildTyped(SIMSTART_LITERAL, ClockField.class)
+                .setLong(ClockField.TIME_COUNT, getClock().getTimeCount()));
+        if (showProgress) {
+            logger.info("Simulation started");
+        }
     }
 
     private void notifyStop() {
-        final Event ev = eventFac.build(SIMSTOP_LITERAL);
-        ev.setAttribute(TIMECOUNT_LITERAL, getClock().getTimeCount());
-        this.eventbus.post(ev);
-        logger.info("Simulation stopped");
+        this.eventbus.post(eventFac.buildTyped(SIMSTOP_LITERAL, ClockField.class)
+                .setLong(ClockField.TIME_COUNT, getClock().getTimeCount()));
+        if (showProgress) {
+            logger.info("Simulation stopped");
+        }
     }
 
     private void tickComponents() {
+        final int t = getSimulationTime();
+        forEachComponent(c -> c.tick(t));
+    }
+
+    private void afterTickComponents() {
+        final int t = getSimulationTime();
+        forEachComponent(c -> c.afterTick(t));
+    }
+
+    private void forEachComponent(final Consumer<SimulationComponent> action) {
         synchronized (this) {
-            for (final SimulationComponent c : components) {
-                c.tick(getSimulationTime());
+            final ForkJoinPool pool = this.tickPool;
+            if (pool == null) {
+                components.forEach(action);
+                return;
+            }
+            for (final List<List<SimulationComponent>> phase : getPhases()) {
+                if (phase.size() == 1) {
+                    phase.get(0).forEach(action);
+                } else {
+                    pool.invoke(new PhaseAction(phase, action));
+                }
             }
         }
     }
 
-    private void afterTickComponents() {
-        synchronized (this) {
+    /**
+     * Divides the components in phases that are run one after the other. A phase consists of
+     * units of components that are run one after the other, while the units of a phase run
+     * concurrently. A unit holds a component with a phase group and its subcomponents without
+     * one, or a single component without a phase group. Units without a phase group form a phase
+     * of their own. The units registered in between form a phase per phase group, in increasing
+     * order of phase group.
+     *
+     * @return the phases of units of components in order of execution.
+     */
+    private List<List<List<SimulationComponent>>> getPhases() {
+        List<List<List<SimulationComponent>>> result = this.phases;
+        if (result == null) {
+            final Map<SimulationComponent, List<SimulationComponent>> members =
+                    Maps.newLinkedHashMap();
             for (final SimulationComponent c : components) {
-                c.afterTick(getSimulationTime());
+                members.computeIfAbsent(units.get(c), u -> Lists.newArrayList()).add(c);
             }
+            result = Lists.newArrayList();
+            final SortedMap<Integer, List<List<SimulationComponent>>> grouped =
+                    Maps.newTreeMap();
+            for (final Map.Entry<SimulationComponent, List<SimulationComponent>> unit : members
+                    .entrySet()) {
+                final int group = phaseGroups.get(unit.getKey());
+                if (group == SimulationComponent.NO_PHASE_GROUP) {
+                    result.addAll(grouped.values());
+                    grouped.clear();
+                    result.add(Collections.singletonList(unit.getValue()));
+                } else {
+                    grouped.computeIfAbsent(group, g -> Lists.newArrayList())
+                            .add(unit.getValue());
+                }
+            }
+            result.addAll(grouped.values());
+            result = ImmutableList.copyOf(result);
+            this.phases = result;
+            logger.debug("Components divided in {} phases.", result.size());
         }
+        return result;
     }
 
     private SimulationClock getClock() {
@@ -190,9 +310,12 @@ public final class Simulator implements SimulationContext {
     private void simloop() {
         while (shouldRun()) {
             getClock().addTimeStep(1);
-            showProgressBar();
+            if (showProgress) {
+                showProgressBar();
+            }
             tickComponents();
             afterTickComponents();
+            endTick();
         }
     }
 
@@ -240,7 +363,65 @@ public final class Simulator implements SimulationContext {
      * @return A new simulator object.
      */
     public static Simulator createSimulator(final int duration, final int seed) {
-        return new Simulator(duration, seed);
+        return new Simulator(duration, seed, null);
+    }
+
+    /**
+     * Creates and instantiates a new simulator with a given seed for the PRNG, that ticks
+     * components in the same phase group in parallel.
+     *
+     * @param duration the duration the simulator should run for.
+     * @param seed     The seed.
+     * @param tickPool The pool to tick components on.
+     * @return A new simulator object.
+     * @see SimulationComponent#getPhaseGroup()
+     */
+    public static Simulator createParallelSimulator(final int duration, final int seed,
+            final ForkJoinPool tickPool) {
+        return new Simulator(duration, seed, tickPool);
+    }
+
+    /**
+     * Creates and instantiates a new simulator with a given seed for the PRNG, that delivers
+     * events to subscribers asynchronously. Events posted during a tick are delivered as a
+     * batch after the tick. All events have been delivered when the simulation ends.
+     *
+     * @param duration the duration the simulator should run for.
+     * @param seed     The seed.
+     * @param capacity The maximum number of ticks of events waiting for delivery.
+     * @param overflow The policy when the maximum number of ticks waiting is reached.
+     * @return A new simulator object.
+     * @see BatchingEventBus
+     */
+    public static Simulator createAsyncSimulator(final int duration, final int seed,
+            final int capacity, final BatchingEventBus.Overflow overflow) {
+        return new Simulator(duration, null,
+                new BatchingEventBus("SimBus" + System.currentTimeMillis(), capacity, overflow),
+                new EventFactoryImplementation(), new MersenneTwister(seed), true);
+    }
+
+    /**
+     * Creates a simulator that uses pooled infrastructure. The simulator does not log its
+     * progress.
+     *
+     * @param duration  the duration the simulator should run for.
+     * @param seed      The seed.
+     * @param resources The infrastructure, not in use by any other simulator.
+     * @return A new simulator object.
+     */
+    static Simulator createPooledSimulator(final int duration, final int seed,
+            final Resources resources) {
+        resources.random.setSeed(seed);
+        return new Simulator(duration, null, resources.eventbus, resources.eventFac,
+                resources.random, false);
+    }
+
+    /**
+     * Unregisters all components from the event bus, so the infrastructure of this simulator
+     * can be used by a next simulator.
+     */
+    void release() {
+        instruComps.forEach(eventbus::unregister);
     }
 
     /*
@@ -250,8 +431,28 @@ public final class Simulator implements SimulationContext {
      */
     @Override
     public void register(final SimulationComponent comp) {
-        registerComp(comp);
-        comp.getSimulationSubComponents().forEach(this::register);
+        register(comp, null);
+    }
+
+    /**
+     * Register a component and its subcomponents.
+     *
+     * @param comp       The component to register.
+     * @param parentUnit The component with a phase group that the parent is ticked with, or
+     *                   null if the parent has no phase group.
+     */
+    private void register(final SimulationComponent comp,
+            @Nullable final SimulationComponent parentUnit) {
+        final int group = comp.getPhaseGroup();
+        checkArgument(group >= SimulationComponent.NO_PHASE_GROUP,
+                "Phase groups should not be negative.");
+        final SimulationComponent unit =
+                group == SimulationComponent.NO_PHASE_GROUP && parentUnit != null ? parentUnit
+                        : comp;
+        registerComp(comp, group, unit);
+        @Nullable final SimulationComponent subUnit =
+                group == SimulationComponent.NO_PHASE_GROUP ? parentUnit : comp;
+        comp.getSimulationSubComponents().forEach(sub -> register(sub, subUnit));
     }
 
     @Override
@@ -259,8 +460,12 @@ public final class Simulator implements SimulationContext {
         registerInstru(comp);
     }
 
-    private void registerComp(final SimulationComponent comp) {
+    private void registerComp(final SimulationComponent comp, final int group,
+            final SimulationComponent unit) {
         this.components.add(comp);
+        this.phaseGroups.putIfAbsent(comp, group);
+        this.units.putIfAbsent(comp, unit);
+        this.phases = null;
         logRegisterSC(comp);
         registerInstru(comp);
     }
@@ -294,13 +499,52 @@ public final class Simulator implements SimulationContext {
         return this.uidgen;
     }
 
-    private static class MyUIDGenerator implements UIDGenerator {
-        private long count;
+    /**
+     * Fields of the events posted when the simulation starts and stops.
+     */
+    public enum ClockField {
+        /**
+         * The simulation time count.
+         */
+        TIME_COUNT;
+
+        @Override
+        public String toString() {
+            return TIMECOUNT_LITERAL;
+        }
+    }
+
+    /**
+     * Infrastructure objects that can be reused by simulators running one after the other.
+     */
+    static final class Resources {
+        private final EventBus eventbus = new EventBus("SimBus" + System.currentTimeMillis());
+        private final EventFactory eventFac = new EventFactoryImplementation();
+        private final MersenneTwister random = new MersenneTwister();
+    }
+
+    /**
+     * Runs an action for the units of components of a phase, concurrently.
+     */
+    private static final class PhaseAction extends RecursiveAction {
+        private static final long serialVersionUID = 4467339186281357427L;
+        private final List<List<SimulationComponent>> phase;
+        private final Consumer<SimulationComponent> action;
+
+        PhaseAction(final List<List<SimulationComponent>> phase,
+                final Consumer<SimulationComponent> action) {
+            this.phase = phase;
+            this.action = action;
+        }
 
         @Override
-        public long getNextUID() {
-            synchronized (this) {
-                return count++;
+        protected void compute() {
+            if (phase.size() == 1) {
+                phase.get(0).forEach(action);
+            } else {
+                final int middle = phase.size() / 2;
+                invokeAll(new PhaseAction(phase.subList(0, middle), action),
+                        new PhaseAction(phase.subList(middle, phase.size()), action));
             }
         }
     }
@@ -13,4 +13,16 @@ public interface UIDGenerator {
      * @return a long that is unique from previous ids.
      */
     long getNextUID();
+
+    /**
+     * Create a generator for the exclusive use of a single component. IDs of the forked
+     * generator are unique among the IDs of this generator and its other forks. Generators
+     * that hand out IDs deterministically when used from multiple threads hand out a separate
+     * range of IDs per fork. The default implementation is to return this generator.
+     *
+     * @return a generator for unique ids.
+     */
+    default UIDGenerator fork() {
+        return this;
+    }
 }
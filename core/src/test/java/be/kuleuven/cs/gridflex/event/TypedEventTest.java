@@ -0,0 +1,82 @@
+package be.kuleuven.cs.gridflex.event;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.naming.directory.NoSuchAttributeException;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public class TypedEventTest {
+    private enum Field {
+        COUNT, VALUE, LEVELS;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final EventFactory factory = new EventFactoryImplementation();
+    private TypedEvent<Field> event;
+
+    @Before
+    public void setUp() throws Exception {
+        event = factory.buildTyped("test:typed", Field.class);
+    }
+
+    @Test
+    public void testFields() {
+        event.setLong(Field.COUNT, 42).setDouble(Field.VALUE, 0.25)
+                .setLongs(Field.LEVELS, Lists.newArrayList(1, 2, 3));
+        assertEquals(42, event.getLong(Field.COUNT));
+        assertEquals(0.25, event.getDouble(Field.VALUE), 0);
+        assertEquals(3, event.getLongCount(Field.LEVELS));
+        assertEquals(2, event.getLong(Field.LEVELS, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongKind() {
+        event.setDouble(Field.VALUE, 1);
+        event.getLong(Field.VALUE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsetField() {
+        event.getDouble(Field.VALUE);
+    }
+
+    @Test
+    public void testAttributeView() throws NoSuchAttributeException {
+        event.setLong(Field.COUNT, 42).setLongs(Field.LEVELS, Lists.newArrayList(5, 6));
+        event.setAttribute("extra", "x");
+        assertTrue(event.hasAttribute("count", Long.class));
+        assertFalse(event.hasAttribute("value"));
+        assertEquals(Long.valueOf(42), event.getAttribute("count", Long.class));
+        Map<String, Object> attributes = event.getAttributes();
+        assertEquals(42L, attributes.get("count"));
+        assertArrayEquals(new long[] { 5, 6 }, (long[]) attributes.get("levels"));
+        assertEquals("x", attributes.get("extra"));
+        assertEquals("test:typed", attributes.get("type"));
+    }
+
+    @Test
+    public void testRingRecyclesEvents() {
+        EventRing<Field> ring = factory.buildRing("test:ring", Field.class, 2);
+        TypedEvent<Field> first = ring.next().setLong(Field.COUNT, 1);
+        TypedEvent<Field> copy = first.copy();
+        ring.next();
+        assertSame(first, ring.next());
+        assertFalse(first.isSet(Field.COUNT));
+        assertEquals(1, copy.getLong(Field.COUNT));
+    }
+}
@@ -0,0 +1,78 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public class AtomicUIDGeneratorTest {
+    private static final int THREADS = 4;
+    private static final int IDS_PER_THREAD = 100000;
+    private AtomicUIDGenerator generator;
+
+    @Before
+    public void setUp() throws Exception {
+        generator = new AtomicUIDGenerator();
+    }
+
+    @Test
+    public void testSequential() {
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i, generator.getNextUID());
+        }
+    }
+
+    @Test
+    public void testUniqueAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<long[]>> tasks = Lists.newArrayList();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.getNextUID();
+                    }
+                    return ids;
+                });
+            }
+            Set<Long> all = Sets.newHashSet();
+            for (Future<long[]> f : executor.invokeAll(tasks)) {
+                for (long id : f.get()) {
+                    all.add(id);
+                }
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, all.size());
+            assertEquals(THREADS * IDS_PER_THREAD, generator.getNextUID());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testForksAreDeterministicAndDisjoint() {
+        UIDGenerator first = generator.fork();
+        UIDGenerator second = generator.fork();
+        long firstId = first.getNextUID();
+        long secondId = second.getNextUID();
+        assertTrue(firstId > generator.getNextUID());
+        assertTrue(secondId > first.getNextUID());
+
+        AtomicUIDGenerator other = new AtomicUIDGenerator();
+        other.fork();
+        assertEquals(secondId, other.fork().getNextUID());
+    }
+}
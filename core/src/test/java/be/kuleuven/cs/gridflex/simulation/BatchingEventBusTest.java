@@ -0,0 +1,168 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import be.kuleuven.cs.gridflex.event.Event;
+import be.kuleuven.cs.gridflex.event.EventFactoryImplementation;
+import be.kuleuven.cs.gridflex.event.EventRing;
+import be.kuleuven.cs.gridflex.event.TypedEvent;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.Subscribe;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public class BatchingEventBusTest {
+    private enum Field {
+        TICK
+    }
+
+    @Test
+    public void testAsyncSimulatorDeliversInOrder() {
+        Simulator sim = Simulator.createAsyncSimulator(50, 1, 4, BatchingEventBus.Overflow.BLOCK);
+        TickRecorder recorder = new TickRecorder();
+        sim.register(new TickPublisher());
+        sim.register(recorder);
+        sim.start();
+        List<Long> expected = Lists.newArrayList();
+        for (long t = 1; t <= 50; t++) {
+            expected.add(t);
+            expected.add(t);
+        }
+        assertEquals(expected, recorder.ticks);
+        assertFalse(recorder.threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testDropWhenFull() throws InterruptedException {
+        BatchingEventBus bus = new BatchingEventBus("test", 1, BatchingEventBus.Overflow.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCounter counter = new BlockingCounter(release);
+        bus.register(counter);
+        int posted = 10;
+        for (int i = 0; i < posted; i++) {
+            bus.post(new EventFactoryImplementation().build("test"));
+            bus.endTick();
+        }
+        release.countDown();
+        bus.close();
+        assertTrue(bus.getDroppedEvents() > 0);
+        assertEquals(posted, counter.count + bus.getDroppedEvents());
+    }
+
+    @Test
+    public void testRecycledEventsWaitForDelivery() {
+        BatchingEventBus bus = new BatchingEventBus("test", 1, BatchingEventBus.Overflow.BLOCK);
+        TickRecorder recorder = new TickRecorder();
+        bus.register(recorder);
+        EventRing<Field> ring = new EventFactoryImplementation().buildRing("tick", Field.class, 1);
+        bus.post(ring.next().setLong(Field.TICK, 1));
+        bus.post(ring.next().setLong(Field.TICK, 2));
+        assertEquals(2, ring.size());
+        bus.close();
+        assertEquals(Lists.newArrayList(1L, 2L), recorder.ticks);
+        ring.next();
+        ring.next();
+        assertEquals(2, ring.size());
+    }
+
+    @Test
+    public void testFailingTickStillDelivers() {
+        Simulator sim = Simulator.createAsyncSimulator(50, 1, 4, BatchingEventBus.Overflow.BLOCK);
+        TickRecorder recorder = new TickRecorder();
+        sim.register(new TickPublisher());
+        sim.register(new FailingComponent(3));
+        sim.register(recorder);
+        try {
+            sim.start();
+        } catch (IllegalStateException e) {
+            assertEquals(Lists.newArrayList(1L, 1L, 2L, 2L, 3L), recorder.ticks);
+            return;
+        }
+        throw new AssertionError("Simulation should have failed.");
+    }
+
+    private static class TickPublisher implements SimulationComponent {
+        private SimulationContext context;
+        private EventRing<Field> ring;
+
+        @Override
+        public void initialize(SimulationContext context) {
+            this.context = context;
+            this.ring = context.getEventFactory().buildRing("tick", Field.class, 1);
+        }
+
+        @Override
+        public void tick(int t) {
+            context.getEventbus().post(ring.next().setLong(Field.TICK, t));
+        }
+
+        @Override
+        public void afterTick(int t) {
+            context.getEventbus().post(ring.next().setLong(Field.TICK, t));
+        }
+    }
+
+    private static class FailingComponent implements SimulationComponent {
+        private final int failAt;
+
+        FailingComponent(int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Override
+        public void tick(int t) {
+            if (t == failAt) {
+                throw new IllegalStateException("Failing at " + t);
+            }
+        }
+
+        @Override
+        public void afterTick(int t) {
+        }
+    }
+
+    public static class TickRecorder implements InstrumentationComponent {
+        private final List<Long> ticks = Collections.synchronizedList(Lists.newArrayList());
+        private final List<Thread> threads = Collections.synchronizedList(Lists.newArrayList());
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Subscribe
+        @SuppressWarnings("unchecked")
+        public void recordTick(TypedEvent<?> e) {
+            if (Field.class.equals(e.getSchema())) {
+                ticks.add(((TypedEvent<Field>) e).getLong(Field.TICK));
+                threads.add(Thread.currentThread());
+            }
+        }
+    }
+
+    public static class BlockingCounter {
+        private final CountDownLatch release;
+        private volatile int count;
+
+        BlockingCounter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Subscribe
+        public void count(Event e) throws InterruptedException {
+            release.await();
+            count++;
+        }
+    }
+}
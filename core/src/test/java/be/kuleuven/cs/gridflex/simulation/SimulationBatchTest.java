@@ -0,0 +1,113 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import be.kuleuven.cs.gridflex.event.Event;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public class SimulationBatchTest {
+    private static final int DURATION = 50;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsMatchSeparateSimulators() {
+        List<Integer> seeds = Lists.newArrayList();
+        List<Long> expected = Lists.newArrayList();
+        for (int seed = 0; seed < 20; seed++) {
+            seeds.add(seed);
+            Simulator sim = Simulator.createSimulator(DURATION, seed);
+            RandomComponent comp = new RandomComponent();
+            sim.register(comp);
+            sim.start();
+            expected.add(comp.sum);
+        }
+        SimulationBatch.Results<Long> results = SimulationBatch.create(executor)
+                .run(DURATION, seeds, (sim, seed) -> {
+                    RandomComponent comp = new RandomComponent();
+                    sim.register(comp);
+                    return () -> comp.sum;
+                });
+        assertEquals(expected, results.getResults());
+        assertEquals(DURATION * seeds.size(), results.getSimulatedTicks());
+        assertTrue(results.getTicksPerSecond() > 0);
+    }
+
+    @Test
+    public void testEventsStayWithinSimulation() {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            SimulationBatch.Results<Integer> results = SimulationBatch.create(single)
+                    .run(DURATION, Lists.newArrayList(1, 2, 3), (sim, seed) -> {
+                        EventCounter counter = new EventCounter();
+                        sim.register(counter);
+                        return () -> counter.count;
+                    });
+            assertEquals(Lists.newArrayList(2, 2, 2), results.getResults());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailingSimulation() {
+        SimulationBatch.create(executor).run(DURATION, Lists.newArrayList(1, 2), (sim, seed) -> {
+            sim.register(new RandomComponent() {
+                @Override
+                public void tick(int t) {
+                    throw new IllegalArgumentException("Failing tick.");
+                }
+            });
+            return () -> seed;
+        });
+    }
+
+    private static class RandomComponent implements SimulationComponent {
+        private SimulationContext context;
+        private long sum;
+
+        @Override
+        public void initialize(SimulationContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void tick(int t) {
+            sum += context.getRandom().nextInt(1000);
+        }
+    }
+
+    public static class EventCounter implements InstrumentationComponent {
+        private int count;
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Subscribe
+        public void recordEvent(Event e) {
+            count++;
+        }
+    }
+}
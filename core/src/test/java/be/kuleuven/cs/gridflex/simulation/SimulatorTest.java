@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -45,6 +46,43 @@ public class SimulatorTest {
         }
     }
 
+    public static class ChainedComponent implements SimulationComponent {
+        private final int phaseGroup;
+        private final List<ChainedComponent> children = Lists.newArrayList();
+        private final ChainedComponent parent;
+        private long state;
+
+        ChainedComponent(int phaseGroup, ChainedComponent parent) {
+            this.phaseGroup = phaseGroup;
+            this.parent = parent;
+            this.state = phaseGroup;
+        }
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Override
+        public void tick(int t) {
+            state = state * 31 + t + (parent == null ? 0 : parent.state);
+        }
+
+        @Override
+        public void afterTick(int t) {
+            state ^= state >>> 7;
+        }
+
+        @Override
+        public List<? extends SimulationComponent> getSimulationSubComponents() {
+            return children;
+        }
+
+        @Override
+        public int getPhaseGroup() {
+            return phaseGroup;
+        }
+    }
+
     private SimulationComponent comp = mock(SimulationComponent.class);
     private final int defaultRunTime = 1;
     private Simulator s = Simulator.createSimulator(defaultRunTime);
@@ -131,6 +169,80 @@ public class SimulatorTest {
         assertTrue(s.getSimulationComponents().contains(comp));
     }
 
+    @Test
+    public void testParallelTicksMatchSerial() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Long> serial = runChained(Simulator.createSimulator(200, 3));
+            List<Long> parallel = runChained(Simulator.createParallelSimulator(200, 3, pool));
+            assertEquals(serial, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelTicksFollowPhaseGroups() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> ticked = Collections.synchronizedList(Lists.newArrayList());
+            s = Simulator.createParallelSimulator(1, 1, pool);
+            s.register(new OrderedComponent("sequential", SimulationComponent.NO_PHASE_GROUP,
+                    ticked));
+            s.register(new OrderedComponent("late", 1, ticked));
+            s.register(new OrderedComponent("early", 0, ticked));
+            s.start();
+            assertEquals(Lists.newArrayList("sequential", "early", "late"), ticked);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Long> runChained(Simulator sim) {
+        List<ChainedComponent> all = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            ChainedComponent parent = new ChainedComponent(i % 2, null);
+            all.add(parent);
+            for (int j = 0; j < 4; j++) {
+                ChainedComponent child = new ChainedComponent(SimulationComponent.NO_PHASE_GROUP,
+                        parent);
+                parent.children.add(child);
+                all.add(child);
+            }
+            sim.register(parent);
+        }
+        sim.start();
+        List<Long> states = Lists.newArrayList();
+        all.forEach(c -> states.add(c.state));
+        return states;
+    }
+
+    private static class OrderedComponent implements SimulationComponent {
+        private final String name;
+        private final int phaseGroup;
+        private final List<String> ticked;
+
+        OrderedComponent(String name, int phaseGroup, List<String> ticked) {
+            this.name = name;
+            this.phaseGroup = phaseGroup;
+            this.ticked = ticked;
+        }
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Override
+        public void tick(int t) {
+            ticked.add(name);
+        }
+
+        @Override
+        public int getPhaseGroup() {
+            return phaseGroup;
+        }
+    }
+
     private void runSim(boolean immediateReturn) {
         s.register(comp);
         s.start();
@@ -0,0 +1,103 @@
+package be.kuleuven.cs.gridflex.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark comparing the throughput of the lock-free ID generator with a synchronized
+ * generator for increasing numbers of threads. Forked generators show the throughput when
+ * every thread uses a generator of its own. Not run as part of the test suite.
+ *
+ * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
+ */
+public final class UIDGeneratorBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(UIDGeneratorBenchmark.class);
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+    private static final int IDS_PER_THREAD = 5_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static volatile long sink;
+
+    private UIDGeneratorBenchmark() {
+    }
+
+    /**
+     * Main method. Start execution at this point.
+     *
+     * @param args The arguments passed, not used.
+     * @throws InterruptedException if interrupted while waiting for the benchmark threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        for (int threads : THREAD_COUNTS) {
+            double sync = measure(threads, SynchronizedUIDGenerator::new, false);
+            double atomic = measure(threads, AtomicUIDGenerator::new, false);
+            double forked = measure(threads, AtomicUIDGenerator::new, true);
+            logger.info("{} threads: synchronized {} IDs/us, lock-free {} IDs/us, "
+                            + "forked {} IDs/us.", threads, String.format("%.1f", sync),
+                    String.format("%.1f", atomic), String.format("%.1f", forked));
+        }
+    }
+
+    private static double measure(int threads, Supplier<UIDGenerator> generators, boolean fork)
+            throws InterruptedException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(threads, generators.get(), fork);
+        }
+        long nanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            nanos += run(threads, generators.get(), fork);
+        }
+        return (double) threads * IDS_PER_THREAD * ROUNDS / nanos * 1000;
+    }
+
+    private static long run(int threads, UIDGenerator generator, boolean fork)
+            throws InterruptedException {
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            UIDGenerator target = fork ? generator.fork() : generator;
+            workers[t] = new Thread(() -> {
+                await(barrier);
+                long last = 0;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    last = target.getNextUID();
+                }
+                sink = last;
+            });
+            workers[t].start();
+        }
+        await(barrier);
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The synchronized generator previously used by the simulator.
+     */
+    private static final class SynchronizedUIDGenerator implements UIDGenerator {
+        private long count;
+
+        @Override
+        public long getNextUID() {
+            synchronized (this) {
+                return count++;
+            }
+        }
+    }
+}
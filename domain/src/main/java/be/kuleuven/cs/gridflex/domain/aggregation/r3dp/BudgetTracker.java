@@ -21,8 +21,7 @@ import static com.google.common.base.Preconditions.checkArgument;
  */
 public final class BudgetTracker {
 
-    private final PositiveImbalancePriceProfile ppos;
-    private final DayAheadPriceProfile pda;
+    private final double[] budgets;
 
     /**
      * Constructor.
@@ -34,8 +33,10 @@ public final class BudgetTracker {
     private BudgetTracker(PositiveImbalancePriceProfile ppos, DayAheadPriceProfile pda) {
         checkArgument(ppos.length() == pda.length(),
                 "Both price profiles should be equal in length.");
-        this.ppos = ppos;
-        this.pda = pda;
+        this.budgets = new double[ppos.length()];
+        for (int i = 0; i < budgets.length; i++) {
+            budgets[i] = pda.value(i) - ppos.value(i);
+        }
     }
 
     /**
@@ -46,14 +47,14 @@ public final class BudgetTracker {
      * @return The amount of available budget.
      */
     public double getBudgetForPeriod(int i) {
-        return pda.value(i) - ppos.value(i);
+        return budgets[i];
     }
 
     /**
      * @return The length of the budget prices profile list.
      */
     int getTotalBudgetPeriods() {
-        return ppos.length();
+        return budgets.length;
     }
 
     /**
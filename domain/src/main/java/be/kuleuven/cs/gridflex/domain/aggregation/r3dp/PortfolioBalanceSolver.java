@@ -5,15 +5,19 @@ import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.MultiHorizonNormalEr
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.SolverInputData;
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
         .PowerForecastBasedConverter;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
+        .ProfileConversionData;
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation.TurbineProfileConverter;
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.solver.AbstractSolverFactory;
 import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexActivation;
 import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.NetRegulatedVolumeProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.IntPredicate;
 
 import static be.kuleuven.cs.gridflex.domain.aggregation.r3dp.PortfolioBalanceSolver
         .ProfileConversionStrategy.WINDSPEED_ERROR_BASED;
@@ -53,12 +57,26 @@ public class PortfolioBalanceSolver extends AbstractFlexAllocationSolver {
      */
     public PortfolioBalanceSolver(AbstractSolverFactory<SolutionResults> fac,
             SolverInputData inputData, ProfileConversionStrategy strategy) {
+        this(fac, inputData, strategy, SeedIndependentInputData.create(inputData));
+    }
+
+    /**
+     * Constructor reusing the seed independent data derived from the same input data, so that
+     * only the seed dependent error sampling is done for this solver.
+     *
+     * @param fac       The solvers factory to draw solvers from.
+     * @param inputData the input data.
+     * @param strategy  the strategy for converting the input data to congestion profiles.
+     * @param derived   the seed independent data derived from the input data.
+     */
+    public PortfolioBalanceSolver(AbstractSolverFactory<SolutionResults> fac,
+            SolverInputData inputData, ProfileConversionStrategy strategy,
+            SeedIndependentInputData derived) {
         super(fac);
-        this.budget = BudgetTracker
-                .createDayAheadSellingPrice(inputData.getPositiveImbalancePriceProfile(),
-                        inputData.getDayAheadPriceProfile());
-        this.congestion = applyBudgetConstraintFilters(strategy.applyConversion(inputData),
-                inputData);
+        this.budget = derived.getBudget();
+        this.congestion = strategy
+                .applyConversion(inputData, derived.getConversionData(),
+                        derived::isCorrectable);
         if (logger.isDebugEnabled()) {
             logData(congestion, inputData);
         }
@@ -70,21 +88,22 @@ public class PortfolioBalanceSolver extends AbstractFlexAllocationSolver {
         final double SLOTS_PER_HOUR = 4;
         double toResolve = congestion.sum();
         double total = inputData.getCableCurrentProfile()
-                .transform(p -> (p / CONVERSION) * TO_POWER)
-                .transform(p -> p * CONVERSION / SLOTS_PER_HOUR).sum();
+                .map(p -> ((p / CONVERSION) * TO_POWER) * CONVERSION / SLOTS_PER_HOUR).sum();
 
         logger.debug("Totals to solve: {},\nPercentage of total: {}", toResolve, toResolve / total);
     }
 
-    private CongestionProfile applyBudgetConstraintFilters(CongestionProfile profile,
-            SolverInputData input) {
-        //Only neg NRV should be corrected.
-        CongestionProfile negOnly = profile
-                .transformFromIndex(i -> input.getNetRegulatedVolumeProfile().value(i) < 0 ?
-                        profile.value(i) : 0);
-        //Only positive budgets are useful.
-        return negOnly
-                .transformFromIndex(i -> budget.getBudgetForPeriod(i) < 0 ? 0 : negOnly.value(i));
+    /**
+     * Filter on the slots of the imbalance profile that are worth correcting.
+     *
+     * @param budget The budget tracker.
+     * @param input  The input data.
+     * @return A filter accepting the slots with negative NRV and a non-negative budget.
+     */
+    public static IntPredicate budgetConstraintFilter(BudgetTracker budget, SolverInputData input) {
+        NetRegulatedVolumeProfile nrv = input.getNetRegulatedVolumeProfile();
+        //Only neg NRV should be corrected and only positive budgets are useful.
+        return i -> nrv.value(i) < 0 && !(budget.getBudgetForPeriod(i) < 0);
     }
 
     @Override
@@ -123,14 +142,15 @@ public class PortfolioBalanceSolver extends AbstractFlexAllocationSolver {
          */
         WINDSPEED_ERROR_BASED {
             @Override
-            public CongestionProfile applyConversion(SolverInputData input) {
+            public CongestionProfile applyConversion(SolverInputData input,
+                    ProfileConversionData conversionData, IntPredicate slotFilter) {
                 logger.debug("Profile conversion chosen = Windspeed error based.");
                 MultiHorizonNormalErrorGenerator gen = new MultiHorizonNormalErrorGenerator(
                         input.getSeed(),
                         input.getWindSpeedForecastMultiHorizonErrorDistribution());
-                return new TurbineProfileConverter(input.getCableCurrentProfile(),
+                return new TurbineProfileConverter(conversionData,
                         input.getTurbineSpecifications(), gen)
-                        .convertProfileToPositiveOnlyImbalanceVolumes();
+                        .convertProfileToPositiveOnlyImbalanceVolumes(slotFilter);
             }
         },
         /**
@@ -139,13 +159,14 @@ public class PortfolioBalanceSolver extends AbstractFlexAllocationSolver {
          */
         POWER_ERROR_BASED {
             @Override
-            public CongestionProfile applyConversion(SolverInputData input) {
+            public CongestionProfile applyConversion(SolverInputData input,
+                    ProfileConversionData conversionData, IntPredicate slotFilter) {
                 logger.debug("Profile conversion chosen = Power error based.");
                 MultiHorizonErrorGenerator gen = input.getForecastErrorDistributionType()
                         .createErrorGenerator(input.getSeed(),
                                 input.getPowerForecastMultiHorizonErrorDistribution());
-                return new PowerForecastBasedConverter(input.getCableCurrentProfile(),
-                        gen).convertProfileToPositiveOnlyImbalanceVolumes();
+                return new PowerForecastBasedConverter(conversionData, gen)
+                        .convertProfileToPositiveOnlyImbalanceVolumes(slotFilter);
             }
         };
 
@@ -155,6 +176,35 @@ public class PortfolioBalanceSolver extends AbstractFlexAllocationSolver {
          * @param input The input data.
          * @return a congestion profile.
          */
-        abstract public CongestionProfile applyConversion(SolverInputData input);
+        public CongestionProfile applyConversion(SolverInputData input) {
+            return applyConversion(input, i -> true);
+        }
+
+        /**
+         * Converts the input data to a valid congestion profile in a single pass, keeping only
+         * the slots accepted by the filter.
+         *
+         * @param input      The input data.
+         * @param slotFilter The filter deciding which slots to keep. Other slots are set to 0.
+         * @return a congestion profile.
+         */
+        public CongestionProfile applyConversion(SolverInputData input,
+                IntPredicate slotFilter) {
+            return applyConversion(input,
+                    ProfileConversionData.create(input.getCableCurrentProfile()), slotFilter);
+        }
+
+        /**
+         * Converts the input data to a valid congestion profile in a single pass, keeping only
+         * the slots accepted by the filter and reusing previously derived conversion data.
+         *
+         * @param input          The input data.
+         * @param conversionData The conversion data derived from the input data.
+         * @param slotFilter     The filter deciding which slots to keep. Other slots are set
+         *                       to 0.
+         * @return a congestion profile.
+         */
+        abstract public CongestionProfile applyConversion(SolverInputData input,
+                ProfileConversionData conversionData, IntPredicate slotFilter);
     }
 }
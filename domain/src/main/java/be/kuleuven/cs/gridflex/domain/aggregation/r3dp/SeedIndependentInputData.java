@@ -0,0 +1,70 @@
+package be.kuleuven.cs.gridflex.domain.aggregation.r3dp;
+
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.SolverInputData;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
+        .ProfileConversionData;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.NetRegulatedVolumeProfile;
+
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Everything solvers derive from their input data that does not depend on the random seed:
+ * the profile conversion data, the budget per settlement period and the slots that are worth
+ * correcting. Instances are immutable and can be shared by all game instances built from the
+ * same input data.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class SeedIndependentInputData {
+    private final ProfileConversionData conversionData;
+    private final BudgetTracker budget;
+    private final BitSet budgetFilter;
+
+    private SeedIndependentInputData(SolverInputData input) {
+        this.conversionData = ProfileConversionData.create(input.getCableCurrentProfile());
+        this.budget = BudgetTracker
+                .createDayAheadSellingPrice(input.getPositiveImbalancePriceProfile(),
+                        input.getDayAheadPriceProfile());
+        NetRegulatedVolumeProfile nrv = input.getNetRegulatedVolumeProfile();
+        IntPredicate filter = PortfolioBalanceSolver.budgetConstraintFilter(budget, input);
+        this.budgetFilter = new BitSet(nrv.length());
+        for (int i = 0; i < nrv.length(); i++) {
+            if (filter.test(i)) {
+                budgetFilter.set(i);
+            }
+        }
+    }
+
+    /**
+     * Derive the seed independent data from solver input data. The seed is ignored.
+     *
+     * @param input The input data.
+     * @return The derived data.
+     */
+    public static SeedIndependentInputData create(SolverInputData input) {
+        return new SeedIndependentInputData(input);
+    }
+
+    /**
+     * @return The data shared by profile conversions.
+     */
+    public ProfileConversionData getConversionData() {
+        return conversionData;
+    }
+
+    /**
+     * @return The budget tracker.
+     */
+    public BudgetTracker getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param slot The slot index.
+     * @return True if imbalances in this slot are worth correcting.
+     */
+    public boolean isCorrectable(int slot) {
+        return budgetFilter.get(slot);
+    }
+}
@@ -1,6 +1,8 @@
 package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data;
 
 import be.kuleuven.cs.gridflex.domain.util.data.AbstractErrorDistribution;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.MultiHorizonErrorGenerator
+        .RandomSource;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -9,8 +11,8 @@ import org.slf4j.LoggerFactory;
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public enum ErrorDistributionType {
-    NORMAL((seed, distribution) -> new MultiHorizonNormalErrorGenerator(seed, distribution)),
-    CAUCHY((seed, distribution) -> new MultiHorizonCauchyErrorGenerator(seed, distribution));
+    NORMAL(MultiHorizonNormalErrorGenerator::new),
+    CAUCHY(MultiHorizonCauchyErrorGenerator::new);
     private final MultiHorizonErrorGeneratorFactory factory;
 
     ErrorDistributionType(MultiHorizonErrorGeneratorFactory factory) {
@@ -35,11 +37,21 @@ public enum ErrorDistributionType {
      */
     public MultiHorizonErrorGenerator createErrorGenerator(long seed,
             AbstractErrorDistribution distribution) {
+        return createErrorGenerator(seed, distribution, RandomSource.MERSENNE_TWISTER);
+    }
+
+    /**
+     * Create a generator object using a specific random number generator.
+     *
+     * @return a fully built multi horizon error generator.
+     */
+    public MultiHorizonErrorGenerator createErrorGenerator(long seed,
+            AbstractErrorDistribution distribution, RandomSource source) {
         LoggerFactory.getLogger(ErrorDistributionType.class)
                 .debug("Creating error generator with entries: mean {}, std {}",
                         distribution.getMeans().get(0).toString(),
                         distribution.getStandardDeviations().get(0));
-        return this.factory.createGenerator(seed, distribution);
+        return this.factory.createGenerator(seed, distribution, source);
     }
 
     /**
@@ -55,9 +67,10 @@ public enum ErrorDistributionType {
          *
          * @param seed         The random seed to use.
          * @param distribution The error distribution to use.
+         * @param source       The random number generator to use.
          * @return A fully built and ready to use error generator.
          */
         MultiHorizonErrorGenerator createGenerator(long seed,
-                AbstractErrorDistribution distribution);
+                AbstractErrorDistribution distribution, RandomSource source);
     }
 }
@@ -21,6 +21,18 @@ public class MultiHorizonCauchyErrorGenerator extends MultiHorizonNormalErrorGen
         super(seed, distribution);
     }
 
+    /**
+     * Constructor with a choice of random number generator.
+     *
+     * @param seed         The initial seed.
+     * @param distribution The error distributions.
+     * @param source       The random number generator to use.
+     */
+    public MultiHorizonCauchyErrorGenerator(long seed,
+            AbstractErrorDistribution distribution, RandomSource source) {
+        super(seed, distribution, source);
+    }
+
     /**
      * Generate error value for given horizon.
      * Rescales the sample from [0,1] domain to [-1,1].
@@ -35,9 +47,21 @@ public class MultiHorizonCauchyErrorGenerator extends MultiHorizonNormalErrorGen
         // (); [/code]
         //todo consider refactoring!
         double cauchyNrm =
-                getTwisters().get(i).nextGaussian() / getTwisters().get(i).nextGaussian();
+                getSource(i).nextGaussian() / getSource(i).nextGaussian();
         double sample = cauchyNrm * getDistribution().getSdForHorizon(i) + getDistribution()
                 .getMeanForHorizon(i);
         return (sample * 2) - 1;
     }
+
+    @Override
+    protected void fillErrorsForHorizon(int horizon, double[] errors, int[] slots, int start,
+            int end) {
+        GaussianSource source = getSource(horizon);
+        double sd = getDistribution().getSdForHorizon(horizon);
+        double mean = getDistribution().getMeanForHorizon(horizon);
+        for (int k = start; k < end; k++) {
+            double cauchyNrm = source.nextGaussian() / source.nextGaussian();
+            errors[slots[k]] = ((cauchyNrm * sd + mean) * 2) - 1;
+        }
+    }
 }
@@ -1,18 +1,24 @@
 package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data;
 
 import be.kuleuven.cs.gridflex.domain.util.data.AbstractErrorDistribution;
-import com.google.common.collect.Lists;
-import org.apache.commons.collections4.list.UnmodifiableList;
 import org.apache.commons.math3.random.MersenneTwister;
 
-import java.util.List;
+import java.util.SplittableRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
+ * Generator of forecast errors for multiple forecast horizons. Every horizon has its own random
+ * number stream, so the errors drawn for one horizon do not depend on the draws for other
+ * horizons. Errors for a whole profile can be drawn in bulk with
+ * {@link #generateErrors(int[])}, which gives the same errors as drawing them one by one in
+ * slot order.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public abstract class MultiHorizonErrorGenerator {
     private final AbstractErrorDistribution distribution;
-    private final List<MersenneTwister> twisters;
+    private final GaussianSource[] sources;
 
     /**
      * Defaut constructor.
@@ -22,11 +28,20 @@ public abstract class MultiHorizonErrorGenerator {
      */
     public MultiHorizonErrorGenerator(
             long seed, AbstractErrorDistribution distribution) {
-        twisters = Lists.newArrayList();
+        this(seed, distribution, RandomSource.MERSENNE_TWISTER);
+    }
+
+    /**
+     * Constructor with a choice of random number generator.
+     *
+     * @param seed         The initial seed.
+     * @param distribution The error distributions.
+     * @param source       The random number generator to use.
+     */
+    public MultiHorizonErrorGenerator(long seed, AbstractErrorDistribution distribution,
+            RandomSource source) {
         this.distribution = distribution;
-        for (int i = 0; i < distribution.getMaxForecastHorizon(); i++) {
-            twisters.add(new MersenneTwister(seed + i));
-        }
+        this.sources = source.create(seed, distribution.getMaxForecastHorizon());
     }
 
     /**
@@ -37,11 +52,142 @@ public abstract class MultiHorizonErrorGenerator {
      */
     public abstract double generateErrorForHorizon(int i);
 
+    /**
+     * Generate errors for a sequence of slots at once. The result is the same as calling
+     * {@link #generateErrorForHorizon(int)} for every slot in order.
+     *
+     * @param horizons The forecast horizon for each slot.
+     * @return The error value for each slot.
+     */
+    public final double[] generateErrors(int[] horizons) {
+        int maxHorizon = sources.length;
+        int[] starts = new int[maxHorizon + 1];
+        for (int h : horizons) {
+            checkArgument(h >= 0 && h < maxHorizon, "Horizon out of bounds: %s", h);
+            starts[h + 1]++;
+        }
+        for (int h = 0; h < maxHorizon; h++) {
+            starts[h + 1] += starts[h];
+        }
+        int[] slots = new int[horizons.length];
+        int[] next = new int[maxHorizon];
+        System.arraycopy(starts, 0, next, 0, maxHorizon);
+        for (int i = 0; i < horizons.length; i++) {
+            slots[next[horizons[i]]++] = i;
+        }
+        double[] errors = new double[horizons.length];
+        for (int h = 0; h < maxHorizon; h++) {
+            if (starts[h] < starts[h + 1]) {
+                fillErrorsForHorizon(h, errors, slots, starts[h], starts[h + 1]);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Draw errors for a single horizon. Subclasses can override this with a tight loop over
+     * the random source of the horizon.
+     *
+     * @param horizon The horizon.
+     * @param errors  The errors to fill in.
+     * @param slots   The slot indexes, in ascending order from start to end.
+     * @param start   The first position in slots to fill in (inclusive).
+     * @param end     The last position in slots to fill in (exclusive).
+     */
+    protected void fillErrorsForHorizon(int horizon, double[] errors, int[] slots, int start,
+            int end) {
+        for (int k = start; k < end; k++) {
+            errors[slots[k]] = generateErrorForHorizon(horizon);
+        }
+    }
+
     protected final AbstractErrorDistribution getDistribution() {
         return distribution;
     }
 
-    protected final List<MersenneTwister> getTwisters() {
-        return UnmodifiableList.unmodifiableList(twisters);
+    /**
+     * @param horizon The horizon.
+     * @return The source of standard normal samples for this horizon.
+     */
+    protected final GaussianSource getSource(int horizon) {
+        return sources[horizon];
+    }
+
+    /**
+     * Source of standard normally distributed random values.
+     */
+    @FunctionalInterface
+    protected interface GaussianSource {
+        /**
+         * @return The next standard normally distributed value.
+         */
+        double nextGaussian();
+    }
+
+    /**
+     * Random number generators available for drawing errors. Every generator gives
+     * reproducible results for a given seed.
+     */
+    public enum RandomSource {
+        /**
+         * Mersenne twister streams seeded with seed + horizon.
+         */
+        MERSENNE_TWISTER {
+            @Override
+            GaussianSource[] create(long seed, int horizons) {
+                GaussianSource[] res = new GaussianSource[horizons];
+                for (int i = 0; i < horizons; i++) {
+                    res[i] = new MersenneTwister(seed + i)::nextGaussian;
+                }
+                return res;
+            }
+        },
+        /**
+         * Faster streams split from a {@link SplittableRandom} with the given seed, using the
+         * polar method for normal samples. Draws differ from the Mersenne twister streams.
+         */
+        SPLITTABLE {
+            @Override
+            GaussianSource[] create(long seed, int horizons) {
+                SplittableRandom root = new SplittableRandom(seed);
+                GaussianSource[] res = new GaussianSource[horizons];
+                for (int i = 0; i < horizons; i++) {
+                    res[i] = new SplittableGaussian(root.split());
+                }
+                return res;
+            }
+        };
+
+        abstract GaussianSource[] create(long seed, int horizons);
+    }
+
+    private static final class SplittableGaussian implements GaussianSource {
+        private final SplittableRandom random;
+        private double spare;
+        private boolean hasSpare;
+
+        SplittableGaussian(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public double nextGaussian() {
+            if (hasSpare) {
+                hasSpare = false;
+                return spare;
+            }
+            double u;
+            double v;
+            double s;
+            do {
+                u = random.nextDouble() * 2 - 1;
+                v = random.nextDouble() * 2 - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double mul = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            spare = v * mul;
+            hasSpare = true;
+            return u * mul;
+        }
     }
 }
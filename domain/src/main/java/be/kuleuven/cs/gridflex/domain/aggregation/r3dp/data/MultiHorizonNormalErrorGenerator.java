@@ -18,7 +18,18 @@ public class MultiHorizonNormalErrorGenerator extends MultiHorizonErrorGenerator
     public MultiHorizonNormalErrorGenerator(long seed,
             AbstractErrorDistribution distribution) {
         super(seed, distribution);
+    }
 
+    /**
+     * Constructor with a choice of random number generator.
+     *
+     * @param seed         The initial seed.
+     * @param distribution The error distributions.
+     * @param source       The random number generator to use.
+     */
+    public MultiHorizonNormalErrorGenerator(long seed,
+            AbstractErrorDistribution distribution, RandomSource source) {
+        super(seed, distribution, source);
     }
 
     /**
@@ -29,8 +40,19 @@ public class MultiHorizonNormalErrorGenerator extends MultiHorizonErrorGenerator
      */
     @Override
     public double generateErrorForHorizon(int i) {
-        return getTwisters().get(i).nextGaussian() * getDistribution().getSdForHorizon(i)
+        return getSource(i).nextGaussian() * getDistribution().getSdForHorizon(i)
                 + getDistribution()
                 .getMeanForHorizon(i);
     }
+
+    @Override
+    protected void fillErrorsForHorizon(int horizon, double[] errors, int[] slots, int start,
+            int end) {
+        GaussianSource source = getSource(horizon);
+        double sd = getDistribution().getSdForHorizon(horizon);
+        double mean = getDistribution().getMeanForHorizon(horizon);
+        for (int k = start; k < end; k++) {
+            errors[slots[k]] = source.nextGaussian() * sd + mean;
+        }
+    }
 }
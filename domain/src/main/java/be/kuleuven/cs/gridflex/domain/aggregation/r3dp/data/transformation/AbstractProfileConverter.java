@@ -5,6 +5,8 @@ import be.kuleuven.cs.gridflex.domain.util.data.profiles.CableCurrentProfile;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.PowerValuesProfile;
 
+import java.util.function.IntPredicate;
+
 /**
  * Abstract current profile to congestion profile converter.
  *
@@ -19,16 +21,17 @@ abstract class AbstractProfileConverter {
     static final double TO_POWER = 1.73 * 15.6;
     static final double CONVERSION = 1.5d; //Conversion factor for boosted profiles.
 
-    private final PowerValuesProfile powerProfile;
-    private final CableCurrentProfile profile;
+    private final ProfileConversionData data;
     protected final MultiHorizonErrorGenerator random;
 
     AbstractProfileConverter(CableCurrentProfile profile,
             MultiHorizonErrorGenerator random) {
-        this.profile = profile;
+        this(ProfileConversionData.create(profile), random);
+    }
+
+    AbstractProfileConverter(ProfileConversionData data, MultiHorizonErrorGenerator random) {
+        this.data = data;
         this.random = random;
-        this.powerProfile = PowerValuesProfile
-                .createFromTimeSeries(profile.transform(p -> (p / CONVERSION) * TO_POWER));
     }
 
     /**
@@ -39,6 +42,30 @@ abstract class AbstractProfileConverter {
         return convertProfileToImbalanceVolumes().transform(v -> v > 0 ? v : 0);
     }
 
+    /**
+     * Converts the initial profile to an imbalance profile with only positive values in a single
+     * pass, without materializing the intermediate profiles. Slots rejected by the filter are set
+     * to zero. Error samples are drawn for every slot, so the values of accepted slots are the
+     * same as those of {@link #convertProfileToPositiveOnlyImbalanceVolumes()}.
+     *
+     * @param slotFilter The filter deciding which slots to keep.
+     * @return The filtered imbalance profile with only positive values.
+     */
+    public CongestionProfile convertProfileToPositiveOnlyImbalanceVolumes(
+            IntPredicate slotFilter) {
+        double[] actuals = data.getPowerValues();
+        double[] errors = random.generateErrors(data.getHorizons());
+        double[] result = new double[actuals.length];
+        for (int i = 0; i < actuals.length; i++) {
+            double forecast = calculateForecastedValue(i, actuals[i], errors[i]);
+            double imbalance = ((actuals[i] - forecast) * CONVERSION) / SLOTS_PER_HOUR;
+            if (imbalance > 0 && slotFilter.test(i)) {
+                result[i] = imbalance;
+            }
+        }
+        return CongestionProfile.createFromArray(result);
+    }
+
     /**
      * @return The conversion of the initial profile to an imbalance profile.
      */
@@ -46,7 +73,25 @@ abstract class AbstractProfileConverter {
         return calculateImbalanceVolumeFromActualAndPredictedData(calculateForcastedProfile());
     }
 
-    protected abstract PowerValuesProfile calculateForcastedProfile();
+    /**
+     * @return Power values profile with prediction/forecast data.
+     */
+    protected PowerValuesProfile calculateForcastedProfile() {
+        PowerValuesProfile actuals = getPowerProfile();
+        double[] errors = random.generateErrors(data.getHorizons());
+        return actuals.transformFromIndex(
+                i -> calculateForecastedValue(i, actuals.value(i), errors[i]));
+    }
+
+    /**
+     * Calculate the forecasted power value for a single slot.
+     *
+     * @param idx    the time series index (as an indication of time).
+     * @param actual the actual power value for that slot.
+     * @param error  the error sample drawn for that slot.
+     * @return The forecasted power value.
+     */
+    protected abstract double calculateForecastedValue(int idx, double actual, double error);
 
     /**
      * Calculate imbalance powerProfile from current and error sampled energy volumes.
@@ -86,23 +131,36 @@ abstract class AbstractProfileConverter {
      */
     final double applyErrorSampleToSingleValueWithDenormalization(int idx, double value,
             double denormFactor) {
-        int errorGenIdx = (int) Math
+        return value + (random.generateErrorForHorizon(horizonFor(idx)) * denormFactor);
+    }
+
+    /**
+     * The forecast horizon of a slot, given day ahead nomination.
+     *
+     * @param idx the time series index (as an indication of time).
+     * @return The index of the error generator horizon to use for this slot.
+     */
+    static int horizonFor(int idx) {
+        return (int) Math
                 .ceil(((idx - PROFILE_START_TIME) % HOURS_PER_DAY) + (HOURS_PER_DAY
                         - DAY_AHEAD_NOMINATION_DEADLINE));
-        return value + (random.generateErrorForHorizon(errorGenIdx) * denormFactor);
     }
 
     final CongestionProfile getOriginalCongestionProfile() {
         return CongestionProfile
-                .createFromTimeSeries(powerProfile.transform(p -> p * CONVERSION / SLOTS_PER_HOUR));
+                .createFromTimeSeries(getPowerProfile().map(p -> p * CONVERSION / SLOTS_PER_HOUR));
     }
 
     final PowerValuesProfile getPowerProfile() {
-        return powerProfile;
+        return data.getPowerProfile();
     }
 
     final CableCurrentProfile getProfile() {
-        return profile;
+        return data.getCableCurrentProfile();
+    }
+
+    final ProfileConversionData getConversionData() {
+        return data;
     }
 
 }
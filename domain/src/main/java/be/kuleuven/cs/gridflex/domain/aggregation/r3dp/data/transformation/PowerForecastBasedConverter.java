@@ -2,7 +2,6 @@ package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation;
 
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.MultiHorizonErrorGenerator;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CableCurrentProfile;
-import be.kuleuven.cs.gridflex.domain.util.data.profiles.PowerValuesProfile;
 
 /**
  * Converter class for converting current profiles to imbalance profiles by applying forecast
@@ -22,27 +21,25 @@ public class PowerForecastBasedConverter extends AbstractProfileConverter {
      */
     public PowerForecastBasedConverter(CableCurrentProfile cableCurrentProfile,
             MultiHorizonErrorGenerator gen) {
-        super(cableCurrentProfile, gen);
-        this.parkCapacity = getPowerProfile().max();
-
-    }
-
-    @Override
-    protected PowerValuesProfile calculateForcastedProfile() {
-        return applyPredictionErrors(getPowerProfile());
+        this(ProfileConversionData.create(cableCurrentProfile), gen);
     }
 
     /**
-     * Apply prediction erros taking into account different time horizons.
+     * Constructor reusing previously derived conversion data.
      *
-     * @param timeSeries The input power values
-     * @return power values with error samples added to them
+     * @param data The conversion data derived from the cable current profile.
+     * @param gen  Error generator serving as random generator.
      */
-    private PowerValuesProfile applyPredictionErrors(PowerValuesProfile timeSeries) {
-        return PowerValuesProfile.createFromTimeSeries(timeSeries.transformFromIndex(
-                i -> applyErrorSampleToSingleValueWithDenormalization(i, timeSeries.value(i),
-                        parkCapacity))
-                .transform(w -> w < 0 ? 0 : w)
-                .transform(w -> w > parkCapacity ? parkCapacity : w));
+    public PowerForecastBasedConverter(ProfileConversionData data,
+            MultiHorizonErrorGenerator gen) {
+        super(data, gen);
+        this.parkCapacity = data.getMaximumPower();
+    }
+
+    @Override
+    protected double calculateForecastedValue(int idx, double actual, double error) {
+        double w = actual + error * parkCapacity;
+        w = w < 0 ? 0 : w;
+        return w > parkCapacity ? parkCapacity : w;
     }
 }
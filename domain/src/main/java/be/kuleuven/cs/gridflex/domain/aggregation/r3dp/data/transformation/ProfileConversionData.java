@@ -0,0 +1,102 @@
+package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation;
+
+import be.kuleuven.cs.gridflex.domain.energy.generation.wind.TurbineSpecification;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CableCurrentProfile;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.PowerValuesProfile;
+import com.google.common.collect.Maps;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
+        .AbstractProfileConverter.CONVERSION;
+import static be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
+        .AbstractProfileConverter.TO_POWER;
+
+/**
+ * The seed independent part of profile conversions: the power profile derived from a cable
+ * current profile and, per turbine type, the wind speeds inferred from it.
+ * Instances can be shared between converters and threads, so that every conversion only has to
+ * draw and apply its own error samples.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ProfileConversionData {
+    private final CableCurrentProfile profile;
+    private final PowerValuesProfile powerProfile;
+    private final double[] powerValues;
+    private final int[] horizons;
+    private final ConcurrentMap<TurbineSpecification, double[]> windSpeeds;
+
+    private ProfileConversionData(CableCurrentProfile profile) {
+        this.profile = profile;
+        this.powerProfile = PowerValuesProfile
+                .createFromTimeSeries(profile.map(p -> (p / CONVERSION) * TO_POWER));
+        this.powerValues = powerProfile.toArray();
+        this.horizons = new int[powerValues.length];
+        for (int i = 0; i < horizons.length; i++) {
+            horizons[i] = AbstractProfileConverter.horizonFor(i);
+        }
+        this.windSpeeds = Maps.newConcurrentMap();
+        //Fill the max cache once so shared readers do not race to compute it.
+        powerProfile.max();
+    }
+
+    /**
+     * Derive the conversion data from a cable current profile.
+     *
+     * @param profile The cable current profile.
+     * @return The conversion data.
+     */
+    public static ProfileConversionData create(CableCurrentProfile profile) {
+        return new ProfileConversionData(profile);
+    }
+
+    /**
+     * @return The cable current profile this data is derived from.
+     */
+    public CableCurrentProfile getCableCurrentProfile() {
+        return profile;
+    }
+
+    /**
+     * @return The maximum value of the power profile.
+     */
+    public double getMaximumPower() {
+        return powerProfile.max();
+    }
+
+    /**
+     * @return the power profile, not to be modified.
+     */
+    PowerValuesProfile getPowerProfile() {
+        return powerProfile;
+    }
+
+    /**
+     * @return the power values, not to be modified.
+     */
+    double[] getPowerValues() {
+        return powerValues;
+    }
+
+    /**
+     * @return the forecast horizon per slot, not to be modified.
+     */
+    int[] getHorizons() {
+        return horizons;
+    }
+
+    /**
+     * Get the wind speeds inferred from the power profile for a turbine type, computing them
+     * on first use.
+     *
+     * @param specs       The turbine type.
+     * @param calculation The calculation of the wind speeds.
+     * @return the wind speeds per slot, not to be modified.
+     */
+    double[] getWindSpeeds(TurbineSpecification specs,
+            Function<TurbineSpecification, double[]> calculation) {
+        return windSpeeds.computeIfAbsent(specs, calculation);
+    }
+}
@@ -1,12 +1,14 @@
 package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation;
 
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.MultiHorizonNormalErrorGenerator;
+import be.kuleuven.cs.gridflex.domain.energy.generation.wind.PowerCurve;
 import be.kuleuven.cs.gridflex.domain.energy.generation.wind.TurbineSpecification;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CableCurrentProfile;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.PowerValuesProfile;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.WindSpeedProfile;
 import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 
 /**
  * Convertor class for converting current profiles to imbalance profiles by deaggregating to
@@ -15,10 +17,10 @@ import com.google.common.annotations.VisibleForTesting;
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public final class TurbineProfileConverter extends AbstractProfileConverter {
-    private final PowerValuesProfile singleTProfile;
-    private final TurbineSpecification specs;
+    private final PowerCurve powerCurve;
     private final int nbTurbines;
     private final double maxPSingle;
+    private final double[] windSpeeds;
 
     /**
      * Default Constructor.
@@ -29,21 +31,44 @@ public final class TurbineProfileConverter extends AbstractProfileConverter {
      */
     public TurbineProfileConverter(CableCurrentProfile profile, TurbineSpecification specs,
             MultiHorizonNormalErrorGenerator random) {
-        super(profile, random);
-        this.specs = specs;
-        double maxPFound = getPowerProfile().max();
+        this(ProfileConversionData.create(profile), specs, random);
+    }
+
+    /**
+     * Constructor reusing previously derived conversion data. The wind speeds inferred for the
+     * given turbine type are computed once and shared through the conversion data.
+     *
+     * @param data   The conversion data derived from the cable current profile.
+     * @param specs  The turbine specs to use.
+     * @param random The random generator of wind errors for different horizons.
+     */
+    public TurbineProfileConverter(ProfileConversionData data, TurbineSpecification specs,
+            MultiHorizonNormalErrorGenerator random) {
+        super(data, random);
+        this.powerCurve = specs.toPowerCurve();
+        double maxPFound = data.getMaximumPower();
         this.nbTurbines = (int) Math.floor(maxPFound / specs.getRatedPower());
         this.maxPSingle = maxPFound / nbTurbines;
-        this.singleTProfile = PowerValuesProfile
-                .createFromTimeSeries(getPowerProfile().transform(p -> p / (double) nbTurbines));
+        this.windSpeeds = data.getWindSpeeds(specs, s -> inferWindSpeeds());
+    }
+
+    private double[] inferWindSpeeds() {
+        double[] power = getConversionData().getPowerValues();
+        double[] wind = new double[power.length];
+        for (int i = 0; i < power.length; i++) {
+            wind[i] = convertSingleTPowerToWind(power[i] / (double) nbTurbines, maxPSingle);
+        }
+        return wind;
     }
 
     /**
-     * @return Power values profile with prediction/forecast data.
+     * Deaggregates the actual power value to an inferred wind speed at single turbine level,
+     * applies a wind speed error sample and converts back to aggregated power.
      */
     @Override
-    protected PowerValuesProfile calculateForcastedProfile() {
-        return toPowerValues(applyPredictionErrors(toWindSpeed()));
+    protected double calculateForecastedValue(int idx, double actual, double error) {
+        double w = windSpeeds[idx] + error;
+        return convertWindToPower(w < 0 ? 0 : w) * nbTurbines;
     }
 
     /**
@@ -53,8 +78,8 @@ public final class TurbineProfileConverter extends AbstractProfileConverter {
      * @return powerProfile with wind energy volumes.
      */
     PowerValuesProfile toPowerValues(WindSpeedProfile windprofile) {
-        return PowerValuesProfile.createFromTimeSeries(windprofile
-                .transform(this::convertWindToPower).transform(p -> p * nbTurbines));
+        return PowerValuesProfile.createFromTimeSeries(
+                windprofile.map(w -> convertWindToPower(w) * nbTurbines));
     }
 
     /**
@@ -64,9 +89,10 @@ public final class TurbineProfileConverter extends AbstractProfileConverter {
      * @return wind speeds with sample errors added to them
      */
     private WindSpeedProfile applyPredictionErrors(WindSpeedProfile timeSeries) {
-        return WindSpeedProfile.createFromTimeSeries(timeSeries.transformFromIndex(
-                i -> applyErrorSampleToSingleValue(i, timeSeries.value(i)))
-                .transform(w -> w < 0 ? 0 : w));
+        return timeSeries.transformFromIndex(i -> {
+            double w = applyErrorSampleToSingleValue(i, timeSeries.value(i));
+            return w < 0 ? 0 : w;
+        });
     }
 
     /**
@@ -76,59 +102,15 @@ public final class TurbineProfileConverter extends AbstractProfileConverter {
      * @return the wind speeds powerProfile
      */
     WindSpeedProfile toWindSpeed() {
-        double upperMarker = maxPSingle;
-        return WindSpeedProfile.createFromTimeSeries(singleTProfile
-                .transform(p -> convertSingleTPowerToWind(p, upperMarker)));
+        return WindSpeedProfile.createFromTimeSeries(() -> DoubleArrayList.wrap(windSpeeds));
     }
 
     private double convertWindToPower(double w) {
-        int i = specs.getPowerValues().indexOf(specs.getRatedPower());
-        if (w <= i) {
-            double rest = w % 1;
-            int idx = (int) w;
-            double interval = 0;
-            //if not 0.
-            if (rest > EPS) {
-                interval = specs.getPowerValues().get(idx + 1) - specs.getPowerValues().get(idx);
-            }
-            return specs.getPowerValues().get(idx) + interval * rest;
-        } else {
-            int j = specs.getPowerValues().lastIndexOf(specs.getRatedPower());
-            double perc = (w - i) / (j - i);
-            if (perc > 1) {
-                //do cutoff above rated cutoff speeds
-                return 0;
-            }
-            double margin = maxPSingle - specs.getRatedPower();
-            return specs.getRatedPower() + (perc * margin);
-        }
+        return powerCurve.windToPower(w, maxPSingle);
     }
 
     private double convertSingleTPowerToWind(double p, double upperMarker) {
-        int i = specs.getPowerValues().indexOf(specs.getRatedPower());
-        if (p < specs.getRatedPower()) {
-            int idx = 1;
-            while (idx < i) {
-                if (p > specs.getPowerValues().get(idx)) {
-                    idx++;
-                } else {
-                    break;
-                }
-            }
-            double margin = specs.getPowerValues().get(idx) - specs.getPowerValues()
-                    .get(idx - 1);
-            if (margin <= EPS) {
-                return idx - 1d;
-            } else {
-                return (idx - 1) + (p - specs.getPowerValues()
-                        .get(idx - 1)) / (specs.getPowerValues().get(idx) - specs
-                        .getPowerValues().get(idx - 1));
-            }
-        } else {
-            int j = specs.getPowerValues().lastIndexOf(specs.getRatedPower());
-            double perc = (p - specs.getRatedPower()) / (upperMarker - specs.getRatedPower());
-            return i + StrictMath.floor(perc * (j - i));
-        }
+        return powerCurve.powerToWind(p, upperMarker);
     }
 
     /**
@@ -140,6 +122,6 @@ public final class TurbineProfileConverter extends AbstractProfileConverter {
     CongestionProfile getPredictionCongestionProfile() {
         return CongestionProfile.createFromTimeSeries(
                 toPowerValues(applyPredictionErrors(toWindSpeed()))
-                        .transform(p -> p * CONVERSION / SLOTS_PER_HOUR));
+                        .map(p -> p * CONVERSION / SLOTS_PER_HOUR));
     }
 }
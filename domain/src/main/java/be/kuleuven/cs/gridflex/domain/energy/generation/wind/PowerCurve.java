@@ -0,0 +1,109 @@
+package be.kuleuven.cs.gridflex.domain.energy.generation.wind;
+
+import java.util.List;
+
+/**
+ * Primitive lookup tables for a turbine power curve, for converting between wind speeds and
+ * single turbine power output without boxing or allocation.
+ * Up to rated power, power values are linearly interpolated between integer wind speeds.
+ * Above rated power, power scales linearly from rated power to a given maximum power over the
+ * range of wind speeds at which the turbine produces rated power.
+ * Wind to power is O(1), power to wind is O(log n) in the number of power curve points.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class PowerCurve {
+    private static final double EPS = 0.00001;
+    private final double[] power;
+    private final double[] runningMax;
+    private final double ratedPower;
+    private final int firstRated;
+    private final int lastRated;
+
+    PowerCurve(List<Double> powerValues, double ratedPower) {
+        this.ratedPower = ratedPower;
+        this.power = new double[powerValues.size()];
+        this.runningMax = new double[power.length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < power.length; i++) {
+            power[i] = powerValues.get(i);
+            //The inverse search starts at index 1.
+            max = i == 0 ? max : Math.max(max, power[i]);
+            runningMax[i] = max;
+        }
+        this.firstRated = powerValues.indexOf(ratedPower);
+        this.lastRated = powerValues.lastIndexOf(ratedPower);
+    }
+
+    /**
+     * @return The rated power of the turbine.
+     */
+    public double getRatedPower() {
+        return ratedPower;
+    }
+
+    /**
+     * Convert a wind speed to the power output of a single turbine.
+     *
+     * @param wind     The wind speed.
+     * @param maxPower The maximum power output of a single turbine.
+     * @return The power output, or 0 above cut-out wind speed.
+     */
+    public double windToPower(double wind, double maxPower) {
+        if (wind <= firstRated) {
+            double rest = wind % 1;
+            int idx = (int) wind;
+            double interval = 0;
+            //if not 0.
+            if (rest > EPS) {
+                interval = power[idx + 1] - power[idx];
+            }
+            return power[idx] + interval * rest;
+        }
+        double perc = (wind - firstRated) / (lastRated - firstRated);
+        if (perc > 1) {
+            //do cutoff above rated cutoff speeds
+            return 0;
+        }
+        return ratedPower + (perc * (maxPower - ratedPower));
+    }
+
+    /**
+     * Convert the power output of a single turbine to the wind speed causing it.
+     *
+     * @param p        The power output.
+     * @param maxPower The maximum power output of a single turbine.
+     * @return The wind speed.
+     */
+    public double powerToWind(double p, double maxPower) {
+        if (p < ratedPower) {
+            int idx = firstSegmentEnd(p);
+            double margin = power[idx] - power[idx - 1];
+            if (margin <= EPS) {
+                return idx - 1d;
+            }
+            return (idx - 1) + (p - power[idx - 1]) / (power[idx] - power[idx - 1]);
+        }
+        double perc = (p - ratedPower) / (maxPower - ratedPower);
+        return firstRated + StrictMath.floor(perc * (lastRated - firstRated));
+    }
+
+    /**
+     * Find the first index in [1, firstRated) with a power value of at least p, or firstRated
+     * if there is none. Searches the running maximum of the curve from index 1, which is
+     * monotone even if the curve itself is not and reaches p at the same index.
+     */
+    private int firstSegmentEnd(double p) {
+        int low = 1;
+        int high = Math.max(1, firstRated);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (runningMax[mid] >= p) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
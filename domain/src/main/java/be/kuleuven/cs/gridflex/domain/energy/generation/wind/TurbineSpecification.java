@@ -1,5 +1,6 @@
 package be.kuleuven.cs.gridflex.domain.energy.generation.wind;
 
+import be.kuleuven.cs.gridflex.domain.util.data.ColumnarProfileStore;
 import com.google.auto.value.AutoValue;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
@@ -16,6 +17,7 @@ import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -81,6 +83,17 @@ public abstract class TurbineSpecification implements Serializable {
      */
     public abstract List<Double> getPowerCoefficientValues();
 
+    /**
+     * Build primitive lookup tables for converting between wind speeds and power output of
+     * this turbine type. Building is linear in the number of power curve points, so converters
+     * should build the curve once and reuse it.
+     *
+     * @return The power curve of this turbine type.
+     */
+    public final PowerCurve toPowerCurve() {
+        return new PowerCurve(getPowerValues(), getRatedPower());
+    }
+
     /**
      * Default creational method.
      *
@@ -99,12 +112,21 @@ public abstract class TurbineSpecification implements Serializable {
 
     /**
      * Load specs file from resource.
+     * If a binary profile store of the file is available (see {@link ColumnarProfileStore}),
+     * the specs are read from that store instead of parsing the csv file.
      *
      * @param filename The filename
      * @return A Turbine spec instance.
      * @throws IOException If the resource cannot be found.
      */
     public static TurbineSpecification loadFromResource(final String filename) throws IOException {
+        ColumnarProfileStore store = ColumnarProfileStore.findForResource(filename);
+        if (store != null && store.getColumnNames().containsAll(Arrays
+                .asList(BLADE_LENGTH_HEADER, POWER_RATE_HEADER, HUB_HEIGHT_HEADER, CUT_IN_HEADER,
+                        CUT_OUT_HEADER, WIND_VALUES_HEADER, POWER_VALUES_HEADER,
+                        POWER_COEFF_HEADER))) {
+            return loadFromStore(store);
+        }
         final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         final File file = new File(classLoader.getResource(filename).getFile());
         CSVFormat csvFileFormat = CSVFormat.DEFAULT.withFirstRecordAsHeader();
@@ -134,7 +156,29 @@ public abstract class TurbineSpecification implements Serializable {
             powerValues.add(Double.valueOf(record.get(POWER_VALUES_HEADER)));
             powerCoeffValues.add(Double.valueOf(record.get(POWER_COEFF_HEADER)));
         }
+        fileReader.close();
+        return fromPowerCurve(bladeLength, powerRate, hubHeight, cutIn, cutOut, wind,
+                powerValues, powerCoeffValues);
+    }
+
+    private static TurbineSpecification loadFromStore(ColumnarProfileStore store) {
+        double[] windColumn = store.readColumn(WIND_VALUES_HEADER);
+        IntList wind = new IntArrayList(windColumn.length);
+        for (double w : windColumn) {
+            wind.add((int) w);
+        }
+        return fromPowerCurve(store.columnView(BLADE_LENGTH_HEADER).get(0),
+                store.columnView(POWER_RATE_HEADER).get(0),
+                store.columnView(HUB_HEIGHT_HEADER).get(0),
+                store.columnView(CUT_IN_HEADER).get(0),
+                store.columnView(CUT_OUT_HEADER).get(0), wind,
+                DoubleArrayList.wrap(store.readColumn(POWER_VALUES_HEADER)),
+                DoubleArrayList.wrap(store.readColumn(POWER_COEFF_HEADER)));
+    }
 
+    private static TurbineSpecification fromPowerCurve(double bladeLength, double powerRate,
+            double hubHeight, double cutIn, double cutOut, IntList wind, DoubleList powerValues,
+            DoubleList powerCoeffValues) {
         int last = wind.get(wind.size() - 1);
         List<Double> corrPowerValues = new ArrayList(last + 1);
         List<Double> corrPowerCoeffValues = new ArrayList(last + 1);
@@ -148,7 +192,6 @@ public abstract class TurbineSpecification implements Serializable {
             corrPowerCoeffValues.set(wind.getInt(i), powerCoeffValues.get(i));
         }
 
-        fileReader.close();
         return new AutoValue_TurbineSpecification(bladeLength, powerRate, hubHeight, cutIn,
                 cutOut, corrPowerValues, corrPowerCoeffValues);
     }
@@ -3,7 +3,8 @@ package be.kuleuven.cs.gridflex.domain.finance;
 import be.kuleuven.cs.gridflex.domain.process.ResourceConsumptionTrackableComponent;
 import be.kuleuven.cs.gridflex.domain.resource.Resource;
 import be.kuleuven.cs.gridflex.domain.site.Site;
-import be.kuleuven.cs.gridflex.event.Event;
+import be.kuleuven.cs.gridflex.event.EventRing;
+import be.kuleuven.cs.gridflex.event.TypedEvent;
 import be.kuleuven.cs.gridflex.simulation.SimulationComponent;
 import be.kuleuven.cs.gridflex.simulation.SimulationContext;
 import com.google.common.base.Optional;
@@ -17,6 +18,10 @@ import java.util.List;
  * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
  */
 public class FinanceTrackerImpl implements FinanceTracker {
+    /**
+     * The type of the report events published after every tick.
+     */
+    public static final String REPORT_LITERAL = "report";
 
     private final ResourceConsumptionTrackableComponent target;
     private Optional<SimulationContext> context;
@@ -26,6 +31,7 @@ public class FinanceTrackerImpl implements FinanceTracker {
     private final DebtModel debtMod;
     private long itemCount;
     private long uid;
+    private Optional<EventRing<ReportField>> reports;
 
     /**
      * Default constructor based on trackable components.
@@ -41,12 +47,15 @@ public class FinanceTrackerImpl implements FinanceTracker {
         this.rewardMod = rm;
         this.debtMod = dm;
         this.itemCount = 0;
+        this.reports = Optional.absent();
     }
 
     @Override
     public void initialize(final SimulationContext context) {
         this.context = Optional.of(context);
         this.uid = context.getUIDGenerator().getNextUID();
+        this.reports = Optional.of(context.getEventFactory().buildRing(REPORT_LITERAL,
+                ReportField.class, 1));
     }
 
     /**
@@ -95,20 +104,16 @@ public class FinanceTrackerImpl implements FinanceTracker {
             throw new IllegalStateException(
                     "This component has not been correctly configured with a context.");
         }
-        final Event e = getContext().getEventFactory().build("report");
-        e.setAttribute("pLinehash", this.hashCode());
-        e.setAttribute("time",
-                getContext().getSimulationClock().getTimeCount());
-        e.setAttribute(uid + "totalLaststepE", totalLaststep);
-        e.setAttribute(uid + "totalTotalE", totalTotal);
-        e.setAttribute(uid + "totalProfitM", profit);
-        int idx = 0;
-        for (final long i : buffSizes) {
-            e.setAttribute(uid + "_buffer_" + idx++, i);
-        }
-        e.setAttribute(uid + "buffer_Fin", getItemCount());
+        final TypedEvent<ReportField> e = reports.get().next()
+                .setLong(ReportField.LINE_HASH, this.hashCode())
+                .setLong(ReportField.TIME, getContext().getSimulationClock().getTimeCount())
+                .setLong(ReportField.SOURCE, uid)
+                .setDouble(ReportField.LAST_STEP_CONSUMPTION, totalLaststep)
+                .setDouble(ReportField.TOTAL_CONSUMPTION, totalTotal)
+                .setDouble(ReportField.TOTAL_PROFIT, profit)
+                .setLongs(ReportField.BUFFER_LEVELS, buffSizes)
+                .setLong(ReportField.ITEM_COUNT, getItemCount());
         getContext().getEventbus().post(e);
-
     }
 
     @Override
@@ -236,4 +241,53 @@ public class FinanceTrackerImpl implements FinanceTracker {
             final int reward, final double factor) {
         return new BalancingFeeTracker(target, reward, factor);
     }
+
+    /**
+     * Fields of the report events published after every tick.
+     */
+    public enum ReportField {
+        /**
+         * Hash code of the tracker.
+         */
+        LINE_HASH("pLinehash"),
+        /**
+         * Simulation time of the report.
+         */
+        TIME("time"),
+        /**
+         * Unique ID of the tracker.
+         */
+        SOURCE("uid"),
+        /**
+         * Consumption of the tracked component in the last step.
+         */
+        LAST_STEP_CONSUMPTION("totalLaststepE"),
+        /**
+         * Total consumption of the tracked component.
+         */
+        TOTAL_CONSUMPTION("totalTotalE"),
+        /**
+         * Total profit.
+         */
+        TOTAL_PROFIT("totalProfitM"),
+        /**
+         * Occupancy levels of the buffers of the tracked component.
+         */
+        BUFFER_LEVELS("buffer"),
+        /**
+         * Number of finished items.
+         */
+        ITEM_COUNT("buffer_Fin");
+
+        private final String key;
+
+        ReportField(final String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
 }
@@ -12,6 +12,7 @@ import be.kuleuven.cs.gridflex.domain.workstation.WorkstationFactory;
 import be.kuleuven.cs.gridflex.domain.workstation.WorkstationVisitor;
 import be.kuleuven.cs.gridflex.simulation.SimulationComponent;
 import be.kuleuven.cs.gridflex.simulation.SimulationContext;
+import be.kuleuven.cs.gridflex.simulation.UIDGenerator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import edu.uci.ics.jung.graph.Graph;
@@ -80,19 +81,14 @@ public final class ProductionLine implements FlexProcess {
 
     @Override
     public void initialize(final SimulationContext context) {
+        final UIDGenerator generator = context.getUIDGenerator().fork();
         this.flexProcessor
-                .addFlexAspect(new FlexAspectImpl.SingleStationDownFlex(
-                        context.getUIDGenerator(), layout))
-                .addFlexAspect(new FlexAspectImpl.TwoStationsDownFlex(
-                        context.getUIDGenerator(), layout))
-                .addFlexAspect(new FlexAspectImpl.ThreeStationsDownFlex(
-                        context.getUIDGenerator(), layout))
-                .addFlexAspect(new FlexAspectImpl.UpFlex(
-                        context.getUIDGenerator(), layout))
-                .addFlexAspect(new FlexAspectImpl.SteerFlex(
-                        context.getUIDGenerator(), layout))
-                .addFlexAspect(new FlexAspectImpl.DualModeFlex(
-                        context.getUIDGenerator(), layout));
+                .addFlexAspect(new FlexAspectImpl.SingleStationDownFlex(generator, layout))
+                .addFlexAspect(new FlexAspectImpl.TwoStationsDownFlex(generator, layout))
+                .addFlexAspect(new FlexAspectImpl.ThreeStationsDownFlex(generator, layout))
+                .addFlexAspect(new FlexAspectImpl.UpFlex(generator, layout))
+                .addFlexAspect(new FlexAspectImpl.SteerFlex(generator, layout))
+                .addFlexAspect(new FlexAspectImpl.DualModeFlex(generator, layout));
     }
 
     @Override
@@ -24,6 +24,12 @@ import java.util.List;
  */
 public class SiteImpl implements Site {
 
+    /**
+     * Sites only depend on their own lines and stations during a tick, so the sites of a
+     * simulation can tick concurrently, each with its lines and stations.
+     */
+    private static final int PHASE_GROUP = 0;
+
     private final List<FlexProcess> processes;
     private Multimap<FlexProcess, FlexTuple> flex;
     private Listener<? super FlexTuple> activationListener;
@@ -97,6 +103,11 @@ public class SiteImpl implements Site {
         return toret;
     }
 
+    @Override
+    public int getPhaseGroup() {
+        return PHASE_GROUP;
+    }
+
     @Override
     public double getTotalConsumption() {
         double sum = 0;
@@ -206,7 +206,7 @@ public class SiteSimulation implements Site {
 
     @Override
     public void initialize(final SimulationContext context) {
-        this.generator = context.getUIDGenerator();
+        this.generator = context.getUIDGenerator().fork();
     }
 
     @Override
@@ -0,0 +1,367 @@
+package be.kuleuven.cs.gridflex.domain.util.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact columnar binary store for profile data, as a fast alternative to parsing csv files.
+ * A store holds a number of named columns of doubles of equal length. Files are memory-mapped
+ * when possible, so that opening a store is nearly free and the data pages are shared between
+ * all processes on the same host reading the same file.
+ * <p>
+ * File layout: the magic number, format version, row count and column count as 32-bit
+ * integers, followed by the length-prefixed UTF-8 column names, padding up to a multiple of
+ * 8 bytes and finally the values of each column as consecutive little-endian doubles.
+ * Empty csv cells are stored as {@link Double#NaN}.
+ * <p>
+ * Stores for csv resources are looked up next to the resource on the classpath, with the
+ * {@value EXTENSION} extension instead of .csv, or in the directory given by the
+ * {@value DIRECTORY_PROPERTY} system property.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ColumnarProfileStore {
+
+    /**
+     * The file extension of binary profile stores.
+     */
+    public static final String EXTENSION = ".gfp";
+    /**
+     * System property naming a directory to look for binary profile stores first.
+     */
+    public static final String DIRECTORY_PROPERTY = "gridflex.profiles.dir";
+    private static final int MAGIC = 0x47465053;
+    private static final int VERSION = 1;
+    private static final int ALIGNMENT = Double.BYTES;
+    private static final String CSV_EXTENSION = ".csv";
+    private static final ConcurrentMap<String, ColumnarProfileStore> OPENED = Maps
+            .newConcurrentMap();
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarProfileStore.class);
+
+    private final ByteBuffer data;
+    private final int rows;
+    private final List<String> columns;
+    private final Map<String, Integer> offsets;
+
+    private ColumnarProfileStore(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < 4 * Integer.BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Not a binary profile store.");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported profile store version: " + version);
+        }
+        this.rows = header.getInt();
+        int columnCount = header.getInt();
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (int i = 0; i < columnCount; i++) {
+            byte[] name = new byte[header.getShort() & 0xFFFF];
+            header.get(name);
+            names.add(new String(name, StandardCharsets.UTF_8));
+        }
+        this.columns = names.build();
+        int dataStart = align(header.position());
+        ImmutableMap.Builder<String, Integer> offs = ImmutableMap.builder();
+        for (int i = 0; i < columnCount; i++) {
+            offs.put(columns.get(i), dataStart + i * rows * Double.BYTES);
+        }
+        this.offsets = offs.build();
+        if (dataStart + (long) columnCount * rows * Double.BYTES > buffer.limit()) {
+            throw new IOException("Truncated profile store.");
+        }
+        this.data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Open a binary profile store file by memory-mapping it.
+     *
+     * @param file The store file.
+     * @return The opened store.
+     * @throws IOException If the file cannot be read or is not a valid store.
+     */
+    public static ColumnarProfileStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ColumnarProfileStore(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a binary profile store from a stream into memory.
+     *
+     * @param input The stream to read from.
+     * @return The store.
+     * @throws IOException If the stream cannot be read or is not a valid store.
+     */
+    public static ColumnarProfileStore read(InputStream input) throws IOException {
+        return new ColumnarProfileStore(ByteBuffer.wrap(ByteStreams.toByteArray(input)));
+    }
+
+    /**
+     * Find the binary store belonging to a csv resource. Stores are opened only once per JVM.
+     *
+     * @param csvResource The name of the csv resource.
+     * @return The store, or null if there is no binary version of the resource.
+     * @throws IOException If a store is found but cannot be read.
+     */
+    @Nullable
+    public static ColumnarProfileStore findForResource(String csvResource) throws IOException {
+        ColumnarProfileStore store = OPENED.get(csvResource);
+        if (store != null) {
+            return store;
+        }
+        store = lookup(csvResource);
+        if (store != null) {
+            ColumnarProfileStore prev = OPENED.putIfAbsent(csvResource, store);
+            return prev != null ? prev : store;
+        }
+        return null;
+    }
+
+    /**
+     * Forget all stores opened by {@link #findForResource(String)}.
+     */
+    @VisibleForTesting
+    static void clearOpenedStores() {
+        OPENED.clear();
+    }
+
+    @Nullable
+    private static ColumnarProfileStore lookup(String csvResource) throws IOException {
+        String binaryName = binaryNameFor(csvResource);
+        String dir = System.getProperty(DIRECTORY_PROPERTY);
+        if (dir != null) {
+            Path candidate = Paths.get(dir, binaryName);
+            if (Files.isReadable(candidate)) {
+                logger.debug("Loading profile store {}", candidate);
+                return open(candidate);
+            }
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        URL url = classLoader.getResource(binaryName);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            Path binary = toPath(url);
+            URL csvUrl = classLoader.getResource(csvResource);
+            if (csvUrl != null && "file".equals(csvUrl.getProtocol()) && Files
+                    .getLastModifiedTime(toPath(csvUrl))
+                    .compareTo(Files.getLastModifiedTime(binary)) > 0) {
+                logger.warn("Profile store {} is older than {}. Falling back to csv parsing.",
+                        binaryName, csvResource);
+                return null;
+            }
+            logger.debug("Loading profile store {}", binary);
+            return open(binary);
+        }
+        logger.debug("Reading profile store {} into memory", url);
+        try (InputStream in = url.openStream()) {
+            return read(in);
+        }
+    }
+
+    private static Path toPath(URL url) throws IOException {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid resource location: " + url, e);
+        }
+    }
+
+    /**
+     * @param csvName The name of a csv file or resource.
+     * @return The name of the binary store for that csv file.
+     */
+    public static String binaryNameFor(String csvName) {
+        String base = csvName.endsWith(CSV_EXTENSION) ?
+                csvName.substring(0, csvName.length() - CSV_EXTENSION.length()) : csvName;
+        return base + EXTENSION;
+    }
+
+    /**
+     * Convert a csv file with a header line to a binary store. Columns that contain values
+     * that are not numbers are left out. Empty cells are stored as {@link Double#NaN}.
+     *
+     * @param csv    The csv input.
+     * @param output The stream to write the store to.
+     * @return The names of the converted columns.
+     * @throws IOException If reading or writing fails.
+     */
+    public static List<String> convertCsv(InputStream csv, OutputStream output)
+            throws IOException {
+        CSVFormat csvFileFormat = CSVFormat.DEFAULT.withFirstRecordAsHeader();
+        Map<String, DoubleArrayList> parsed = Maps.newLinkedHashMap();
+        Set<String> skipped = Sets.newLinkedHashSet();
+        int rows = 0;
+        try (CSVParser parser = new CSVParser(
+                new InputStreamReader(csv, StandardCharsets.UTF_8), csvFileFormat)) {
+            for (String column : parser.getHeaderMap().keySet()) {
+                parsed.put(column, new DoubleArrayList());
+            }
+            for (CSVRecord record : parser) {
+                for (Map.Entry<String, DoubleArrayList> e : parsed.entrySet()) {
+                    String column = e.getKey();
+                    if (!skipped.contains(column)) {
+                        String value = record.isSet(column) ? record.get(column).trim() : "";
+                        try {
+                            e.getValue().add(value.isEmpty() ? Double.NaN :
+                                    Double.parseDouble(value));
+                        } catch (NumberFormatException ex) {
+                            skipped.add(column);
+                        }
+                    }
+                }
+                rows++;
+            }
+        }
+        parsed.keySet().removeAll(skipped);
+        if (!skipped.isEmpty()) {
+            logger.info("Columns left out because of non-numeric values: {}", skipped);
+        }
+        write(parsed, rows, output);
+        return ImmutableList.copyOf(parsed.keySet());
+    }
+
+    /**
+     * Write columns of equal length to a binary store.
+     *
+     * @param columns The named columns.
+     * @param rows    The length of all columns.
+     * @param output  The stream to write the store to.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Map<String, DoubleArrayList> columns, int rows,
+            OutputStream output) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(rows);
+        header.writeInt(columns.size());
+        for (Map.Entry<String, DoubleArrayList> e : columns.entrySet()) {
+            checkArgument(e.getValue().size() == rows, "Column %s should have %s values.",
+                    e.getKey(), rows);
+            byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+            header.writeShort(name.length);
+            header.write(name);
+        }
+        header.flush();
+        int padding = align(headerBytes.size()) - headerBytes.size();
+        header.write(new byte[padding]);
+        header.flush();
+        output.write(headerBytes.toByteArray());
+        ByteBuffer buffer = ByteBuffer.allocate(rows * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (DoubleArrayList values : columns.values()) {
+            buffer.clear();
+            buffer.asDoubleBuffer().put(values.elements(), 0, rows);
+            output.write(buffer.array());
+        }
+        output.flush();
+    }
+
+    private static int align(int position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * @return The number of values in every column.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return The names of the columns in this store.
+     */
+    public List<String> getColumnNames() {
+        return columns;
+    }
+
+    /**
+     * @param column The column name.
+     * @return True if this store contains the column.
+     */
+    public boolean hasColumn(String column) {
+        return offsets.containsKey(column);
+    }
+
+    /**
+     * Read-only view on the values of a column, without copying.
+     *
+     * @param column The column name.
+     * @return The values of the column.
+     */
+    public DoubleBuffer columnView(String column) {
+        Integer offset = offsets.get(column);
+        checkArgument(offset != null, "No column %s in store.", column);
+        ByteBuffer slice = data.duplicate();
+        slice.position(offset);
+        slice.limit(offset + rows * Double.BYTES);
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * @param column The column name.
+     * @return A copy of the values of the column.
+     */
+    public double[] readColumn(String column) {
+        double[] values = new double[rows];
+        columnView(column).get(values);
+        return values;
+    }
+
+    /**
+     * Convert a csv file to a binary store next to it.
+     *
+     * @param csvFile The csv file.
+     * @return The written store file.
+     * @throws IOException If reading or writing fails.
+     */
+    public static Path convertCsvFile(Path csvFile) throws IOException {
+        Path out = csvFile.resolveSibling(binaryNameFor(csvFile.getFileName().toString()));
+        try (InputStream in = Files.newInputStream(csvFile);
+             OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+            convertCsv(in, os);
+        }
+        return out;
+    }
+}
@@ -1,13 +1,14 @@
 package be.kuleuven.cs.gridflex.domain.util.data.profiles;
 
+import be.kuleuven.cs.gridflex.domain.util.data.ColumnarProfileStore;
 import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
-import com.google.common.collect.Lists;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
 import it.unimi.dsi.fastutil.doubles.DoubleLists;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.math3.stat.descriptive.AbstractUnivariateStatistic;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.io.IOException;
@@ -15,7 +16,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 import java.util.function.IntToDoubleFunction;
 
@@ -23,6 +25,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * A time series representation of values in energy domain contexts.
+ * Values are kept in a primitive double array. The primitive operations ({@link #map} and
+ * {@link #zip}) work directly on that array without boxing. Profiles are shared between
+ * threads, so operations never change the values of a profile but return a new profile.
  *
  * @param <R> The concrete implementation type of the series.
  * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
@@ -31,7 +36,7 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
         implements TimeSeries, Serializable {
 
     private static final long serialVersionUID = -7784771631667547974L;
-    private DoubleList dValues;
+    private DoubleArrayList dValues;
 
     @Nullable
     private Double maxcache;
@@ -52,6 +57,8 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
 
     /**
      * Load and parse time series from file.
+     * If a binary profile store of the file is available (see {@link ColumnarProfileStore}),
+     * the values are read from that store instead of parsing the csv file.
      *
      * @param filename the name of the file to parse and load.
      * @param column   the label of the column to parse and use as time series.
@@ -59,23 +66,28 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
      * @throws NullPointerException when the input file cannot be found.
      */
     public void load(final String filename, final String column) throws IOException {
-        final List<Double> dataRead = Lists.newArrayList();
+        ColumnarProfileStore store = ColumnarProfileStore.findForResource(filename);
+        if (store != null && store.hasColumn(column)) {
+            dValues = DoubleArrayList.wrap(store.readColumn(column));
+            resetCache();
+            return;
+        }
+        final DoubleArrayList dataRead = new DoubleArrayList();
         final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         CSVFormat csvFileFormat = CSVFormat.DEFAULT.withFirstRecordAsHeader();
 
         InputStream resourceAsStream = classLoader.getResourceAsStream(filename);
-        InputStreamReader fileReader = new InputStreamReader(
+        try (InputStreamReader fileReader = new InputStreamReader(
                 resourceAsStream, StandardCharsets.UTF_8);
-        Iterable<CSVRecord> records = new CSVParser(fileReader, csvFileFormat).getRecords();
-
-        for (CSVRecord record : records) {
-            dataRead.add(Double.valueOf(record.get(column)));
+             CSVParser parser = new CSVParser(fileReader, csvFileFormat)) {
+            for (CSVRecord record : parser) {
+                dataRead.add(Double.parseDouble(record.get(column)));
+            }
         }
 
-        dValues = new DoubleArrayList();
-        dValues.addAll(dataRead);
+        dataRead.trim();
+        dValues = dataRead;
         resetCache();
-        fileReader.close();
     }
 
     @Override
@@ -85,7 +97,7 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
 
     @Override
     public double value(final int index) {
-        checkArgument(index >= 0 && index < length(), "Index out of bounds: " + index);
+        checkArgument(index >= 0 && index < length(), "Index out of bounds: %s", index);
         return dValues.getDouble(index);
     }
 
@@ -130,21 +142,59 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
         return sumcache;
     }
 
+    /**
+     * Statistics are evaluated on the backing array directly instead of on a copy.
+     */
+    @Override
+    public double applyStatistic(final AbstractUnivariateStatistic stat) {
+        return stat.evaluate(dValues.elements(), 0, dValues.size());
+    }
+
+    /**
+     * Create a new empty profile of the concrete type.
+     *
+     * @return A new profile instance.
+     */
+    abstract R newInstance();
+
+    /**
+     * Create a new profile of the concrete type backed by the given array without copying it.
+     * Only for arrays computed by this profile that are not referenced anywhere else.
+     *
+     * @param values The values of the new profile.
+     * @return A new profile instance.
+     */
+    private R wrapNoCopy(double[] values) {
+        R profile = newInstance();
+        ((AbstractTimeSeriesImplementation<?>) profile).dValues = DoubleArrayList.wrap(values);
+        return profile;
+    }
+
     /**
      * Apply a double to double function to the elements in this profile and return a new profile.
+     * Boxes every element, prefer {@link #map(DoubleUnaryOperator)}.
      *
      * @param function The function transformation to apply.
      * @return A new profile instance.
      */
-    public abstract R transform(Function<Double, Double> function);
+    public R transform(Function<Double, Double> function) {
+        return map(function::apply);
+    }
 
     /**
-     * Apply a double to double function to the elements in this profile and return a new profile.
+     * Create a new profile with values computed from the index in this profile.
+     * Indices are visited in increasing order.
      *
      * @param function The function transformation to apply.
      * @return A new profile instance.
      */
-    public abstract R transformFromIndex(IntToDoubleFunction function);
+    public R transformFromIndex(IntToDoubleFunction function) {
+        double[] result = new double[length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = function.applyAsDouble(i);
+        }
+        return wrapNoCopy(result);
+    }
 
     /**
      * Subtract argument time series from this profile.
@@ -152,6 +202,75 @@ public abstract class AbstractTimeSeriesImplementation<R extends AbstractTimeSer
      * @param ts The ts to subtract from this profile.
      * @return A new profile instance.
      */
-    public abstract R subtractValues(TimeSeries ts);
+    public R subtractValues(TimeSeries ts) {
+        return zip(ts, (a, b) -> a - b);
+    }
 
+    /**
+     * Apply a function to every element in this profile and return the results as a new
+     * profile. Chain operators with {@link DoubleUnaryOperator#andThen} to apply several
+     * transformations in a single pass.
+     *
+     * @param operator The operator to apply.
+     * @return A new profile instance.
+     */
+    public R map(DoubleUnaryOperator operator) {
+        double[] source = dValues.elements();
+        double[] result = new double[length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = operator.applyAsDouble(source[i]);
+        }
+        return wrapNoCopy(result);
+    }
+
+    /**
+     * Combine the elements of this profile pairwise with those of another series and return the
+     * results as a new profile.
+     *
+     * @param other    The other series of equal length.
+     * @param operator The operator taking the value of this profile as first argument.
+     * @return A new profile instance.
+     */
+    public R zip(TimeSeries other, DoubleBinaryOperator operator) {
+        return zipAndMap(other, operator, DoubleUnaryOperator.identity());
+    }
+
+    /**
+     * Combine the elements of this profile pairwise with those of another series, apply a
+     * function to every result and return the outcome as a new profile, in a single pass.
+     *
+     * @param other    The other series of equal length.
+     * @param operator The operator taking the value of this profile as first argument.
+     * @param after    The operator to apply to the combined values.
+     * @return A new profile instance.
+     */
+    public R zipAndMap(TimeSeries other, DoubleBinaryOperator operator,
+            DoubleUnaryOperator after) {
+        checkArgument(other.length() == length(),
+                "Timeseries should be equal in length to this profile.");
+        double[] source = dValues.elements();
+        double[] result = new double[length()];
+        if (other instanceof AbstractTimeSeriesImplementation) {
+            double[] otherSource = ((AbstractTimeSeriesImplementation<?>) other).dValues
+                    .elements();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = after
+                        .applyAsDouble(operator.applyAsDouble(source[i], otherSource[i]));
+            }
+        } else {
+            DoubleList otherValues = other.values();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = after.applyAsDouble(
+                        operator.applyAsDouble(source[i], otherValues.getDouble(i)));
+            }
+        }
+        return wrapNoCopy(result);
+    }
+
+    /**
+     * @return A copy of the values of this profile.
+     */
+    public double[] toArray() {
+        return dValues.toDoubleArray();
+    }
 }
@@ -1,17 +1,10 @@
 package be.kuleuven.cs.gridflex.domain.util.data.profiles;
 
 import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
-import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.function.Function;
-import java.util.function.IntToDoubleFunction;
-import java.util.stream.DoubleStream;
-import java.util.stream.IntStream;
-
-import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Data time series to represent grid congestion in energy volumes of kWh.
@@ -34,34 +27,9 @@ public class CongestionProfile extends AbstractTimeSeriesImplementation<Congesti
         super(values);
     }
 
-    /**
-     * Apply a double to double function to the elements in this profile and return a new profile.
-     * Units are in volumes of energy, KWh.
-     *
-     * @param function The function transformation to apply.
-     * @return A new Congestion profile instance.
-     */
     @Override
-    public CongestionProfile transform(Function<Double, Double> function) {
-        return new CongestionProfile(
-                DoubleStream.of(values().toDoubleArray()).map(function::apply).toArray());
-    }
-
-    @Override
-    public CongestionProfile transformFromIndex(IntToDoubleFunction function) {
-        return new CongestionProfile(IntStream.range(0, length())
-                .mapToDouble(function::applyAsDouble).toArray());
-    }
-
-    @Override
-    public CongestionProfile subtractValues(TimeSeries ts) {
-        checkArgument(ts.length() == length(),
-                "Timeseries should be equal in length to this profile.");
-        DoubleList dl = new DoubleArrayList(length());
-        for (int i = 0; i < length(); i++) {
-            dl.add(value(i) - ts.value(i));
-        }
-        return new CongestionProfile(dl);
+    CongestionProfile newInstance() {
+        return new CongestionProfile();
     }
 
     /**
@@ -90,6 +58,17 @@ public class CongestionProfile extends AbstractTimeSeriesImplementation<Congesti
         return new CongestionProfile(series.values());
     }
 
+    /**
+     * Factory method for building time series from an array of values.
+     * The array is copied.
+     *
+     * @param values The values of the series.
+     * @return the time series.
+     */
+    public static CongestionProfile createFromArray(final double[] values) {
+        return new CongestionProfile(values);
+    }
+
     /**
      * Create a new empty congestion profile.
      *
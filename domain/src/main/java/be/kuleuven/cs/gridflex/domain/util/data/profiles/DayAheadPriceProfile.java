@@ -6,12 +6,6 @@ import it.unimi.dsi.fastutil.doubles.DoubleList;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.function.Function;
-import java.util.function.IntToDoubleFunction;
-import java.util.stream.DoubleStream;
-import java.util.stream.IntStream;
-
-import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Data time series to represent grid congestion in energy volumes of kWh.
@@ -35,34 +29,9 @@ public class DayAheadPriceProfile
         super(values);
     }
 
-    /**
-     * Apply a double to double function to the elements in this profile and return a new profile.
-     * Units are in volumes of energy, KWh.
-     *
-     * @param function The function transformation to apply.
-     * @return A new Congestion profile instance.
-     */
-    @Override
-    public DayAheadPriceProfile transform(Function<Double, Double> function) {
-        return new DayAheadPriceProfile(
-                DoubleStream.of(values().toDoubleArray()).map(function::apply).toArray());
-    }
-
-    @Override
-    public DayAheadPriceProfile transformFromIndex(IntToDoubleFunction function) {
-        return new DayAheadPriceProfile(IntStream.range(0, length())
-                .mapToDouble(function::applyAsDouble).toArray());
-    }
-
     @Override
-    public DayAheadPriceProfile subtractValues(TimeSeries ts) {
-        checkArgument(ts.length() == length(),
-                "Timeseries should be equal in length to this profile.");
-        DoubleList dl = new DoubleArrayList(length());
-        for (int i = 0; i < length(); i++) {
-            dl.add(value(i) - ts.value(i));
-        }
-        return new DayAheadPriceProfile(dl);
+    DayAheadPriceProfile newInstance() {
+        return new DayAheadPriceProfile();
     }
 
     /**
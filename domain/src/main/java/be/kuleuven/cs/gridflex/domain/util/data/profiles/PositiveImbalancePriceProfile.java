@@ -1,17 +1,10 @@
 package be.kuleuven.cs.gridflex.domain.util.data.profiles;
 
 import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
-import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.function.Function;
-import java.util.function.IntToDoubleFunction;
-import java.util.stream.DoubleStream;
-import java.util.stream.IntStream;
-
-import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Data time series to represent grid congestion in energy volumes of kWh.
@@ -35,34 +28,9 @@ public class PositiveImbalancePriceProfile
         super(values);
     }
 
-    /**
-     * Apply a double to double function to the elements in this profile and return a new profile.
-     * Units are in volumes of energy, KWh.
-     *
-     * @param function The function transformation to apply.
-     * @return A new Congestion profile instance.
-     */
     @Override
-    public PositiveImbalancePriceProfile transform(Function<Double, Double> function) {
-        return new PositiveImbalancePriceProfile(
-                DoubleStream.of(values().toDoubleArray()).map(function::apply).toArray());
-    }
-
-    @Override
-    public PositiveImbalancePriceProfile transformFromIndex(IntToDoubleFunction function) {
-        return new PositiveImbalancePriceProfile(IntStream.range(0, length())
-                .mapToDouble(function::applyAsDouble).toArray());
-    }
-
-    @Override
-    public PositiveImbalancePriceProfile subtractValues(TimeSeries ts) {
-        checkArgument(ts.length() == length(),
-                "Timeseries should be equal in length to this profile.");
-        DoubleList dl = new DoubleArrayList(length());
-        for (int i = 0; i < length(); i++) {
-            dl.add(value(i) - ts.value(i));
-        }
-        return new PositiveImbalancePriceProfile(dl);
+    PositiveImbalancePriceProfile newInstance() {
+        return new PositiveImbalancePriceProfile();
     }
 
     /**
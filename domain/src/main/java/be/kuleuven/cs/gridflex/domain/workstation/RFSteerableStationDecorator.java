@@ -145,7 +145,8 @@ public class RFSteerableStationDecorator extends SteerableStationDecorator
 
     @Override
     public void initialize(final SimulationContext context) {
-        this.g = context.getRandom();
+        // A generator of its own, as stations of different sites can tick concurrently.
+        this.g = new MersenneTwister(context.getRandom().nextLong());
         super.initialize(context);
     }
 
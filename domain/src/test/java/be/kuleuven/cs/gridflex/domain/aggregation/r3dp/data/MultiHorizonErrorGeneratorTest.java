@@ -0,0 +1,62 @@
+package be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data;
+
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.MultiHorizonErrorGenerator
+        .RandomSource;
+import be.kuleuven.cs.gridflex.domain.util.data.WindSpeedForecastMultiHorizonErrorDistribution;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class MultiHorizonErrorGeneratorTest {
+    private static final long SEED = 1312421L;
+    private WindSpeedForecastMultiHorizonErrorDistribution distribution;
+    private int[] horizons;
+
+    @Before
+    public void setUp() throws IOException {
+        distribution = WindSpeedForecastMultiHorizonErrorDistribution
+                .loadFromCSV("windspeedDistributions.csv");
+        horizons = new int[500];
+        for (int i = 0; i < horizons.length; i++) {
+            horizons[i] = i % 24 + 9;
+        }
+    }
+
+    @Test
+    public void testBulkEqualsSequential() {
+        for (ErrorDistributionType type : ErrorDistributionType.values()) {
+            for (RandomSource source : RandomSource.values()) {
+                double[] bulk = type.createErrorGenerator(SEED, distribution, source)
+                        .generateErrors(horizons);
+                MultiHorizonErrorGenerator gen = type
+                        .createErrorGenerator(SEED, distribution, source);
+                double[] sequential = new double[horizons.length];
+                for (int i = 0; i < horizons.length; i++) {
+                    sequential[i] = gen.generateErrorForHorizon(horizons[i]);
+                }
+                assertArrayEquals(sequential, bulk, 0);
+            }
+        }
+    }
+
+    @Test
+    public void testReproducible() {
+        for (RandomSource source : RandomSource.values()) {
+            double[] first = new MultiHorizonNormalErrorGenerator(SEED, distribution, source)
+                    .generateErrors(horizons);
+            double[] second = new MultiHorizonNormalErrorGenerator(SEED, distribution, source)
+                    .generateErrors(horizons);
+            assertArrayEquals(first, second, 0);
+            double[] other = new MultiHorizonNormalErrorGenerator(SEED + 1, distribution, source)
+                    .generateErrors(horizons);
+            assertFalse(first[0] == other[0] && first[1] == other[1]);
+        }
+    }
+}
@@ -103,6 +103,39 @@ public class TurbineConvertorTest {
         assertEqualArrays(expected, actual);
     }
 
+    @Test
+    public void testFusedConversionEqualsChained() throws IOException {
+        WindSpeedForecastMultiHorizonErrorDistribution distribution =
+                WindSpeedForecastMultiHorizonErrorDistribution
+                        .loadFromCSV("windspeedDistributions.csv");
+        CongestionProfile chained = new TurbineProfileConverter(c2, specs,
+                new MultiHorizonNormalErrorGenerator(SEED, distribution))
+                .convertProfileToPositiveOnlyImbalanceVolumes();
+        CongestionProfile fused = new TurbineProfileConverter(c2, specs,
+                new MultiHorizonNormalErrorGenerator(SEED, distribution))
+                .convertProfileToPositiveOnlyImbalanceVolumes(i -> i % 2 == 0);
+        List<Double> expected = chained.transformFromIndex(i -> i % 2 == 0 ? chained.value(i) : 0)
+                .values();
+        assertEqualArrays(expected, fused.values());
+    }
+
+    @Test
+    public void testSharedConversionData() throws IOException {
+        WindSpeedForecastMultiHorizonErrorDistribution distribution =
+                WindSpeedForecastMultiHorizonErrorDistribution
+                        .loadFromCSV("windspeedDistributions.csv");
+        ProfileConversionData data = ProfileConversionData.create(c2);
+        CongestionProfile expected = new TurbineProfileConverter(c2, specs,
+                new MultiHorizonNormalErrorGenerator(SEED, distribution))
+                .convertProfileToImbalanceVolumes();
+        for (int i = 0; i < 2; i++) {
+            CongestionProfile actual = new TurbineProfileConverter(data, specs,
+                    new MultiHorizonNormalErrorGenerator(SEED, distribution))
+                    .convertProfileToImbalanceVolumes();
+            assertEqualArrays(expected.values(), actual.values());
+        }
+    }
+
     private CongestionProfile toWindAndBackWErrors(CableCurrentProfile c2,
             TurbineSpecification specs) {
         TurbineProfileConverter t = new TurbineProfileConverter(c2, specs, generator);
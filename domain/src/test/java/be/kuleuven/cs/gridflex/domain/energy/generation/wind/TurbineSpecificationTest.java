@@ -17,5 +17,22 @@ public class TurbineSpecificationTest {
         assertEquals(26, target.getPowerValues().size(), 0);
     }
 
+    @Test
+    public void testPowerCurveLookups() throws Exception {
+        target = TurbineSpecification.loadFromResource(targetfile);
+        PowerCurve curve = target.toPowerCurve();
+        double max = target.getRatedPower() * 1.1;
+        for (int w = 0; w <= 12; w++) {
+            assertEquals(target.getPowerValues().get(w), curve.windToPower(w, max), 0);
+        }
+        assertEquals((37 + 118) / 2d, curve.windToPower(3.5, max), 1e-9);
+        assertEquals(0, curve.windToPower(40, max), 0);
+        for (int w = 2; w <= 12; w++) {
+            assertEquals(w, curve.powerToWind(target.getPowerValues().get(w), max), 1e-9);
+        }
+        assertEquals(3.5, curve.powerToWind((37 + 118) / 2d, max), 1e-9);
+        for (double p = 0; p < target.getRatedPower(); p += 7.3) {
+            assertEquals(p, curve.windToPower(curve.powerToWind(p, max), max), 1e-6);
+        }
+    }
 }
-
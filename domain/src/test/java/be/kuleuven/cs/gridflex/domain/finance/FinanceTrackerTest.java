@@ -9,9 +9,12 @@ import be.kuleuven.cs.gridflex.domain.resource.ResourceFactory;
 import be.kuleuven.cs.gridflex.domain.site.ActivateFlexCommand;
 import be.kuleuven.cs.gridflex.domain.site.Site;
 import be.kuleuven.cs.gridflex.domain.site.SiteBuilder;
+import be.kuleuven.cs.gridflex.event.TypedEvent;
+import be.kuleuven.cs.gridflex.simulation.InstrumentationComponent;
 import be.kuleuven.cs.gridflex.simulation.SimulationComponent;
 import be.kuleuven.cs.gridflex.simulation.SimulationContext;
 import be.kuleuven.cs.gridflex.simulation.Simulator;
+import com.google.common.eventbus.Subscribe;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -67,6 +70,21 @@ public class FinanceTrackerTest {
                 ((ChangeEventComponent) tester).getLastType());
     }
 
+    @Test
+    public void testTypedReport() {
+        ProductionLine line = new ProductionLineBuilder().addShifted(1).build();
+        t = FinanceTrackerImpl.createDefault(line);
+        line.deliverResources(ResourceFactory.createBulkMPResource(3, 3, 1));
+        ReportRecorder recorder = new ReportRecorder();
+        sim.register(t);
+        sim.register(recorder);
+        ((Simulator) sim).start();
+        assertEquals(20, recorder.reports);
+        assertEquals(20, recorder.lastTime);
+        assertEquals(t.getTotalProfit(), recorder.lastProfit, 0);
+        assertEquals(line.getBufferOccupancyLevels().size(), recorder.lastBufferCount);
+    }
+
     @Test
     public void getCurrentPaymentRateTest() {
         ProductionLine mockPL = new ProductionLineBuilder().addShifted(1)
@@ -208,4 +226,29 @@ public class FinanceTrackerTest {
         });
         assertEquals(pay * (max - base) / tuples, t.getTotalProfit(), 0);
     }
+
+    public static class ReportRecorder implements InstrumentationComponent {
+        private int reports;
+        private long lastTime;
+        private double lastProfit;
+        private int lastBufferCount;
+
+        @Override
+        public void initialize(SimulationContext context) {
+        }
+
+        @Subscribe
+        public void recordReport(TypedEvent<?> e) {
+            if (FinanceTrackerImpl.ReportField.class.equals(e.getSchema())) {
+                @SuppressWarnings("unchecked")
+                TypedEvent<FinanceTrackerImpl.ReportField> report =
+                        (TypedEvent<FinanceTrackerImpl.ReportField>) e;
+                reports++;
+                lastTime = report.getLong(FinanceTrackerImpl.ReportField.TIME);
+                lastProfit = report.getDouble(FinanceTrackerImpl.ReportField.TOTAL_PROFIT);
+                lastBufferCount = report
+                        .getLongCount(FinanceTrackerImpl.ReportField.BUFFER_LEVELS);
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package be.kuleuven.cs.gridflex.domain.site;
 import be.kuleuven.cs.gridflex.domain.process.FlexProcess;
 import be.kuleuven.cs.gridflex.domain.util.FlexTuple;
 import be.kuleuven.cs.gridflex.simulation.Simulator;
+import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -59,6 +60,25 @@ public class SiteSimulationTest {
                 site.getTotalConsumption(), 0);
     }
 
+    @Test
+    public void testIdsIndependentOfOtherSites() {
+        assertEquals(flexIds(true), flexIds(false));
+    }
+
+    private List<Long> flexIds(boolean otherSiteFirst) {
+        Site first = new SiteSimulation(BASE, MIN, MAX, MAXTUPLES);
+        Site other = new SiteSimulation(BASE, MIN, MAX, MAXTUPLES);
+        Simulator s = Simulator.createSimulator(SIMSTEPS);
+        s.register(first);
+        s.register(other);
+        if (otherSiteFirst) {
+            other.getFlexTuples();
+        }
+        List<Long> ids = Lists.newArrayList();
+        first.getFlexTuples().forEach(t -> ids.add(t.getId()));
+        return ids;
+    }
+
     @Test
     public void testChangeConsumption() {
         Simulator s = Simulator.createSimulator(SIMSTEPS);
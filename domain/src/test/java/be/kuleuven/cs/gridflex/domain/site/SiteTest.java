@@ -4,6 +4,8 @@ import be.kuleuven.cs.gridflex.domain.process.ProductionLine;
 import be.kuleuven.cs.gridflex.domain.resource.ResourceFactory;
 import be.kuleuven.cs.gridflex.domain.util.FlexTuple;
 import be.kuleuven.cs.gridflex.domain.workstation.DualModeWorkstation;
+import be.kuleuven.cs.gridflex.simulation.SimulationComponent;
+import be.kuleuven.cs.gridflex.simulation.SimulationContext;
 import be.kuleuven.cs.gridflex.simulation.Simulator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -11,6 +13,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -215,6 +218,67 @@ public class SiteTest {
         assertTrue(before < after);
     }
 
+    @Test
+    public void testParallelSitesMatchSerial() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(runSites(Simulator.createSimulator(300, 7)),
+                    runSites(Simulator.createParallelSimulator(300, 7, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Object> runSites(Simulator sim) {
+        List<Site> sites = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            ProductionLine line1 = new ProductionLine.ProductionLineBuilder()
+                    .addShifted(3).addMultiCapExponentialConsuming(2, 15)
+                    .addShifted(3).build();
+            ProductionLine line2 = new ProductionLine.ProductionLineBuilder()
+                    .addRFSteerableStation(2, 20).build();
+            sites.add(new SiteImpl(line1, line2));
+        }
+        FlexActivator activator = new FlexActivator(sites);
+        sim.register(activator);
+        sites.forEach(sim::register);
+        sim.start();
+        List<Object> result = Lists.newArrayList(activator.activated);
+        for (Site site : sites) {
+            result.add(site.getTotalConsumption());
+            result.add(site.getBufferOccupancyLevels());
+        }
+        return result;
+    }
+
+    private static class FlexActivator implements SimulationComponent {
+        private final List<Site> sites;
+        private final List<Long> activated = Lists.newArrayList();
+        private SimulationContext context;
+
+        FlexActivator(List<Site> sites) {
+            this.sites = sites;
+        }
+
+        @Override
+        public void initialize(SimulationContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void tick(int t) {
+            for (Site site : sites) {
+                site.deliverResources(ResourceFactory.createBulkMPResource(2, 3, 3));
+                List<FlexTuple> flex = site.getFlexTuples();
+                if (t % 10 == 0 && !flex.isEmpty()) {
+                    long id = flex.get(context.getRandom().nextInt(flex.size())).getId();
+                    site.activateFlex(() -> id);
+                    activated.add(id);
+                }
+            }
+        }
+    }
+
     private Site genHighSite() {
         ProductionLine line1 = new ProductionLine.ProductionLineBuilder()
                 .addRFSteerableStation(2, 20).build();
@@ -0,0 +1,94 @@
+package be.kuleuven.cs.gridflex.domain.util.data;
+
+import be.kuleuven.cs.gridflex.domain.energy.generation.wind.TurbineSpecification;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class ColumnarProfileStoreTest {
+    private static final String CSV = "a,b,name\n1,2.5,x\n3,,y\n-4.25,6,z\n";
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("profilestore");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(ColumnarProfileStore.DIRECTORY_PROPERTY);
+        ColumnarProfileStore.clearOpenedStores();
+        for (Path p : Files.newDirectoryStream(dir)) {
+            Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testConvertAndOpen() throws IOException {
+        Path file = dir.resolve("data" + ColumnarProfileStore.EXTENSION);
+        List<String> columns;
+        try (InputStream in = new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8));
+             OutputStream out = Files.newOutputStream(file)) {
+            columns = ColumnarProfileStore.convertCsv(in, out);
+        }
+        assertEquals(Arrays.asList("a", "b"), columns);
+        ColumnarProfileStore store = ColumnarProfileStore.open(file);
+        assertEquals(3, store.getRowCount());
+        assertFalse(store.hasColumn("name"));
+        assertArrayEquals(new double[] { 1, 3, -4.25 }, store.readColumn("a"), 0);
+        double[] b = store.readColumn("b");
+        assertEquals(2.5, b[0], 0);
+        assertTrue(Double.isNaN(b[1]));
+        assertEquals(6, store.columnView("b").get(2), 0);
+    }
+
+    @Test
+    public void testLoadProfileFromStore() throws IOException {
+        try (InputStream in = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream("test.csv");
+             OutputStream out = Files.newOutputStream(
+                     dir.resolve(ColumnarProfileStore.binaryNameFor("test.csv")))) {
+            ColumnarProfileStore.convertCsv(in, out);
+        }
+        System.setProperty(ColumnarProfileStore.DIRECTORY_PROPERTY, dir.toString());
+        assertTrue(ColumnarProfileStore.findForResource("test.csv") != null);
+        CongestionProfile fromStore = CongestionProfile.createFromCSV("test.csv", "test");
+        assertTrue(fromStore.length() > 0);
+        assertEquals(ColumnarProfileStore.findForResource("test.csv").getRowCount(),
+                fromStore.length());
+    }
+
+    @Test
+    public void testTurbineSpecificationFromStore() throws IOException {
+        String specs = "specs_enercon_e101-e1.csv";
+        TurbineSpecification expected = TurbineSpecification.loadFromResource(specs);
+        try (InputStream in = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(specs);
+             OutputStream out = Files
+                     .newOutputStream(dir.resolve(ColumnarProfileStore.binaryNameFor(specs)))) {
+            ColumnarProfileStore.convertCsv(in, out);
+        }
+        System.setProperty(ColumnarProfileStore.DIRECTORY_PROPERTY, dir.toString());
+        assertEquals(expected, TurbineSpecification.loadFromResource(specs));
+    }
+}
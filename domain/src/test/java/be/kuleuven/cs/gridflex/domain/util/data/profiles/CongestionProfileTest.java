@@ -118,4 +118,29 @@ public class CongestionProfileTest {
         assertEquals(13, profile3.median(), 0.05);
 
     }
+
+    @Test
+    public void testMap() {
+        profile2 = new CongestionProfile(new double[] { 5, 6, 7, 8 });
+        CongestionProfile profile3 = profile2.map(r -> r * 2);
+        assertEquals(13, profile3.median(), 0.05);
+        assertEquals(5, profile2.value(0), 0);
+    }
+
+    @Test
+    public void testArrayIsCopied() {
+        double[] values = { 5, 6, 7, 8 };
+        profile2 = CongestionProfile.createFromArray(values);
+        values[0] = 0;
+        assertEquals(5, profile2.value(0), 0);
+    }
+
+    @Test
+    public void testZip() {
+        profile2 = new CongestionProfile(new double[] { 5, 6, 7, 8 });
+        CongestionProfile other = new CongestionProfile(new double[] { 1, 2, 3, 4 });
+        assertEquals(16, profile2.subtractValues(other).sum(), 0);
+        assertEquals(8, profile2.zipAndMap(other, (a, b) -> a - b, d -> d / 2).sum(), 0);
+        assertEquals(26, profile2.sum(), 0);
+    }
 }
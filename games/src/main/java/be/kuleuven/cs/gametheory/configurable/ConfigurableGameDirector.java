@@ -2,14 +2,21 @@ package be.kuleuven.cs.gametheory.configurable;
 
 import be.kuleuven.cs.gametheory.AbstractGameDirector;
 import be.kuleuven.cs.gametheory.results.HeuristicSymmetricPayoffMatrix;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 
 import java.util.List;
+import java.util.SortedMap;
 
 /**
  * A game director for configurable games. This director generates configurations that can be
  * used for instantiation later as opposed to the direction of generating runnable instances.
+ * Results can be handed to this director as soon as they become available, in any order and
+ * from any thread. They are gathered in the order of the playable versions once all versions
+ * have been played, so the outcome does not depend on the order of completion.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
@@ -17,7 +24,9 @@ public class ConfigurableGameDirector
         extends AbstractGameDirector<GameInstanceConfiguration, GameInstanceResult,
         HeuristicSymmetricPayoffMatrix> {
 
-    private final List<GameInstanceResult> results;
+    private final List<GameInstanceConfiguration> versions;
+    private final SortedMap<Integer, GameInstanceResult> results;
+    private final ListMultimap<ImmutableMap<Integer, Integer>, Integer> unplayed;
 
     /**
      * Default constructor.
@@ -26,7 +35,12 @@ public class ConfigurableGameDirector
      */
     public ConfigurableGameDirector(ConfigurableGame game) {
         super(game);
-        this.results = Lists.newArrayList();
+        this.results = Maps.newTreeMap();
+        this.unplayed = LinkedListMultimap.create();
+        this.versions = Lists.newArrayList(getInternalPlayables());
+        for (int i = 0; i < versions.size(); i++) {
+            unplayed.put(versions.get(i).getAgentActionMap(), i);
+        }
     }
 
     /**
@@ -35,29 +49,64 @@ public class ConfigurableGameDirector
      *
      * @param finished The finished game variation.
      */
-    public void notifyVersionHasBeenPlayed(GameInstanceResult gir) {
-        final boolean successful = crossoff(gir);
-        if (!successful) {
+    public synchronized void notifyVersionHasBeenPlayed(GameInstanceResult gir) {
+        List<Integer> candidates = unplayed.get(gir.getGameInstanceConfig().getAgentActionMap());
+        if (candidates.isEmpty()) {
             throw new IllegalArgumentException(
                     "The played instance does not occur in the current game.");
         }
-        this.results.add(gir);
-        if (getInternalPlayables().isEmpty()) {
-            runPostGame(results);
-        }
+        int index = indexOfSeed(candidates, gir.getGameInstanceConfig().getSeed());
+        registerResult(candidates.remove(index < 0 ? 0 : index), gir);
     }
 
-    private void runPostGame(List<GameInstanceResult> results) {
-        getGame().gatherResults(results);
-        logResults();
+    /**
+     * Resume this game from results of an earlier run. Versions with the same agent to action
+     * mapping and seed as one of the results are considered played and are no longer part of
+     * the playable versions. Results that do not match an unplayed version are ignored.
+     *
+     * @param played The results played earlier.
+     * @return The number of versions resumed.
+     */
+    public synchronized int resume(Iterable<GameInstanceResult> played) {
+        int resumed = 0;
+        for (GameInstanceResult gir : played) {
+            List<Integer> candidates = unplayed
+                    .get(gir.getGameInstanceConfig().getAgentActionMap());
+            int index = indexOfSeed(candidates, gir.getGameInstanceConfig().getSeed());
+            if (index >= 0) {
+                registerResult(candidates.remove(index), gir);
+                resumed++;
+            }
+        }
+        return resumed;
     }
 
-    private boolean crossoff(GameInstanceResult gir) {
-        for (GameInstanceConfiguration gi : Sets.newConcurrentHashSet(getInternalPlayables())) {
-            if (gi.getAgentActionMap().equals(gir.getGameInstanceConfig().getAgentActionMap())) {
-                return getInternalPlayables().remove(gi);
+    private int indexOfSeed(List<Integer> candidates, long seed) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (versions.get(candidates.get(i)).getSeed() == seed) {
+                return i;
             }
         }
-        return false;
+        return -1;
+    }
+
+    private void registerResult(int position, GameInstanceResult gir) {
+        getInternalPlayables().remove(versions.get(position));
+        this.results.put(position, gir);
+        if (unplayed.isEmpty()) {
+            runPostGame(Lists.newArrayList(results.values()));
+        }
+    }
+
+    /**
+     * @return The number of playable versions for which no results have been received yet.
+     */
+    public synchronized int getRemainingVersionCount() {
+        return unplayed.size();
+    }
+
+    private void runPostGame(List<GameInstanceResult> results) {
+        getGame().gatherResults(results);
+        logResults();
     }
 }
@@ -0,0 +1,36 @@
+package be.kuleuven.cs.gametheory.evolutionary;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Value class for fixed points of population dynamics.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+@AutoValue
+public abstract class FixedPoint {
+
+    FixedPoint() {
+    }
+
+    /**
+     * @return The fraction of the population playing the first action in this fixed point.
+     */
+    public abstract double getLocation();
+
+    /**
+     * @return True if populations near this point converge to it.
+     */
+    public abstract boolean isStable();
+
+    /**
+     * Static factory method.
+     *
+     * @param location The fraction of the population playing the first action.
+     * @param stable   Whether the fixed point is stable.
+     * @return A new fixed point.
+     */
+    public static FixedPoint create(double location, boolean stable) {
+        return new AutoValue_FixedPoint(location, stable);
+    }
+}
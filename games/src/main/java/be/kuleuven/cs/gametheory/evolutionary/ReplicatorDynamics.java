@@ -0,0 +1,160 @@
+package be.kuleuven.cs.gametheory.evolutionary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.apache.commons.math3.analysis.solvers.BrentSolver;
+import org.apache.commons.math3.analysis.solvers.UnivariateSolver;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Replicator dynamics of a symmetric N-player game with two actions.
+ * The dynamics are built from the factors of {@link EvolutionaryGameDynamics}. With x the
+ * fraction of the population playing the first action, the population evolves as
+ * dx/dt = x(1-x)g(x), with g(x) the expected payoff gain of the first action over the second.
+ * The gain is a polynomial of degree N-1 in Bernstein form, whose roots in [0,1] are found by
+ * bracketing sign changes on a fine grid and refining them.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ReplicatorDynamics {
+    private static final int MIN_GRID_INTERVALS = 64;
+    private static final int GRID_INTERVALS_PER_AGENT = 16;
+    private static final int MAX_EVALUATIONS = 1000;
+    private static final double ROOT_ACCURACY = 1.0E-12;
+    private static final double NEIGHBOURHOOD = 1.0E-6;
+    private final double[] gain;
+
+    private ReplicatorDynamics(double[] gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Creates dynamics from dynamic equation factors.
+     * The factors are ordered as returned by
+     * {@link EvolutionaryGameDynamics#getDynamicEquationFactors()} for a game with two actions:
+     * from all agents playing the first action to all agents playing the second, the payoff of
+     * the first action followed by the payoff of the second action.
+     *
+     * @param factors The dynamic equation factors.
+     * @return The replicator dynamics.
+     * @throws IllegalArgumentException If the number of factors does not match a game with two
+     *                                  actions.
+     */
+    public static ReplicatorDynamics from(double[] factors) {
+        checkArgument(factors.length >= 2 && factors.length % 2 == 0,
+                "Expected two factors per agent for a game with two actions.");
+        int agents = factors.length / 2;
+        double[] firstAction = new double[agents + 1];
+        double[] secondAction = new double[agents + 1];
+        firstAction[agents] = factors[0];
+        for (int j = 1; j < agents; j++) {
+            firstAction[agents - j] = factors[2 * j - 1];
+            secondAction[agents - j] = factors[2 * j];
+        }
+        secondAction[0] = factors[factors.length - 1];
+        double[] gain = new double[agents];
+        for (int k = 0; k < agents; k++) {
+            gain[k] = firstAction[k + 1] - secondAction[k];
+        }
+        return new ReplicatorDynamics(gain);
+    }
+
+    /**
+     * Creates dynamics from the mean factors of evolutionary game dynamics.
+     *
+     * @param dynamics The evolutionary game dynamics of a game with two actions.
+     * @return The replicator dynamics.
+     */
+    public static ReplicatorDynamics from(EvolutionaryGameDynamics dynamics) {
+        return from(dynamics.getDynamicEquationFactors().stream()
+                .mapToDouble(Double::doubleValue).toArray());
+    }
+
+    /**
+     * @return The number of agents in the game.
+     */
+    public int getAgents() {
+        return gain.length;
+    }
+
+    /**
+     * @param x The fraction of the population playing the first action.
+     * @return The expected payoff gain of playing the first action over the second.
+     */
+    public double getPayoffGain(double x) {
+        double[] b = gain.clone();
+        for (int r = 1; r < b.length; r++) {
+            for (int k = 0; k < b.length - r; k++) {
+                b[k] = (1 - x) * b[k] + x * b[k + 1];
+            }
+        }
+        return b[0];
+    }
+
+    /**
+     * @param x The fraction of the population playing the first action.
+     * @return The rate of change of this fraction.
+     */
+    public double getRateOfChange(double x) {
+        return x * (1 - x) * getPayoffGain(x);
+    }
+
+    /**
+     * Find the fixed points strictly between the pure populations. Roots where the payoff
+     * gain touches zero without changing sign are not reported.
+     *
+     * @return The interior fixed points in increasing order.
+     */
+    public double[] getInteriorFixedPoints() {
+        UnivariateSolver solver = new BrentSolver(ROOT_ACCURACY);
+        int intervals = Math.max(MIN_GRID_INTERVALS, GRID_INTERVALS_PER_AGENT * getAgents());
+        List<Double> roots = Lists.newArrayList();
+        double lower = 0;
+        double lowerGain = getPayoffGain(lower);
+        for (int i = 1; i <= intervals; i++) {
+            double upper = (double) i / intervals;
+            double upperGain = getPayoffGain(upper);
+            if (upperGain == 0 && i < intervals) {
+                addRoot(roots, upper);
+            } else if (lowerGain != 0 && upperGain != 0
+                    && Math.signum(lowerGain) != Math.signum(upperGain)) {
+                addRoot(roots,
+                        solver.solve(MAX_EVALUATIONS, this::getPayoffGain, lower, upper));
+            }
+            lower = upper;
+            lowerGain = upperGain;
+        }
+        return roots.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static void addRoot(List<Double> roots, double root) {
+        if (root > 0 && root < 1
+                && (roots.isEmpty() || root - roots.get(roots.size() - 1) > ROOT_ACCURACY)) {
+            roots.add(root);
+        }
+    }
+
+    /**
+     * Find all fixed points, including both pure populations, and classify their stability.
+     * The pure populations are always fixed points of the replicator dynamics.
+     *
+     * @return The fixed points in increasing order.
+     */
+    public List<FixedPoint> getFixedPoints() {
+        ImmutableList.Builder<FixedPoint> points = ImmutableList.builder();
+        points.add(FixedPoint.create(0, getPayoffGain(0) < 0
+                || getPayoffGain(0) == 0 && getPayoffGain(NEIGHBOURHOOD) < 0));
+        for (double root : getInteriorFixedPoints()) {
+            double left = Math.max(0, root - NEIGHBOURHOOD);
+            double right = Math.min(1, root + NEIGHBOURHOOD);
+            points.add(FixedPoint
+                    .create(root, getPayoffGain(left) > 0 && getPayoffGain(right) < 0));
+        }
+        points.add(FixedPoint.create(1, getPayoffGain(1) > 0
+                || getPayoffGain(1) == 0 && getPayoffGain(1 - NEIGHBOURHOOD) > 0));
+        return points.build();
+    }
+}
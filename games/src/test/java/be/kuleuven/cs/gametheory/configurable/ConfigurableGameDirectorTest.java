@@ -6,6 +6,7 @@ import com.google.common.collect.Maps;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -88,4 +89,66 @@ public class ConfigurableGameDirectorTest {
         assertTrue(resultStr.contains("C:PayoffEntry{entries=[0, 2]}->1"));
     }
 
+    @Test
+    public void notifyVersionHasBeenPlayedOutOfOrder() throws Exception {
+        List<GameInstanceConfiguration> playableVersions = director.getPlayableVersions();
+        List<GameInstanceResult> results = Lists.newArrayList();
+        Map<Integer, Double> po = Maps.newLinkedHashMap();
+        po.put(0, 12345d);
+        po.put(1, 12345d);
+        playableVersions
+                .forEach(p -> results.add(GameInstanceResult.create(p, Maps.newLinkedHashMap(po))));
+        Collections.reverse(results);
+        assertEquals(3, director.getRemainingVersionCount());
+        director.notifyVersionHasBeenPlayed(results.get(0));
+        assertEquals(2, director.getRemainingVersionCount());
+        assertEquals(2, director.getPlayableVersions().size());
+        results.subList(1, results.size()).forEach(r -> director.notifyVersionHasBeenPlayed(r));
+        assertEquals(0, director.getRemainingVersionCount());
+
+        String resultStr = director.getFormattedResults();
+        assertTrue(resultStr.contains("C:PayoffEntry{entries=[2, 0]}->1"));
+        assertTrue(resultStr.contains("C:PayoffEntry{entries=[1, 1]}->1"));
+        assertTrue(resultStr.contains("C:PayoffEntry{entries=[0, 2]}->1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notifyVersionHasBeenPlayedTwice() throws Exception {
+        GameInstanceConfiguration config = director.getPlayableVersions().get(0);
+        Map<Integer, Double> po = Maps.newLinkedHashMap();
+        po.put(0, 12345d);
+        po.put(1, 12345d);
+        director.notifyVersionHasBeenPlayed(GameInstanceResult.create(config, po));
+        director.notifyVersionHasBeenPlayed(GameInstanceResult.create(config, po));
+    }
+
+    @Test
+    public void testResume() {
+        List<GameInstanceConfiguration> playableVersions = director.getPlayableVersions();
+        Map<Integer, Double> po = Maps.newLinkedHashMap();
+        po.put(0, 12345d);
+        po.put(1, 12345d);
+        GameInstanceResult played = GameInstanceResult.create(playableVersions.get(0), po);
+        GameInstanceResult otherSeed = GameInstanceResult
+                .create(playableVersions.get(1).toBuilder().setSeed(1).build(), po);
+        assertEquals(1, director.resume(Lists.newArrayList(played, played, otherSeed)));
+        assertEquals(2, director.getRemainingVersionCount());
+        assertEquals(playableVersions.subList(1, 3), director.getPlayableVersions());
+    }
+
+    @Test
+    public void testNotifyMatchesSeed() {
+        ConfigurableGameDirector repeated = new ConfigurableGameDirector(
+                new ConfigurableGame(2, 2, 2));
+        List<GameInstanceConfiguration> playableVersions = repeated.getPlayableVersions();
+        GameInstanceConfiguration secondRep = playableVersions.get(3);
+        assertEquals(playableVersions.get(0).getAgentActionMap(), secondRep.getAgentActionMap());
+        Map<Integer, Double> po = Maps.newLinkedHashMap();
+        po.put(0, 12345d);
+        po.put(1, 12345d);
+        repeated.notifyVersionHasBeenPlayed(GameInstanceResult.create(secondRep, po));
+        assertTrue(repeated.getPlayableVersions().contains(playableVersions.get(0)));
+        assertEquals(0, repeated.resume(
+                Collections.singletonList(GameInstanceResult.create(secondRep, po))));
+    }
 }
\ No newline at end of file
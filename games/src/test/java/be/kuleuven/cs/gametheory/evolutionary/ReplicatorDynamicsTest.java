@@ -0,0 +1,79 @@
+package be.kuleuven.cs.gametheory.evolutionary;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class ReplicatorDynamicsTest {
+    private static final double DELTA = 1.0E-9;
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testCoordinationGame() {
+        ReplicatorDynamics dynamics = ReplicatorDynamics.from(new double[] { 50, 0, 0, 50 });
+        double[] interior = dynamics.getInteriorFixedPoints();
+        assertEquals(1, interior.length);
+        assertEquals(0.5, interior[0], DELTA);
+
+        List<FixedPoint> points = dynamics.getFixedPoints();
+        assertEquals(3, points.size());
+        assertTrue(points.get(0).isStable());
+        assertFalse(points.get(1).isStable());
+        assertTrue(points.get(2).isStable());
+    }
+
+    @Test
+    public void testAntiCoordinationGame() {
+        ReplicatorDynamics dynamics = ReplicatorDynamics.from(new double[] { 0, 50, 50, 0 });
+        List<FixedPoint> points = dynamics.getFixedPoints();
+        assertEquals(3, points.size());
+        assertFalse(points.get(0).isStable());
+        assertEquals(0.5, points.get(1).getLocation(), DELTA);
+        assertTrue(points.get(1).isStable());
+        assertFalse(points.get(2).isStable());
+    }
+
+    @Test
+    public void testDominantAction() {
+        ReplicatorDynamics dynamics = ReplicatorDynamics
+                .from(new double[] { 3.5, 3.6, 4.2, 3.7, 4.3, 3.9, 4.2, 4.2 });
+        assertEquals(0, dynamics.getInteriorFixedPoints().length);
+        List<FixedPoint> points = dynamics.getFixedPoints();
+        assertEquals(2, points.size());
+        assertTrue(points.get(0).isStable());
+        assertFalse(points.get(1).isStable());
+    }
+
+    @Test
+    public void testRootsOfHigherDegreeGain() {
+        // Gain (x - 0.25)(x - 0.75) in Bernstein form for three agents.
+        double[] gain = { 0.1875, -0.3125, 0.1875 };
+        double[] factors = new double[6];
+        factors[0] = gain[2];
+        factors[1] = gain[1];
+        factors[3] = gain[0];
+        ReplicatorDynamics dynamics = ReplicatorDynamics.from(factors);
+        double[] interior = dynamics.getInteriorFixedPoints();
+        assertEquals(2, interior.length);
+        assertEquals(0.25, interior[0], DELTA);
+        assertEquals(0.75, interior[1], DELTA);
+        assertEquals(0, dynamics.getRateOfChange(0.25), DELTA);
+    }
+
+    @Test
+    public void testOddFactorsRejected() {
+        exception.expect(IllegalArgumentException.class);
+        ReplicatorDynamics.from(new double[] { 1, 2, 3 });
+    }
+}
@@ -0,0 +1,214 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Memoization context decorator keeping a bounded in-memory cache in front of a backing context.
+ * Concurrent requests for the same entry are deduplicated: only one of them queries the backing
+ * context (and possibly calculates the result), the others wait for and share its result.
+ * Results are kept in memory regardless of whether the backing context is asked to persist them.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class CachingMemoizationContext<E, R> implements MemoizationContext<E, R> {
+
+    private static final Logger logger = getLogger(CachingMemoizationContext.class);
+    private final MemoizationContext<E, R> backing;
+    private final Cache<E, R> cache;
+
+    private CachingMemoizationContext(MemoizationContext<E, R> backing, Cache<E, R> cache) {
+        this.backing = backing;
+        this.cache = cache;
+    }
+
+    @Override
+    public R testAndCall(E entry, Supplier<R> calculationFu, boolean updateCache) {
+        try {
+            return cache.get(entry,
+                    () -> backing.testAndCall(entry, calculationFu, updateCache));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            logger.debug("Calculation for memoized entry failed.", e);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return The number of requests answered from memory.
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * @return The number of requests passed on to the backing context.
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return The number of entries evicted from memory.
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return A snapshot of all cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return The approximate number of entries in memory.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Drop all entries kept in memory. The backing context is not affected.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingMemoizationContext{" +
+                "backing=" + backing +
+                ", stats=" + cache.stats() +
+                '}';
+    }
+
+    /**
+     * @param backing The context to decorate.
+     * @return A builder for a caching decorator around the backing context.
+     */
+    public static <E, R> Builder<E, R> builder(MemoizationContext<E, R> backing) {
+        return new Builder<>(backing);
+    }
+
+    /**
+     * Builder for caching memoization contexts.
+     * Without further configuration the cache holds at most {@value DEFAULT_MAXIMUM_SIZE}
+     * entries and evicts the least recently used entries first.
+     */
+    public static final class Builder<E, R> {
+        private static final long DEFAULT_MAXIMUM_SIZE = 128;
+        private final MemoizationContext<E, R> backing;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private long maximumWeight = -1;
+        @Nullable
+        private Weigher<E, R> weigher;
+        private long expireAfterAccessMillis = -1;
+        private long expireAfterWriteMillis = -1;
+
+        private Builder(MemoizationContext<E, R> backing) {
+            this.backing = backing;
+        }
+
+        /**
+         * Bound the cache by number of entries, evicting least recently used entries first.
+         *
+         * @param size The maximum number of entries.
+         * @return this builder.
+         */
+        public Builder<E, R> maximumSize(long size) {
+            checkArgument(size >= 0, "Size should be positive.");
+            this.maximumSize = size;
+            this.maximumWeight = -1;
+            this.weigher = null;
+            return this;
+        }
+
+        /**
+         * Bound the cache by the total weight of its entries, evicting least recently used
+         * entries first. Use this to bound the cache by the memory size of the results.
+         *
+         * @param weight       The maximum total weight.
+         * @param entryWeigher The function determining the weight of an entry.
+         * @return this builder.
+         */
+        public Builder<E, R> maximumWeight(long weight,
+                Weigher<? super E, ? super R> entryWeigher) {
+            checkArgument(weight >= 0, "Weight should be positive.");
+            this.maximumWeight = weight;
+            this.weigher = entryWeigher::weigh;
+            this.maximumSize = -1;
+            return this;
+        }
+
+        /**
+         * Additionally evict entries that have not been accessed for the given duration.
+         *
+         * @param duration The duration.
+         * @param unit     The unit of the duration.
+         * @return this builder.
+         */
+        public Builder<E, R> expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccessMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Additionally evict entries some duration after they were added.
+         *
+         * @param duration The duration.
+         * @param unit     The unit of the duration.
+         * @return this builder.
+         */
+        public Builder<E, R> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * @return The caching context.
+         */
+        public CachingMemoizationContext<E, R> build() {
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+            if (maximumSize >= 0) {
+                builder.maximumSize(maximumSize);
+            }
+            if (expireAfterAccessMillis >= 0) {
+                builder.expireAfterAccess(expireAfterAccessMillis, TimeUnit.MILLISECONDS);
+            }
+            if (expireAfterWriteMillis >= 0) {
+                builder.expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS);
+            }
+            Cache<E, R> cache;
+            Weigher<E, R> entryWeigher = weigher;
+            if (maximumWeight >= 0) {
+                checkState(entryWeigher != null, "A weigher is needed to bound by weight.");
+                cache = builder.maximumWeight(maximumWeight).<E, R>weigher(entryWeigher).build();
+            } else {
+                cache = builder.build();
+            }
+            return new CachingMemoizationContext<>(backing, cache);
+        }
+    }
+}
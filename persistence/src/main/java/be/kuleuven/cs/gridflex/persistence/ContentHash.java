@@ -0,0 +1,106 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 128-bit content hash of a memoization entry.
+ * Used as the stored key in place of the entry itself when the entries are large.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ContentHash implements Serializable, Comparable<ContentHash> {
+
+    /**
+     * Fixed size MapDB serializer for content hashes.
+     */
+    public static final Serializer<ContentHash> SERIALIZER = new ContentHashSerializer();
+    private static final int BYTES = 16;
+    private static final long serialVersionUID = -1791206524312567390L;
+    private final long high;
+    private final long low;
+
+    private ContentHash(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Static factory method.
+     *
+     * @param hash The 16 bytes of the hash.
+     * @return The content hash.
+     */
+    public static ContentHash fromBytes(byte[] hash) {
+        checkArgument(hash.length == BYTES, "Content hashes should be 16 bytes long.");
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new ContentHash(buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public int compareTo(ContentHash o) {
+        int cmp = Long.compare(high, o.high);
+        return cmp != 0 ? cmp : Long.compare(low, o.low);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContentHash)) {
+            return false;
+        }
+        ContentHash that = (ContentHash) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private static final class ContentHashSerializer implements Serializer<ContentHash>,
+                                                                Serializable {
+        private static final long serialVersionUID = 4003745196226431096L;
+
+        @Override
+        public void serialize(DataOutput2 out, ContentHash value) throws IOException {
+            out.writeLong(value.high);
+            out.writeLong(value.low);
+        }
+
+        @Override
+        public ContentHash deserialize(DataInput2 input, int available) throws IOException {
+            return new ContentHash(input.readLong(), input.readLong());
+        }
+
+        @Override
+        public int fixedSize() {
+            return BYTES;
+        }
+
+        @Override
+        public boolean isTrusted() {
+            return true;
+        }
+
+        @Override
+        public int compare(ContentHash first, ContentHash second) {
+            return first.compareTo(second);
+        }
+    }
+}
@@ -1,25 +1,56 @@
 package be.kuleuven.cs.gridflex.persistence;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
-import org.mapdb.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
+ * Merges multiple memoization stores into one output store.
+ * Input stores are read in parallel and their entries are streamed to the output store in
+ * bounded batches, so memory use does not depend on the size of the stores. Entries with a key
+ * already present in the output store are skipped and counted as duplicates.
+ * The output store can use a different format than the input stores, which converts java
+ * serialized stores to a compact format.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public final class MapDBConsolidator<E extends Serializable, R extends Serializable> {
 
     private static final String DB_OUT_NAME = "consolidation/memoOutMerged.db";
-    private static final String MAP_NAME = "map";
+    private static final int DEFAULT_COMMIT_INTERVAL = 1000;
+    private static final int READ_BATCH_SIZE = 64;
+    private static final int QUEUED_BATCHES_PER_READER = 4;
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+    private static final List<Map.Entry<Object, ?>> END_OF_FILE = Collections.emptyList();
     private final DB dbConnection;
-    private final ConcurrentMap<E, R> dbAPI;
+    private final ConcurrentMap<Object, R> dbAPI;
+    private final StoreFormat<E, R> format;
+    private final StoreFormat<E, R> outputFormat;
+    private final AtomicLong entriesRead;
+    private final AtomicLong failedFiles;
+    private long entriesWritten;
+    private long duplicates;
+    private int readerThreads;
+    private int commitInterval;
     private List<String> files;
     private static Logger logger = LoggerFactory.getLogger(MapDBConsolidator.class);
 
@@ -28,34 +59,214 @@ public final class MapDBConsolidator<E extends Serializable, R extends Serializa
     }
 
     public MapDBConsolidator(List<String> files, String outFile) {
+        this(files, outFile, StoreFormat.javaSerialization());
+    }
+
+    /**
+     * Consolidate stores written in a specific format. The output store uses the same format.
+     *
+     * @param files   The files to consolidate.
+     * @param outFile The output file.
+     * @param format  The format of the input stores.
+     */
+    public MapDBConsolidator(List<String> files, String outFile, StoreFormat<E, R> format) {
+        this(files, outFile, format, format);
+    }
+
+    /**
+     * Consolidate stores written in one format into an output store in another format.
+     * Stores with hashed keys can only be consolidated into the same format.
+     *
+     * @param files        The files to consolidate.
+     * @param outFile      The output file.
+     * @param format       The format of the input stores.
+     * @param outputFormat The format of the output store.
+     */
+    public MapDBConsolidator(List<String> files, String outFile, StoreFormat<E, R> format,
+            StoreFormat<E, R> outputFormat) {
+        checkArgument(!format.isHashed() || format.getMapName().equals(
+                outputFormat.getMapName()),
+                "Stores with hashed keys can not be converted to another format.");
         this.files = Lists.newArrayList(files);
+        this.format = format;
+        this.outputFormat = outputFormat;
+        this.entriesRead = new AtomicLong();
+        this.failedFiles = new AtomicLong();
+        this.readerThreads = Math.max(1,
+                Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        this.commitInterval = DEFAULT_COMMIT_INTERVAL;
         this.dbConnection = DBMaker.fileDB(outFile).closeOnJvmShutdown().fileChannelEnable()
                 .fileLockWait(Long.MAX_VALUE).fileMmapEnableIfSupported().transactionEnable()
                 .executorEnable().concurrencyScale(1).make();
-        this.dbAPI = dbConnection.hashMap(MAP_NAME, Serializer.JAVA, Serializer
-                .JAVA).createOrOpen();
+        this.dbAPI = outputFormat.openMap(dbConnection);
+    }
+
+    /**
+     * Set the number of input files read concurrently.
+     * The default is the number of available processors.
+     *
+     * @param threads The number of reader threads.
+     * @return this consolidator.
+     */
+    public MapDBConsolidator<E, R> setReaderThreads(int threads) {
+        checkArgument(threads > 0, "At least one reader thread is needed.");
+        this.readerThreads = threads;
+        return this;
+    }
+
+    /**
+     * Set the number of entries written to the output store between commits.
+     * The default is 1000.
+     *
+     * @param entries The number of entries between commits.
+     * @return this consolidator.
+     */
+    public MapDBConsolidator<E, R> setCommitInterval(int entries) {
+        checkArgument(entries > 0, "Commit interval should be strictly positive.");
+        this.commitInterval = entries;
+        return this;
     }
 
     public void consolidate() {
-        logger.info("Starting consolidation process.");
-        List<MapDBMemoizationContext<E, R>>
-                dbConnects = Lists.newArrayList();
+        logger.info("Starting consolidation process of {} files using {} reader threads.",
+                files.size(), readerThreads);
+        BlockingQueue<List<Map.Entry<Object, ?>>> queue = new ArrayBlockingQueue<>(
+                readerThreads * QUEUED_BATCHES_PER_READER);
+        ExecutorService readers = Executors.newFixedThreadPool(readerThreads,
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("consolidation-reader-%d").build());
         for (String file : files) {
-            dbConnects.add(MapDBMemoizationContext.builder().setFileName(file).build());
+            readers.execute(() -> readFile(file, queue));
+        }
+        readers.shutdown();
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long lastReport = 0;
+        int finished = 0;
+        int uncommitted = 0;
+        try {
+            while (finished < files.size()) {
+                List<Map.Entry<Object, ?>> batch = queue.take();
+                if (batch == END_OF_FILE) {
+                    finished++;
+                    continue;
+                }
+                for (Map.Entry<Object, ?> e : batch) {
+                    if (dbAPI.putIfAbsent(e.getKey(), castValue(e.getValue())) == null) {
+                        entriesWritten++;
+                        uncommitted++;
+                    } else {
+                        duplicates++;
+                    }
+                }
+                if (uncommitted >= commitInterval) {
+                    dbConnection.commit();
+                    uncommitted = 0;
+                }
+                long elapsed = stopwatch.elapsed(TimeUnit.SECONDS);
+                if (elapsed - lastReport >= PROGRESS_INTERVAL_SECONDS) {
+                    lastReport = elapsed;
+                    logProgress(stopwatch, finished);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error("Consolidation interrupted. Committing entries written so far.", e);
+            readers.shutdownNow();
+            Thread.currentThread().interrupt();
         }
+        dbConnection.commit();
+        dbConnection.close();
+        logProgress(stopwatch, finished);
+        logger.info("Consolidation finished. {} entries written, {} duplicates skipped, "
+                + "{} files failed.", entriesWritten, duplicates, failedFiles.get());
+    }
 
-        for (MapDBMemoizationContext<E, R> in :
-                dbConnects) {
-            logger.debug("Getting map for {}", in);
+    private void readFile(String file, BlockingQueue<List<Map.Entry<Object, ?>>> queue) {
+        try {
             try {
-                dbAPI.putAll(in.getWholeMap());
-                dbConnection.commit();
-            } catch (Exception e) {
+                logger.debug("Reading entries from {}", file);
+                DB input = DBMaker.fileDB(file).fileChannelEnable()
+                        .fileLockWait(Long.MAX_VALUE).fileMmapEnableIfSupported()
+                        .transactionEnable().readOnly().make();
+                try {
+                    List<Map.Entry<Object, ?>> batch = Lists
+                            .newArrayListWithCapacity(READ_BATCH_SIZE);
+                    for (Map.Entry<Object, R> e : format.openMap(input).entrySet()) {
+                        batch.add(Maps.immutableEntry(outputKey(e.getKey()), e.getValue()));
+                        entriesRead.incrementAndGet();
+                        if (batch.size() == READ_BATCH_SIZE) {
+                            queue.put(batch);
+                            batch = Lists.newArrayListWithCapacity(READ_BATCH_SIZE);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        queue.put(batch);
+                    }
+                } finally {
+                    input.close();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failedFiles.incrementAndGet();
                 logger.error(
-                        "Something went wrong accessing or storing the results. Continuing with "
-                                + "other resources.", e);
+                        "Something went wrong accessing or storing the results of " + file
+                                + ". Continuing with other resources.", e);
+            }
+        } finally {
+            try {
+                queue.put(END_OF_FILE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
-        dbConnection.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object outputKey(Object storeKey) {
+        if (format == outputFormat || format.isHashed()) {
+            return storeKey;
+        }
+        return outputFormat.toStoreKey((E) storeKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private R castValue(Object value) {
+        return (R) value;
+    }
+
+    private void logProgress(Stopwatch stopwatch, int finishedFiles) {
+        double seconds = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1) / 1000d;
+        logger.info("Consolidation progress: {}/{} files, {} entries read ({} entries/sec), "
+                        + "{} written, {} duplicates.", finishedFiles, files.size(),
+                entriesRead.get(), String.format("%.1f", entriesRead.get() / seconds),
+                entriesWritten, duplicates);
+    }
+
+    /**
+     * @return The number of entries read from all input files.
+     */
+    public long getEntriesRead() {
+        return entriesRead.get();
+    }
+
+    /**
+     * @return The number of entries added to the output store.
+     */
+    public long getEntriesWritten() {
+        return entriesWritten;
+    }
+
+    /**
+     * @return The number of entries skipped because their key was already present.
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return The number of input files that could not be read.
+     */
+    public long getFailedFiles() {
+        return failedFiles.get();
     }
 }
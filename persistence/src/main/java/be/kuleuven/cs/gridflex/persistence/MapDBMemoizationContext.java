@@ -3,22 +3,31 @@ package be.kuleuven.cs.gridflex.persistence;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Maps;
+import org.eclipse.jdt.annotation.Nullable;
 import org.mapdb.DB;
 import org.mapdb.DBException;
 import org.mapdb.DBMaker;
-import org.mapdb.Serializer;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.net.UnknownHostException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Memoization context for concurrent read and writes to a file data store using MapDB.
+ * By default every access opens and closes the underlying store. When built with
+ * {@link Builder#keepStoresOpen()}, the stores stay open for the lifetime of the JVM and are
+ * shared with all other long-lived contexts using the same files. Writes are then committed in
+ * batches by a background writer, which only holds the lock on the write file while committing.
+ * Lookups never open the write file for writing. They only see results written to it through
+ * this JVM.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
@@ -29,13 +38,32 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
     private static final int CONCURRENCY_SCALE = 64;
     private static final String DB_FILE_4_READ = "TestFile";
     private static final String DB_FILE_4_WRITE = "TestFile";
-    private static final String MAP_NAME = "map";
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long DEFAULT_FLUSH_INTERVAL = 1000;
     private static Logger logger = getLogger(MapDBMemoizationContext.class);
-    private final StoreAccessWrapper<E, R> readDB;
-    private final StoreAccessWrapper<E, R> writeDB;
+    private final StoreFormat<E, R> format;
+    private final StoreAccessWrapper<R> readDB;
+    private final StoreAccessWrapper<R> writeDB;
+    private final String readFileName;
+    private final String writeFileName;
+    private final boolean keepStoresOpen;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private volatile boolean readFileMissing;
 
     public MapDBMemoizationContext(String filename_r, String filename_w, boolean uniqueWriteFile) {
-        this.readDB = new StoreAccessWrapper<>(true, filename_r);
+        this(filename_r, filename_w, uniqueWriteFile, StoreFormat.javaSerialization(), false,
+                DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    private MapDBMemoizationContext(String filename_r, String filename_w, boolean uniqueWriteFile,
+            StoreFormat<E, R> format, boolean keepStoresOpen, int batchSize,
+            long flushIntervalMillis) {
+        this.format = format;
+        this.readDB = new StoreAccessWrapper<>(true, filename_r, format);
+        this.keepStoresOpen = keepStoresOpen;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
 
         String tmpName = filename_w;
         if (uniqueWriteFile) {
@@ -46,13 +74,24 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
                 e.printStackTrace();
             }
             tmpName += "_" + name;
+            if (keepStoresOpen) {
+                tmpName += "_" + getProcessId();
+            }
         }
-        this.writeDB = new StoreAccessWrapper<>(false, tmpName);
+        this.writeDB = new StoreAccessWrapper<>(false, tmpName, format);
+        this.readFileName = filename_r;
+        this.writeFileName = tmpName;
         writeDir(filename_w);
         writeDir(filename_r);
 
     }
 
+    private static String getProcessId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int at = name.indexOf('@');
+        return at > 0 ? name.substring(0, at) : name;
+    }
+
     private static void writeDir(String fullPath) {
         String[] dirs = fullPath.split("/");
         String dirPath = "";
@@ -71,8 +110,13 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
      */
     @VisibleForTesting
     public void memoizeEntry(E entry, R result) {
-        ConcurrentMap<E, R> erConcurrentMap = writeDB.openAndGetStore();
-        erConcurrentMap.put(entry, result);
+        if (keepStoresOpen) {
+            writeStore().put(format.toStoreKey(entry), result);
+            logger.debug("Entry {} queued for writing to data store.", entry);
+            return;
+        }
+        ConcurrentMap<Object, R> erConcurrentMap = writeDB.openAndGetStore();
+        erConcurrentMap.put(format.toStoreKey(entry), result);
         logger.debug("Entry {} added to data store.", entry);
         writeDB.commitChanges();
         writeDB.close();
@@ -86,8 +130,15 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
      */
     @VisibleForTesting
     public boolean hasResultFor(E entry) {
-        ConcurrentMap<E, R> erConcurrentMap = readDB.openAndGetStore();
-        boolean res = erConcurrentMap.containsKey(entry);
+        if (keepStoresOpen) {
+            Object key = format.toStoreKey(entry);
+            SharedMapDBStore<R> read = readStore();
+            SharedMapDBStore<R> write = openWriteStore();
+            return (read != null && read.containsKey(key)) || (write != null && write
+                    .containsKey(key));
+        }
+        ConcurrentMap<Object, R> erConcurrentMap = readDB.openAndGetStore();
+        boolean res = erConcurrentMap.containsKey(format.toStoreKey(entry));
         logger.debug("Checking if entry key is present in db: {}", entry);
         readDB.close();
         return res;
@@ -100,9 +151,19 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
      * @return The precalculated results.
      */
     @VisibleForTesting
-    public R getMemoizedResultFor(E entry) {
-        ConcurrentMap<E, R> erConcurrentMap = readDB.openAndGetStore();
-        R res = erConcurrentMap.get(entry);
+    public @Nullable R getMemoizedResultFor(E entry) {
+        if (keepStoresOpen) {
+            Object key = format.toStoreKey(entry);
+            SharedMapDBStore<R> read = readStore();
+            R res = read == null ? null : read.get(key);
+            if (res == null && !readFileName.equals(writeFileName)) {
+                SharedMapDBStore<R> write = openWriteStore();
+                res = write == null ? null : write.get(key);
+            }
+            return res;
+        }
+        ConcurrentMap<Object, R> erConcurrentMap = readDB.openAndGetStore();
+        R res = erConcurrentMap.get(format.toStoreKey(entry));
         logger.debug("Accessed result for entry {}", entry);
         readDB.close();
         return res;
@@ -132,18 +193,44 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
 
     @VisibleForTesting
     int getMemoizationTableSize() {
-        ConcurrentMap<E, R> erConcurrentMap = readDB.openAndGetStore();
+        if (keepStoresOpen) {
+            SharedMapDBStore<R> store = readStore();
+            return store == null ? 0 : store.snapshot().size();
+        }
+        ConcurrentMap<Object, R> erConcurrentMap = readDB.openAndGetStore();
         int size = erConcurrentMap.size();
         logger.debug("Accessed table size with value {}", size);
         readDB.close();
         return size;
     }
 
+    /**
+     * Get a copy of all entries in the read store.
+     * Not available for stores that only keep content hashes of the entries.
+     *
+     * @return The entries and their results.
+     */
     @VisibleForTesting
+    @SuppressWarnings("unchecked")
     public Map<E, R> getWholeMap() {
-        ConcurrentMap<E, R> erConcurrentMap = readDB.openAndGetStore();
+        checkState(!format.isHashed(),
+                "Entries can not be recovered from a store with hashed keys.");
+        return (Map<E, R>) (Map<?, R>) getWholeStoreMap();
+    }
+
+    /**
+     * Get a copy of all entries in the read store as they are stored.
+     *
+     * @return The store keys and their results.
+     */
+    Map<Object, R> getWholeStoreMap() {
+        if (keepStoresOpen) {
+            SharedMapDBStore<R> store = readStore();
+            return store == null ? Maps.newLinkedHashMap() : store.snapshot();
+        }
+        ConcurrentMap<Object, R> erConcurrentMap = readDB.openAndGetStore();
         try {
-            Map<E, R> tmp = Maps.newLinkedHashMap(erConcurrentMap);
+            Map<Object, R> tmp = Maps.newLinkedHashMap(erConcurrentMap);
             logger.debug("Accessed full table.");
             readDB.close();
             return tmp;
@@ -163,6 +250,9 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
 
     public void resetStore() {
         synchronized (LOCK) {
+            SharedMapDBStore.release(readFileName);
+            SharedMapDBStore.release(writeFileName);
+            readFileMissing = false;
             readDB.forceReset();
             writeDB.forceReset();
         }
@@ -180,25 +270,87 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
         return readDB.isClosed() && writeDB.isClosed();
     }
 
+    /**
+     * Commit all writes still pending in the long-lived write store of this context.
+     * Has no effect if this context does not keep its stores open.
+     */
+    public void flush() {
+        if (keepStoresOpen) {
+            SharedMapDBStore<R> store = openWriteStore();
+            if (store != null) {
+                store.flush();
+            }
+        }
+    }
+
+    /**
+     * Flush and close all long-lived stores opened in this JVM. Contexts that keep their stores
+     * open will reopen them on next access.
+     * This also happens automatically on JVM shutdown.
+     */
+    public static void closeSharedStores() {
+        SharedMapDBStore.closeAll();
+    }
+
+    /**
+     * The store to read from. This is the writable store if this JVM writes to the read file.
+     * A read file that can not be opened is remembered, after which only a writable store on
+     * the read file is used.
+     *
+     * @return The store or null if there is nothing to read.
+     */
+    @Nullable
+    private SharedMapDBStore<R> readStore() {
+        if (!readFileMissing) {
+            try {
+                return SharedMapDBStore
+                        .acquire(readFileName, true, format, batchSize, flushIntervalMillis);
+            } catch (DBException.VolumeIOError e) {
+                readFileMissing = true;
+                logger.warn("No memoization file {} to read, only looking up results written "
+                        + "by this process.", readFileName);
+            }
+        }
+        return SharedMapDBStore.getIfOpen(readFileName);
+    }
+
+    /**
+     * The write store if it has been opened for writing in this JVM. As write files of
+     * long-lived stores are unique per process, no other results can be found in it.
+     */
+    @Nullable
+    private SharedMapDBStore<R> openWriteStore() {
+        return SharedMapDBStore.getIfOpen(writeFileName);
+    }
+
+    private SharedMapDBStore<R> writeStore() {
+        return SharedMapDBStore
+                .acquire(writeFileName, false, format, batchSize, flushIntervalMillis);
+    }
+
     public static MapDBMemoizationContext.Builder builder() {
         return new Builder();
     }
 
-    private static class StoreAccessWrapper<E, R> {
+    private static class StoreAccessWrapper<R> {
         private final boolean readonly;
         private DB dbConnection;
-        private volatile ConcurrentMap<E, R> persistedMap;
+        private volatile ConcurrentMap<Object, R> persistedMap;
         private final String db_filename;
+        private final StoreFormat<?, R> format;
         private final boolean deleteAfter;
 
-        private StoreAccessWrapper(boolean readonly, String db_filename, boolean deleteAfter) {
+        private StoreAccessWrapper(boolean readonly, String db_filename, StoreFormat<?, R> format,
+                boolean deleteAfter) {
             this.readonly = readonly;
             this.db_filename = db_filename;
+            this.format = format;
             this.deleteAfter = deleteAfter;
         }
 
-        private StoreAccessWrapper(boolean readonly, String db_filename) {
-            this(readonly, db_filename, false);
+        private StoreAccessWrapper(boolean readonly, String db_filename,
+                StoreFormat<?, R> format) {
+            this(readonly, db_filename, format, false);
         }
 
         private void open() {
@@ -219,8 +371,7 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
                     maker.fileDeleteAfterClose();
                 }
                 this.dbConnection = maker.make();
-                this.persistedMap = dbConnection.hashMap(MAP_NAME, Serializer.JAVA, Serializer.JAVA)
-                        .createOrOpen();
+                this.persistedMap = format.openMap(dbConnection);
             }
             logger.debug("DB connection opened to file: {} for " + (readonly ?
                     "read only." :
@@ -239,8 +390,8 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
         }
 
         void forceCreation() {
-            StoreAccessWrapper<E, R> storeAccessWrapper = new StoreAccessWrapper<>(false,
-                    db_filename);
+            StoreAccessWrapper<R> storeAccessWrapper = new StoreAccessWrapper<>(false,
+                    db_filename, format);
             storeAccessWrapper.open();
             storeAccessWrapper.commitChanges();
             storeAccessWrapper.close();
@@ -248,8 +399,8 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
 
         void forceReset() {
             try {
-                StoreAccessWrapper<E, R> storeAccessWrapper = new StoreAccessWrapper<>(true,
-                        db_filename, true);
+                StoreAccessWrapper<R> storeAccessWrapper = new StoreAccessWrapper<>(true,
+                        db_filename, format, true);
                 storeAccessWrapper.open();
                 storeAccessWrapper.commitChanges();
                 storeAccessWrapper.close();
@@ -259,7 +410,7 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
             }
         }
 
-        ConcurrentMap<E, R> openAndGetStore() {
+        ConcurrentMap<Object, R> openAndGetStore() {
             open();
             return persistedMap;
         }
@@ -285,6 +436,10 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
         private String filename_w = DB_FILE_4_WRITE;
         private boolean uniqueWriteFile = false;
         private boolean ensureFilesExist = false;
+        private boolean keepStoresOpen = false;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL;
+        private StoreFormat<?, ?> format = StoreFormat.javaSerialization();
 
         /**
          * Set the filename for this mem context.
@@ -321,7 +476,8 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
         }
 
         /**
-         * Make the write files unique based on the hostname of the machine.
+         * Make the write files unique based on the hostname of the machine. When stores are kept
+         * open, the process id is appended as well, so every JVM writes to a file of its own.
          * The default is false.
          *
          * @param unique True if file should be unique across hosts.
@@ -354,15 +510,70 @@ public final class MapDBMemoizationContext<E extends Serializable, R extends Ser
             return this;
         }
 
+        /**
+         * Keep the read and write stores open for the lifetime of the JVM instead of opening
+         * and closing them on every access. Writes are committed asynchronously in batches.
+         * The default is false.
+         *
+         * @return this builder
+         */
+        public Builder keepStoresOpen() {
+            return keepStoresOpen(true);
+        }
+
+        /**
+         * Keep the read and write stores open for the lifetime of the JVM instead of opening
+         * and closing them on every access. Writes are committed asynchronously in batches.
+         * The default is false.
+         *
+         * @param keepOpen true if stores should be kept open.
+         * @return this builder
+         */
+        public Builder keepStoresOpen(boolean keepOpen) {
+            this.keepStoresOpen = keepOpen;
+            return this;
+        }
+
+        /**
+         * Set the batching parameters of the asynchronous writer used when stores are kept open.
+         * Pending writes are committed as soon as either limit is reached.
+         * The defaults are 64 entries and 1000 ms.
+         *
+         * @param entries   The number of pending entries that triggers a commit.
+         * @param maxMillis The maximum time in ms between commits of pending entries.
+         * @return this builder
+         */
+        public Builder setWriteBatching(int entries, long maxMillis) {
+            checkArgument(entries > 0, "Batch size should be strictly positive.");
+            checkArgument(maxMillis > 0, "Flush interval should be strictly positive.");
+            this.batchSize = entries;
+            this.flushIntervalMillis = maxMillis;
+            return this;
+        }
+
+        /**
+         * Set the layout used for the entries and results in the stores.
+         * The default is java serialization of both.
+         *
+         * @param format The store format.
+         * @return this builder
+         */
+        public Builder setStoreFormat(StoreFormat<?, ?> format) {
+            this.format = format;
+            return this;
+        }
+
         /**
          * Build the mem context
          *
          * @return The fully built memoization context.
          */
+        @SuppressWarnings("unchecked")
         public <E extends Serializable, R extends Serializable> MapDBMemoizationContext<E, R>
         build() {
             MapDBMemoizationContext<E, R> mapDBMemoizationContext = new MapDBMemoizationContext<>(
-                    filename_r, filename_w, uniqueWriteFile);
+                    filename_r, filename_w, uniqueWriteFile, (StoreFormat<E, R>) format,
+                    keepStoresOpen, batchSize, flushIntervalMillis);
             if (ensureFilesExist) {
                 mapDBMemoizationContext.ensureFileInit();
             }
@@ -0,0 +1,354 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Long-lived connection to a MapDB file store shared by all memoization contexts in this JVM
+ * that point to the same file.
+ * Writes are buffered and handed to a background writer that commits them in batches, either
+ * when the configured number of entries is pending or when the configured delay has passed.
+ * Buffered entries are visible to readers of this store before they are committed.
+ * A writable store only opens its file for writing while committing a batch, so the file lock
+ * is released in between batches. Committed entries are read through a read only connection
+ * that is reopened after every batch.
+ * All open stores are flushed and closed on JVM shutdown.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+final class SharedMapDBStore<R> {
+
+    private static final int CONCURRENCY_SCALE = 64;
+    private static final Map<String, SharedMapDBStore<?>> STORES = Maps.newHashMap();
+    private static final Logger logger = getLogger(SharedMapDBStore.class);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(SharedMapDBStore::closeAll, "memoization-store-shutdown"));
+    }
+
+    private final String filename;
+    private final boolean readonly;
+    private final int batchSize;
+    private final StoreFormat<?, R> format;
+    private final ConcurrentMap<Object, R> pending;
+    private final AtomicBoolean flushScheduled;
+    private final ReadWriteLock commitLock;
+    private final Object readerLock;
+    @Nullable
+    private final ScheduledExecutorService writer;
+    @Nullable
+    private DB reader;
+    @Nullable
+    private volatile ConcurrentMap<Object, R> persistedMap;
+    private volatile boolean closed;
+
+    private SharedMapDBStore(String filename, boolean readonly, StoreFormat<?, R> format,
+            int batchSize, long flushIntervalMillis) {
+        this.filename = filename;
+        this.format = format;
+        this.readonly = readonly;
+        this.batchSize = batchSize;
+        this.pending = Maps.newConcurrentMap();
+        this.flushScheduled = new AtomicBoolean();
+        this.commitLock = new ReentrantReadWriteLock();
+        this.readerLock = new Object();
+        if (readonly) {
+            openReader();
+            this.writer = null;
+        } else {
+            this.writer = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("memoization-writer-%d").build());
+            writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis,
+                    flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        logger.debug("Long-lived store for file: {} set up for " + (readonly ?
+                "read only." :
+                "writing."), filename);
+    }
+
+    private static DBMaker.Maker maker(String filename) {
+        return DBMaker.fileDB(filename)
+                .fileChannelEnable().fileLockWait(Long.MAX_VALUE)
+                .fileMmapEnableIfSupported()
+                .executorEnable().concurrencyScale(CONCURRENCY_SCALE)
+                .transactionEnable();
+    }
+
+    /**
+     * Get the shared store for a file, opening it if no connection is open yet.
+     * Asking for a writable store while a read only connection is open closes the read only
+     * connection and sets up the store for writing.
+     *
+     * @param filename            The file name of the store.
+     * @param readonly            True if the caller only reads from this store.
+     * @param format              The layout of the map in the store.
+     * @param batchSize           The number of pending entries that triggers a commit.
+     * @param flushIntervalMillis The maximum time in ms pending entries wait for a commit.
+     * @return An open store.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> SharedMapDBStore<R> acquire(String filename, boolean readonly,
+            StoreFormat<?, R> format, int batchSize, long flushIntervalMillis) {
+        synchronized (STORES) {
+            SharedMapDBStore<?> store = STORES.get(filename);
+            checkState(store == null || store.closed || store.format.getMapName()
+                            .equals(format.getMapName()),
+                    "Store %s is already open with a different format.", filename);
+            if (store != null && (store.closed || (store.readonly && !readonly))) {
+                store.close();
+                store = null;
+            }
+            if (store == null) {
+                store = new SharedMapDBStore<>(filename, readonly, format, batchSize,
+                        flushIntervalMillis);
+                STORES.put(filename, store);
+            }
+            return (SharedMapDBStore<R>) store;
+        }
+    }
+
+    /**
+     * Get the shared store for a file if it is already open in this JVM.
+     *
+     * @param filename The file name of the store.
+     * @return The open store or null.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    static <R> SharedMapDBStore<R> getIfOpen(String filename) {
+        synchronized (STORES) {
+            SharedMapDBStore<?> store = STORES.get(filename);
+            return store == null || store.closed ? null : (SharedMapDBStore<R>) store;
+        }
+    }
+
+    /**
+     * Flush and close the shared store for a file if one is open.
+     *
+     * @param filename The file name of the store.
+     */
+    static void release(String filename) {
+        synchronized (STORES) {
+            SharedMapDBStore<?> store = STORES.remove(filename);
+            if (store != null) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Flush and close all shared stores.
+     */
+    static void closeAll() {
+        synchronized (STORES) {
+            for (SharedMapDBStore<?> store : STORES.values()) {
+                store.close();
+            }
+            STORES.clear();
+        }
+    }
+
+    @Nullable
+    R get(Object key) {
+        R res = pending.get(key);
+        if (res != null) {
+            return res;
+        }
+        commitLock.readLock().lock();
+        try {
+            Map<Object, R> persisted = persisted();
+            return persisted == null ? null : persisted.get(key);
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    boolean containsKey(Object key) {
+        if (pending.containsKey(key)) {
+            return true;
+        }
+        commitLock.readLock().lock();
+        try {
+            Map<Object, R> persisted = persisted();
+            return persisted != null && persisted.containsKey(key);
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a copy of all committed entries. Pending entries are committed first.
+     *
+     * @return The committed entries.
+     */
+    Map<Object, R> snapshot() {
+        flush();
+        commitLock.readLock().lock();
+        try {
+            Map<Object, R> persisted = persisted();
+            return persisted == null ? Collections.emptyMap() :
+                    Maps.newLinkedHashMap(persisted);
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The committed entries, read through a read only connection that is opened on first use.
+     * Should be called while holding the read lock.
+     */
+    @Nullable
+    private Map<Object, R> persisted() {
+        Map<Object, R> persisted = persistedMap;
+        if (persisted == null && !closed && new File(filename).exists()) {
+            synchronized (readerLock) {
+                if (persistedMap == null && !closed) {
+                    openReader();
+                }
+                persisted = persistedMap;
+            }
+        }
+        return persisted;
+    }
+
+    private void openReader() {
+        DB db = maker(filename).readOnly().make();
+        this.reader = db;
+        this.persistedMap = format.openMap(db);
+    }
+
+    private void closeReader() {
+        DB db = reader;
+        if (db != null) {
+            db.close();
+        }
+        this.reader = null;
+        this.persistedMap = null;
+    }
+
+    /**
+     * Queue an entry for writing. The entry is committed by the background writer.
+     *
+     * @param key    The store key.
+     * @param result The entry value.
+     */
+    void put(Object key, R result) {
+        checkState(!readonly, "Store %s is opened read only.", filename);
+        checkState(!closed, "Store %s is closed.", filename);
+        pending.put(key, result);
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)
+                && writer != null) {
+            writer.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Write all pending entries to the store and commit them.
+     * The file is opened for writing for the duration of the commit only.
+     * Entries are only removed from the pending buffer after they are committed so that
+     * readers always see them.
+     */
+    void flush() {
+        if (readonly) {
+            return;
+        }
+        commitLock.writeLock().lock();
+        try {
+            flushScheduled.set(false);
+            if (pending.isEmpty()) {
+                return;
+            }
+            closeReader();
+            List<Map.Entry<Object, R>> batch = Lists.newArrayList(pending.entrySet());
+            DB db = maker(filename).make();
+            try {
+                ConcurrentMap<Object, R> map = format.openMap(db);
+                for (Map.Entry<Object, R> e : batch) {
+                    map.put(e.getKey(), e.getValue());
+                }
+                db.commit();
+            } finally {
+                db.close();
+            }
+            for (Map.Entry<Object, R> e : batch) {
+                pending.remove(e.getKey(), e.getValue());
+            }
+            logger.debug("Committed batch of {} entries to {}", batch.size(), filename);
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to commit pending memoization entries to " + filename, e);
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+        commitLock.writeLock().lock();
+        try {
+            synchronized (readerLock) {
+                closeReader();
+            }
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+        logger.debug("Long-lived store for {} closed", filename);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean isReadonly() {
+        return readonly;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedMapDBStore{" +
+                "filename='" + filename + '\'' +
+                ", readonly=" + readonly +
+                '}';
+    }
+}
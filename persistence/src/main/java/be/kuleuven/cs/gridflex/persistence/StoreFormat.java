@@ -0,0 +1,110 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.DB;
+import org.mapdb.Serializer;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Describes how memoization entries and results are laid out in a MapDB store.
+ * Every format uses its own map name so that stores written in one format are never read back
+ * with the serializers of another.
+ *
+ * @param <E> The entry type.
+ * @param <R> The result type.
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class StoreFormat<E, R> {
+
+    private static final String JAVA_MAP_NAME = "map";
+    private final String mapName;
+    private final Serializer<?> keySerializer;
+    private final Serializer<R> valueSerializer;
+    @Nullable
+    private final Function<E, ContentHash> keyHasher;
+
+    private StoreFormat(String mapName, Serializer<?> keySerializer,
+            Serializer<R> valueSerializer, @Nullable Function<E, ContentHash> keyHasher) {
+        this.mapName = mapName;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.keyHasher = keyHasher;
+    }
+
+    /**
+     * The default format storing entries and results using java serialization.
+     *
+     * @return The java serialization format.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E, R> StoreFormat<E, R> javaSerialization() {
+        return new StoreFormat<>(JAVA_MAP_NAME, Serializer.JAVA, (Serializer<R>) Serializer.JAVA,
+                null);
+    }
+
+    /**
+     * Format storing entries and results with dedicated serializers.
+     *
+     * @param mapName         The name of the map in the store.
+     * @param keySerializer   The entry serializer.
+     * @param valueSerializer The result serializer.
+     * @return The format.
+     */
+    public static <E, R> StoreFormat<E, R> of(String mapName, Serializer<E> keySerializer,
+            Serializer<R> valueSerializer) {
+        return new StoreFormat<>(mapName, keySerializer, valueSerializer, null);
+    }
+
+    /**
+     * Format storing only a content hash of the entries as key, together with the results.
+     * Entries can not be recovered from a store in this format.
+     *
+     * @param mapName         The name of the map in the store.
+     * @param keyHasher       The function computing the content hash of an entry.
+     * @param valueSerializer The result serializer.
+     * @return The format.
+     */
+    public static <E, R> StoreFormat<E, R> hashedKeys(String mapName,
+            Function<E, ContentHash> keyHasher, Serializer<R> valueSerializer) {
+        return new StoreFormat<>(mapName, ContentHash.SERIALIZER, valueSerializer, keyHasher);
+    }
+
+    /**
+     * @return True if entries are stored as content hashes.
+     */
+    public boolean isHashed() {
+        return keyHasher != null;
+    }
+
+    /**
+     * @return The name of the map in the store.
+     */
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * @param entry The entry.
+     * @return The key under which the result for this entry is stored.
+     */
+    Object toStoreKey(E entry) {
+        return keyHasher != null ? keyHasher.apply(entry) : entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    ConcurrentMap<Object, R> openMap(DB db) {
+        return (ConcurrentMap<Object, R>) db
+                .hashMap(mapName, (Serializer<Object>) keySerializer, valueSerializer)
+                .createOrOpen();
+    }
+
+    @Override
+    public String toString() {
+        return "StoreFormat{" +
+                "mapName='" + mapName + '\'' +
+                ", hashed=" + isHashed() +
+                '}';
+    }
+}
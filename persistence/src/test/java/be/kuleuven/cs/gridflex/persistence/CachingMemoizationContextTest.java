@@ -0,0 +1,126 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class CachingMemoizationContextTest {
+
+    private Map<String, String> backingStore;
+    private AtomicInteger backingCalls;
+    private MemoizationContext<String, String> backing;
+
+    @Before
+    public void setUp() {
+        backingStore = Maps.newConcurrentMap();
+        backingCalls = new AtomicInteger();
+        backing = (entry, calculationFu, updateCache) -> {
+            backingCalls.incrementAndGet();
+            String res = backingStore.get(entry);
+            if (res == null) {
+                res = calculationFu.get();
+                if (updateCache) {
+                    backingStore.put(entry, res);
+                }
+            }
+            return res;
+        };
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        CachingMemoizationContext<String, String> target = CachingMemoizationContext
+                .builder(backing).build();
+        assertEquals("1", target.testAndCall("one", () -> "1"));
+        assertEquals("1", target.testAndCall("one", () -> "wrong"));
+        assertEquals("2", target.testAndCall("two", () -> "2"));
+        assertEquals(1, target.getHitCount());
+        assertEquals(2, target.getMissCount());
+        assertEquals(2, backingCalls.get());
+    }
+
+    @Test
+    public void testCachedWithoutUpdatingBacking() {
+        CachingMemoizationContext<String, String> target = CachingMemoizationContext
+                .builder(backing).build();
+        assertEquals("1", target.testAndCall("one", () -> "1", false));
+        assertEquals("1", target.testAndCall("one", () -> "wrong", false));
+        assertEquals(1, target.getHitCount());
+        assertEquals(1, backingCalls.get());
+        assertTrue(backingStore.isEmpty());
+    }
+
+    @Test
+    public void testEviction() {
+        CachingMemoizationContext<String, String> target = CachingMemoizationContext
+                .builder(backing).maximumWeight(10, (k, v) -> v.length()).build();
+        target.testAndCall("a", () -> "123456");
+        target.testAndCall("b", () -> "123456");
+        assertTrue(target.getEvictionCount() >= 1);
+        assertEquals("123456", target.testAndCall("a", () -> "wrong"));
+        assertEquals("123456", backingStore.get("a"));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        CachingMemoizationContext<String, String> target = CachingMemoizationContext
+                .builder(backing).build();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger calculations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<String>> tasks = Lists.newArrayList();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                start.await();
+                return target.testAndCall("key", () -> {
+                    calculations.incrementAndGet();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "value";
+                });
+            });
+        }
+        List<Future<String>> futures = Lists.newArrayList();
+        for (Callable<String> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        for (Future<String> f : futures) {
+            assertEquals("value", f.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        assertEquals(1, calculations.get());
+        assertEquals(1, backingCalls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionPropagated() {
+        CachingMemoizationContext<String, String> target = CachingMemoizationContext
+                .builder(backing).build();
+        target.testAndCall("one", () -> {
+            throw new IllegalArgumentException();
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package be.kuleuven.cs.gridflex.persistence;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import org.junit.After;
+import org.junit.Test;
+import org.mapdb.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class MapDBConsolidatorTest {
+    private static final String OUT_DB = "consolidatedTest.db";
+    private static final List<String> IN_DBS = Lists
+            .newArrayList("consolidateIn1.db", "consolidateIn2.db", "consolidateIn3.db");
+
+    @After
+    public void tearDown() {
+        for (String file : IN_DBS) {
+            store(file).resetStore();
+        }
+        store(OUT_DB).resetStore();
+    }
+
+    @Test
+    public void testConsolidateSkipsDuplicates() {
+        for (int f = 0; f < IN_DBS.size(); f++) {
+            MapDBMemoizationContext<String, String> in = store(IN_DBS.get(f));
+            int offset = f * 50;
+            IntStream.range(offset, offset + 100)
+                    .forEach(i -> in.memoizeEntry(String.valueOf(i), String.valueOf(i)));
+        }
+        MapDBConsolidator<String, String> consolidator = new MapDBConsolidator<String, String>(
+                IN_DBS, OUT_DB).setReaderThreads(2).setCommitInterval(10);
+        consolidator.consolidate();
+
+        assertEquals(300, consolidator.getEntriesRead());
+        assertEquals(200, consolidator.getEntriesWritten());
+        assertEquals(100, consolidator.getDuplicates());
+        assertEquals(0, consolidator.getFailedFiles());
+        MapDBMemoizationContext<String, String> out = store(OUT_DB);
+        assertEquals(200, out.getMemoizationTableSize());
+        assertEquals("199", out.getMemoizedResultFor("199"));
+    }
+
+    @Test
+    public void testConvertToHashedFormat() {
+        MapDBMemoizationContext<String, String> in = store(IN_DBS.get(0));
+        IntStream.range(0, 100).forEach(i -> in.memoizeEntry(String.valueOf(i), "r" + i));
+        StoreFormat<String, String> hashed = hashedFormat();
+        MapDBConsolidator<String, String> consolidator = new MapDBConsolidator<>(
+                IN_DBS.subList(0, 1), OUT_DB, StoreFormat.javaSerialization(), hashed);
+        consolidator.consolidate();
+
+        assertEquals(100, consolidator.getEntriesWritten());
+        MapDBMemoizationContext<String, String> out = MapDBMemoizationContext.builder()
+                .setFileName(OUT_DB).setStoreFormat(hashed).build();
+        assertEquals("r42", out.getMemoizedResultFor("42"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHashedStoresNotConverted() {
+        StoreFormat<String, String> hashed = hashedFormat();
+        new MapDBConsolidator<>(IN_DBS, OUT_DB, hashed, StoreFormat.javaSerialization());
+    }
+
+    @Test
+    public void testMissingInputCounted() {
+        MapDBConsolidator<String, String> consolidator = new MapDBConsolidator<String, String>(
+                Lists.newArrayList("consolidateMissing.db"), OUT_DB);
+        consolidator.consolidate();
+        assertEquals(1, consolidator.getFailedFiles());
+        assertEquals(0, consolidator.getEntriesWritten());
+    }
+
+    private static StoreFormat<String, String> hashedFormat() {
+        return StoreFormat.hashedKeys("map_hashed_test", e -> ContentHash
+                .fromBytes(Hashing.md5().hashString(e, StandardCharsets.UTF_8).asBytes()),
+                Serializer.STRING);
+    }
+
+    private static MapDBMemoizationContext<String, String> store(String file) {
+        return MapDBMemoizationContext.builder().setFileName(file).ensureFileExists().build();
+    }
+}
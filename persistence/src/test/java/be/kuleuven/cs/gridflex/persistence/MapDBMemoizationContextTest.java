@@ -11,9 +11,12 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -23,10 +26,12 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
@@ -274,6 +279,72 @@ public class MapDBMemoizationContextTest {
 
     }
 
+    @Test
+    public void testKeepStoresOpen() {
+        String filename_r = "testLongLivedRead.db";
+        String filename_w = "testLongLivedWrite.db";
+        MapDBMemoizationContext<String, String> longLived = MapDBMemoizationContext.builder()
+                .setFileName(filename_r).setDifferentWriteFilename(filename_w)
+                .keepStoresOpen().setWriteBatching(4, 50).ensureFileExists().build();
+        final AtomicInteger calls = new AtomicInteger();
+        db.entrySet().forEach(e -> longLived.testAndCall(e.getKey(), () -> {
+            calls.incrementAndGet();
+            return e.getValue();
+        }));
+        longLived.testAndCall("one", () -> {
+            calls.incrementAndGet();
+            return "1";
+        });
+        assertEquals(db.size(), calls.get());
+        db.entrySet().forEach(
+                e -> assertEquals(e.getValue(), longLived.getMemoizedResultFor(e.getKey())));
+        MapDBMemoizationContext.closeSharedStores();
+        MapDBMemoizationContext<String, String> reopened = MapDBMemoizationContext.builder()
+                .setFileName(filename_w).keepStoresOpen().build();
+        assertEquals(db.size(), reopened.getMemoizationTableSize());
+        reopened.resetStore();
+        longLived.resetStore();
+    }
+
+    @Test
+    public void testKeepStoresOpenReleasesWriteFile() {
+        String filename_r = "testLongLivedLockRead.db";
+        String filename_w = "testLongLivedLockWrite.db";
+        MapDBMemoizationContext<String, String> longLived = MapDBMemoizationContext.builder()
+                .setFileName(filename_r).setDifferentWriteFilename(filename_w)
+                .keepStoresOpen().build();
+        assertEquals("1", longLived.testAndCall("one", () -> "1", false));
+        assertFalse(new File(filename_w).exists());
+        assertEquals("2", longLived.testAndCall("two", () -> "2", true));
+        longLived.flush();
+        DB other = DBMaker.fileDB(filename_w).fileChannelEnable().transactionEnable().make();
+        other.close();
+        assertEquals("2", longLived.testAndCall("two", () -> "other", false));
+        longLived.resetStore();
+    }
+
+    @Test
+    public void inOutMultiThreadKeepStoresOpen() throws Exception {
+        String filename = "testLongLivedMulti.db";
+        MapDBMemoizationContext<String, String> longLived = MapDBMemoizationContext.builder()
+                .setFileName(filename).keepStoresOpen().build();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Callable<String>> tasks = Lists.newArrayList();
+        IntStream.range(0, 8).forEach(t -> tasks.add(() -> {
+            IntStream.range(t * 100, (t + 1) * 100)
+                    .forEach(i -> longLived.memoizeEntry(String.valueOf(i), String.valueOf(i)));
+            return "";
+        }));
+        executorService.invokeAll(tasks);
+        executorService.shutdown();
+        for (int i = 0; i < 800; i++) {
+            assertEquals(String.valueOf(i), longLived.getMemoizedResultFor(String.valueOf(i)));
+        }
+        longLived.flush();
+        assertEquals(800, longLived.getMemoizationTableSize());
+        longLived.resetStore();
+    }
+
     void logCall(CountDownLatch l) {
         l.countDown();
     }
@@ -5,6 +5,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.jppf.JPPFException;
 import org.jppf.client.JPPFClient;
 import org.jppf.client.JPPFJob;
+import org.jppf.client.event.JobEvent;
+import org.jppf.client.event.JobListenerAdapter;
 import org.jppf.node.protocol.DataProvider;
 import org.jppf.node.protocol.MemoryMapDataProvider;
 import org.jppf.node.protocol.Task;
@@ -18,8 +20,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
+ * Runs experiments as a single job on a JPPF cluster, blocking until the job completes.
+ * A listener can be set to handle tasks as soon as they return from the nodes, before the
+ * whole job has completed.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public class JPPFBlockingExperimentRunner implements ExperimentRunner {
@@ -28,6 +35,8 @@ public class JPPFBlockingExperimentRunner implements ExperimentRunner {
     private final boolean blocking;
     @Nullable
     private JPPFJob job;
+    @Nullable
+    private Consumer<Task<?>> returnedTaskListener;
     private static final Logger logger = LoggerFactory
             .getLogger(JPPFBlockingExperimentRunner.class);
 
@@ -37,6 +46,16 @@ public class JPPFBlockingExperimentRunner implements ExperimentRunner {
         this.blocking = true;
     }
 
+    /**
+     * Set the listener notified of every task as soon as it returns from a node. The listener
+     * is called on the threads of the JPPF client, possibly concurrently.
+     *
+     * @param listener The listener, or null to remove the listener.
+     */
+    public void setReturnedTaskListener(@Nullable Consumer<Task<?>> listener) {
+        this.returnedTaskListener = listener;
+    }
+
     @Override
     public void runExperiments(Collection<? extends Callable<Object>> experiments) {
         if (logger.isInfoEnabled()) {
@@ -47,6 +66,15 @@ public class JPPFBlockingExperimentRunner implements ExperimentRunner {
         job = new JPPFJob(jobName);
         job.setDataProvider(dP);
         job.setBlocking(blocking);
+        final Consumer<Task<?>> listener = returnedTaskListener;
+        if (listener != null) {
+            job.addJobListener(new JobListenerAdapter() {
+                @Override
+                public void jobReturned(JobEvent event) {
+                    event.getJobTasks().forEach(listener);
+                }
+            });
+        }
         experiments.forEach(r -> {
             try {
                 job.add(r);
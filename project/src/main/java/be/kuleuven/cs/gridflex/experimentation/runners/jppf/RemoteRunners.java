@@ -1,6 +1,13 @@
 package be.kuleuven.cs.gridflex.experimentation.runners.jppf;
 
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import org.jppf.client.JPPFClient;
+import org.jppf.management.JMXDriverConnectionWrapper;
+import org.jppf.management.JPPFManagementInfo;
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 
@@ -10,6 +17,8 @@ import java.util.Map;
  * @author Kristof Coninx (kristof.coninx AT cs.kuleuven.be)
  */
 public final class RemoteRunners {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteRunners.class);
+
     private RemoteRunners() {
     }
 
@@ -22,4 +31,35 @@ public final class RemoteRunners {
             Map<String, Object> dataParams) {
         return new JPPFBlockingExperimentRunner(jobName, dataParams);
     }
+
+    /**
+     * Count the processing threads of the nodes connected to the driver of the client
+     * configuration. Nodes that do not report their processing threads count for the
+     * processors available to them.
+     *
+     * @return The number of tasks the cluster runs concurrently, or 0 if the cluster could not
+     * be queried.
+     */
+    public static int countClusterProcessingThreads() {
+        try (JPPFClient client = new JPPFClient()) {
+            JMXDriverConnectionWrapper jmx = client.awaitWorkingConnectionPool()
+                    .awaitWorkingJMXConnection();
+            int threads = 0;
+            for (JPPFManagementInfo node : jmx.nodesInformation()) {
+                JPPFSystemInformation info = node.getSystemInfo();
+                if (info == null) {
+                    threads++;
+                } else {
+                    threads += info.getJppf()
+                            .getInt(JPPFProperties.PROCESSING_THREADS.getName(),
+                                    info.getRuntime().getInt("availableProcessors", 1));
+                }
+            }
+            logger.info("Counted {} processing threads in the cluster.", threads);
+            return threads;
+        } catch (Exception e) {
+            logger.warn("Could not query the processing threads of the cluster.", e);
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,295 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A runner that forks worker JVMs on the local machine and runs experiments in them, so that
+ * concurrent experiments do not share a heap. Workers connect back over the loopback interface
+ * and receive the shared data only once. Experiments are handed to idle workers one at a time
+ * and results are streamed back as with {@link StreamingExperimentRunner}.
+ * A worker process that dies is replaced, failing only the experiment it was running.
+ * Workers are forked on the first submission and stop when this runner is shut down or the
+ * JVM exits.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class LocalProcessExperimentRunner extends StreamingExperimentRunner {
+    /**
+     * System property for the number of worker processes.
+     */
+    public static final String PROCESSES_PROPERTY = "gridflex.processes";
+    /**
+     * System property for extra, space separated, JVM arguments of the worker processes.
+     */
+    public static final String JVM_ARGS_PROPERTY = "gridflex.processes.jvmArgs";
+    private static final String PROPAGATED_PROPERTY_PREFIX = "gridflex.";
+    private static final int CONNECT_TIMEOUT_MILLIS = 120_000;
+    private static final int STOP_TIMEOUT_SECONDS = 10;
+    private static final Logger logger = LoggerFactory
+            .getLogger(LocalProcessExperimentRunner.class);
+
+    private final int processes;
+    private final Map<String, Object> sharedData;
+    private final List<String> jvmArgs;
+    private final BlockingQueue<Worker> idle;
+    private final List<Worker> workers;
+    private final AtomicInteger alive;
+    private final Object connectLock;
+    @Nullable
+    private volatile ServerSocket server;
+    @Nullable
+    private Thread shutdownHook;
+
+    /**
+     * Create a runner forking the given number of workers.
+     *
+     * @param processes  The number of worker processes.
+     * @param sharedData The data shared by all experiments, shipped to every worker once.
+     * @param jvmArgs    Extra JVM arguments for the worker processes.
+     */
+    LocalProcessExperimentRunner(int processes, Map<String, Object> sharedData,
+            List<String> jvmArgs) {
+        super(Executors.newFixedThreadPool(processes,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("process-runner-%d")
+                        .build()), processes);
+        checkArgument(processes > 0, "At least one worker process is needed.");
+        this.processes = processes;
+        this.sharedData = ImmutableMap.copyOf(sharedData);
+        this.jvmArgs = ImmutableList.copyOf(jvmArgs);
+        this.idle = new LinkedBlockingQueue<>();
+        this.workers = new CopyOnWriteArrayList<>();
+        this.alive = new AtomicInteger();
+        this.connectLock = new Object();
+    }
+
+    @Override
+    protected Callable<Object> decorate(Callable<Object> experiment) {
+        startWorkers();
+        return () -> callInWorker(experiment);
+    }
+
+    private void startWorkers() {
+        synchronized (this) {
+            if (server != null) {
+                return;
+            }
+            try {
+                ServerSocket socket = new ServerSocket(0, processes,
+                        InetAddress.getLoopbackAddress());
+                socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                server = socket;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open socket for worker processes.",
+                        e);
+            }
+            Thread hook = new Thread(() -> workers.forEach(Worker::destroy),
+                    "process-runner-shutdown");
+            Runtime.getRuntime().addShutdownHook(hook);
+            shutdownHook = hook;
+            alive.set(processes);
+        }
+        try {
+            for (int i = 0; i < processes; i++) {
+                idle.add(startWorker());
+            }
+        } catch (IOException e) {
+            destroyWorkers();
+            throw new IllegalStateException("Could not start worker processes.", e);
+        }
+        logger.info("Started {} worker processes.", processes);
+    }
+
+    /**
+     * Fork a worker process and wait for it to connect. Workers connect one at a time, but
+     * without holding the lock of this runner, so a shut down is not held up by a worker that
+     * is starting. Closing the server socket on shut down aborts waiting for the connection.
+     */
+    private Worker startWorker() throws IOException {
+        synchronized (connectLock) {
+            ServerSocket socket = server;
+            if (socket == null || socket.isClosed()) {
+                throw new IOException("Runner has been shut down.");
+            }
+            Process process = new ProcessBuilder(workerCommand(socket.getLocalPort()))
+                    .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            Worker worker;
+            try {
+                ProcessChannel channel = new ProcessChannel(socket.accept());
+                channel.sendSharedData(sharedData);
+                worker = new Worker(process, channel);
+            } catch (IOException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+            publish(worker);
+            return worker;
+        }
+    }
+
+    private synchronized void publish(Worker worker) throws IOException {
+        ServerSocket socket = server;
+        if (socket == null || socket.isClosed()) {
+            worker.destroy();
+            throw new IOException("Runner has been shut down.");
+        }
+        workers.add(worker);
+    }
+
+    private List<String> workerCommand(int port) {
+        List<String> command = Lists.newArrayList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        System.getProperties().stringPropertyNames().stream()
+                .filter(p -> p.startsWith(PROPAGATED_PROPERTY_PREFIX)).sorted()
+                .forEach(p -> command.add("-D" + p + "=" + System.getProperty(p)));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LocalProcessWorker.class.getName());
+        command.add(String.valueOf(port));
+        return command;
+    }
+
+    @Nullable
+    private Object callInWorker(Callable<Object> experiment) throws Exception {
+        Worker worker = takeIdleWorker();
+        LocalProcessWorker.Reply reply;
+        try {
+            reply = worker.call(experiment);
+        } catch (IOException | ClassNotFoundException e) {
+            replace(worker);
+            throw new IllegalStateException("Worker process failed during experiment.", e);
+        }
+        idle.add(worker);
+        return reply.get();
+    }
+
+    private Worker takeIdleWorker() throws InterruptedException {
+        while (true) {
+            @Nullable Worker worker = idle.poll(1, TimeUnit.SECONDS);
+            if (worker != null) {
+                return worker;
+            }
+            if (alive.get() <= 0) {
+                throw new IllegalStateException("No worker processes left.");
+            }
+        }
+    }
+
+    private void replace(Worker failed) {
+        failed.destroy();
+        workers.remove(failed);
+        try {
+            idle.add(startWorker());
+            logger.warn("Replaced failed worker process.");
+        } catch (IOException e) {
+            alive.decrementAndGet();
+            logger.error("Could not replace failed worker process.", e);
+        }
+    }
+
+    /**
+     * Stop accepting work and stop the worker processes once their running experiments complete.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        destroyWorkers();
+    }
+
+    private synchronized void destroyWorkers() {
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+        workers.clear();
+        alive.set(0);
+        ServerSocket socket = server;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.warn("Could not close server socket.", e);
+            }
+        }
+        Thread hook = shutdownHook;
+        if (hook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                logger.debug("JVM is shutting down, the hook destroys the workers.", e);
+            }
+            shutdownHook = null;
+        }
+    }
+
+    private static final class Worker {
+        private final Process process;
+        private final ProcessChannel channel;
+
+        Worker(Process process, ProcessChannel channel) {
+            this.process = process;
+            this.channel = channel;
+        }
+
+        synchronized LocalProcessWorker.Reply call(Callable<Object> experiment)
+                throws IOException, ClassNotFoundException {
+            channel.send(experiment);
+            Object reply = channel.receive();
+            if (!(reply instanceof LocalProcessWorker.Reply)) {
+                throw new IOException("Unexpected reply from worker: " + reply);
+            }
+            return (LocalProcessWorker.Reply) reply;
+        }
+
+        synchronized void stop() {
+            try {
+                channel.sendEnd();
+                if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+            close();
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close worker channel.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.Callable;
+
+/**
+ * Entry point of the worker processes forked by {@link LocalProcessExperimentRunner}.
+ * A worker connects back to the runner, receives the shared data once and then runs the
+ * experiments it is sent one at a time until the runner signals the end or disconnects.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class LocalProcessWorker {
+    private static final Logger logger = LoggerFactory.getLogger(LocalProcessWorker.class);
+
+    private LocalProcessWorker() {
+    }
+
+    /**
+     * Start a worker.
+     *
+     * @param args The port on the loopback interface to connect to.
+     * @throws Exception if the connection to the runner fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        try (ProcessChannel channel = new ProcessChannel(
+                new Socket(InetAddress.getLoopbackAddress(), port))) {
+            channel.receiveSharedData();
+            while (true) {
+                @Nullable Object message = channel.receive();
+                if (message == null) {
+                    break;
+                }
+                reply(channel, execute((Callable<?>) message));
+            }
+        }
+    }
+
+    private static Reply execute(Callable<?> experiment) {
+        try {
+            return new Reply(experiment.call(), null);
+        } catch (Exception e) {
+            logger.error("Experiment failed in worker process.", e);
+            return new Reply(null, e);
+        }
+    }
+
+    private static void reply(ProcessChannel channel, Reply reply) throws IOException {
+        try {
+            channel.send(reply);
+        } catch (NotSerializableException e) {
+            channel.send(new Reply(null, new IllegalStateException(
+                    "Experiment outcome could not be sent back: " + e.getMessage())));
+        }
+    }
+
+    /**
+     * The outcome of an experiment.
+     */
+    static final class Reply implements Serializable {
+        private static final long serialVersionUID = -3325104431575398806L;
+        @Nullable
+        private final Object result;
+        @Nullable
+        private final Exception failure;
+
+        Reply(@Nullable Object result, @Nullable Exception failure) {
+            this.result = result;
+            this.failure = failure;
+        }
+
+        @Nullable
+        Object get() throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package be.kuleuven.cs.gridflex.experimentation.runners.local;
 
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import com.google.common.base.Splitter;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Factory for creating experiment Runners.
@@ -9,6 +13,7 @@ import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
  */
 public final class LocalRunners {
     private static final int DEFAULT_THREADS = 4;
+    private static final int IN_FLIGHT_PER_THREAD = 2;
 
     private LocalRunners() {
     }
@@ -53,4 +58,56 @@ public final class LocalRunners {
         return new MultiThreadedExperimentRunner(
                 Runtime.getRuntime().availableProcessors());
     }
+
+    /**
+     * Creates a reusable, non-blocking runner on a work-stealing pool that hands out results as
+     * they complete.
+     *
+     * @param threads the amount of threads to have simultaneously.
+     * @return The specified runner.
+     */
+    public static StreamingExperimentRunner createStreamingRunner(final int threads) {
+        return new StreamingExperimentRunner(threads, threads * IN_FLIGHT_PER_THREAD);
+    }
+
+    /**
+     * Creates a reusable, non-blocking streaming runner with as many threads in the pool as
+     * there are cores available.
+     *
+     * @return The specified runner.
+     */
+    public static StreamingExperimentRunner createOSTunedStreamingRunner() {
+        return createStreamingRunner(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner that runs experiments in separate worker JVMs on this machine.
+     *
+     * @param processes  the amount of worker processes.
+     * @param sharedData the data shared by all experiments, shipped to each worker once.
+     * @param jvmArgs    extra JVM arguments for the worker processes.
+     * @return The specified runner.
+     */
+    public static LocalProcessExperimentRunner createMultiProcessRunner(final int processes,
+            Map<String, Object> sharedData, List<String> jvmArgs) {
+        return new LocalProcessExperimentRunner(processes, sharedData, jvmArgs);
+    }
+
+    /**
+     * Creates a runner that runs experiments in separate worker JVMs on this machine, configured
+     * by the {@link LocalProcessExperimentRunner#PROCESSES_PROPERTY} and
+     * {@link LocalProcessExperimentRunner#JVM_ARGS_PROPERTY} system properties. By default, there
+     * are as many workers as there are cores available.
+     *
+     * @param sharedData the data shared by all experiments, shipped to each worker once.
+     * @return The specified runner.
+     */
+    public static LocalProcessExperimentRunner createConfiguredMultiProcessRunner(
+            Map<String, Object> sharedData) {
+        int processes = Integer.getInteger(LocalProcessExperimentRunner.PROCESSES_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        List<String> jvmArgs = Splitter.on(' ').omitEmptyStrings().splitToList(
+                System.getProperty(LocalProcessExperimentRunner.JVM_ARGS_PROPERTY, ""));
+        return createMultiProcessRunner(processes, sharedData, jvmArgs);
+    }
 }
@@ -0,0 +1,167 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Length prefixed message channel between the runner and its worker processes.
+ * Every message is serialized on its own. Objects that are part of the shared data are not
+ * serialized with every message, but replaced by a reference to the copy each worker received
+ * once when it connected.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+final class ProcessChannel implements AutoCloseable {
+    private static final int NO_MESSAGE = -1;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Map<Object, String> sharedKeys;
+    private Map<String, Object> sharedData;
+
+    ProcessChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.sharedKeys = new IdentityHashMap<>();
+        this.sharedData = Collections.emptyMap();
+    }
+
+    /**
+     * Send the shared data, in full, and use it for replacing references from now on.
+     */
+    void sendSharedData(Map<String, Object> data) throws IOException {
+        writeFrame(toBytes(data, false));
+        this.sharedData = data;
+        data.forEach((key, value) -> sharedKeys.put(value, key));
+    }
+
+    /**
+     * Receive the shared data sent by {@link #sendSharedData(Map)}.
+     */
+    @SuppressWarnings("unchecked")
+    void receiveSharedData() throws IOException, ClassNotFoundException {
+        Object data = readMessage();
+        if (!(data instanceof Map)) {
+            throw new IOException("Expected shared data as first message.");
+        }
+        this.sharedData = (Map<String, Object>) data;
+    }
+
+    void send(@Nullable Object message) throws IOException {
+        writeFrame(toBytes(message, true));
+    }
+
+    /**
+     * Signal the other side that no more messages will follow.
+     */
+    void sendEnd() throws IOException {
+        out.writeInt(NO_MESSAGE);
+        out.flush();
+    }
+
+    /**
+     * @return The next message, or null if the other side signalled the end.
+     */
+    @Nullable
+    Object receive() throws IOException, ClassNotFoundException {
+        return readMessage();
+    }
+
+    private byte[] toBytes(@Nullable Object message, boolean replaceShared) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new SharedDataOutputStream(bytes,
+                replaceShared ? sharedKeys : Collections.<Object, String>emptyMap())) {
+            oos.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeFrame(byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+    }
+
+    @Nullable
+    private Object readMessage() throws IOException, ClassNotFoundException {
+        int length = in.readInt();
+        if (length == NO_MESSAGE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        try (ObjectInputStream ois = new SharedDataInputStream(new ByteArrayInputStream(bytes),
+                sharedData)) {
+            return ois.readObject();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private static final class SharedDataOutputStream extends ObjectOutputStream {
+        private final Map<Object, String> keys;
+
+        SharedDataOutputStream(OutputStream out, Map<Object, String> keys) throws IOException {
+            super(out);
+            this.keys = keys;
+            enableReplaceObject(!keys.isEmpty());
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            String key = keys.get(obj);
+            return key == null ? obj : new SharedReference(key);
+        }
+    }
+
+    private static final class SharedDataInputStream extends ObjectInputStream {
+        private final Map<String, Object> data;
+
+        SharedDataInputStream(InputStream in, Map<String, Object> data) throws IOException {
+            super(in);
+            this.data = data;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof SharedReference) {
+                Object value = data.get(((SharedReference) obj).key);
+                if (value == null) {
+                    throw new IOException("Unknown shared data: " + ((SharedReference) obj).key);
+                }
+                return value;
+            }
+            return obj;
+        }
+    }
+
+    private static final class SharedReference implements Serializable {
+        private static final long serialVersionUID = 3279411823047153315L;
+        private final String key;
+
+        SharedReference(String key) {
+            this.key = key;
+        }
+    }
+}
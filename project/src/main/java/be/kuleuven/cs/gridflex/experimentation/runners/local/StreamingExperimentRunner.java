@@ -0,0 +1,427 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import com.google.common.collect.Lists;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A reusable runner that runs experiments on a work-stealing pool and hands out results as soon
+ * as they complete, in the style of a {@link java.util.concurrent.CompletionService}.
+ * Experiments can be submitted repeatedly. At most a fixed number of experiments is handed to
+ * the pool at any time; the others wait in this runner's queue, so large batches do not flood
+ * the pool. That queue is bounded as well: submitting blocks while it is full. Experiments
+ * still queued when the runner is shut down fail with a {@link RejectedExecutionException}.
+ * Results can be consumed one at a time in order of completion with
+ * {@link #takeResult()}, {@link #pollResult(long, TimeUnit)} or
+ * {@link #forEachResult(Consumer)}, or all at once in order of submission with
+ * {@link #waitAndGetResults()}. {@link #runAndForEachResult(Collection, Consumer)} consumes
+ * results while submitting, so a full queue does not hold back consumption.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class StreamingExperimentRunner implements ExperimentRunner {
+    private static final double NANOS_PER_SECOND = 1E9;
+    private static final int QUEUED_PER_IN_FLIGHT = 64;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Object lock = new Object();
+    private final Queue<ExperimentTask> pending;
+    private final List<ExperimentTask> unreported;
+    private final BlockingQueue<ExperimentTask> completed;
+    private final AtomicLong submittedCount;
+    private final AtomicLong completedCount;
+    private final AtomicLong consumedCount;
+    private int inFlight;
+    private long firstSubmission;
+    private boolean shutdown;
+
+    /**
+     * Run experiments on a work-stealing pool with the given number of threads.
+     *
+     * @param threads     The number of threads.
+     * @param maxInFlight The maximum number of experiments handed to the pool at any time.
+     */
+    StreamingExperimentRunner(int threads, int maxInFlight) {
+        this(new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null,
+                true), maxInFlight);
+    }
+
+    protected StreamingExperimentRunner(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, maxInFlight * QUEUED_PER_IN_FLIGHT);
+    }
+
+    /**
+     * Run experiments on the given executor.
+     *
+     * @param executor    The executor to hand experiments to.
+     * @param maxInFlight The maximum number of experiments handed to the executor at any time.
+     * @param maxQueued   The maximum number of experiments waiting to be handed to the executor.
+     */
+    protected StreamingExperimentRunner(ExecutorService executor, int maxInFlight,
+            int maxQueued) {
+        checkArgument(maxInFlight > 0, "At least one experiment should be allowed in flight.");
+        checkArgument(maxQueued > 0, "At least one experiment should be allowed to queue.");
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.pending = new ArrayDeque<>();
+        this.unreported = Lists.newArrayList();
+        this.completed = new LinkedBlockingQueue<>();
+        this.submittedCount = new AtomicLong();
+        this.completedCount = new AtomicLong();
+        this.consumedCount = new AtomicLong();
+    }
+
+    /**
+     * Submit experiments for execution. This method does not wait for the experiments to
+     * complete and can be called repeatedly. It only waits while the queue of experiments not
+     * yet handed to the pool is full.
+     *
+     * @param experiments The experiment collection to take tasks from.
+     * @throws IllegalStateException if interrupted while waiting for room in the queue.
+     */
+    @Override
+    public void runExperiments(Collection<? extends Callable<Object>> experiments) {
+        for (Callable<Object> experiment : experiments) {
+            submit(experiment, true);
+        }
+    }
+
+    /**
+     * Submit experiments and hand every result to the consumer as soon as it completes, until
+     * the results of all submitted experiments have been consumed. Results are consumed while
+     * experiments are still being submitted: instead of waiting for room in the queue, this
+     * method waits for and consumes the next result.
+     *
+     * @param experiments The experiment collection to take tasks from.
+     * @param consumer    The consumer of results.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void runAndForEachResult(Collection<? extends Callable<Object>> experiments,
+            Consumer<? super Future<Object>> consumer) throws InterruptedException {
+        for (Callable<Object> experiment : experiments) {
+            while (!submit(experiment, false)) {
+                consumer.accept(takeResult());
+            }
+            @Nullable ExperimentTask task;
+            while ((task = completed.poll()) != null) {
+                if (task.consume()) {
+                    consumer.accept(task);
+                }
+            }
+        }
+        forEachResult(consumer);
+    }
+
+    /**
+     * Submit an experiment, or fail it if this runner has been shut down.
+     *
+     * @param experiment The experiment.
+     * @param wait       True if this method should wait while the queue is full.
+     * @return False if the queue is full and this method should not wait.
+     */
+    private boolean submit(Callable<Object> experiment, boolean wait) {
+        ExperimentTask task = new ExperimentTask(decorate(experiment));
+        boolean rejected;
+        synchronized (lock) {
+            try {
+                while (!shutdown && pending.size() >= maxQueued) {
+                    if (!wait) {
+                        return false;
+                    }
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        "Interrupted while waiting to submit experiments.", e);
+            }
+            if (submittedCount.get() == 0) {
+                firstSubmission = System.nanoTime();
+            }
+            unreported.add(task);
+            submittedCount.incrementAndGet();
+            rejected = shutdown;
+            if (!rejected) {
+                pending.add(task);
+            }
+        }
+        if (rejected) {
+            task.reject(new RejectedExecutionException("Runner has been shut down."));
+        } else {
+            dispatch();
+        }
+        return true;
+    }
+
+    /**
+     * Prepare an experiment for execution on the executor of this runner. The default
+     * implementation is to return the experiment itself.
+     *
+     * @param experiment The submitted experiment.
+     * @return The experiment to execute.
+     */
+    protected Callable<Object> decorate(Callable<Object> experiment) {
+        return experiment;
+    }
+
+    private void dispatch() {
+        List<ExperimentTask> toRun = Lists.newArrayList();
+        synchronized (lock) {
+            while (!shutdown && inFlight < maxInFlight && !pending.isEmpty()) {
+                ExperimentTask task = pending.poll();
+                task.dispatched = true;
+                toRun.add(task);
+                inFlight++;
+            }
+            if (!toRun.isEmpty()) {
+                lock.notifyAll();
+            }
+        }
+        for (ExperimentTask task : toRun) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                rejectPending();
+                task.reject(e);
+            }
+        }
+    }
+
+    /**
+     * Stop dispatching and fail all experiments not yet handed to the pool.
+     */
+    private void rejectPending() {
+        List<ExperimentTask> toReject;
+        synchronized (lock) {
+            shutdown = true;
+            toReject = Lists.newArrayList(pending);
+            pending.clear();
+            lock.notifyAll();
+        }
+        RejectedExecutionException e = new RejectedExecutionException(
+                "Runner has been shut down.");
+        toReject.forEach(t -> t.reject(e));
+    }
+
+    private void onCompletion(ExperimentTask task) {
+        synchronized (lock) {
+            if (task.dispatched) {
+                inFlight--;
+            } else if (pending.remove(task)) {
+                //Cancelled before it was handed to the pool.
+                lock.notifyAll();
+            }
+        }
+        completedCount.incrementAndGet();
+        completed.add(task);
+        dispatch();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return completedCount.get() < submittedCount.get();
+    }
+
+    /**
+     * Wait for and take the next completed experiment, in order of completion.
+     *
+     * @return The future of the completed experiment.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Future<Object> takeResult() throws InterruptedException {
+        while (true) {
+            ExperimentTask task = completed.take();
+            if (task.consume()) {
+                return task;
+            }
+        }
+    }
+
+    /**
+     * Take the next completed experiment, in order of completion, waiting at most the given time.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of timeout.
+     * @return The future of the completed experiment, or null if none completed in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Nullable
+    public Future<Object> pollResult(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            @Nullable ExperimentTask task = completed
+                    .poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (task == null || task.consume()) {
+                return task;
+            }
+        }
+    }
+
+    /**
+     * Hand every result to the consumer as soon as it completes, until the results of all
+     * submitted experiments have been consumed. Consumed results are not returned again by
+     * {@link #waitAndGetResults()}.
+     *
+     * @param consumer The consumer of results.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void forEachResult(Consumer<? super Future<Object>> consumer)
+            throws InterruptedException {
+        while (consumedCount.get() < submittedCount.get()) {
+            consumer.accept(takeResult());
+        }
+        synchronized (lock) {
+            unreported.removeIf(ExperimentTask::isConsumed);
+        }
+    }
+
+    /**
+     * Wait for all experiments submitted since the previous call to this method and return
+     * their results in order of submission. Results already taken in order of completion are
+     * included as well. This runner remains usable afterwards.
+     *
+     * @return The futures of the experiments.
+     */
+    @Override
+    public List<Future<Object>> waitAndGetResults() {
+        List<ExperimentTask> batch;
+        synchronized (lock) {
+            batch = Lists.newArrayList(unreported);
+            unreported.clear();
+        }
+        List<Future<Object>> results = Lists.newArrayList();
+        for (ExperimentTask task : batch) {
+            task.awaitCompletion();
+            task.consume();
+            results.add(task);
+        }
+        completed.removeIf(ExperimentTask::isConsumed);
+        return results;
+    }
+
+    /**
+     * @return The number of submitted experiments not yet handed to the pool.
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return The number of experiments handed to the pool that have not completed yet.
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * @return The total number of submitted experiments.
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * @return The total number of completed experiments.
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * @return The number of completed experiments per second since the first submission.
+     */
+    public double getThroughput() {
+        long start;
+        synchronized (lock) {
+            if (submittedCount.get() == 0) {
+                return 0;
+            }
+            start = firstSubmission;
+        }
+        long elapsed = System.nanoTime() - start;
+        return elapsed <= 0 ? 0 : completedCount.get() * NANOS_PER_SECOND / elapsed;
+    }
+
+    /**
+     * Stop accepting work and release the pool threads once running experiments complete.
+     * Experiments not yet handed to the pool fail with a {@link RejectedExecutionException}.
+     */
+    public void shutdown() {
+        rejectPending();
+        executor.shutdown();
+    }
+
+    private final class ExperimentTask extends FutureTask<Object> {
+        private final AtomicBoolean consumed;
+        private boolean dispatched;
+
+        ExperimentTask(Callable<Object> callable) {
+            super(callable);
+            this.consumed = new AtomicBoolean();
+        }
+
+        @Override
+        protected void done() {
+            onCompletion(this);
+        }
+
+        void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        boolean isConsumed() {
+            return consumed.get();
+        }
+
+        boolean consume() {
+            if (consumed.compareAndSet(false, true)) {
+                consumedCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        void awaitCompletion() {
+            boolean interrupted = false;
+            while (!isDone()) {
+                try {
+                    get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    //Failures are reported through the future itself.
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
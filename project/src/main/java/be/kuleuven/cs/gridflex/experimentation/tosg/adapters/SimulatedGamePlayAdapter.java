@@ -4,36 +4,98 @@ import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.FlexibilityUtiliser;
 import be.kuleuven.cs.gridflex.simulation.SimulationComponent;
 import be.kuleuven.cs.gridflex.simulation.SimulationContext;
 import be.kuleuven.cs.gridflex.simulation.Simulator;
+import com.google.common.collect.Lists;
+import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Adapter to trigger solving of whole horizon flex in one go using the simulator mechanism.
+ * Actions can also be solved concurrently on an executor, as they do not depend on each other.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public class SimulatedGamePlayAdapter {
-    private final Simulator s;
     private final List<FlexibilityUtiliser> actions;
+    @Nullable
+    private final Executor executor;
 
     /**
-     * Default constructor.
+     * Default constructor. Actions are solved one after the other.
      *
      * @param actions The actions to adapt.
      */
     public SimulatedGamePlayAdapter(List<FlexibilityUtiliser> actions) {
+        this.actions = Collections.unmodifiableList(actions);
+        this.executor = null;
+    }
 
-        this.s = Simulator.createSimulator(1);
+    /**
+     * Constructor for solving all actions concurrently. The first action is solved on the
+     * calling thread, the others on the given executor.
+     *
+     * @param actions  The actions to adapt.
+     * @param executor The executor to solve actions on.
+     */
+    public SimulatedGamePlayAdapter(List<FlexibilityUtiliser> actions, Executor executor) {
         this.actions = Collections.unmodifiableList(actions);
+        this.executor = executor;
     }
 
     /**
-     * Play the game. Triggers the simulation.start() method.
+     * Play the game. Triggers the simulation.start() method, or solves all actions concurrently
+     * if an executor was given. In the latter case this method returns once all actions are
+     * solved. If solving fails, the failure of the first failing action in action order is
+     * rethrown.
      */
     public void play() {
-        actions.forEach(agent -> s.register(new SimAdapter(() -> agent.solve())));
-        s.start();
+        if (executor == null || actions.size() <= 1) {
+            Simulator s = Simulator.createSimulator(1);
+            actions.forEach(agent -> s.register(new SimAdapter(() -> agent.solve())));
+            s.start();
+        } else {
+            playConcurrently(executor);
+        }
+    }
+
+    private void playConcurrently(Executor exec) {
+        List<CompletableFuture<Void>> futures = Lists.newArrayList();
+        for (FlexibilityUtiliser action : actions.subList(1, actions.size())) {
+            futures.add(CompletableFuture.runAsync(action::solve, exec));
+        }
+        @Nullable RuntimeException failure = null;
+        try {
+            actions.get(0).solve();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<Void> f : futures) {
+            try {
+                f.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = unwrap(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
     }
 
     private static class SimAdapter implements SimulationComponent {
@@ -0,0 +1,119 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.benchmark;
+
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.BudgetTracker;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.PortfolioBalanceSolver;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.PortfolioBalanceSolver
+        .ProfileConversionStrategy;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.SolverInputData;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.transformation
+        .PowerForecastBasedConverter;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import be.kuleuven.cs.gridflex.experimentation.tosg.wgmf.ExperimentParams;
+import be.kuleuven.cs.gridflex.experimentation.tosg.wgmf.WgmfGameParams;
+import be.kuleuven.cs.gridflex.experimentation.tosg.wgmf.WgmfGameRunnerVariableDistributionCosts;
+import com.google.common.base.Stopwatch;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Compares the chained, multi-pass profile conversion with the fused single-pass conversion
+ * used to build portfolio balance solvers. Both paths are checked to give the same profiles.
+ * Takes the same arguments as the game runners.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class ProfileConversionBenchmark extends WgmfGameRunnerVariableDistributionCosts {
+    private static final Logger logger = getLogger(ProfileConversionBenchmark.class);
+    private static final long BASE_SEED = 50;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int ITERATIONS = 400;
+    private static final double EPS = 1e-9;
+
+    /**
+     * Public constructor from params object.
+     *
+     * @param expP The experiment parameters.
+     */
+    public ProfileConversionBenchmark(ExperimentParams expP) {
+        super(expP);
+    }
+
+    /**
+     * Main method. Start execution at this point.
+     *
+     * @param args The arguments passed.
+     */
+    public static void main(String[] args) {
+        startExecution(args.length > 0 ? args : new String[] { "-pIdx", "0", "-dIdx", "0" },
+                ProfileConversionBenchmark::new);
+    }
+
+    @Override
+    protected void execute(WgmfGameParams params) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            SolverInputData input = params.toSolverInputData(BASE_SEED + i);
+            checkEqual(chained(input), fused(input));
+        }
+        long chainedNanos = 0;
+        long fusedNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            SolverInputData input = params.toSolverInputData(BASE_SEED + i);
+            Stopwatch watch = Stopwatch.createStarted();
+            CongestionProfile chained = chained(input);
+            chainedNanos += watch.elapsed(TimeUnit.NANOSECONDS);
+            watch.reset().start();
+            CongestionProfile fused = fused(input);
+            fusedNanos += watch.elapsed(TimeUnit.NANOSECONDS);
+            checkEqual(chained, fused);
+        }
+        logger.info("Profile conversion over {} instances of {} slots: chained {} ms/instance, "
+                        + "fused {} ms/instance, speedup {}.", ITERATIONS,
+                params.getInputData().getCableCurrentProfile().length(),
+                String.format("%.3f", chainedNanos / 1e6 / ITERATIONS),
+                String.format("%.3f", fusedNanos / 1e6 / ITERATIONS),
+                String.format("%.2f", chainedNanos / (double) Math.max(fusedNanos, 1)));
+    }
+
+    /**
+     * The conversion as it is done pass by pass, materializing every intermediate profile.
+     */
+    private static CongestionProfile chained(SolverInputData input) {
+        BudgetTracker budget = createBudget(input);
+        CongestionProfile profile = new PowerForecastBasedConverter(
+                input.getCableCurrentProfile(), input.getForecastErrorDistributionType()
+                .createErrorGenerator(input.getSeed(),
+                        input.getPowerForecastMultiHorizonErrorDistribution()))
+                .convertProfileToPositiveOnlyImbalanceVolumes();
+        CongestionProfile negOnly = profile
+                .transformFromIndex(i -> input.getNetRegulatedVolumeProfile().value(i) < 0 ?
+                        profile.value(i) : 0);
+        return negOnly
+                .transformFromIndex(i -> budget.getBudgetForPeriod(i) < 0 ? 0 : negOnly.value(i));
+    }
+
+    private static CongestionProfile fused(SolverInputData input) {
+        return ProfileConversionStrategy.POWER_ERROR_BASED.applyConversion(input,
+                PortfolioBalanceSolver.budgetConstraintFilter(createBudget(input), input));
+    }
+
+    private static BudgetTracker createBudget(SolverInputData input) {
+        return BudgetTracker.createDayAheadSellingPrice(input.getPositiveImbalancePriceProfile(),
+                input.getDayAheadPriceProfile());
+    }
+
+    private static void checkEqual(CongestionProfile expected, CongestionProfile actual) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (Math.abs(expected.value(i) - actual.value(i)) > EPS) {
+                throw new IllegalStateException(
+                        "Fused conversion differs from chained conversion at slot " + i);
+            }
+        }
+    }
+
+    @Override
+    protected void processResults() {
+    }
+}
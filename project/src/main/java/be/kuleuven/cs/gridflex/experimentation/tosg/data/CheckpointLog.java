@@ -0,0 +1,196 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.data;
+
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of completed experiment results, for resuming long experiments after a crash.
+ * Every result is written as a separate record with a checksum and flushed immediately.
+ * When the log is opened, the results of a previous run are recovered. A record that was only
+ * partly written when the previous run stopped is discarded. Every log starts with a record
+ * holding the key of the sweep it belongs to, so results of one sweep are never resumed into
+ * another.
+ *
+ * @param <T> The type of results.
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class CheckpointLog<T extends Serializable> implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointLog.class);
+    private final Class<T> type;
+    private final List<T> recovered;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+
+    private CheckpointLog(Path file, Class<T> type, String sweepKey) throws IOException {
+        this.type = type;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        long valid;
+        try {
+            valid = recover(builder, sweepKey, file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (valid < channel.size()) {
+            logger.warn("Discarding {} bytes of incomplete records in {}", channel.size() - valid,
+                    file);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        this.recovered = builder.build();
+        this.out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)));
+        if (valid == 0) {
+            write(sweepKey);
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered {} results from {}", recovered.size(), file);
+        }
+    }
+
+    /**
+     * Open a checkpoint log without a sweep key, creating the file if it does not exist yet.
+     *
+     * @param file The log file.
+     * @param type The type of results.
+     * @param <T>  The type of results.
+     * @return The opened log.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static <T extends Serializable> CheckpointLog<T> open(Path file, Class<T> type)
+            throws IOException {
+        return open(file, type, "");
+    }
+
+    /**
+     * Open the checkpoint log of a sweep, creating the file if it does not exist yet.
+     *
+     * @param file     The log file.
+     * @param type     The type of results.
+     * @param sweepKey The key identifying the parameters of the sweep.
+     * @param <T>      The type of results.
+     * @return The opened log.
+     * @throws IOException           if the file cannot be opened.
+     * @throws IllegalStateException if the file is the log of another sweep.
+     */
+    public static <T extends Serializable> CheckpointLog<T> open(Path file, Class<T> type,
+            String sweepKey) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        return new CheckpointLog<>(file, type, sweepKey);
+    }
+
+    private long recover(ImmutableList.Builder<T> builder, String sweepKey, Path file)
+            throws IOException {
+        channel.position(0);
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel)));
+        long valid = 0;
+        while (true) {
+            try {
+                int length = in.readInt();
+                long checksum = in.readLong();
+                if (length < 0 || length > channel.size() - valid - Integer.BYTES - Long.BYTES) {
+                    return valid;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                if (checksum(bytes) != checksum) {
+                    return valid;
+                }
+                if (valid == 0) {
+                    checkSweepKey(deserialize(bytes, String.class), sweepKey, file);
+                } else {
+                    builder.add(deserialize(bytes, type));
+                }
+                valid += Integer.BYTES + Long.BYTES + length;
+            } catch (EOFException e) {
+                return valid;
+            }
+        }
+    }
+
+    private static void checkSweepKey(String logged, String sweepKey, Path file) {
+        if (!logged.equals(sweepKey)) {
+            throw new IllegalStateException("Checkpoint log " + file
+                    + " belongs to another sweep: " + logged);
+        }
+    }
+
+    private static <S> S deserialize(byte[] bytes, Class<S> type) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return type.cast(ois.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Checkpoint log contains a record of an unexpected type.", e);
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * @return The results recovered from a previous run.
+     */
+    public List<T> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Append a result to the log.
+     *
+     * @param result The result.
+     */
+    public synchronized void append(T result) {
+        try {
+            write(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not append result to checkpoint log.", e);
+        }
+    }
+
+    private void write(Serializable record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(record);
+        }
+        byte[] serialized = bytes.toByteArray();
+        out.writeInt(serialized.length);
+        out.writeLong(checksum(serialized));
+        out.write(serialized);
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.flush();
+        channel.force(false);
+        channel.close();
+    }
+}
@@ -1,5 +1,8 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.stat;
 
+import be.kuleuven.cs.gametheory.evolutionary.FixedPoint;
+import be.kuleuven.cs.gametheory.evolutionary.ReplicatorDynamics;
+import org.eclipse.jdt.annotation.Nullable;
 import org.n52.matlab.control.MatlabConnectionException;
 import org.n52.matlab.control.MatlabInvocationException;
 import org.n52.matlab.control.MatlabProxy;
@@ -7,32 +10,48 @@ import org.n52.matlab.control.MatlabProxyFactory;
 import org.n52.matlab.control.MatlabProxyFactoryOptions;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Result parser that can produce fixed point of equations using Matlab and evolutionary game
- * theory principles.
+ * Result parser that can produce fixed points of the replicator dynamics of evolutionary game
+ * theory. Fixed points are found in Java. Optionally, every result is cross-checked against the
+ * solveN function of the EgtTools Matlab code, logging any differences.
+ * The parser is thread-safe, calls to Matlab are serialized.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public class EgtResultParser implements AutoCloseable {
+    /**
+     * System property to enable the Matlab cross-check. The value is the path to the matlab
+     * executable, or empty if it is on the path.
+     */
+    public static final String MATLAB_PROPERTY = "gridflex.egt.matlab";
     private static final Object LOCK = new Object();
     private static final boolean HIDDEN = true;
     private static final boolean REUSE_PREVIOUS = true;
     private static final boolean NO_GUI = true;
+    private static final double CROSS_CHECK_TOLERANCE = 1.0E-04;
     private final AtomicReference<MatlabProxy> proxy = new AtomicReference<>();
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(EgtResultParser.class);
     private static final String EGT_FUNCTION_PATH = "~/gitworkspace/EgtTools/src/";
 
     /**
-     * Default constructor.
+     * Default constructor, finding fixed points without Matlab.
+     */
+    public EgtResultParser() {
+    }
+
+    /**
+     * Constructor for a parser that cross-checks its results with Matlab.
      *
      * @param pathToML Path to the matlab executable or null if on classpath.
      * @throws IllegalStateException If the matlab connection proxy cannot be made.
      */
-    public EgtResultParser(String pathToML) {
+    public EgtResultParser(@Nullable String pathToML) {
         MatlabProxyFactoryOptions options = new MatlabProxyFactoryOptions.Builder()
                 .setUsePreviouslyControlledSession(REUSE_PREVIOUS).setMatlabLocation(pathToML)
                 .setHidden(HIDDEN).setNoGui(NO_GUI).build();
@@ -55,48 +74,101 @@ public class EgtResultParser implements AutoCloseable {
     }
 
     /**
-     * Find the fixed points of the population dynamics using ML code.
+     * Creates a parser, cross-checking with Matlab if the {@link #MATLAB_PROPERTY} system
+     * property is set.
+     *
+     * @return A new parser.
+     * @throws IllegalStateException If the cross-check is enabled but the matlab connection
+     *                               proxy cannot be made.
+     */
+    public static EgtResultParser create() {
+        String pathToML = System.getProperty(MATLAB_PROPERTY);
+        if (pathToML == null) {
+            return new EgtResultParser();
+        }
+        return new EgtResultParser(pathToML.isEmpty() ? null : pathToML);
+    }
+
+    /**
+     * Find the fixed points of the population dynamics. If there are no fixed points between
+     * the pure populations, the pure population with the highest payoffs is returned.
      *
      * @param dynParams The parameters for building the differential equations.
      * @return the array of fixed points.
-     * @throws IllegalStateException    If an exception occurs when calling the ML code.
-     * @throws IllegalArgumentException If dynParams is empty.
+     * @throws IllegalStateException    If an exception occurs when cross-checking with the ML
+     *                                  code.
+     * @throws IllegalArgumentException If dynParams is empty or not of a game with two actions.
      */
     public double[] findFixedPointForDynEquationParams(double[] dynParams) {
         checkArgument(dynParams.length > 0, "Params should not be empty.");
-        logger.debug("Evaluating function call for finding fixed points.");
-        try {
-            getProxy().setVariable("PARAMS", dynParams);
-            getProxy().eval("RES = solveN(PARAMS);");
-            double[] res = (double[]) getProxy().getVariable("RES");
-
-            if (res.length == 0) {
-                double ac1 = dynParams[0];
-                double ac2 = dynParams[dynParams.length - 1];
-                for (int i = 1; i < dynParams.length - 1; i++) {
-                    if (i % 2 != 0) {
-                        ac1 += dynParams[i];
-                    } else {
-                        ac2 += dynParams[i];
-                    }
+        double[] res = ReplicatorDynamics.from(dynParams).getInteriorFixedPoints();
+        if (getProxy() != null) {
+            crossCheck(dynParams, res);
+        }
+        if (res.length == 0) {
+            double ac1 = dynParams[0];
+            double ac2 = dynParams[dynParams.length - 1];
+            for (int i = 1; i < dynParams.length - 1; i++) {
+                if (i % 2 != 0) {
+                    ac1 += dynParams[i];
+                } else {
+                    ac2 += dynParams[i];
                 }
-                return new double[] { ac1 < ac2 ? 0 : 1 };
             }
-            return res;
-        } catch (MatlabInvocationException e) {
-            throw new IllegalStateException("Something went wrong with the invoked operation.", e);
+            return new double[] { ac1 < ac2 ? 0 : 1 };
         }
+        return res;
+    }
+
+    /**
+     * Find the fixed points of the population dynamics and classify their stability, including
+     * the pure populations.
+     *
+     * @param dynParams The parameters for building the differential equations.
+     * @return the fixed points in increasing order.
+     * @throws IllegalArgumentException If dynParams is not of a game with two actions.
+     */
+    public List<FixedPoint> findClassifiedFixedPoints(double[] dynParams) {
+        return ReplicatorDynamics.from(dynParams).getFixedPoints();
     }
 
+    private void crossCheck(double[] dynParams, double[] res) {
+        double[] expected;
+        synchronized (LOCK) {
+            logger.debug("Evaluating function call for finding fixed points.");
+            try {
+                getProxy().setVariable("PARAMS", dynParams);
+                getProxy().eval("RES = solveN(PARAMS);");
+                expected = (double[]) getProxy().getVariable("RES");
+            } catch (MatlabInvocationException e) {
+                throw new IllegalStateException(
+                        "Something went wrong with the invoked operation.", e);
+            }
+        }
+        boolean matches = expected.length == res.length;
+        for (int i = 0; matches && i < res.length; i++) {
+            matches = Math.abs(expected[i] - res[i]) <= CROSS_CHECK_TOLERANCE;
+        }
+        if (!matches) {
+            logger.warn("Fixed points {} differ from Matlab fixed points {} for params {}",
+                    Arrays.toString(res), Arrays.toString(expected), Arrays.toString(dynParams));
+        }
+    }
+
+    @Nullable
     private synchronized MatlabProxy getProxy() {
         return proxy.get();
     }
 
     @Override
     public void close() throws Exception {
+        MatlabProxy matlab = getProxy();
+        if (matlab == null) {
+            return;
+        }
         synchronized (LOCK) {
             logger.debug("Closing matlab instance and disconnecting proxy.");
-            this.getProxy().disconnect();
+            matlab.disconnect();
             logger.debug("Matlab instance closed and proxy disconnected.");
         }
     }
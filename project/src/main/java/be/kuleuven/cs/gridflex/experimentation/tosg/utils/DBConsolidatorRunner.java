@@ -1,31 +1,56 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.utils;
 
 import be.kuleuven.cs.gridflex.persistence.MapDBConsolidator;
+import be.kuleuven.cs.gridflex.persistence.StoreFormat;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.AllocResultsView;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.ImmutableSolverProblemContextView;
+import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.ViewSerializers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
- * Small utility for consolidating databases.
+ * Command line utility for consolidating memoization databases.
+ * Use -o [outputFile] [-t threads] [-c commitInterval] [-f HASHED|COMPACT|JAVA]
+ * [-F HASHED|COMPACT|JAVA] inputFile...
+ * Input stores are in java serialization format unless -f is given. The output store uses the
+ * input format unless -F is given, so -F HASHED converts existing java serialized stores to the
+ * format used with WgmfMemContextFactory#HASHED_STORE_PROPERTY.
+ * For backwards compatibility, the first input file is used as output file if -o is omitted,
+ * and running without arguments consolidates the default stores in the consolidation folder.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public final class DBConsolidatorRunner {
+    private static final String OUT_KEY = "o";
+    private static final String THREADS_KEY = "t";
+    private static final String COMMIT_KEY = "c";
+    private static final String FORMAT_KEY = "f";
+    private static final String OUT_FORMAT_KEY = "F";
+    private static final String DEFAULT_FORMAT = "JAVA";
+    private static final String DEFAULT_OUT_FILE = "consolidation/memoDB_R400N8P0E0.db";
+    private static final List<String> DEFAULT_IN_FILES = ImmutableList
+            .of("consolidation/memo2.db", "consolidation/memo4.db", "consolidation/memo5.db",
+                    "consolidation/memo6.db", "consolidation/memo7.db", "consolidation/memo8.db",
+                    "consolidation/memo9.db", "consolidation/memo10.db");
+    private static final Logger logger = LoggerFactory.getLogger(DBConsolidatorRunner.class);
+
     private DBConsolidatorRunner() {
     }
 
     public static void main(String[] args) {
         if (args.length == 0) {
-            String outFile = "consolidation/memoDB_R400N8P0E0.db";
-            List<String> files = Lists.newArrayList("consolidation/memo2.db",
-                    "consolidation/memo4.db", "consolidation/memo5.db",
-                    "consolidation/memo6.db", "consolidation/memo7.db", "consolidation/memo8.db",
-                    "consolidation/memo9.db", "consolidation/memo10.db");
-            MapDBConsolidator<ImmutableSolverProblemContextView, AllocResultsView> cons = new
-                    MapDBConsolidator(files, outFile);
+            MapDBConsolidator<ImmutableSolverProblemContextView, AllocResultsView> cons =
+                    new MapDBConsolidator<>(DEFAULT_IN_FILES, DEFAULT_OUT_FILE);
             cons.consolidate();
         } else {
             fromCmd(args);
@@ -33,14 +58,61 @@ public final class DBConsolidatorRunner {
     }
 
     public static void fromCmd(String[] args) {
-        if (args.length <= 1) {
-            throw new IllegalArgumentException("Should have at least two parameters.");
+        Options o = new Options();
+        o.addOption(OUT_KEY, "output", true, "The output database file");
+        o.addOption(THREADS_KEY, "threads", true, "The number of input files read in parallel");
+        o.addOption(COMMIT_KEY, "commit", true, "The number of entries written between commits");
+        o.addOption(FORMAT_KEY, "format", true,
+                "The store format of the input databases. [HASHED|COMPACT|JAVA]");
+        o.addOption(OUT_FORMAT_KEY, "outputFormat", true,
+                "The store format of the output database. [HASHED|COMPACT|JAVA]");
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine line = parser.parse(o, args);
+            List<String> files = Lists.newArrayList(line.getArgList());
+            String outPath;
+            if (line.hasOption(OUT_KEY)) {
+                outPath = line.getOptionValue(OUT_KEY);
+            } else if (!files.isEmpty()) {
+                outPath = files.remove(0);
+            } else {
+                throw new ParseException("No output file specified.");
+            }
+            if (files.isEmpty()) {
+                throw new ParseException("Should have at least one input file.");
+            }
+            String inFormat = line.getOptionValue(FORMAT_KEY, DEFAULT_FORMAT);
+            MapDBConsolidator<ImmutableSolverProblemContextView, AllocResultsView> cons =
+                    new MapDBConsolidator<>(files, outPath, formatFor(inFormat),
+                            formatFor(line.getOptionValue(OUT_FORMAT_KEY, inFormat)));
+            if (line.hasOption(THREADS_KEY)) {
+                cons.setReaderThreads(Integer.parseInt(line.getOptionValue(THREADS_KEY)));
+            }
+            if (line.hasOption(COMMIT_KEY)) {
+                cons.setCommitInterval(Integer.parseInt(line.getOptionValue(COMMIT_KEY)));
+            }
+            cons.consolidate();
+        } catch (ParseException exp) {
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("DBConsolidatorRunner [options] inputFile...", o);
+            if (logger.isErrorEnabled()) {
+                logger.error("Parsing failed.  Reason: {}", exp.getMessage(), exp);
+            }
+            throw new IllegalArgumentException(exp);
+        }
+    }
+
+    private static StoreFormat<ImmutableSolverProblemContextView, AllocResultsView> formatFor(
+            String name) {
+        switch (name.toUpperCase()) {
+        case "HASHED":
+            return ViewSerializers.hashedFormat();
+        case "COMPACT":
+            return ViewSerializers.compactFormat();
+        case "JAVA":
+            return StoreFormat.javaSerialization();
+        default:
+            throw new IllegalArgumentException("Unknown store format: " + name);
         }
-        String outPath = args[0];
-        List<String> files = Lists.newArrayList();
-        files.addAll(Arrays.asList(args).subList(1, args.length));
-        MapDBConsolidator<ImmutableSolverProblemContextView, AllocResultsView> cons = new
-                MapDBConsolidator(files, outPath);
-        cons.consolidate();
     }
 }
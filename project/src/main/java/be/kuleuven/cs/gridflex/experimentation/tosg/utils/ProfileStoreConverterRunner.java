@@ -0,0 +1,101 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.utils;
+
+import be.kuleuven.cs.gridflex.domain.util.data.ColumnarProfileStore;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Command line utility for converting csv data files to binary profile stores.
+ * Use [-d outputDir] csvFile...
+ * Arguments are csv files or, if no such file exists, csv resources on the classpath.
+ * Without output directory, stores are written next to the csv files, or to the working
+ * directory for classpath resources.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ProfileStoreConverterRunner {
+    private static final String DIR_KEY = "d";
+    private static final Logger logger = LoggerFactory
+            .getLogger(ProfileStoreConverterRunner.class);
+
+    private ProfileStoreConverterRunner() {
+    }
+
+    public static void main(String[] args) {
+        fromCmd(args);
+    }
+
+    public static void fromCmd(String[] args) {
+        Options o = new Options();
+        o.addOption(DIR_KEY, "directory", true, "The output directory");
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine line = parser.parse(o, args);
+            List<String> files = line.getArgList();
+            if (files.isEmpty()) {
+                throw new ParseException("Should have at least one input file.");
+            }
+            Path outDir = line.hasOption(DIR_KEY) ? Paths.get(line.getOptionValue(DIR_KEY)) :
+                    null;
+            for (String file : files) {
+                convert(file, outDir);
+            }
+        } catch (ParseException exp) {
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("ProfileStoreConverterRunner [-d outputDir] csvFile...", o);
+            if (logger.isErrorEnabled()) {
+                logger.error("Parsing failed.  Reason: {}", exp.getMessage(), exp);
+            }
+            throw new IllegalArgumentException(exp);
+        } catch (IOException e) {
+            throw new IllegalStateException("Conversion failed.", e);
+        }
+    }
+
+    private static void convert(String file, Path outDir) throws IOException {
+        Path csv = Paths.get(file);
+        String binaryName = ColumnarProfileStore.binaryNameFor(csv.getFileName().toString());
+        Path out;
+        if (outDir != null) {
+            Files.createDirectories(outDir);
+            out = outDir.resolve(binaryName);
+        } else if (Files.exists(csv)) {
+            out = csv.resolveSibling(binaryName);
+        } else {
+            out = Paths.get(binaryName);
+        }
+        try (InputStream in = open(csv, file);
+             OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+            List<String> columns = ColumnarProfileStore.convertCsv(in, os);
+            logger.info("Converted {} to {} with columns {}", file, out, columns);
+        }
+    }
+
+    private static InputStream open(Path csv, String file) throws IOException {
+        if (Files.exists(csv)) {
+            return Files.newInputStream(csv);
+        }
+        InputStream in = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(file);
+        if (in == null) {
+            throw new FileNotFoundException("No file or resource found for " + file);
+        }
+        return in;
+    }
+}
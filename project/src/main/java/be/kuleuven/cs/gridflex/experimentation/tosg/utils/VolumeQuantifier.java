@@ -99,7 +99,8 @@ public class VolumeQuantifier extends WgmfGameRunnerVariableDistributionCosts {
             PortfolioBalanceSolver portfolioBalanceSolver = new PortfolioBalanceSolver(
                     params.getFactory(),
                     params.toSolverInputData(baseSeed + i),
-                    PortfolioBalanceSolver.ProfileConversionStrategy.POWER_ERROR_BASED);
+                    PortfolioBalanceSolver.ProfileConversionStrategy.POWER_ERROR_BASED,
+                    params.getSeedIndependentData());
 
             CongestionProfile diff = (CongestionProfile) portfolioBalanceSolver
                     .getCongestionVolumeToResolve();
@@ -2,16 +2,28 @@ package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 
 import be.kuleuven.cs.gametheory.configurable.GameInstanceConfiguration;
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import be.kuleuven.cs.gridflex.experimentation.runners.jppf.JPPFBlockingExperimentRunner;
 import be.kuleuven.cs.gridflex.experimentation.runners.jppf.RemoteRunners;
 import be.kuleuven.cs.gridflex.experimentation.runners.local.LocalRunners;
+import be.kuleuven.cs.gridflex.experimentation.runners.local.StreamingExperimentRunner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
 import org.jppf.node.protocol.Task;
+import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -26,13 +38,28 @@ enum ExecutionStrategy {
      */
     REMOTE((o) -> (GameInstanceConfiguration) ((Task<?>) o).getResult()),
     /**
-     * Run local with a multithreaded executor service.
+     * Run local on a work-stealing pool, processing results as they complete.
      */
     LOCAL((o) -> (GameInstanceConfiguration) ((Future<?>) o).get()),
     /**
      * Run locally with a serial executor in one thread.
      */
-    LOCAL_SERIAL((o) -> (GameInstanceConfiguration) ((Future<?>) o).get());
+    LOCAL_SERIAL((o) -> (GameInstanceConfiguration) ((Future<?>) o).get()),
+    /**
+     * Run locally in separate worker processes, processing results as they complete.
+     */
+    LOCAL_PROCESSES((o) -> (GameInstanceConfiguration) ((Future<?>) o).get());
+
+    /**
+     * @param params The experiment parameters.
+     * @return The execution strategy requested by the parameters.
+     */
+    static ExecutionStrategy from(ExperimentParams params) {
+        if (params.isRemoteExecutable()) {
+            return REMOTE;
+        }
+        return params.isMultiProcessExecutable() ? LOCAL_PROCESSES : LOCAL;
+    }
 
     ExperimentRunner getRunner(WgmfGameParams params, String paramString) {
         return getRunner(params, paramString, "PocJob");
@@ -42,12 +69,17 @@ enum ExecutionStrategy {
         ExperimentRunner toRet;
         switch (this) {
         case REMOTE:
-            Map<String, Object> data = Maps.newLinkedHashMap();
-            data.put(paramString, params);
-            toRet = RemoteRunners.createDefaultBlockedJPPFRunner(jobName, data);
+            //Nodes fetch the parameters once by content key, see RemoteTaskDecorator.
+            toRet = RemoteRunners.createDefaultBlockedJPPFRunner(jobName,
+                    Collections.emptyMap());
             break;
         case LOCAL:
-            toRet = LocalRunners.createOSTunedMultiThreadedRunner();
+            toRet = LocalRunners.createOSTunedStreamingRunner();
+            break;
+        case LOCAL_PROCESSES:
+            Map<String, Object> shared = Maps.newLinkedHashMap();
+            shared.put(paramString, new WgmfParamsCache.Entry(params));
+            toRet = LocalRunners.createConfiguredMultiProcessRunner(shared);
             break;
         case LOCAL_SERIAL:
         default:
@@ -65,74 +97,163 @@ enum ExecutionStrategy {
         handleProcessing(results, callback, false);
     }
 
+    /**
+     * Run the experiments and process their results. Results of streaming runners and of remote
+     * tasks are processed as soon as they complete, others once all experiments are done.
+     *
+     * @param runner   The runner to use.
+     * @param tasks    The experiments to run.
+     * @param callback The processing callback for results.
+     * @param failfast True if processing should stop at the first error.
+     */
+    void runAndProcessResults(ExperimentRunner runner,
+            List<? extends Callable<Object>> tasks, ProcessingCallback callback,
+            boolean failfast) {
+        if (runner instanceof JPPFBlockingExperimentRunner) {
+            runRemoteAndProcessResults((JPPFBlockingExperimentRunner) runner, tasks, callback,
+                    failfast);
+            return;
+        }
+        if (runner instanceof StreamingExperimentRunner) {
+            StreamingExperimentRunner streaming = (StreamingExperimentRunner) runner;
+            try {
+                streaming.runAndForEachResult(tasks, f -> handleFuture(f, callback, failfast));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        "Experimentation got interrupted. Results are likely tainted.", e);
+            } finally {
+                streaming.shutdown();
+            }
+        } else {
+            runner.runExperiments(tasks);
+            handleProcessing(runner.waitAndGetResults(), callback, failfast);
+        }
+    }
+
+    /**
+     * Process remote tasks as soon as they return from the nodes, so results are handled while
+     * the rest of the job is still running. Callbacks are never called concurrently.
+     */
+    private static void runRemoteAndProcessResults(JPPFBlockingExperimentRunner runner,
+            List<? extends Callable<Object>> tasks, ProcessingCallback callback,
+            boolean failfast) {
+        RemoteTaskScheduler scheduler = RemoteTaskScheduler.shared();
+        Object lock = new Object();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        runner.setReturnedTaskListener(task -> {
+            synchronized (lock) {
+                if (failure.get() != null) {
+                    return;
+                }
+                try {
+                    processRemoteTask(task, scheduler, callback, failfast);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            }
+        });
+        try {
+            runner.runExperiments(tasks);
+            runner.waitAndGetResults();
+        } finally {
+            runner.setReturnedTaskListener(null);
+            synchronized (lock) {
+                scheduler.saveHistory();
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static void processRemoteTask(Task<?> task, RemoteTaskScheduler scheduler,
+            ProcessingCallback callback, boolean failfast) {
+        if (task.getThrowable() != null) {
+            handleTaskFailure(task.getThrowable(), failfast);
+            return;
+        }
+        if (!(task instanceof RemoteTaskDecorator)) {
+            throw new IllegalStateException(
+                    "Tasks should be decorated for remote use at this point.");
+        }
+        RemoteTaskDecorator<?> decorator = (RemoteTaskDecorator<?>) task;
+        scheduler.record(decorator);
+        for (GenericTask<?> target : decorator.getTargets()) {
+            if (target.getThrowable() != null) {
+                handleTaskFailure(target.getThrowable(), failfast);
+            } else {
+                callback.processResults(target.getResult());
+            }
+        }
+    }
+
     private <R> void handleProcessing(List<R> allResults, ProcessingCallback callback,
             boolean failfast) {
         switch (this) {
         case REMOTE:
+            RemoteTaskScheduler scheduler = RemoteTaskScheduler.shared();
             for (Task<?> task : (List<Task<?>>) allResults) {
-                if (task.getThrowable() != null) {
-                    getLogger(ExecutionStrategy.class)
-                            .error("An error occured executing task:", task.getThrowable());
-                    if (failfast) {
-                        throw new IllegalStateException(
-                                "An exception occured during task execution. The results are "
-                                        + "likely "
-
-                                        + "tainted.",
-                                task.getThrowable());
-                    }
-                } else {
-                    if (!(task instanceof RemoteTaskDecorator)) {
-                        throw new IllegalStateException(
-                                "Tasks should be decorated for remote use at this point.");
-                    }
-                    GenericTask target = ((RemoteTaskDecorator) task).getTarget();
-                    callback.processResults(target.getResult());
-                }
+                processRemoteTask(task, scheduler, callback, failfast);
             }
+            scheduler.saveHistory();
             break;
         case LOCAL_SERIAL:
         case LOCAL:
+        case LOCAL_PROCESSES:
             for (Future<?> result : (List<Future<?>>) allResults) {
-                try {
-                    callback.processResults(result.get());
-                } catch (InterruptedException e) {
-                    getLogger(ExecutionStrategy.class)
-                            .error("Experimentation got interrupted.", e);
-                    if (failfast) {
-                        throw new IllegalStateException(
-                                "Exception caught. Results are likely tainted.",
-                                e);
-                    }
-                } catch (ExecutionException e) {
-                    getLogger(ExecutionStrategy.class)
-                            .error("An error occured during execution.", e);
-                    if (failfast) {
-                        throw new IllegalStateException(
-                                "An exception occured during task execution. The results are "
-                                        + "likely "
-
-                                        + "tainted.",
-                                e);
-                    }
-                }
+                handleFuture(result, callback, failfast);
             }
             break;
         default:
         }
     }
 
+    private static void handleTaskFailure(Throwable failure, boolean failfast) {
+        getLogger(ExecutionStrategy.class).error("An error occured executing task:", failure);
+        if (failfast) {
+            throw new IllegalStateException(
+                    "An exception occured during task execution. The results are likely "
+                            + "tainted.", failure);
+        }
+    }
+
+    private static void handleFuture(Future<?> result, ProcessingCallback callback,
+            boolean failfast) {
+        try {
+            callback.processResults(result.get());
+        } catch (InterruptedException e) {
+            getLogger(ExecutionStrategy.class)
+                    .error("Experimentation got interrupted.", e);
+            if (failfast) {
+                throw new IllegalStateException(
+                        "Exception caught. Results are likely tainted.",
+                        e);
+            }
+        } catch (ExecutionException e) {
+            getLogger(ExecutionStrategy.class)
+                    .error("An error occured during execution.", e);
+            if (failfast) {
+                throw new IllegalStateException(
+                        "An exception occured during task execution. The results are "
+                                + "likely "
+
+                                + "tainted.",
+                        e);
+            }
+        }
+    }
+
     <T> List<GenericTask<T>> adapt(final List<GenericTask<T>> tasks, String paramString) {
         List<GenericTask<T>> experiments;
         switch (this) {
         case REMOTE:
-            experiments = Lists.newArrayList();
-            for (final GenericTask<T> task : tasks) {
-                experiments.add(new RemoteTaskDecorator<T>(paramString, task));
-            }
+            experiments = RemoteTaskScheduler.shared().schedule(tasks);
+            logShippedBytes(experiments);
             break;
         case LOCAL_SERIAL:
         case LOCAL:
+        case LOCAL_PROCESSES:
             experiments = Lists.newArrayList();
             experiments.addAll(tasks);
             break;
@@ -142,6 +263,48 @@ enum ExecutionStrategy {
         return experiments;
     }
 
+    /**
+     * Log the bytes shipped for a job of remote tasks, compared to tasks embedding their
+     * parameters and a copy of the parameters in the job's data provider. Only done at debug
+     * level, as it serializes every task an extra time.
+     */
+    private static <T> void logShippedBytes(List<GenericTask<T>> experiments) {
+        Logger logger = getLogger(ExecutionStrategy.class);
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        long taskBytes = 0;
+        long embeddedParamsBytes = 0;
+        long distinctParamsBytes = 0;
+        Set<WgmfGameParams> distinct = Sets.newIdentityHashSet();
+        for (GenericTask<T> experiment : experiments) {
+            taskBytes += serializedSize(experiment);
+            for (GenericTask<T> target : ((RemoteTaskDecorator<T>) experiment).getTargets()) {
+                if (target.hasParams()) {
+                    long paramsBytes = WgmfParamsCache.serializedSize(target.getParams());
+                    embeddedParamsBytes += paramsBytes;
+                    if (distinct.add(target.getParams())) {
+                        distinctParamsBytes += paramsBytes;
+                    }
+                }
+            }
+        }
+        logger.debug("Job of {} tasks ships {} bytes of tasks and {} bytes of parameters once per"
+                        + " node, instead of {} bytes with parameters embedded in every task.",
+                experiments.size(), taskBytes, distinctParamsBytes,
+                taskBytes + embeddedParamsBytes + distinctParamsBytes);
+    }
+
+    private static long serializedSize(Object o) {
+        CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(o);
+        } catch (IOException e) {
+            throw new IllegalStateException("Task could not be serialized.", e);
+        }
+        return counter.getCount();
+    }
+
     private final ConfigurationExtractor extractor;
 
     ExecutionStrategy(ConfigurationExtractor ce) {
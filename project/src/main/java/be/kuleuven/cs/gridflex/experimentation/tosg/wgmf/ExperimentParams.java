@@ -23,9 +23,11 @@ public abstract class ExperimentParams implements Serializable {
     private static final int DEF_DATAPROF = -1;
     private static final boolean DEF_CACHING_ENABLED = false;
     private static final boolean DEF_REMOTE_EXEC = false;
+    private static final boolean DEF_MULTI_PROCESS_EXEC = false;
     private static final boolean DEF_UPDATE_CACHE_ENABLED = false;
     private static final ErrorDistributionType DEF_DISTRIBUTION = NORMAL;
     private static final HourlyFlexConstraints DEF_CONSTRAINTS = HourlyFlexConstraints.R3DP;
+    private static final String DEF_CHECKPOINT_FILE = "";
 
     ExperimentParams() {
     }
@@ -50,6 +52,11 @@ public abstract class ExperimentParams implements Serializable {
      */
     public abstract boolean isRemoteExecutable();
 
+    /**
+     * @return true if local execution should use separate worker processes.
+     */
+    public abstract boolean isMultiProcessExecutable();
+
     /**
      * @return The first parameter starting value.
      */
@@ -88,16 +95,31 @@ public abstract class ExperimentParams implements Serializable {
 
     public abstract HourlyFlexConstraints getActivationConstraints();
 
+    /**
+     * @return The file to log completed results to and resume from, or an empty string if
+     * checkpointing is disabled.
+     */
+    public abstract String getCheckpointFile();
+
+    /**
+     * @return true if checkpointing is enabled.
+     */
+    public boolean isCheckpointingEnabled() {
+        return !getCheckpointFile().isEmpty();
+    }
+
     /**
      * @return A builder instance.
      */
     public static ExperimentParams.Builder builder() {
         return new AutoValue_ExperimentParams.Builder().setP1Start(DEF_P1START)
                 .setP1Step(DEF_P1STEP).setP1End(DEF_P1END).setRemoteExecutable(DEF_REMOTE_EXEC)
+                .setMultiProcessExecutable(DEF_MULTI_PROCESS_EXEC)
                 .setWindErrorProfileIndex(DEF_WINDPROF).setCurrentDataProfileIndex(DEF_DATAPROF)
                 .setCachingEnabled(DEF_CACHING_ENABLED).setUpdateCacheEnabled(
                         DEF_UPDATE_CACHE_ENABLED).setDistribution(DEF_DISTRIBUTION)
-                .setActivationConstraints(DEF_CONSTRAINTS)
+                .setActivationConstraints(DEF_CONSTRAINTS).setCheckpointFile(
+                        DEF_CHECKPOINT_FILE)
                 .setCacheExistenceEnsured(DEF_UPDATE_CACHE_ENABLED);
     }
 
@@ -130,6 +152,12 @@ public abstract class ExperimentParams implements Serializable {
          */
         public abstract Builder setRemoteExecutable(boolean remote);
 
+        /**
+         * @param multiProcess The value for this parameter.
+         * @return This builder.
+         */
+        public abstract Builder setMultiProcessExecutable(boolean multiProcess);
+
         /**
          * @param value The value for this parameter.
          * @return This builder.
@@ -192,6 +220,12 @@ public abstract class ExperimentParams implements Serializable {
          */
         public abstract Builder setActivationConstraints(HourlyFlexConstraints constraints);
 
+        /**
+         * @param file The file to log completed results to and resume from.
+         * @return This builder.
+         */
+        public abstract Builder setCheckpointFile(String file);
+
         /**
          * @return Builds an experimentparams instance.
          */
@@ -2,13 +2,22 @@ package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 
 import org.jppf.node.protocol.AbstractTask;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.concurrent.Callable;
 
 /**
+ * Base class for game tasks. Tasks only carry the content key of their game parameters when
+ * serialized. The parameters themselves are looked up in the {@link WgmfParamsCache} of the
+ * receiving JVM, or resolved before running when they are not available there yet.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public abstract class GenericTask<T> extends AbstractTask<T> implements Callable<Object> {
-    private WgmfGameParams params;
+    private static final long serialVersionUID = -3349154937011375338L;
+    private transient WgmfGameParams params;
+    private String paramsKey;
 
     protected GenericTask(WgmfGameParams params) {
         this.params = params;
@@ -18,10 +27,56 @@ public abstract class GenericTask<T> extends AbstractTask<T> implements Callable
     }
 
     protected final WgmfGameParams getParams() {
+        if (params == null) {
+            throw new IllegalStateException(
+                    "Game parameters " + paramsKey + " have not been resolved in this JVM.");
+        }
         return params;
     }
 
     protected final void setParams(WgmfGameParams params) {
         this.params = params;
+        this.paramsKey = null;
+    }
+
+    /**
+     * @return The key of the tasks expected to take about as long as this one. Durations
+     * measured for earlier tasks with the same key are used for scheduling.
+     */
+    protected String getDurationKey() {
+        return getClass().getSimpleName();
+    }
+
+    final boolean hasParams() {
+        return params != null;
+    }
+
+    /**
+     * Resolve the parameters for the key this task was received with.
+     */
+    final void resolveParams(WgmfGameParams resolved) {
+        this.params = resolved;
+    }
+
+    /**
+     * @return The content key of the parameters of this task, or null if this task has not
+     * been serialized yet.
+     */
+    final String getParamsKey() {
+        return paramsKey;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (params != null && paramsKey == null) {
+            paramsKey = WgmfParamsCache.register(params);
+        }
+        out.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (paramsKey != null) {
+            params = WgmfParamsCache.getIfPresent(paramsKey);
+        }
     }
 }
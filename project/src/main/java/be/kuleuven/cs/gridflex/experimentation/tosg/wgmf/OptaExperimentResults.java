@@ -17,8 +17,13 @@ public abstract class OptaExperimentResults implements Serializable {
 
     public abstract HourlyFlexConstraints getFlexConstraints();
 
+    /**
+     * @return The seed of the experiment these results pertain to.
+     */
+    public abstract long getSeed();
+
     public static OptaExperimentResults create(BigDecimal d, double ae,
-            HourlyFlexConstraints constraints) {
-        return new AutoValue_OptaExperimentResults(d, ae, constraints);
+            HourlyFlexConstraints constraints, long seed) {
+        return new AutoValue_OptaExperimentResults(d, ae, constraints, seed);
     }
 }
@@ -14,7 +14,6 @@ import java.math.BigDecimal;
  */
 public class OptaJppfTaskDSO extends GenericTask<OptaExperimentResults> {
     private static final long serialVersionUID = 6840566173721875682L;
-    private final WgmfGameParams params;
     private final long seed;
     private final int agents;
     private final HourlyFlexConstraints constraints;
@@ -29,18 +28,18 @@ public class OptaJppfTaskDSO extends GenericTask<OptaExperimentResults> {
      */
     OptaJppfTaskDSO(WgmfGameParams params, long seed, int agents,
             HourlyFlexConstraints constraints) {
+        super(params);
         this.seed = seed;
         this.agents = agents;
         this.constraints = constraints;
-        this.params = params;
     }
 
     @Override
     public void run() {
         DistributionGridCongestionSolver dgsolver = new
                 DistributionGridCongestionSolver(
-                params.getFactory(),
-                params.toSolverInputData(seed).getCongestionProfile(),
+                getParams().getFactory(),
+                getParams().toSolverInputData(seed).getCongestionProfile(),
                 31);
         //generate agents
         WgmfAgentGenerator configurator = new WgmfAgentGenerator(seed,
@@ -53,7 +52,12 @@ public class OptaJppfTaskDSO extends GenericTask<OptaExperimentResults> {
         SolutionResults solutionCPL = dgsolver.getSolution();
         setResult(OptaExperimentResults
                 .create(BigDecimal.valueOf(solutionCPL.getObjectiveValue()),
-                        solutionCPL.getNormalizedObjectiveValue(), constraints));
+                        solutionCPL.getNormalizedObjectiveValue(), constraints, seed));
+    }
+
+    @Override
+    protected String getDurationKey() {
+        return super.getDurationKey() + agents + constraints;
     }
 
     @Override
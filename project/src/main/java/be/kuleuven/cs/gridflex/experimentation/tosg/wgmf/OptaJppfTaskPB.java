@@ -14,7 +14,6 @@ import java.math.BigDecimal;
  */
 public class OptaJppfTaskPB extends GenericTask<OptaExperimentResults> {
     private static final long serialVersionUID = 5436262172692915491L;
-    private WgmfGameParams params;
     private final long seed;
     private final int agents;
     private final HourlyFlexConstraints constraints;
@@ -27,18 +26,19 @@ public class OptaJppfTaskPB extends GenericTask<OptaExperimentResults> {
      *                       parameter data.
      */
     OptaJppfTaskPB(WgmfGameParams params, long seed, int agents, HourlyFlexConstraints constraints) {
+        super(params);
         this.seed = seed;
         this.agents = agents;
         this.constraints = constraints;
-        this.params = params;
     }
 
     @Override
     public void run() {
         PortfolioBalanceSolver portfolioBalanceSolver = new PortfolioBalanceSolver(
-                params.getFactory(),
-                params.toSolverInputData(seed),
-                PortfolioBalanceSolver.ProfileConversionStrategy.POWER_ERROR_BASED);
+                getParams().getFactory(),
+                getParams().toSolverInputData(seed),
+                PortfolioBalanceSolver.ProfileConversionStrategy.POWER_ERROR_BASED,
+                getParams().getSeedIndependentData());
         //generate agents
         WgmfAgentGenerator configurator = new WgmfAgentGenerator(seed,
                 constraints);
@@ -50,7 +50,12 @@ public class OptaJppfTaskPB extends GenericTask<OptaExperimentResults> {
         SolutionResults solutionCPL = portfolioBalanceSolver.getSolution();
         setResult(OptaExperimentResults
                 .create(BigDecimal.valueOf(solutionCPL.getObjectiveValue()),
-                        solutionCPL.getNormalizedObjectiveValue(), constraints));
+                        solutionCPL.getNormalizedObjectiveValue(), constraints, seed));
+    }
+
+    @Override
+    protected String getDurationKey() {
+        return super.getDurationKey() + agents + constraints;
     }
 
     @Override
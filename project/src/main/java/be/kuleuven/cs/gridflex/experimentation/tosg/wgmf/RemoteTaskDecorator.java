@@ -1,34 +1,87 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
+ * Decorates tasks for running on a JPPF node. A decorator can bundle several tasks that are run
+ * one after the other in the same remote task. Failures of bundled tasks are recorded on the
+ * failing task, so the other tasks in the bundle still deliver their results. The duration of
+ * every task is measured for scheduling later jobs.
+ * Game parameters that are not cached on the node yet are fetched from the client once and
+ * kept for subsequent tasks and jobs.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public class RemoteTaskDecorator<T> extends GenericTask<T> {
 
     private static final long serialVersionUID = -1599132847916137208L;
-    private final GenericTask<T> target;
-    private final String remoteParamId;
+    private final List<GenericTask<T>> targets;
+    private final long[] durations;
 
-    public RemoteTaskDecorator(String remoteParamId, GenericTask<T> target) {
+    public RemoteTaskDecorator(GenericTask<T> target) {
+        this(Collections.singletonList(target));
+    }
+
+    public RemoteTaskDecorator(List<GenericTask<T>> targets) {
         super();
-        this.remoteParamId = remoteParamId;
-        this.target = target;
+        checkArgument(!targets.isEmpty(), "At least one task should be decorated.");
+        this.targets = ImmutableList.copyOf(targets);
+        this.durations = new long[targets.size()];
     }
 
     @Override
     public void run() {
-        if (getDataProvider() != null) {
-            setParams(getDataProvider().getParameter(remoteParamId));
+        for (int i = 0; i < targets.size(); i++) {
+            GenericTask<T> target = targets.get(i);
+            resolveParams(target);
+            long start = System.nanoTime();
+            try {
+                target.run();
+            } catch (RuntimeException e) {
+                target.setThrowable(e);
+            }
+            durations[i] = System.nanoTime() - start;
+        }
+    }
+
+    private void resolveParams(GenericTask<T> target) {
+        String key = target.getParamsKey();
+        if (!target.hasParams() && key != null) {
+            target.resolveParams(WgmfParamsCache
+                    .get(key, () -> compute(new WgmfParamsCache.Fetch(key))));
         }
-        target.run();
     }
 
     @Override
     public Object call() throws Exception {
-        return target.call();
+        if (targets.size() == 1) {
+            return targets.get(0).call();
+        }
+        List<Object> results = Lists.newArrayList();
+        for (GenericTask<T> target : targets) {
+            results.add(target.call());
+        }
+        return results;
+    }
+
+    /**
+     * @return The decorated tasks.
+     */
+    public List<GenericTask<T>> getTargets() {
+        return targets;
     }
 
-    public GenericTask<T> getTarget() {
-        return target;
+    /**
+     * @param index The index of the decorated task.
+     * @return The time it took to run the task, or zero if it has not run.
+     */
+    long getDurationNanos(int index) {
+        return durations[index];
     }
 }
@@ -0,0 +1,234 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
+
+import be.kuleuven.cs.gridflex.experimentation.runners.jppf.RemoteRunners;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Orders and bundles tasks for submission to a JPPF cluster.
+ * Task durations are estimated per duration key of a task, such as the action mix of a game
+ * instance, from the durations measured for earlier results. Estimates follow changes over
+ * time, such as memoization hits making instances cheaper. Tasks without a measured duration
+ * are submitted first and on their own. Tasks with a measured duration follow, longest first.
+ * Of those, tasks that are expensive compared to the remaining work are submitted on their own,
+ * cheaper tasks are bundled into a single remote task. Bundles shrink as the remaining work
+ * shrinks, so the end of a job consists of small tasks that balance well over the nodes.
+ * The number of task slots is queried from the cluster for every job, unless it is configured.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+final class RemoteTaskScheduler {
+    /**
+     * System property for the number of concurrent task slots in the cluster. If not set, the
+     * processing threads of the connected nodes are counted.
+     */
+    static final String SLOTS_PROPERTY = "gridflex.jppf.slots";
+    /**
+     * System property for a file to keep duration estimates in across runs.
+     */
+    static final String HISTORY_PROPERTY = "gridflex.jppf.durationHistory";
+    private static final int MAX_BUNDLE_SIZE = 64;
+    private static final int CHUNKS_PER_SLOT = 2;
+    private static final double SMOOTHING = 0.3;
+    private static final char SEPARATOR = '\t';
+    private static final Logger logger = getLogger(RemoteTaskScheduler.class);
+
+    private final IntSupplier slots;
+    @Nullable
+    private final Path historyFile;
+    private final Map<String, Double> estimates;
+
+    /**
+     * @param slots       The number of tasks the cluster runs concurrently.
+     * @param historyFile The file to load and save duration estimates, or null.
+     */
+    RemoteTaskScheduler(int slots, @Nullable Path historyFile) {
+        this(() -> slots, historyFile);
+        checkArgument(slots > 0, "At least one slot is needed.");
+    }
+
+    /**
+     * @param slots       The supplier of the number of tasks the cluster runs concurrently,
+     *                    asked once for every schedule.
+     * @param historyFile The file to load and save duration estimates, or null.
+     */
+    RemoteTaskScheduler(IntSupplier slots, @Nullable Path historyFile) {
+        this.slots = slots;
+        this.historyFile = historyFile;
+        this.estimates = Maps.newLinkedHashMap();
+        loadHistory();
+    }
+
+    /**
+     * @return The scheduler shared by all jobs in this JVM, configured from system properties.
+     */
+    static RemoteTaskScheduler shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Bundle the tasks into remote tasks. Tasks without a measured duration are never bundled.
+     *
+     * @param tasks The tasks to schedule.
+     * @param <T>   The result type of the tasks.
+     * @return The remote tasks in order of submission.
+     */
+    <T> List<GenericTask<T>> schedule(List<GenericTask<T>> tasks) {
+        List<GenericTask<T>> scheduled = Lists.newArrayList();
+        List<Estimated<T>> measured = Lists.newArrayList();
+        for (GenericTask<T> task : tasks) {
+            @Nullable Double estimate = estimate(task);
+            if (estimate == null) {
+                scheduled.add(new RemoteTaskDecorator<>(task));
+            } else {
+                measured.add(new Estimated<>(task, estimate));
+            }
+        }
+        int unmeasured = scheduled.size();
+        List<Estimated<T>> sorted = measured.stream()
+                .sorted(Comparator.comparingDouble((Estimated<T> e) -> e.estimate).reversed())
+                .collect(Collectors.toList());
+        double remaining = sorted.stream().mapToDouble(e -> e.estimate).sum();
+        int chunks = (sorted.isEmpty() ? 1 : slotCount()) * CHUNKS_PER_SLOT;
+        List<GenericTask<T>> bundle = Lists.newArrayList();
+        double bundleTarget = 0;
+        double bundleWork = 0;
+        for (Estimated<T> e : sorted) {
+            if (bundle.isEmpty()) {
+                bundleTarget = remaining / chunks;
+            }
+            bundle.add(e.task);
+            bundleWork += e.estimate;
+            remaining -= e.estimate;
+            if (bundleWork >= bundleTarget || bundle.size() == MAX_BUNDLE_SIZE) {
+                scheduled.add(new RemoteTaskDecorator<>(bundle));
+                bundle = Lists.newArrayList();
+                bundleWork = 0;
+            }
+        }
+        if (!bundle.isEmpty()) {
+            scheduled.add(new RemoteTaskDecorator<>(bundle));
+        }
+        logger.info("Scheduled {} tasks as {} remote tasks, {} without measured duration.",
+                tasks.size(), scheduled.size(), unmeasured);
+        return scheduled;
+    }
+
+    private int slotCount() {
+        int count = slots.getAsInt();
+        if (count > 0) {
+            return count;
+        }
+        int fallback = Runtime.getRuntime().availableProcessors();
+        logger.warn("Could not determine the task slots in the cluster, assuming {}.", fallback);
+        return fallback;
+    }
+
+    /**
+     * @param task The task.
+     * @return The estimated duration of the task in nanoseconds, or null if no durations have
+     * been measured for tasks like it yet.
+     */
+    @Nullable
+    synchronized Double estimate(GenericTask<?> task) {
+        return estimates.get(task.getDurationKey());
+    }
+
+    /**
+     * Learn from the measured durations of the successfully completed tasks in a remote task.
+     *
+     * @param completed The completed remote task.
+     */
+    synchronized void record(RemoteTaskDecorator<?> completed) {
+        List<? extends GenericTask<?>> targets = completed.getTargets();
+        for (int i = 0; i < targets.size(); i++) {
+            long duration = completed.getDurationNanos(i);
+            if (targets.get(i).getThrowable() == null && duration > 0) {
+                estimates.merge(targets.get(i).getDurationKey(), (double) duration,
+                        (old, measured) -> old + SMOOTHING * (measured - old));
+            }
+        }
+    }
+
+    /**
+     * Save the duration estimates, if a history file is configured.
+     */
+    synchronized void saveHistory() {
+        if (historyFile == null) {
+            return;
+        }
+        List<String> lines = estimates.entrySet().stream()
+                .map(e -> e.getKey() + SEPARATOR + e.getValue()).collect(Collectors.toList());
+        try {
+            Files.write(historyFile, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Could not save task duration history to {}", historyFile, e);
+        }
+    }
+
+    private void loadHistory() {
+        if (historyFile == null || !Files.exists(historyFile)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(historyFile, StandardCharsets.UTF_8)) {
+                List<String> fields = Splitter.on(SEPARATOR).limit(2).splitToList(line);
+                if (fields.size() == 2) {
+                    estimates.put(fields.get(0), Double.parseDouble(fields.get(1)));
+                }
+            }
+            logger.info("Loaded {} task duration estimates from {}", estimates.size(),
+                    historyFile);
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not load task duration history from {}", historyFile, e);
+            estimates.clear();
+        }
+    }
+
+    private static final class Estimated<T> {
+        private final GenericTask<T> task;
+        private final double estimate;
+
+        Estimated(GenericTask<T> task, double estimate) {
+            this.task = task;
+            this.estimate = estimate;
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final RemoteTaskScheduler INSTANCE = new RemoteTaskScheduler(
+                slotsFromProperty(), historyFileFromProperty());
+
+        private static IntSupplier slotsFromProperty() {
+            Integer slots = Integer.getInteger(SLOTS_PROPERTY);
+            if (slots == null) {
+                return RemoteRunners::countClusterProcessingThreads;
+            }
+            checkArgument(slots > 0, "At least one slot is needed.");
+            return () -> slots;
+        }
+
+        @Nullable
+        private static Path historyFileFromProperty() {
+            String file = System.getProperty(HISTORY_PROPERTY);
+            return file == null ? null : Paths.get(file);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
+
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.SeedIndependentInputData;
+import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Per-JVM cache of the seed independent data derived from game parameters.
+ * Parameter objects are first looked up by identity. Equal copies, such as the copies
+ * deserialized for every task on a JPPF node, are matched by a hash of the profiles the data is
+ * derived from, so the derivation is only done once per data set in every JVM.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+final class SeedIndependentDataCache {
+    private static final int MAX_DATA_SETS = 8;
+    private static final Cache<WgmfGameParams, SeedIndependentInputData> BY_INSTANCE =
+            CacheBuilder.newBuilder().weakKeys().build();
+    private static final Cache<HashCode, SeedIndependentInputData> BY_CONTENT = CacheBuilder
+            .newBuilder().maximumSize(MAX_DATA_SETS).softValues().build();
+    private static final Logger logger = getLogger(SeedIndependentDataCache.class);
+
+    private SeedIndependentDataCache() {
+    }
+
+    /**
+     * @param params The game parameters.
+     * @return The seed independent data derived from the parameters.
+     */
+    static SeedIndependentInputData get(WgmfGameParams params) {
+        try {
+            return BY_INSTANCE.get(params, () -> BY_CONTENT.get(fingerprint(params), () -> {
+                logger.debug("Deriving seed independent input data.");
+                return SeedIndependentInputData.create(params.toSolverInputData(0));
+            }));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Could not derive input data.", e.getCause());
+        }
+    }
+
+    private static HashCode fingerprint(WgmfGameParams params) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putSeries(hasher, params.getInputData().getCableCurrentProfile());
+        putSeries(hasher, params.getImbalancePriceData().getNetRegulatedVolumeProfile());
+        putSeries(hasher, params.getImbalancePriceData().getPositiveImbalancePriceProfile());
+        putSeries(hasher, params.getDayAheadPriceData());
+        return hasher.hash();
+    }
+
+    private static void putSeries(Hasher hasher, TimeSeries series) {
+        hasher.putInt(series.length());
+        for (int i = 0; i < series.length(); i++) {
+            hasher.putDouble(series.value(i));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.SeedIndependentInputData;
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.ErrorDistributionType;
 import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.SolverInputData;
 import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
@@ -98,4 +99,14 @@ public abstract class WgmfGameParams implements Serializable {
                 getImbalancePriceData().getPositiveImbalancePriceProfile(),
                 getDayAheadPriceData(), getErrorDistribution(), seed);
     }
+
+    /**
+     * Get the data derived from these parameters that does not depend on the seed. The data is
+     * derived once per JVM and shared by all game instances using equal parameters.
+     *
+     * @return The seed independent solver input data.
+     */
+    public SeedIndependentInputData getSeedIndependentData() {
+        return SeedIndependentDataCache.get(this);
+    }
 }
@@ -7,7 +7,6 @@ import be.kuleuven.cs.gametheory.configurable.GameInstanceResult;
 import be.kuleuven.cs.gametheory.evolutionary.EvolutionaryGameDynamics;
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
 import be.kuleuven.cs.gridflex.experimentation.tosg.stat.EgtResultParser;
-import org.jppf.node.protocol.Task;
 import org.slf4j.Logger;
 
 import java.util.Arrays;
@@ -39,7 +38,7 @@ public class WgmfGameRunner extends AbstractWgmfGameRunner {
     }
 
     private WgmfGameRunner(ExperimentParams expP) {
-        this(expP, expP.isRemoteExecutable() ? ExecutionStrategy.REMOTE : ExecutionStrategy.LOCAL);
+        this(expP, ExecutionStrategy.from(expP));
     }
 
     /**
@@ -64,22 +63,21 @@ public class WgmfGameRunner extends AbstractWgmfGameRunner {
                 .adapt(tasks, PARAMS_KEY);
 
         ExperimentRunner runner = getStrategy().getRunner(params, PARAMS_KEY);
-        runner.runExperiments(adapted);
-        List<Task<?>> results = runner.waitAndGetResults();
-        logger.info("Experiment results received. \nProcessing results... ");
-        getStrategy().processExecutionResultsFailFast(results,
-                (args) -> director.notifyVersionHasBeenPlayed((GameInstanceResult) args));
+        getStrategy().runAndProcessResults(runner, adapted,
+                (args) -> director.notifyVersionHasBeenPlayed((GameInstanceResult) args), true);
+        logger.info("Experiment results processed.");
     }
 
     @Override
     protected void processResults() {
-        try (EgtResultParser egtResultParser = new EgtResultParser(null)) {
+        try (EgtResultParser egtResultParser = EgtResultParser.create()) {
             List<Double> eqnParams = EvolutionaryGameDynamics
                     .from(director.getResults().getResults()).getDynamicEquationFactors();
-            double[] fixedPoints = egtResultParser
-                    .findFixedPointForDynEquationParams(
-                            eqnParams.stream().mapToDouble(Double::doubleValue).toArray());
+            double[] factors = eqnParams.stream().mapToDouble(Double::doubleValue).toArray();
+            double[] fixedPoints = egtResultParser.findFixedPointForDynEquationParams(factors);
             logger.warn("Phase plot fixed points found at: {}", Arrays.toString(fixedPoints));
+            logger.warn("Fixed points with stability: {}",
+                    egtResultParser.findClassifiedFixedPoints(factors));
         } catch (Exception e) {
             logger.error("Something went wrong parsing the results", e);
         }
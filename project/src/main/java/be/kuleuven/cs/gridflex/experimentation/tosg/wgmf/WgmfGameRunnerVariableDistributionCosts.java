@@ -7,13 +7,21 @@ import be.kuleuven.cs.gametheory.configurable.GameInstanceResult;
 import be.kuleuven.cs.gametheory.evolutionary.EvolutionaryGameDynamics;
 import be.kuleuven.cs.gametheory.stats.ConfidenceLevel;
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import be.kuleuven.cs.gridflex.experimentation.tosg.data.CheckpointLog;
 import be.kuleuven.cs.gridflex.experimentation.tosg.data.EgtCsvResultWriter;
 import be.kuleuven.cs.gridflex.experimentation.tosg.stat.EgtResultParser;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.math3.stat.interval.ConfidenceInterval;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +50,8 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
     private final double priceStep;
     private final int windErrorFileIdx;
     private final int dataProfileIdx;
+    private final String checkpointFile;
+    private final String sweepKey;
 
     /**
      * Public constructor from params object and exec strategy.
@@ -49,7 +59,7 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
      * @param expP The experiment parameters.
      */
     public WgmfGameRunnerVariableDistributionCosts(ExperimentParams expP) {
-        super(expP.isRemoteExecutable() ? ExecutionStrategy.REMOTE : ExecutionStrategy.LOCAL);
+        super(ExecutionStrategy.from(expP));
         this.nAgents = expP.getNAgents();
         this.nReps = expP.getNRepititions();
         priceToDirector = Maps.newLinkedHashMap();
@@ -58,6 +68,17 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
         this.maxPrice = expP.getP1End();
         this.windErrorFileIdx = expP.getWindErrorProfileIndex();
         this.dataProfileIdx = expP.getCurrentDataProfileIndex();
+        this.checkpointFile = expP.getCheckpointFile();
+        this.sweepKey = MoreObjects.toStringHelper(getClass())
+                .add("agents", expP.getNAgents())
+                .add("reps", expP.getNRepititions())
+                .add("solver", expP.getSolver())
+                .add("p1", expP.getP1Start() + ":" + expP.getP1Step() + ":" + expP.getP1End())
+                .add("windError", expP.getWindErrorProfileIndex())
+                .add("dataProfile", expP.getCurrentDataProfileIndex())
+                .add("distribution", expP.getDistribution())
+                .add("constraints", expP.getActivationConstraints())
+                .toString();
     }
 
     /**
@@ -71,30 +92,70 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
 
     @Override
     protected void execute(WgmfGameParams params) {
-        List<GenericTask<GameInstanceResult>> alltasks = Lists.newArrayList();
-        for (double price = getMinPrice(); price <= getMaxPrice(); price += getPriceStep()) {
-            ConfigurableGame game = new ConfigurableGame(getnAgents(),
-                    ACTION_SIZE, getnReps());
-            ConfigurableGameDirector director = new ConfigurableGameDirector(game);
-            priceToDirector.put(price, director);
-
-            List<GameInstanceConfiguration> priceContainingConfigs =
-                    getConfigsWithPricesFromDirector(price, director);
-
-            List<GenericTask<GameInstanceResult>> adapted = adaptPriceConfigsToRunnableTasks(params,
-                    priceContainingConfigs);
-            alltasks.addAll(adapted);
-        }
+        try (CheckpointLog<GameInstanceResult> log = openCheckpointLog(
+                GameInstanceResult.class)) {
+            ListMultimap<Double, GameInstanceResult> recovered = LinkedListMultimap.create();
+            if (log != null) {
+                for (GameInstanceResult result : log.getRecovered()) {
+                    recovered.put(result.getGameInstanceConfig().getExtraConfigValues()
+                            .get(PRICE_PARAM_KEY), result);
+                }
+            }
+            List<GenericTask<GameInstanceResult>> alltasks = Lists.newArrayList();
+            for (double price = getMinPrice(); price <= getMaxPrice(); price += getPriceStep()) {
+                ConfigurableGame game = new ConfigurableGame(getnAgents(),
+                        ACTION_SIZE, getnReps());
+                ConfigurableGameDirector director = new ConfigurableGameDirector(game);
+                priceToDirector.put(price, director);
+                if (recovered.containsKey(price)) {
+                    logger.info("Resumed {} game instances for price {}.",
+                            director.resume(recovered.get(price)), price);
+                }
 
-        ExperimentRunner runner = getStrategy().getRunner(params, PARAMS_KEY);
-        runner.runExperiments(alltasks);
-        List<?> results = runner.waitAndGetResults();
-        logger.info("Experiment results received. \nProcessing results... ");
+                List<GameInstanceConfiguration> priceContainingConfigs =
+                        getConfigsWithPricesFromDirector(price, director);
 
-        getStrategy().processExecutionResultsLogErrorsOnly(results, (obj) -> priceToDirector
-                .get(((GameInstanceResult) obj).getGameInstanceConfig().getExtraConfigValues()
-                        .get(PRICE_PARAM_KEY))
-                .notifyVersionHasBeenPlayed((GameInstanceResult) obj));
+                List<GenericTask<GameInstanceResult>> adapted = adaptPriceConfigsToRunnableTasks(
+                        params, priceContainingConfigs);
+                alltasks.addAll(adapted);
+            }
+
+            if (!alltasks.isEmpty()) {
+                ExperimentRunner runner = getStrategy().getRunner(params, PARAMS_KEY);
+                getStrategy().runAndProcessResults(runner, alltasks, (obj) -> {
+                    GameInstanceResult result = (GameInstanceResult) obj;
+                    priceToDirector.get(result.getGameInstanceConfig().getExtraConfigValues()
+                            .get(PRICE_PARAM_KEY)).notifyVersionHasBeenPlayed(result);
+                    if (log != null) {
+                        log.append(result);
+                    }
+                }, false);
+            }
+            logger.info("Experiment results processed.");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close checkpoint log.", e);
+        }
+    }
+
+    /**
+     * Open the checkpoint log, if checkpointing is enabled. The log is keyed to the parameters
+     * of this sweep, so the log of another sweep is never resumed from.
+     *
+     * @param type The type of results to log.
+     * @param <T>  The type of results to log.
+     * @return The checkpoint log, or null if checkpointing is disabled.
+     */
+    @Nullable
+    protected final <T extends Serializable> CheckpointLog<T> openCheckpointLog(Class<T> type) {
+        if (checkpointFile.isEmpty()) {
+            return null;
+        }
+        try {
+            return CheckpointLog.open(Paths.get(checkpointFile), type, sweepKey);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open checkpoint log " + checkpointFile,
+                    e);
+        }
     }
 
     protected final List<GenericTask<GameInstanceResult>> adaptPriceConfigsToRunnableTasks(
@@ -122,12 +183,12 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
 
     @Override
     protected void processResults() {
-        List<EgtCsvResultWriter.WgmfDynamicsResults> toWrite = Lists.newArrayList();
-        try (EgtResultParser egtResultParser = new EgtResultParser(null)) {
-            for (Map.Entry<Double, ConfigurableGameDirector> entry : priceToDirector.entrySet()) {
-                parseDynamicsAndAddToResults(entry.getKey(), entry.getValue(), toWrite,
-                        egtResultParser);
-            }
+        try (EgtResultParser egtResultParser = EgtResultParser.create()) {
+            List<EgtCsvResultWriter.WgmfDynamicsResults> toWrite = priceToDirector.entrySet()
+                    .parallelStream()
+                    .map(entry -> parseDynamics(entry.getKey(), entry.getValue(),
+                            egtResultParser))
+                    .collect(Collectors.toList());
             EgtCsvResultWriter.writeCsvFile(
                     RES_OUTPUT_FILE + String.valueOf(getnAgents()) + "R" + String
                             .valueOf(getnReps()) + "_" + String
@@ -141,6 +202,20 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
     protected final void parseDynamicsAndAddToResults(double pricePoint,
             ConfigurableGameDirector director, List<EgtCsvResultWriter.WgmfDynamicsResults> results,
             EgtResultParser egtResultParser) {
+        results.add(parseDynamics(pricePoint, director, egtResultParser));
+    }
+
+    /**
+     * Find the fixed points of the dynamics of a single price point. Safe to call for several
+     * price points concurrently.
+     *
+     * @param pricePoint      The price point.
+     * @param director        The director holding the results for this price point.
+     * @param egtResultParser The parser for finding fixed points.
+     * @return The dynamics results for this price point.
+     */
+    protected final EgtCsvResultWriter.WgmfDynamicsResults parseDynamics(double pricePoint,
+            ConfigurableGameDirector director, EgtResultParser egtResultParser) {
         EvolutionaryGameDynamics dynamics = EvolutionaryGameDynamics
                 .from(director.getResults().getResults());
         final ConfidenceInterval ciExt = director.getResults().getResults()
@@ -167,7 +242,7 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
                 CI_LEVEL.getConfidenceLevel(), Arrays.toString(fixedPointsHigher));
         String[] splitted = DATAPROFILE_TEMPLATE.split("/");
 
-        results.add(EgtCsvResultWriter.WgmfDynamicsResults
+        return EgtCsvResultWriter.WgmfDynamicsResults
                 .create(getnAgents(), getnReps(),
                         splitted[splitted.length - 1]
                                 .replace("*", String.valueOf("[" + dataProfileIdx + "]")),
@@ -175,7 +250,7 @@ public class WgmfGameRunnerVariableDistributionCosts extends AbstractWgmfGameRun
                         fixedPoints,
                         fixedPointsLower,
                         fixedPointsHigher, eqnParams, lowerCI, higherCI,
-                        CI_LEVEL.getConfidenceLevel(), ciExt, windErrorFileIdx));
+                        CI_LEVEL.getConfidenceLevel(), ciExt, windErrorFileIdx);
     }
 
     protected static final List<Double> getHigherCIParams(EvolutionaryGameDynamics dynamics) {
@@ -33,6 +33,7 @@ public final class WgmfInputParser {
     private static final String INTERARRIVAL_KEY = "flexIA";
     private static final String DURATION_KEY = "flexDUR";
     private static final String ACTCOUNT_KEY = "flexCOUNT";
+    private static final String CHECKPOINT_KEY = "checkpoint";
 
     private static final int NAGENTS_DEFAULT = 2;
     private static final int NREPS_DEFAULT = 1;
@@ -45,8 +46,9 @@ public final class WgmfInputParser {
 
     /**
      * Use --help or -r [repititions] -n [numberOfAgents] -s [GUROBI|CPLEX|DUMMY|OPTA] -m
-     * [LOCAL|REMOTE] -p1start [rangeStart] -p1end [rangeEnd] -p1step [stepSize]
+     * [LOCAL|REMOTE|PROCESSES] -p1start [rangeStart] -p1end [rangeEnd] -p1step [stepSize]
      * -pIdx[profileIndex] -dIdx [errorDataIdx] -distribution [CAUCHY|NORMAL]
+     * -checkpoint [logFile]
      *
      * @param args The commandline args.
      * @return The experiment params.
@@ -61,7 +63,7 @@ public final class WgmfInputParser {
                 .withArgName("SOLVER")
                 .create(SOLVER_KEY));
         o.addOption(withLongOpt("mode")
-                .withDescription("Which execution mode to use. [LOCAL|REMOTE]")
+                .withDescription("Which execution mode to use. [LOCAL|REMOTE|PROCESSES]")
                 .hasArg()
                 .withArgName("MODE")
                 .create(MODE_KEY));
@@ -86,6 +88,8 @@ public final class WgmfInputParser {
                         + AbstractWgmfGameRunner.DATAPROFILE_TEMPLATE
                         + " with * replaced by \"[dIxd]\" or \"\" if dIdx < 0.");
         o.addOption(CACHING_ALLOC_KEY, true, "Caching enabled");
+        o.addOption(CHECKPOINT_KEY, true,
+                "Log completed results to this file and resume from the results in it");
 
         o.addOption(withLongOpt("errorDistribution")
                 .withDescription("Which forecast error distribution to to use. [NORMAL|CAUCHY]")
@@ -97,6 +101,7 @@ public final class WgmfInputParser {
         int nReps = NREPS_DEFAULT;
         Solvers.TYPE solver = SOLVER_DEFAULT;
         boolean remoteExec = false;
+        boolean multiProcessExec = false;
         ExperimentParams.Builder builder = ExperimentParams.builder();
         CommandLineParser parser = new DefaultParser();
         try {
@@ -114,6 +119,9 @@ public final class WgmfInputParser {
             if (line.hasOption(MODE_KEY) && "REMOTE".equals(line.getOptionValue(MODE_KEY))) {
                 remoteExec = true;
             }
+            if (line.hasOption(MODE_KEY) && "PROCESSES".equals(line.getOptionValue(MODE_KEY))) {
+                multiProcessExec = true;
+            }
             if (line.hasOption(P1START_KEY)) {
                 builder.setP1Start(Double.parseDouble(line.getOptionValue(P1START_KEY)));
             }
@@ -138,6 +146,9 @@ public final class WgmfInputParser {
                 builder.setUpdateCacheEnabled(upd);
                 builder.setCacheExistenceEnsured(ensure);
             }
+            if (line.hasOption(CHECKPOINT_KEY)) {
+                builder.setCheckpointFile(line.getOptionValue(CHECKPOINT_KEY));
+            }
             if (line.hasOption(DISTRIBUTION_KEY)) {
                 builder.setDistribution(
                         ErrorDistributionType.from(line.getOptionValue(DISTRIBUTION_KEY)));
@@ -160,14 +171,15 @@ public final class WgmfInputParser {
             }
 
             if (logger.isWarnEnabled()) {
-                String remote = remoteExec ? "REMOTE" : "LOCAL";
+                String remote = remoteExec ? "REMOTE" : multiProcessExec ? "PROCESSES" : "LOCAL";
                 logger.warn(
                         "Performing {} repititions for experiment with {} agents using: {} "
                                 + "execution mode: {}",
                         nReps, nAgents, solver.toString(), remote);
             }
             return builder.setNAgents(nAgents).setNRepititions(nReps)
-                    .setSolver(solver).setRemoteExecutable(remoteExec).build();
+                    .setSolver(solver).setRemoteExecutable(remoteExec)
+                    .setMultiProcessExecutable(multiProcessExec).build();
 
         } catch (ParseException exp) {
             // oops, something went wrong
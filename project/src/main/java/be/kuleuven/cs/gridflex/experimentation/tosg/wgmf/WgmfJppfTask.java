@@ -5,6 +5,7 @@ import be.kuleuven.cs.gametheory.configurable.GameInstanceConfiguration;
 import be.kuleuven.cs.gametheory.configurable.GameInstanceResult;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * A runnable task for executing wgmf simulations.
@@ -40,6 +41,14 @@ public class WgmfJppfTask extends GenericTask<GameInstanceResult> {
                         gameInstance.getExternalityValue()));
     }
 
+    @Override
+    protected String getDurationKey() {
+        int[] agentsPerAction = new int[instanceConfig.getActionSize()];
+        instanceConfig.getAgentActionMap().values().forEach(a -> agentsPerAction[a]++);
+        return super.getDurationKey() + Arrays.toString(agentsPerAction)
+                + instanceConfig.getExtraConfigValues();
+    }
+
     @Override
     public GameInstanceResult call() throws Exception {
         run();
@@ -1,25 +1,51 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 
+import be.kuleuven.cs.gridflex.persistence.CachingMemoizationContext;
 import be.kuleuven.cs.gridflex.persistence.MapDBMemoizationContext;
 import be.kuleuven.cs.gridflex.persistence.MemoizationContext;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.AllocResultsView;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.ImmutableSolverProblemContextView;
+import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.ViewSerializers;
+import com.google.common.collect.Maps;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.function.Supplier;
 
 /**
+ * Factory for the memoization contexts used by the solvers in the who-gets-my-flex game.
+ * All contexts created in the same JVM share long-lived connections to the memoization stores.
+ * Results are stored using java serialization, the format of existing memoization stores.
+ * Setting {@link #HASHED_STORE_PROPERTY} stores results under a content hash of the problem
+ * context using compact serializers instead. Stores in that format are kept separately from
+ * java serialized ones and can be converted from them with DBConsolidatorRunner -F HASHED.
+ * Recently used results are additionally kept in memory, shared by all contexts in the same JVM
+ * with the same store locations.
+ *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public class WgmfMemContextFactory implements Serializable,
                                               Supplier<MemoizationContext<ImmutableSolverProblemContextView, AllocResultsView>> {
 
+    /**
+     * Name of the system property that switches new memoization stores to the hashed format.
+     * Read on the client when the factory is created.
+     */
+    public static final String HASHED_STORE_PROPERTY = "gridflex.memo.hashedStore";
     private static final long serialVersionUID = -8584004916894787633L;
+    /**
+     * Approximate maximum number of bytes kept in the in-memory cache.
+     */
+    private static final long MEMORY_CACHE_WEIGHT = 256L * 1024 * 1024;
+    private static final int REFERENCE_BYTES = 8;
+    private static final Map<String, MemoizationContext<ImmutableSolverProblemContextView,
+            AllocResultsView>> SHARED_CONTEXTS = Maps.newHashMap();
     private final boolean cachingEnabled;
     private final boolean ensureCacheExists;
     private final String dbFileLocation;
     private final String dbWriteFileLocation;
+    private final boolean hashedStore;
 
     public WgmfMemContextFactory(boolean cachingEnabled, boolean ensureCacheExists,
             String dbFileLocation,
@@ -28,18 +54,45 @@ public class WgmfMemContextFactory implements Serializable,
         this.ensureCacheExists = ensureCacheExists;
         this.dbFileLocation = dbFileLocation;
         this.dbWriteFileLocation = dbWriteFileLocation;
+        this.hashedStore = Boolean.getBoolean(HASHED_STORE_PROPERTY);
     }
 
     @Override
     public @Nullable MemoizationContext<ImmutableSolverProblemContextView, AllocResultsView> get() {
 
         if (cachingEnabled) {
-            MapDBMemoizationContext.Builder builder = MapDBMemoizationContext
-                    .builder().setFileName(dbFileLocation)
-                    .setDifferentWriteFilename(dbWriteFileLocation).ensureFileExists
-                            (ensureCacheExists).appendHostnameToWriteFileName(true);
-            return builder.build();
+            synchronized (SHARED_CONTEXTS) {
+                return SHARED_CONTEXTS.computeIfAbsent(
+                        dbFileLocation + "|" + dbWriteFileLocation + "|" + hashedStore,
+                        k -> CachingMemoizationContext.builder(createStoreContext())
+                                .maximumWeight(MEMORY_CACHE_WEIGHT,
+                                        WgmfMemContextFactory::weigh)
+                                .build());
+            }
         }
         return null;
     }
+
+    /**
+     * Approximate memory size in bytes of a cached entry. This is dominated by the input profile
+     * of the key and the allocation results of the value.
+     */
+    private static int weigh(ImmutableSolverProblemContextView key, AllocResultsView value) {
+        return key.getInputProfile().size() * Double.BYTES
+                + (key.getProviders().size() + value.getAllocationResults().size())
+                * REFERENCE_BYTES;
+    }
+
+    private MemoizationContext<ImmutableSolverProblemContextView, AllocResultsView>
+    createStoreContext() {
+        MapDBMemoizationContext.Builder builder = MapDBMemoizationContext
+                .builder().setFileName(dbFileLocation)
+                .setDifferentWriteFilename(dbWriteFileLocation).ensureFileExists
+                        (ensureCacheExists).appendHostnameToWriteFileName(true)
+                .keepStoresOpen();
+        if (hashedStore) {
+            builder.setStoreFormat(ViewSerializers.hashedFormat());
+        }
+        return builder.build();
+    }
 }
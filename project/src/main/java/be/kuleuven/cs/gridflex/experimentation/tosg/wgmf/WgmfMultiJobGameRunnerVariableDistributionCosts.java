@@ -92,7 +92,7 @@ public final class WgmfMultiJobGameRunnerVariableDistributionCosts
     }
 
     private void processSingleResult(Double price, ConfigurableGameDirector d) {
-        try (EgtResultParser egtResultParser = new EgtResultParser(null)) {
+        try (EgtResultParser egtResultParser = EgtResultParser.create()) {
             parseDynamicsAndAddToResults(price, d, writableResults, egtResultParser);
             EgtCsvResultWriter.writeCsvFile(resultFileName,
                     writableResults.subList(writableResults.size() - 1, writableResults.size()),
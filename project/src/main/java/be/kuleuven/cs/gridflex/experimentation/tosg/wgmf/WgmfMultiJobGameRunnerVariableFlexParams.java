@@ -3,18 +3,23 @@ package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
 import be.kuleuven.cs.gametheory.stats.ConfidenceLevel;
 import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
 import be.kuleuven.cs.gridflex.experimentation.runners.ExperimentRunner;
+import be.kuleuven.cs.gridflex.experimentation.tosg.data.CheckpointLog;
 import be.kuleuven.cs.gridflex.experimentation.tosg.data.OptiFlexCsvResultWriter;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.descriptive.moment.Variance;
 import org.apache.commons.math3.stat.interval.ConfidenceInterval;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
 
@@ -44,6 +49,7 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
     private final double iastop;
 
     private final HourlyFlexConstraints constraints;
+    private final Set<String> resumed;
 
     /**
      * Public constructor from params object and exec strategy.
@@ -62,6 +68,7 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
         this.iastep = expP.getP1Step();
         this.iastop = expP.getP1End();
         this.constraints = expP.getActivationConstraints();
+        this.resumed = Sets.newHashSet();
     }
 
     /**
@@ -81,20 +88,35 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
         OptiFlexCsvResultWriter.writeCsvFile(resultFileName, Collections.emptyList(), false);
         final int agents = getnAgents();
 
-        logger.info("Creating tasks objects.");
-        //Create tasks
-        List<GenericTask<OptaExperimentResults>> executables = Lists.newArrayList();
-        ListMultimap<HourlyFlexConstraints, GenericTask<OptaExperimentResults>> experiments =
-                LinkedListMultimap.create();
-        configureExperiments(params, agents, executables, experiments);
-
-        logger.info("Starting experiment execution");
-        //Execution
         ListMultimap<HourlyFlexConstraints, BigDecimal> experimentResults = LinkedListMultimap
                 .create();
         ListMultimap<HourlyFlexConstraints, Double> allocEffResults = LinkedListMultimap
                 .create();
-        runExperiments(params, executables, experimentResults, allocEffResults);
+        ListMultimap<HourlyFlexConstraints, GenericTask<OptaExperimentResults>> experiments =
+                LinkedListMultimap.create();
+        try (CheckpointLog<OptaExperimentResults> log = openCheckpointLog(
+                OptaExperimentResults.class)) {
+            if (log != null) {
+                for (OptaExperimentResults result : log.getRecovered()) {
+                    if (resumed.add(checkpointKey(result.getFlexConstraints(),
+                            result.getSeed()))) {
+                        processResults(experimentResults, allocEffResults, result);
+                    }
+                }
+                logger.info("Resumed {} experiments.", resumed.size());
+            }
+
+            logger.info("Creating tasks objects.");
+            //Create tasks
+            List<GenericTask<OptaExperimentResults>> executables = Lists.newArrayList();
+            configureExperiments(params, agents, executables, experiments);
+
+            logger.info("Starting experiment execution");
+            //Execution
+            runExperiments(params, executables, experimentResults, allocEffResults, log);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close checkpoint log.", e);
+        }
 
         logger.info("Parsing experiment results.");
         //Parse results
@@ -137,16 +159,21 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
     protected void runExperiments(WgmfGameParams params,
             List<GenericTask<OptaExperimentResults>> executables,
             ListMultimap<HourlyFlexConstraints, BigDecimal> experimentResults,
-            ListMultimap<HourlyFlexConstraints, Double> allocEffResults) {
+            ListMultimap<HourlyFlexConstraints, Double> allocEffResults,
+            @Nullable CheckpointLog<OptaExperimentResults> log) {
+        if (executables.isEmpty()) {
+            return;
+        }
         ExperimentRunner runner = getStrategy()
                 .getRunner(params, this.PARAM_KEY, "OptiFlex job.");
         List<GenericTask<OptaExperimentResults>> adaptedExecutables = getStrategy()
                 .adapt(executables, this.PARAMS_KEY);
-        runner.runExperiments(adaptedExecutables);
-        List<?> resultObjects = runner.waitAndGetResults();
-        getStrategy()
-                .processExecutionResultsLogErrorsOnly(resultObjects,
-                        (obj) -> processResults(experimentResults, allocEffResults, obj));
+        getStrategy().runAndProcessResults(runner, adaptedExecutables, (obj) -> {
+            processResults(experimentResults, allocEffResults, obj);
+            if (log != null) {
+                log.append((OptaExperimentResults) obj);
+            }
+        }, false);
     }
 
     protected void configureExperiments(WgmfGameParams params, int agents,
@@ -169,7 +196,9 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
                         GenericTask<OptaExperimentResults> optaJppfTaskDSO = new OptaJppfTaskDSO(
 
                                 params, seed + rep, agents, constraints);
-                        executables.add(optaJppfTaskDSO);
+                        if (!isResumed(constraints, seed + rep)) {
+                            executables.add(optaJppfTaskDSO);
+                        }
                         experiments.put(constraints, optaJppfTaskDSO);
                     }
                 }
@@ -177,6 +206,19 @@ public class WgmfMultiJobGameRunnerVariableFlexParams
         }
     }
 
+    /**
+     * @param constraints The constraints of an experiment.
+     * @param seed        The seed of an experiment.
+     * @return true if the results of the experiment have been resumed from a checkpoint.
+     */
+    protected final boolean isResumed(HourlyFlexConstraints constraints, long seed) {
+        return resumed.contains(checkpointKey(constraints, seed));
+    }
+
+    private static String checkpointKey(HourlyFlexConstraints constraints, long seed) {
+        return constraints + "@" + seed;
+    }
+
     private static void processResults(
             ListMultimap<HourlyFlexConstraints, BigDecimal> congestionRes,
             ListMultimap<HourlyFlexConstraints, Double> allocEffRes, Object obj) {
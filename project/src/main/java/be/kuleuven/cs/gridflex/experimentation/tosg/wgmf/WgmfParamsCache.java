@@ -0,0 +1,192 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.jppf.utils.JPPFCallable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.collect.Maps.newConcurrentMap;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Content addressed store of game parameters, so tasks only have to carry the key of their
+ * parameters. On the client, parameters are registered under a hash of their serialized form
+ * when tasks referring to them are serialized. Registrations are weak, so parameters are only
+ * kept for as long as the tasks of a job or the caller refer to them. On
+ * nodes, parameters are fetched once per key and kept across jobs for as long as memory
+ * allows. Worker processes receive them once when they connect.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+final class WgmfParamsCache {
+    private static final int MAX_CACHED = 8;
+    private static final Cache<WgmfGameParams, Registration> REGISTERED_INSTANCES =
+            CacheBuilder.newBuilder().weakKeys().build();
+    private static final Cache<String, WgmfGameParams> REGISTERED = CacheBuilder.newBuilder()
+            .weakValues().build();
+    private static final ConcurrentMap<String, WgmfGameParams> PINNED = newConcurrentMap();
+    private static final Cache<String, WgmfGameParams> CACHED = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED).softValues().build();
+    private static final Logger logger = getLogger(WgmfParamsCache.class);
+
+    private WgmfParamsCache() {
+    }
+
+    /**
+     * Register parameters for being looked up by key. The key is only computed once for every
+     * parameter instance.
+     *
+     * @param params The parameters.
+     * @return The content key of the parameters.
+     */
+    static String register(WgmfGameParams params) {
+        return registration(params).key;
+    }
+
+    /**
+     * @param params The parameters.
+     * @return The size of the parameters in serialized form.
+     */
+    static long serializedSize(WgmfGameParams params) {
+        return registration(params).size;
+    }
+
+    private static Registration registration(WgmfGameParams params) {
+        Registration registration;
+        try {
+            registration = REGISTERED_INSTANCES.get(params, () -> {
+                Registration r = hash(params);
+                logger.debug("Registered game parameters {} ({} bytes).", r.key, r.size);
+                return r;
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Game parameters could not be serialized.",
+                    e.getCause());
+        }
+        //Also replaces an equal instance that has been collected since.
+        REGISTERED.asMap().putIfAbsent(registration.key, params);
+        return registration;
+    }
+
+    @Nullable
+    private static WgmfGameParams lookup(String key) {
+        WgmfGameParams params = PINNED.get(key);
+        return params != null ? params : REGISTERED.getIfPresent(key);
+    }
+
+    private static Registration hash(WgmfGameParams params) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+        HashingOutputStream hashing = new HashingOutputStream(Hashing.murmur3_128(), counter);
+        try (ObjectOutputStream out = new ObjectOutputStream(hashing)) {
+            out.writeObject(params);
+        }
+        return new Registration(hashing.hash().toString(), counter.getCount());
+    }
+
+    /**
+     * @param key The content key.
+     * @return The parameters for this key if they are available in this JVM.
+     */
+    @Nullable
+    static WgmfGameParams getIfPresent(String key) {
+        WgmfGameParams params = lookup(key);
+        return params != null ? params : CACHED.getIfPresent(key);
+    }
+
+    /**
+     * Get the parameters for a key, loading them if they are not available in this JVM yet.
+     * Concurrent requests for the same key only load the parameters once.
+     *
+     * @param key    The content key.
+     * @param loader The loader of the parameters.
+     * @return The parameters.
+     */
+    static WgmfGameParams get(String key, Callable<WgmfGameParams> loader) {
+        WgmfGameParams params = lookup(key);
+        if (params != null) {
+            return params;
+        }
+        try {
+            return CACHED.get(key, () -> {
+                logger.info("Fetching game parameters {}.", key);
+                return loader.call();
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Could not load game parameters " + key, e.getCause());
+        }
+    }
+
+    /**
+     * Make parameters available under a key for the lifetime of this JVM.
+     *
+     * @param key    The content key.
+     * @param params The parameters.
+     */
+    static void pin(String key, WgmfGameParams params) {
+        PINNED.putIfAbsent(key, params);
+    }
+
+    /**
+     * Callable fetching registered parameters on the client.
+     */
+    static final class Fetch implements JPPFCallable<WgmfGameParams> {
+        private static final long serialVersionUID = 4125981357129093151L;
+        private final String key;
+
+        Fetch(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public WgmfGameParams call() {
+            WgmfGameParams params = lookup(key);
+            if (params == null) {
+                throw new IllegalStateException("Unknown game parameters: " + key);
+            }
+            return params;
+        }
+    }
+
+    /**
+     * Parameters together with their key, that make themselves available under that key when
+     * deserialized. Used for shipping parameters to worker processes once.
+     */
+    static final class Entry implements Serializable {
+        private static final long serialVersionUID = -6904187325017364337L;
+        private final String key;
+        private final WgmfGameParams params;
+
+        Entry(WgmfGameParams params) {
+            this.key = register(params);
+            this.params = params;
+        }
+
+        private Object readResolve() {
+            pin(key, params);
+            return this;
+        }
+    }
+
+    private static final class Registration {
+        private final String key;
+        private final long size;
+
+        Registration(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+    }
+}
@@ -46,7 +46,9 @@ public final class WgmfSingleScen
         for (int rep = 0; rep < getnReps(); rep++) {
             GenericTask<OptaExperimentResults> optaJppfTaskDSO = new OptaJppfTaskDSO(
                     params, seed + rep, agents, activationConstraints);
-            executables.add(optaJppfTaskDSO);
+            if (!isResumed(activationConstraints, seed + rep)) {
+                executables.add(optaJppfTaskDSO);
+            }
             experiments.put(activationConstraints, optaJppfTaskDSO);
         }
     }
@@ -11,10 +11,13 @@ import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexibilityProvider;
 import be.kuleuven.cs.gridflex.experimentation.tosg.adapters.SimulatedGamePlayAdapter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static be.kuleuven.cs.gridflex.domain.aggregation.r3dp.PortfolioBalanceSolver
         .ProfileConversionStrategy.POWER_ERROR_BASED;
@@ -28,6 +31,11 @@ import static be.kuleuven.cs.gridflex.domain.aggregation.r3dp.PortfolioBalanceSo
 public class WhoGetsMyFlexGame extends
                                AbstractGameInstance<FlexibilityProvider, FlexibilityUtiliser> {
 
+    /**
+     * Name of the system property that enables solving the actions of a game instance
+     * concurrently. Can be set on worker nodes as well as on the driver.
+     */
+    public static final String CONCURRENT_PLAY_PROPERTY = "gridflex.wgmf.concurrentPlay";
     private static final int TO_LONG_SCALE = 100;
 
     /**
@@ -63,7 +71,11 @@ public class WhoGetsMyFlexGame extends
 
     @Override
     public void play() {
-        new SimulatedGamePlayAdapter(getActionSet()).play();
+        if (Boolean.getBoolean(CONCURRENT_PLAY_PROPERTY)) {
+            new SimulatedGamePlayAdapter(getActionSet(), ActionExecutorHolder.EXECUTOR).play();
+        } else {
+            new SimulatedGamePlayAdapter(getActionSet()).play();
+        }
     }
 
     /**
@@ -79,7 +91,7 @@ public class WhoGetsMyFlexGame extends
 
         ArrayList<FlexibilityUtiliser> actions = Lists
                 .newArrayList(new PortfolioBalanceSolver(solverplatform, solverInputData,
-                                POWER_ERROR_BASED),
+                                POWER_ERROR_BASED, params.getSeedIndependentData()),
                         new DistributionGridCongestionSolver(solverplatform,
                                 solverInputData.getCongestionProfile()));
         return new WhoGetsMyFlexGame(actions);
@@ -101,9 +113,22 @@ public class WhoGetsMyFlexGame extends
         //        solverplatform.setSeed(baseSeed);//TODO review! This makes the solver also random.
         ArrayList<FlexibilityUtiliser> actions = Lists
                 .newArrayList(new PortfolioBalanceSolver(solverplatform, solverInputData,
-                                POWER_ERROR_BASED),
+                                POWER_ERROR_BASED, params.getSeedIndependentData()),
                         new DistributionGridCongestionSolver(solverplatform,
                                 solverInputData.getCongestionProfile(), flexRemunerationPrice));
         return new WhoGetsMyFlexGame(actions);
     }
+
+    /**
+     * Lazily created pool shared by all game instances in this JVM. Threads are only kept alive
+     * while games are being played.
+     */
+    private static final class ActionExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("wgmf-action-%d")
+                        .build());
+
+        private ActionExecutorHolder() {
+        }
+    }
 }
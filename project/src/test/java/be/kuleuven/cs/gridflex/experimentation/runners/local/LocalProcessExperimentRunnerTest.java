@@ -0,0 +1,116 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class LocalProcessExperimentRunnerTest {
+    private static final String KEY = "shared";
+    private List<Integer> shared;
+    private LocalProcessExperimentRunner runner;
+
+    @Before
+    public void setUp() {
+        shared = Lists.newArrayList(1, 2, 3);
+        runner = LocalRunners
+                .createMultiProcessRunner(2, ImmutableMap.of(KEY, shared),
+                        Collections.emptyList());
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    public void testRunInWorkerProcesses() throws Exception {
+        List<Callable<Object>> experiments = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            experiments.add(new SumTask(shared, i));
+        }
+        runner.runExperiments(experiments);
+        List<Future<Object>> results = runner.waitAndGetResults();
+        assertEquals(6, results.size());
+        for (int i = 0; i < 6; i++) {
+            SumResult result = (SumResult) results.get(i).get();
+            assertEquals(6 + i, result.sum);
+            assertNotEquals(ProcessHandleName.current(), result.process);
+        }
+    }
+
+    @Test
+    public void testFailureIsReported() throws Exception {
+        List<Callable<Object>> experiments = Lists.newArrayList();
+        experiments.add(new FailingTask());
+        experiments.add(new SumTask(shared, 0));
+        runner.runExperiments(experiments);
+        List<Future<Object>> results = runner.waitAndGetResults();
+        try {
+            results.get(0).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(6, ((SumResult) results.get(1).get()).sum);
+    }
+
+    private static final class SumTask implements Callable<Object>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final List<Integer> values;
+        private final int extra;
+
+        SumTask(List<Integer> values, int extra) {
+            this.values = values;
+            this.extra = extra;
+        }
+
+        @Override
+        public Object call() {
+            return new SumResult(values.stream().mapToInt(Integer::intValue).sum() + extra,
+                    ProcessHandleName.current());
+        }
+    }
+
+    private static final class FailingTask implements Callable<Object>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object call() {
+            throw new IllegalArgumentException("fail");
+        }
+    }
+
+    private static final class SumResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int sum;
+        private final String process;
+
+        SumResult(int sum, String process) {
+            this.sum = sum;
+            this.process = process;
+        }
+    }
+
+    private static final class ProcessHandleName {
+        static String current() {
+            return java.lang.management.ManagementFactory.getRuntimeMXBean().getName();
+        }
+    }
+}
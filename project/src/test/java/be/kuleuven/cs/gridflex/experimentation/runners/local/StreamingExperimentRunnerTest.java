@@ -0,0 +1,193 @@
+package be.kuleuven.cs.gridflex.experimentation.runners.local;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class StreamingExperimentRunnerTest {
+    private StreamingExperimentRunner runner;
+
+    @Before
+    public void setUp() {
+        runner = new StreamingExperimentRunner(2, 2);
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    public void testResultsInSubmissionOrder() throws Exception {
+        runner.runExperiments(experiments(0, 20));
+        List<Future<Object>> results = runner.waitAndGetResults();
+        assertEquals(20, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get());
+        }
+        assertFalse(runner.isRunning());
+        assertEquals(20, runner.getCompletedCount());
+    }
+
+    @Test
+    public void testReusable() throws Exception {
+        runner.runExperiments(experiments(0, 5));
+        assertEquals(5, runner.waitAndGetResults().size());
+        runner.runExperiments(experiments(5, 10));
+        List<Future<Object>> results = runner.waitAndGetResults();
+        assertEquals(5, results.size());
+        assertEquals(5, results.get(0).get());
+        assertEquals(10, runner.getSubmittedCount());
+    }
+
+    @Test
+    public void testStreamingConsumption() throws Exception {
+        List<Object> seen = Lists.newArrayList();
+        runner.runExperiments(experiments(0, 10));
+        runner.forEachResult(f -> {
+            try {
+                seen.add(f.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(10, seen.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(seen.contains(i));
+        }
+        assertTrue(runner.waitAndGetResults().isEmpty());
+        assertNull(runner.pollResult(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testInFlightIsBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<Object>> blocking = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            blocking.add(() -> {
+                release.await();
+                return 0;
+            });
+        }
+        runner.runExperiments(blocking);
+        assertEquals(2, runner.getInFlightCount());
+        assertEquals(4, runner.getQueueDepth());
+        release.countDown();
+        assertEquals(6, runner.waitAndGetResults().size());
+        assertEquals(0, runner.getQueueDepth());
+    }
+
+    @Test
+    public void testSubmitBlocksWhenQueueIsFull() throws Exception {
+        StreamingExperimentRunner bounded = new StreamingExperimentRunner(
+                Executors.newSingleThreadExecutor(), 1, 1);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Callable<Object>> blocking = Lists.newArrayList();
+            for (int i = 0; i < 3; i++) {
+                blocking.add(() -> {
+                    release.await();
+                    return 0;
+                });
+            }
+            Thread producer = new Thread(() -> bounded.runExperiments(blocking));
+            producer.start();
+            producer.join(200);
+            assertTrue(producer.isAlive());
+            assertEquals(2, bounded.getSubmittedCount());
+            assertEquals(1, bounded.getQueueDepth());
+            release.countDown();
+            producer.join();
+            assertEquals(3, bounded.waitAndGetResults().size());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    public void testConsumesWhileSubmitting() throws Exception {
+        StreamingExperimentRunner bounded = new StreamingExperimentRunner(
+                Executors.newSingleThreadExecutor(), 1, 1);
+        try {
+            List<Long> submittedAtConsumption = Lists.newArrayList();
+            bounded.runAndForEachResult(experiments(0, 20),
+                    f -> submittedAtConsumption.add(bounded.getSubmittedCount()));
+            assertEquals(20, submittedAtConsumption.size());
+            assertTrue(submittedAtConsumption.get(0) < 20);
+            assertTrue(bounded.waitAndGetResults().isEmpty());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownFailsQueuedExperiments() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<Object>> blocking = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            blocking.add(() -> {
+                release.await();
+                return 0;
+            });
+        }
+        runner.runExperiments(blocking);
+        runner.shutdown();
+        release.countDown();
+        List<Future<Object>> results = runner.waitAndGetResults();
+        assertEquals(4, results.size());
+        assertEquals(0, results.get(0).get());
+        try {
+            results.get(3).get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+            runner.runExperiments(experiments(0, 1));
+            assertEquals(1, runner.waitAndGetResults().size());
+            return;
+        }
+        throw new AssertionError("Expected rejection.");
+    }
+
+    @Test
+    public void testFailuresAreReported() throws Exception {
+        List<Callable<Object>> failing = Lists.newArrayList();
+        failing.add(() -> {
+            throw new IllegalStateException("fail");
+        });
+        runner.runExperiments(failing);
+        Future<Object> result = runner.takeResult();
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("Expected failure.");
+    }
+
+    private static List<Callable<Object>> experiments(int from, int to) {
+        List<Callable<Object>> experiments = Lists.newArrayList();
+        for (int i = from; i < to; i++) {
+            final int value = i;
+            experiments.add(() -> value);
+        }
+        return experiments;
+    }
+}
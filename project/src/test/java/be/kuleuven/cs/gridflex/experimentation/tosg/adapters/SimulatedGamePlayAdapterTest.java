@@ -0,0 +1,86 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.adapters;
+
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.FlexibilityUtiliser;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class SimulatedGamePlayAdapterTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSequentialPlay() {
+        FlexibilityUtiliser a = mock(FlexibilityUtiliser.class);
+        FlexibilityUtiliser b = mock(FlexibilityUtiliser.class);
+        new SimulatedGamePlayAdapter(Lists.newArrayList(a, b)).play();
+        verify(a).solve();
+        verify(b).solve();
+    }
+
+    @Test
+    public void testConcurrentPlay() {
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicBoolean overlapped = new AtomicBoolean(true);
+        List<FlexibilityUtiliser> actions = Lists.newArrayList();
+        for (int i = 0; i < 2; i++) {
+            FlexibilityUtiliser action = mock(FlexibilityUtiliser.class);
+            doAnswer(inv -> {
+                latch.countDown();
+                if (!latch.await(5, TimeUnit.SECONDS)) {
+                    overlapped.set(false);
+                }
+                return null;
+            }).when(action).solve();
+            actions.add(action);
+        }
+        new SimulatedGamePlayAdapter(actions, executor).play();
+        assertEquals(0, latch.getCount());
+        assertTrue(overlapped.get());
+    }
+
+    @Test
+    public void testConcurrentPlayRethrowsFirstFailure() {
+        FlexibilityUtiliser a = mock(FlexibilityUtiliser.class);
+        FlexibilityUtiliser b = mock(FlexibilityUtiliser.class);
+        FlexibilityUtiliser c = mock(FlexibilityUtiliser.class);
+        doThrow(new IllegalStateException("b")).when(b).solve();
+        doThrow(new IllegalArgumentException("c")).when(c).solve();
+        try {
+            new SimulatedGamePlayAdapter(Lists.newArrayList(a, b, c), executor).play();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("b", e.getMessage());
+        }
+        verify(a).solve();
+        verify(c).solve();
+    }
+}
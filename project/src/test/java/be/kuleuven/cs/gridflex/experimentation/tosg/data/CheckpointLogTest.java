@@ -0,0 +1,80 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class CheckpointLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path file;
+
+    @Before
+    public void setUp() {
+        file = folder.getRoot().toPath().resolve("checkpoints").resolve("log.bin");
+    }
+
+    @Test
+    public void testRecoverAppended() throws IOException {
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            assertTrue(log.getRecovered().isEmpty());
+            log.append("a");
+            log.append("b");
+        }
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            assertEquals(Arrays.asList("a", "b"), log.getRecovered());
+            log.append("c");
+        }
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            assertEquals(Arrays.asList("a", "b", "c"), log.getRecovered());
+        }
+    }
+
+    @Test
+    public void testSweepKeyIsChecked() throws IOException {
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class, "sweep-1")) {
+            log.append("a");
+        }
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class, "sweep-1")) {
+            assertEquals(Arrays.asList("a"), log.getRecovered());
+        }
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class, "sweep-2")) {
+            fail("Opened the log of another sweep.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("sweep-1"));
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsDiscarded() throws IOException {
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            log.append("a");
+            log.append("b");
+        }
+        long size = Files.size(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, (int) size - 3),
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            assertEquals(Arrays.asList("a"), log.getRecovered());
+            log.append("c");
+        }
+        try (CheckpointLog<String> log = CheckpointLog.open(file, String.class)) {
+            assertEquals(Arrays.asList("a", "c"), log.getRecovered());
+        }
+    }
+}
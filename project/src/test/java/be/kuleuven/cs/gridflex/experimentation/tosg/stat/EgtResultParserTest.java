@@ -1,14 +1,14 @@
 package be.kuleuven.cs.gridflex.experimentation.tosg.stat;
 
+import be.kuleuven.cs.gametheory.evolutionary.FixedPoint;
 import org.junit.After;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
-import org.mockito.Matchers;
+
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.assertFalse;
 
 /**
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
@@ -20,15 +20,7 @@ public class EgtResultParserTest {
 
     @Before
     public void setUp() throws Exception {
-        try {
-            parser = new EgtResultParser(null);
-        } catch (IllegalStateException e) {
-            //For whatever reason, result parser could not be initiated. Probably because ML is
-            // not installed. Mock the parser for now.
-            parser = mock(EgtResultParser.class);
-            when(parser.findFixedPointForDynEquationParams(Matchers.any()))
-                    .thenReturn(new double[] { 0.5 });
-        }
+        parser = new EgtResultParser();
     }
 
     @After
@@ -45,7 +37,6 @@ public class EgtResultParserTest {
     }
 
     @Test
-    @Ignore
     public void testInferEdgePoints() {
         double[] u = { 3.5013, 3.6672, 4.2206, 3.7734, 4.2684, 3.9067, 4.2402, 4.2251 };
         double[] l = { 3.7967, 4.0230, 3.5594, 4.2275, 3.7825, 4.5631, 3.8404, 3.8786 };
@@ -53,6 +44,14 @@ public class EgtResultParserTest {
         double[] fixedPointsl = parser.findFixedPointForDynEquationParams(l);
         assertEquals(0, fixedPointsu[0], EPS);
         assertEquals(1, fixedPointsl[0], EPS);
+    }
 
+    @Test
+    public void testClassifiedFixedPoints() {
+        double[] dynParams = { 50.0, 0, 0, 50.0 };
+        List<FixedPoint> fixedPoints = parser.findClassifiedFixedPoints(dynParams);
+        assertEquals(3, fixedPoints.size());
+        assertEquals(0.5, fixedPoints.get(1).getLocation(), EPS);
+        assertFalse(fixedPoints.get(1).isStable());
     }
 }
\ No newline at end of file
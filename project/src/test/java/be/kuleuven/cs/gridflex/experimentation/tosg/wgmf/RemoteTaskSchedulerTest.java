@@ -0,0 +1,149 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class RemoteTaskSchedulerTest {
+    private static final int SLOTS = 2;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnknownDurationsAreNotBundled() {
+        RemoteTaskScheduler scheduler = new RemoteTaskScheduler(SLOTS, null);
+        learn(scheduler, "cheap", 1_000);
+        List<GenericTask<Object>> tasks = createTasks("unknown", 5);
+        tasks.addAll(createTasks("cheap", 40));
+        List<GenericTask<Object>> scheduled = scheduler.schedule(tasks);
+        for (int i = 0; i < 5; i++) {
+            RemoteTaskDecorator<Object> remote = (RemoteTaskDecorator<Object>) scheduled.get(i);
+            assertEquals(1, remote.getTargets().size());
+            assertEquals("unknown", remote.getTargets().get(0).getDurationKey());
+        }
+        assertTrue(scheduled.size() < tasks.size());
+        assertEquals(tasks, flatten(scheduled));
+    }
+
+    @Test
+    public void testSlotsAreAskedPerSchedule() {
+        AtomicInteger slots = new AtomicInteger(1);
+        RemoteTaskScheduler scheduler = new RemoteTaskScheduler(slots::get, null);
+        learn(scheduler, "cheap", 1_000);
+        int fewSlots = scheduler.schedule(createTasks("cheap", 40)).size();
+        slots.set(8);
+        int manySlots = scheduler.schedule(createTasks("cheap", 40)).size();
+        assertTrue(fewSlots < manySlots);
+    }
+
+    @Test
+    public void testLongestFirstAndHeavyTasksAlone() {
+        RemoteTaskScheduler scheduler = new RemoteTaskScheduler(SLOTS, null);
+        learn(scheduler, "cheap", 1_000);
+        learn(scheduler, "heavy", 1_000_000);
+        List<GenericTask<Object>> tasks = createTasks("cheap", 40);
+        tasks.addAll(createTasks("heavy", 3));
+        List<GenericTask<Object>> scheduled = scheduler.schedule(tasks);
+        for (int i = 0; i < 3; i++) {
+            RemoteTaskDecorator<Object> remote = (RemoteTaskDecorator<Object>) scheduled.get(i);
+            assertEquals(1, remote.getTargets().size());
+            assertEquals("heavy", remote.getTargets().get(0).getDurationKey());
+        }
+        assertEquals(43, flatten(scheduled).size());
+        assertTrue(scheduled.size() < 43);
+        assertEquals(1, last(scheduled).getTargets().size());
+    }
+
+    @Test
+    public void testHistoryIsKept() throws IOException {
+        Path history = folder.getRoot().toPath().resolve("durations.tsv");
+        RemoteTaskScheduler scheduler = new RemoteTaskScheduler(SLOTS, history);
+        learn(scheduler, "heavy", 1_000_000);
+        scheduler.saveHistory();
+        RemoteTaskScheduler reloaded = new RemoteTaskScheduler(SLOTS, history);
+        assertEquals(scheduler.estimate(new StubTask("heavy")),
+                reloaded.estimate(new StubTask("heavy")), 0);
+    }
+
+    @Test
+    public void testFailedBundledTaskDoesNotFailOthers() {
+        StubTask failing = new StubTask("failing") {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        };
+        StubTask other = new StubTask("other");
+        RemoteTaskDecorator<Object> remote = new RemoteTaskDecorator<>(
+                Lists.<GenericTask<Object>>newArrayList(failing, other));
+        remote.run();
+        assertTrue(failing.getThrowable() instanceof IllegalStateException);
+        assertEquals("other", other.getResult());
+    }
+
+    private static void learn(RemoteTaskScheduler scheduler, String key, long nanos) {
+        StubTask task = new StubTask(key);
+        RemoteTaskDecorator<Object> remote = new RemoteTaskDecorator<Object>(task) {
+            @Override
+            long getDurationNanos(int index) {
+                return nanos;
+            }
+        };
+        scheduler.record(remote);
+    }
+
+    private static List<GenericTask<Object>> createTasks(String key, int count) {
+        List<GenericTask<Object>> tasks = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new StubTask(key));
+        }
+        return tasks;
+    }
+
+    private static List<GenericTask<Object>> flatten(List<GenericTask<Object>> scheduled) {
+        List<GenericTask<Object>> tasks = Lists.newArrayList();
+        scheduled.forEach(t -> tasks.addAll(((RemoteTaskDecorator<Object>) t).getTargets()));
+        return tasks;
+    }
+
+    private static RemoteTaskDecorator<Object> last(List<GenericTask<Object>> scheduled) {
+        return (RemoteTaskDecorator<Object>) scheduled.get(scheduled.size() - 1);
+    }
+
+    private static class StubTask extends GenericTask<Object> {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+
+        StubTask(String key) {
+            this.key = key;
+        }
+
+        @Override
+        protected String getDurationKey() {
+            return key;
+        }
+
+        @Override
+        public void run() {
+            setResult(key);
+        }
+
+        @Override
+        public Object call() throws Exception {
+            run();
+            return getResult();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package be.kuleuven.cs.gridflex.experimentation.tosg.wgmf;
+
+import be.kuleuven.cs.gametheory.configurable.GameInstanceConfiguration;
+import be.kuleuven.cs.gridflex.domain.aggregation.r3dp.data.ErrorDistributionType;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
+import be.kuleuven.cs.gridflex.domain.energy.generation.wind.TurbineSpecification;
+import be.kuleuven.cs.gridflex.domain.util.data.PowerForecastMultiHorizonErrorDistribution;
+import be.kuleuven.cs.gridflex.domain.util.data.WindSpeedForecastMultiHorizonErrorDistribution;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.DayAheadPriceProfile;
+import be.kuleuven.cs.gridflex.experimentation.tosg.data.ImbalancePriceInputData;
+import be.kuleuven.cs.gridflex.experimentation.tosg.data.WindBasedInputData;
+import be.kuleuven.cs.gridflex.solvers.Solvers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class WgmfParamsCacheTest {
+    private static final String DISTRIBUTIONFILE = "windspeedDistributions.csv";
+    private static final String POWERDISTRIBUTION = "powerDistributionsTestFile.csv";
+    private static final String DATAFILE = "test.csv";
+    private static final String SPECFILE = "specs_enercon_e101-e1.csv";
+    private static final String IMBAL = "imbalance_prices_short.csv";
+    private static final String DAM_COLUMN = "damhp";
+    private static final String DAMPRICES_DAILY = "dailyDayAheadPrices.csv";
+    private WgmfGameParams params;
+    private WgmfJppfTask task;
+
+    @Before
+    public void setUp() throws IOException {
+        WindBasedInputData dataIn = WindBasedInputData.loadFromResource(DATAFILE, "test", "test");
+        TurbineSpecification specs = TurbineSpecification.loadFromResource(SPECFILE);
+        ImbalancePriceInputData imbalIn = ImbalancePriceInputData.loadFromResource(IMBAL);
+        WindSpeedForecastMultiHorizonErrorDistribution windDist =
+                WindSpeedForecastMultiHorizonErrorDistribution.loadFromCSV(DISTRIBUTIONFILE);
+        PowerForecastMultiHorizonErrorDistribution powerDist =
+                PowerForecastMultiHorizonErrorDistribution.loadFromCSV(POWERDISTRIBUTION);
+        DayAheadPriceProfile dayAheadPriceProfile = DayAheadPriceProfile
+                .extrapolateFromHourlyOneDayData(DAMPRICES_DAILY, DAM_COLUMN, 7);
+        this.params = WgmfGameParams
+                .create(dataIn, new WgmfSolverFactory(Solvers.TYPE.DUMMY, false, () -> null),
+                        specs, windDist, powerDist, imbalIn, dayAheadPriceProfile,
+                        ErrorDistributionType.NORMAL, HourlyFlexConstraints.R3DP);
+        GameInstanceConfiguration config = GameInstanceConfiguration.builder().setAgentSize(3)
+                .setActionSize(2)
+                .fixAgentToAction(0, 0).fixAgentToAction(1, 0).fixAgentToAction(2, 1)
+                .setSeed(231L).build();
+        this.task = new WgmfJppfTask(config, params,
+                (WgmfGameParams wgmfParams, GameInstanceConfiguration conf) -> WhoGetsMyFlexGame
+                        .createBasicGame(wgmfParams, conf.getSeed()));
+    }
+
+    @Test
+    public void testTaskShipsKeyOnly() throws IOException, ClassNotFoundException {
+        byte[] bytes = SerializationUtils.pickle(task);
+        assertTrue(bytes.length < WgmfParamsCache.serializedSize(params));
+        WgmfJppfTask copy = SerializationUtils.unpickle(bytes, WgmfJppfTask.class);
+        assertEquals(WgmfParamsCache.register(params), copy.getParamsKey());
+        assertSame(params, copy.getParams());
+    }
+
+    @Test
+    public void testRegisterIsStable() {
+        assertEquals(WgmfParamsCache.register(params), WgmfParamsCache.register(params));
+    }
+
+    @Test
+    public void testGetLoadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        String key = "unregistered-" + System.nanoTime();
+        WgmfGameParams first = WgmfParamsCache.get(key, () -> {
+            loads.incrementAndGet();
+            return params;
+        });
+        WgmfGameParams second = WgmfParamsCache.get(key, () -> {
+            loads.incrementAndGet();
+            return params;
+        });
+        assertSame(params, first);
+        assertSame(params, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testRegistrationDoesNotRetainParams() throws InterruptedException {
+        String key = WgmfParamsCache.register(params);
+        WeakReference<WgmfGameParams> ref = new WeakReference<>(params);
+        params = null;
+        task = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+        assertNull(WgmfParamsCache.getIfPresent(key));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFetchUnknownKey() {
+        new WgmfParamsCache.Fetch("unknown").call();
+    }
+}
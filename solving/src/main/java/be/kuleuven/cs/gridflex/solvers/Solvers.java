@@ -6,6 +6,7 @@ import be.kuleuven.cs.gridflex.persistence.MemoizationContext;
 import be.kuleuven.cs.gridflex.solvers.common.data.AllocResults;
 import be.kuleuven.cs.gridflex.solvers.dummy.SolverDummy;
 import be.kuleuven.cs.gridflex.solvers.heuristic.solver.HeuristicSolver;
+import be.kuleuven.cs.gridflex.solvers.heuristic.solver.HeuristicSolverFactoryCache;
 import be.kuleuven.cs.gridflex.solvers.memoization.MemoizationDecorator;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.AllocResultsView;
 import be.kuleuven.cs.gridflex.solvers.memoization.immutableViews.ImmutableSolverProblemContextView;
@@ -16,11 +17,17 @@ import static be.kuleuven.cs.gridflex.solvers.optimal.AbstractOptimalSolver.Solv
 
 /**
  * Factory utility class for creating solvers instances.
+ * Start the JVM with -D{@value HeuristicSolverFactoryCache#WARMUP_PROPERTY}=true to compile the
+ * heuristic solver configurations in the background as soon as this class is loaded.
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
 public final class Solvers {
 
+    static {
+        HeuristicSolverFactoryCache.warmUpIfRequested();
+    }
+
     private Solvers() {
     }
 
@@ -61,6 +68,24 @@ public final class Solvers {
         }
     }
 
+    /**
+     * Create a solvers that searches the solution space heuristically using optaplanner with an
+     * incremental java score calculator instead of the drools score rules.
+     *
+     * @param context The problem context to solve.
+     * @param fullsat set to false if you want best effort allocation while possible leaving some
+     *                constraints unbound.
+     * @return An instantiated solvers instance.
+     */
+    public static Solver<AllocResults> createIncrementalHeuristicOptaplanner(
+            FlexAllocProblemContext context, boolean fullsat) {
+        if (fullsat) {
+            return HeuristicSolver.createIncrementalFullSatHeuristicSolver(context);
+        } else {
+            return HeuristicSolver.createIncrementalBestEffortHeuristicSolver(context);
+        }
+    }
+
     /**
      * Create a dummy solvers that returns hardcoded results for any input problem.
      *
@@ -75,6 +100,8 @@ public final class Solvers {
         DUMMY,
         OPTA,
         OPTA_BEST_EFFORT,
+        OPTA_INCREMENTAL,
+        OPTA_BEST_EFFORT_INCREMENTAL,
         GUROBI,
         CPLEX;
 
@@ -87,6 +114,10 @@ public final class Solvers {
                 return createHeuristicOptaplanner(context, true);
             } else if (OPTA_BEST_EFFORT == this) {
                 return createHeuristicOptaplanner(context, false);
+            } else if (OPTA_INCREMENTAL == this) {
+                return createIncrementalHeuristicOptaplanner(context, true);
+            } else if (OPTA_BEST_EFFORT_INCREMENTAL == this) {
+                return createIncrementalHeuristicOptaplanner(context, false);
             } else {
                 return createDummySolver(context);
             }
@@ -5,6 +5,7 @@ import be.kuleuven.cs.gridflex.solvers.common.QHFlexibilityProvider;
 import be.kuleuven.cs.gridflex.solvers.heuristic.domain.comparators
         .ActivationAssignmentDifficultyComparator;
 import be.kuleuven.cs.gridflex.solvers.heuristic.domain.comparators.IntegerStrengthComparator;
+import org.eclipse.jdt.annotation.Nullable;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
@@ -26,6 +27,8 @@ public class ActivationAssignment {
     private Integer startIndex;
     private CongestionProfile profile;
     private int id;
+    @Nullable
+    private transient Allocation allocation;
 
     public QHFlexibilityProvider getProvider() {
         return provider;
@@ -59,7 +62,20 @@ public class ActivationAssignment {
     }
 
     public void setStartIndex(Integer startIndex) {
+        Integer previous = this.startIndex;
         this.startIndex = startIndex;
+        if (allocation != null) {
+            allocation.startIndexChanged(this, previous);
+        }
+    }
+
+    /**
+     * Link this assignment to the allocation keeping track of its activations.
+     *
+     * @param allocation The owning allocation.
+     */
+    void setAllocation(Allocation allocation) {
+        this.allocation = allocation;
     }
 
     public int getId() {
@@ -3,16 +3,17 @@ package be.kuleuven.cs.gridflex.solvers.heuristic.domain;
 import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
 import be.kuleuven.cs.gridflex.solvers.common.QHFlexibilityProvider;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.eclipse.jdt.annotation.Nullable;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.Solution;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Map;
 
 import static org.apache.commons.math3.util.FastMath.min;
 
@@ -22,13 +23,15 @@ import static org.apache.commons.math3.util.FastMath.min;
  *
  * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
  */
-@PlanningSolution
+@PlanningSolution(solutionCloner = AllocationSolutionCloner.class)
 public class Allocation implements Solution<HardSoftScore> {
     private List<QHFlexibilityProvider> providers;
     private List<ActivationAssignment> assignments;
     private List<Integer> startValueRange;
     private HardSoftScore score;
     private CongestionProfile profile;
+    @Nullable
+    private transient ActivationState activationState;
 
     /**
      * Default allocation constructor.
@@ -43,6 +46,14 @@ public class Allocation implements Solution<HardSoftScore> {
      */
     public void setProfile(CongestionProfile p) {
         this.profile = p;
+        this.activationState = null;
+    }
+
+    /**
+     * @return The profile to allocate flex to.
+     */
+    public CongestionProfile getProfile() {
+        return profile;
     }
 
     /**
@@ -68,6 +79,7 @@ public class Allocation implements Solution<HardSoftScore> {
     public void setProviders(
             List<QHFlexibilityProvider> providers) {
         this.providers = providers;
+        this.activationState = null;
     }
 
     @Override
@@ -105,47 +117,66 @@ public class Allocation implements Solution<HardSoftScore> {
      * @return The resolved congestion by this activation.
      */
     public double getResolvedCongestion() {
-        int[][] acts = getAllocationMaps();
+        return getActivationState().getResolvedCongestion();
+    }
 
-        return IntStream.range(0, profile.length()).filter(i -> activated(acts, i))
-                .mapToDouble(i -> min(profile.value(i), getSum(acts, i))).sum();
+    /**
+     * @param providerIndex The index of the provider in the list of providers.
+     * @param slot          The time slot in the profile.
+     * @return True if the provider is activated in the given slot.
+     */
+    public boolean isActivated(int providerIndex, int slot) {
+        return getActivationState().isActivated(providerIndex, slot);
     }
 
     /**
+     * Prefer {@link #isActivated(int, int)} if no copy of the activations is needed.
+     *
      * @return The binary data of 1's and 0's that represent the activations for all providers as
      * a 2dim array.
      */
     public int[][] getAllocationMaps() {
+        ActivationState state = getActivationState();
         int[][] acts = new int[providers.size()][profile.length()];
-        for (int[] row : acts) {
-            Arrays.fill(row, 0, profile.length(), 0);
-        }
-        for (int i = 0; i < providers.size(); i++) {
-            QHFlexibilityProvider p = providers.get(i);
-            for (ActivationAssignment aa : getAssignments()) {
-                if (aa.isBound() && aa.getProvider().equals(p)) {
-                    Arrays.fill(acts[i], aa.getStartIndex(),
-                            (int) min(aa.getStartIndex() + aa.getProvider()
-                                    .getQHFlexibilityActivationConstraints()
-                                    .getActivationDuration(), profile.length()),
-                            1);
-                }
+        for (int i = 0; i < acts.length; i++) {
+            for (int j = 0; j < acts[i].length; j++) {
+                acts[i][j] = state.isActivated(i, j) ? 1 : 0;
             }
         }
         return acts;
     }
 
-    private boolean activated(int[][] acts, int idx) {
-        int prod = 1;
-        for (int i = 0; i < acts.length; i++) {
-            prod *= (1 - acts[i][idx]);
+    /**
+     * Callback for assignments of this allocation to signal a change of their start index.
+     *
+     * @param aa       The changed assignment.
+     * @param previous The start index before the change.
+     */
+    void startIndexChanged(ActivationAssignment aa, @Nullable Integer previous) {
+        ActivationState state = activationState;
+        if (state != null) {
+            if (previous != null) {
+                state.update(aa, previous, -1);
+            }
+            if (aa.isBound()) {
+                state.update(aa, aa.getStartIndex(), 1);
+            }
         }
-        return prod == 1 ? false : true;
     }
 
-    private double getSum(int[][] acts, int idx) {
-        return IntStream.range(0, acts.length).mapToDouble(
-                i -> providers.get(i).getFlexibilityActivationRate().getUp() * acts[i][idx]).sum();
+    private ActivationState getActivationState() {
+        ActivationState state = activationState;
+        if (state == null) {
+            state = new ActivationState(providers, profile);
+            for (ActivationAssignment aa : assignments) {
+                aa.setAllocation(this);
+                if (aa.isBound()) {
+                    state.update(aa, aa.getStartIndex(), 1);
+                }
+            }
+            activationState = state;
+        }
+        return state;
     }
 
     /**
@@ -163,6 +194,80 @@ public class Allocation implements Solution<HardSoftScore> {
     public void setAssignments(
             List<ActivationAssignment> assignments) {
         this.assignments = assignments;
+        for (ActivationAssignment aa : assignments) {
+            aa.setAllocation(this);
+        }
+        this.activationState = null;
+    }
+
+    /**
+     * Per slot activation data of all assignments in an allocation, kept up to date with every
+     * change of an assignment's start index.
+     */
+    private static final class ActivationState {
+        private final Map<QHFlexibilityProvider, Integer> providerIndices;
+        private final double[] rates;
+        private final double[] profile;
+        private final int length;
+        private final int[] coverage;
+        private final int[] activeProviders;
+        private final double[] activatedRate;
+
+        ActivationState(List<QHFlexibilityProvider> providers, CongestionProfile profile) {
+            this.providerIndices = Maps.newIdentityHashMap();
+            this.rates = new double[providers.size()];
+            for (int i = 0; i < providers.size(); i++) {
+                providerIndices.put(providers.get(i), i);
+                rates[i] = providers.get(i).getFlexibilityActivationRate().getUp();
+            }
+            this.profile = profile.values().toDoubleArray();
+            this.length = this.profile.length;
+            this.coverage = new int[providers.size() * length];
+            this.activeProviders = new int[length];
+            this.activatedRate = new double[length];
+        }
+
+        void update(ActivationAssignment aa, int start, int delta) {
+            Integer p = providerIndices.get(aa.getProvider());
+            if (p == null) {
+                return;
+            }
+            int end = min(start + (int) aa.getProvider().getQHFlexibilityActivationConstraints()
+                    .getActivationDuration(), length);
+            int offset = p * length;
+            for (int i = start; i < end; i++) {
+                int before = coverage[offset + i];
+                coverage[offset + i] += delta;
+                if ((before == 0) != (coverage[offset + i] == 0)) {
+                    activeProviders[i] += delta;
+                    activatedRate[i] = sumActiveRates(i);
+                }
+            }
+        }
+
+        private double sumActiveRates(int slot) {
+            double sum = 0;
+            for (int p = 0; p < rates.length; p++) {
+                if (coverage[p * length + slot] > 0) {
+                    sum += rates[p];
+                }
+            }
+            return sum;
+        }
+
+        double getResolvedCongestion() {
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                if (activeProviders[i] > 0) {
+                    sum += min(profile[i], activatedRate[i]);
+                }
+            }
+            return sum;
+        }
+
+        boolean isActivated(int providerIndex, int slot) {
+            return coverage[providerIndex * length + slot] > 0;
+        }
     }
 
 }
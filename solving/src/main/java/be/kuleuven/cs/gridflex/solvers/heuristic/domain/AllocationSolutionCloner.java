@@ -0,0 +1,35 @@
+package be.kuleuven.cs.gridflex.solvers.heuristic.domain;
+
+import com.google.common.collect.Lists;
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+
+import java.util.List;
+
+/**
+ * Solution cloner for allocations.
+ * Planning entities are cloned and linked to the cloned allocation so the clone keeps its own
+ * activation state. Problem facts are shared between original and clone.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class AllocationSolutionCloner implements SolutionCloner<Allocation> {
+
+    @Override
+    public Allocation cloneSolution(Allocation original) {
+        List<ActivationAssignment> assignments = Lists
+                .newArrayListWithCapacity(original.getAllocationList().size());
+        for (ActivationAssignment aa : original.getAllocationList()) {
+            ActivationAssignment clone = ActivationAssignment
+                    .create(aa.getId(), aa.getProvider(), aa.getProfile());
+            clone.setStartIndex(aa.getStartIndex());
+            assignments.add(clone);
+        }
+        Allocation clone = new Allocation();
+        clone.setProviders(original.getProviders());
+        clone.setProfile(original.getProfile());
+        clone.setActivationStartValues(original.getActivationStartValues());
+        clone.setAssignments(assignments);
+        clone.setScore(original.getScore());
+        return clone;
+    }
+}
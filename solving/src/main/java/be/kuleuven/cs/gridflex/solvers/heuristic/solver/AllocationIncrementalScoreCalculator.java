@@ -0,0 +1,363 @@
+package be.kuleuven.cs.gridflex.solvers.heuristic.solver;
+
+import be.kuleuven.cs.gridflex.solvers.common.QHFlexibilityProvider;
+import be.kuleuven.cs.gridflex.solvers.heuristic.domain.ActivationAssignment;
+import be.kuleuven.cs.gridflex.solvers.heuristic.domain.Allocation;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.eclipse.jdt.annotation.Nullable;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.impl.score.director.incremental.IncrementalScoreCalculator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental score calculator producing the same scores as the drools score rules in
+ * SolverScoreRules_FullSat.drl and SolverScoreRules_BestEffort.drl.
+ * Every slot in the profile keeps a bitset of the assignments active in that slot so that a
+ * change of one assignment only requires rescoring the assignments overlapping its old and new
+ * activation window.
+ * Activations with a duration shorter than one slot never overlap in this implementation.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public abstract class AllocationIncrementalScoreCalculator
+        implements IncrementalScoreCalculator<Allocation> {
+
+    private static final int SCALING = 100;
+    private static final int UNBOUND_PENALTY = 10;
+    private final boolean fullSat;
+    @Nullable
+    private Allocation workingSolution;
+
+    private double[] profile;
+    private ActivationAssignment[] assignments;
+    private Map<ActivationAssignment, Integer> indices;
+    private int[] providerIdx;
+    private int[] providerCounts;
+    private double[] providerMaxActivations;
+    private int[][] providerMembers;
+    private double[] rates;
+
+    private int words;
+    private long[] slotOccupancy;
+    private boolean[] inserted;
+    private double[] resolved;
+    private int[] overactivationScores;
+
+    private int interActivationScore;
+    private int unboundCount;
+    private int profileEndViolations;
+    private int overactivationScore;
+
+    /**
+     * Constructor for concrete score variants.
+     *
+     * @param fullSat True if unbound activations are a hard constraint violation.
+     */
+    protected AllocationIncrementalScoreCalculator(boolean fullSat) {
+        this.fullSat = fullSat;
+    }
+
+    @Override
+    public void resetWorkingSolution(Allocation workingSolution) {
+        this.workingSolution = workingSolution;
+        this.profile = workingSolution.getProfile().values().toDoubleArray();
+        List<ActivationAssignment> sorted = Lists
+                .newArrayList(workingSolution.getAllocationList());
+        sorted.sort(Comparator.comparingInt(ActivationAssignment::getId));
+        int size = sorted.size();
+        this.assignments = sorted.toArray(new ActivationAssignment[size]);
+        this.indices = Maps.newIdentityHashMap();
+        this.rates = new double[size];
+        this.providerIdx = new int[size];
+        Map<QHFlexibilityProvider, Integer> providerIndices = Maps.newIdentityHashMap();
+        List<QHFlexibilityProvider> providers = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            ActivationAssignment aa = assignments[i];
+            indices.put(aa, i);
+            rates[i] = aa.getProvider().getFlexibilityActivationRate().getUp();
+            Integer pIdx = providerIndices.get(aa.getProvider());
+            if (pIdx == null) {
+                pIdx = providers.size();
+                providerIndices.put(aa.getProvider(), pIdx);
+                providers.add(aa.getProvider());
+            }
+            providerIdx[i] = pIdx;
+        }
+        this.providerCounts = new int[providers.size()];
+        this.providerMaxActivations = new double[providers.size()];
+        for (int i = 0; i < size; i++) {
+            providerCounts[providerIdx[i]]++;
+        }
+        this.providerMembers = new int[providers.size()][];
+        int[] fill = new int[providers.size()];
+        for (int p = 0; p < providers.size(); p++) {
+            providerMembers[p] = new int[providerCounts[p]];
+            providerMaxActivations[p] = providers.get(p)
+                    .getQHFlexibilityActivationConstraints().getMaximumActivations();
+        }
+        for (int i = 0; i < size; i++) {
+            providerMembers[providerIdx[i]][fill[providerIdx[i]]++] = i;
+        }
+
+        this.words = (size + Long.SIZE - 1) / Long.SIZE;
+        this.slotOccupancy = new long[profile.length * words];
+        this.inserted = new boolean[size];
+        this.resolved = new double[size];
+        this.overactivationScores = new int[size];
+        this.interActivationScore = 0;
+        this.unboundCount = 0;
+        this.profileEndViolations = 0;
+        this.overactivationScore = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (assignments[i].isBound()) {
+                insert(i);
+            } else {
+                unboundCount++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            rescoreOveractivation(i);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        //Handled after addition.
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        resetFromWorkingSolution();
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        int idx = indices.get(entity);
+        if (!assignments[idx].isBound()) {
+            unboundCount--;
+            return;
+        }
+        long[] affected = occupantsInWindow(idx);
+        retract(idx);
+        overactivationScore -= overactivationScores[idx];
+        overactivationScores[idx] = 0;
+        rescoreLowerOverlapping(idx, affected);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        int idx = indices.get(entity);
+        if (!assignments[idx].isBound()) {
+            unboundCount++;
+            return;
+        }
+        insert(idx);
+        rescoreOveractivation(idx);
+        rescoreLowerOverlapping(idx, occupantsInWindow(idx));
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        //Handled after removal.
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        resetFromWorkingSolution();
+    }
+
+    @Override
+    public HardSoftScore calculateScore() {
+        int hard = interActivationScore - profileEndViolations;
+        for (int p = 0; p < providerCounts.length; p++) {
+            if (providerCounts[p] < providerMaxActivations[p]) {
+                hard += providerCounts[p]
+                        * (int) (providerCounts[p] - providerMaxActivations[p]);
+            }
+        }
+        //Summed in id order on every call to avoid drift of a running floating point total.
+        double resolvedTotal = 0;
+        for (double r : resolved) {
+            resolvedTotal += r;
+        }
+        int soft = (int) (resolvedTotal * SCALING) + overactivationScore;
+        if (fullSat) {
+            hard -= unboundCount * UNBOUND_PENALTY;
+        } else {
+            soft -= unboundCount * UNBOUND_PENALTY;
+        }
+        return HardSoftScore.valueOf(hard, soft);
+    }
+
+    private void resetFromWorkingSolution() {
+        if (workingSolution != null) {
+            resetWorkingSolution(workingSolution);
+        }
+    }
+
+    private void insert(int idx) {
+        ActivationAssignment aa = assignments[idx];
+        int start = aa.getStartIndex();
+        int end = aa.getEndIndex();
+        for (int i = start; i < end; i++) {
+            slotOccupancy[i * words + idx / Long.SIZE] |= 1L << idx;
+        }
+        interActivationScore += interActivationPenalties(idx);
+        inserted[idx] = true;
+        if (start + activationDuration(aa) >= profile.length) {
+            profileEndViolations++;
+        }
+        resolved[idx] = aa.getResolvedCongestion();
+    }
+
+    private void retract(int idx) {
+        ActivationAssignment aa = assignments[idx];
+        int start = aa.getStartIndex();
+        int end = aa.getEndIndex();
+        for (int i = start; i < end; i++) {
+            slotOccupancy[i * words + idx / Long.SIZE] &= ~(1L << idx);
+        }
+        inserted[idx] = false;
+        interActivationScore -= interActivationPenalties(idx);
+        if (start + activationDuration(aa) >= profile.length) {
+            profileEndViolations--;
+        }
+        resolved[idx] = 0;
+    }
+
+    /**
+     * The RespectInterActivation matches of the given assignment with all other inserted
+     * assignments of the same provider, in both directions. Only counting inserted
+     * assignments makes every pair count once when a bound solution is reset.
+     */
+    private int interActivationPenalties(int idx) {
+        int penalty = 0;
+        ActivationAssignment aa = assignments[idx];
+        int start = aa.getStartIndex();
+        int lastUnavailable = aa.getLastUnavailableIndex();
+        for (int other : providerMembers[providerIdx[idx]]) {
+            ActivationAssignment oa = assignments[other];
+            if (other == idx || !inserted[other]) {
+                continue;
+            }
+            int otherStart = oa.getStartIndex();
+            if (otherStart >= start && otherStart <= lastUnavailable) {
+                penalty -= ((lastUnavailable + 1) - otherStart) * SCALING;
+            }
+            int otherLastUnavailable = oa.getLastUnavailableIndex();
+            if (start >= otherStart && start <= otherLastUnavailable) {
+                penalty -= ((otherLastUnavailable + 1) - start) * SCALING;
+            }
+        }
+        return penalty;
+    }
+
+    private long[] occupantsInWindow(int idx) {
+        long[] occupants = new long[words];
+        ActivationAssignment aa = assignments[idx];
+        int end = aa.getEndIndex();
+        for (int i = aa.getStartIndex(); i < end; i++) {
+            int offset = i * words;
+            for (int w = 0; w < words; w++) {
+                occupants[w] |= slotOccupancy[offset + w];
+            }
+        }
+        return occupants;
+    }
+
+    /**
+     * Rescore the assignments with a lower id that share slots with the changed assignment, as
+     * only those see the changed assignment in their OveractivationGoal matches.
+     */
+    private void rescoreLowerOverlapping(int idx, long[] occupants) {
+        for (int w = 0; w < words; w++) {
+            long bits = occupants[w];
+            while (bits != 0) {
+                int other = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (other < idx && providerIdx[other] != providerIdx[idx]) {
+                    rescoreOveractivation(other);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalculate the OveractivationGoal match of one assignment. The energy lost is only
+     * counted if at least one later assignment of another provider overlaps this assignment.
+     */
+    private void rescoreOveractivation(int idx) {
+        overactivationScore -= overactivationScores[idx];
+        overactivationScores[idx] = 0;
+        ActivationAssignment aa = assignments[idx];
+        if (!aa.isBound()) {
+            return;
+        }
+        int provider = providerIdx[idx];
+        int firstWord = idx / Long.SIZE;
+        long firstMask = idx % Long.SIZE == Long.SIZE - 1 ? 0 : -1L << (idx % Long.SIZE + 1);
+        boolean overlapping = false;
+        double lost = 0;
+        int end = aa.getEndIndex();
+        for (int i = aa.getStartIndex(); i < end; i++) {
+            double activated = rates[idx];
+            int offset = i * words;
+            for (int w = firstWord; w < words; w++) {
+                long bits = slotOccupancy[offset + w];
+                if (w == firstWord) {
+                    bits &= firstMask;
+                }
+                while (bits != 0) {
+                    int other = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (providerIdx[other] != provider) {
+                        activated += rates[other];
+                        overlapping = true;
+                    }
+                }
+            }
+            double diff = profile[i] - activated;
+            if (diff < 0) {
+                lost -= diff;
+            }
+        }
+        if (overlapping) {
+            overactivationScores[idx] = -(int) (lost * SCALING);
+            overactivationScore += overactivationScores[idx];
+        }
+    }
+
+    private static int activationDuration(ActivationAssignment aa) {
+        return (int) aa.getProvider().getQHFlexibilityActivationConstraints()
+                .getActivationDuration();
+    }
+
+    /**
+     * Incremental score calculator equivalent to the full satisfaction score rules.
+     */
+    public static class FullSat extends AllocationIncrementalScoreCalculator {
+        /**
+         * Default constructor used by optaplanner.
+         */
+        public FullSat() {
+            super(true);
+        }
+    }
+
+    /**
+     * Incremental score calculator equivalent to the best effort score rules.
+     */
+    public static class BestEffort extends AllocationIncrementalScoreCalculator {
+        /**
+         * Default constructor used by optaplanner.
+         */
+        public BestEffort() {
+            super(false);
+        }
+    }
+}
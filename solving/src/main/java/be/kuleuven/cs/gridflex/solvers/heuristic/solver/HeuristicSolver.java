@@ -17,13 +17,10 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.io.Resources;
 import org.eclipse.jdt.annotation.Nullable;
 import org.optaplanner.core.api.solver.SolverFactory;
-import org.optaplanner.core.config.solver.SolverConfig;
-import org.optaplanner.core.config.solver.termination.TerminationCompositionStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.URL;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -37,21 +34,24 @@ import java.util.stream.IntStream;
 public class HeuristicSolver implements Solver<AllocResults> {
 
     private static final int DECIMAL_SCALING = 100;
-    private static String CONFIG_FULLSAT =
-            "be/kuleuven/cs/gridflex/solvers/heuristic/solver/HeuristicSolverConfig_FullSat.xml";
-    private static String CONFIG_BESTEFFORT =
-            "be/kuleuven/cs/gridflex/solvers/heuristic/solver/HeuristicSolverConfig_BestEffort.xml";
     private static double FRACTION_OF_THEORETICAL_OPT = 0.90;
     private final FlexAllocProblemContext context;
     private final boolean fullSat;
+    private final boolean incrementalScoring;
     @Nullable
     private SolveResult solvedAllocResult;
     private static final Logger logger = LoggerFactory.getLogger(HeuristicSolver.class);
     private final long randomSeed;
 
     HeuristicSolver(FlexAllocProblemContext context, boolean fullSat) {
+        this(context, fullSat, false);
+    }
+
+    HeuristicSolver(FlexAllocProblemContext context, boolean fullSat,
+            boolean incrementalScoring) {
         this.context = context;
         this.fullSat = fullSat;
+        this.incrementalScoring = incrementalScoring;
         this.randomSeed = context.getSeedValue();
     }
 
@@ -65,23 +65,8 @@ public class HeuristicSolver implements Solver<AllocResults> {
         if (logger.isInfoEnabled()) {
             logger.info("Starting solve run.");
         }
-        String actConfig = fullSat ? CONFIG_FULLSAT : CONFIG_BESTEFFORT;
-
-        if (logger.isDebugEnabled()) {
-            logger.debug("Reading xml config at location: {}", actConfig);
-        }
-        SolverFactory<Allocation> solverFactory = SolverFactory
-                .createFromXmlReader(new StringReader(resourceToString(actConfig)));
-
-        //config
-        SolverConfig solverConfig = solverFactory.getSolverConfig();
-
-        //Random seed
-        solverConfig.setRandomSeed(randomSeed);
-
-        //Termination rules.
-        //        solverConfig.getTerminationConfig().setMinutesSpentLimit(10L);
-        //        solverConfig.getTerminationConfig().setStepCountLimit(500);
+        HeuristicSolverFactoryCache.ConfigVariant variant = HeuristicSolverFactoryCache
+                .ConfigVariant.from(fullSat, incrementalScoring);
 
         double optimalSum = Lists.newArrayList(context.getProviders()).stream()
                 .mapToDouble(p -> p.getFlexibilityActivationRate().getUp() * p
@@ -90,11 +75,10 @@ public class HeuristicSolver implements Solver<AllocResults> {
         double bestScore = optimalSum * FRACTION_OF_THEORETICAL_OPT * DECIMAL_SCALING;
 
         String bestScoreString = "0hard/" + String.valueOf((int) bestScore) + "soft";
-        solverConfig.getTerminationConfig()
-                .setBestScoreLimit(bestScoreString);
-        solverConfig.getTerminationConfig().setTerminationCompositionStyle(
-                TerminationCompositionStyle.OR);
-        //        solverConfig.getTerminationConfig().setUnimprovedStepCountLimit(500);
+
+        //Cached config clone with random seed and termination rules applied.
+        SolverFactory<Allocation> solverFactory = HeuristicSolverFactoryCache
+                .createSolverFactory(variant, randomSeed, bestScoreString);
 
         if (logger.isDebugEnabled()) {
             logger.info(
@@ -116,7 +100,7 @@ public class HeuristicSolver implements Solver<AllocResults> {
 
         // Solve the problem
         if (logger.isDebugEnabled()) {
-            logger.debug("Starting search.", actConfig);
+            logger.debug("Starting search with config variant {}.", variant);
         }
         solver.solve(unsolvedAlloc);
         Allocation solvedAlloc = solver.getBestSolution();
@@ -139,15 +123,15 @@ public class HeuristicSolver implements Solver<AllocResults> {
     AllocResults getSolution() {
         Allocation solvedAlloc = solvedAllocResult.getAllocation();
         List<QHFlexibilityProvider> providers = solvedAlloc.getProviders();
-        int[][] allocationMaps = solvedAlloc.getAllocationMaps();
+        int profileLength = solvedAlloc.getProfile().length();
         ListMultimap<FlexibilityProvider, Boolean> actMap = MultimapBuilder
                 .linkedHashKeys(context.getProviders().size())
                 .arrayListValues(context.getEnergyProfileToMinimizeWithFlex().length())
                 .build();
-        for (int i = 0; i < allocationMaps.length; i++) {
-            List<Boolean> toAdd = Lists.newArrayList();
-            for (int j = 0; j < allocationMaps[i].length; j++) {
-                toAdd.add(allocationMaps[i][j] == 1 ? true : false);
+        for (int i = 0; i < providers.size(); i++) {
+            List<Boolean> toAdd = Lists.newArrayListWithCapacity(profileLength);
+            for (int j = 0; j < profileLength; j++) {
+                toAdd.add(solvedAlloc.isActivated(i, j));
             }
             actMap.putAll(providers.get(i).getWrappedProvider(), toAdd);
         }
@@ -224,6 +208,16 @@ public class HeuristicSolver implements Solver<AllocResults> {
         return new HeuristicSolver(context, false);
     }
 
+    public static HeuristicSolver createIncrementalFullSatHeuristicSolver(
+            FlexAllocProblemContext context) {
+        return new HeuristicSolver(context, true, true);
+    }
+
+    public static HeuristicSolver createIncrementalBestEffortHeuristicSolver(
+            FlexAllocProblemContext context) {
+        return new HeuristicSolver(context, false, true);
+    }
+
     @AutoValue
     static abstract class SolveResult {
         abstract Allocation getAllocation();
@@ -0,0 +1,174 @@
+package be.kuleuven.cs.gridflex.solvers.heuristic.solver;
+
+import be.kuleuven.cs.gridflex.solvers.heuristic.domain.Allocation;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.eclipse.jdt.annotation.Nullable;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.io.KieResources;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationCompositionStyle;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.score.director.incremental.IncrementalScoreCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Process wide cache of compiled optaplanner solver factories.
+ * Reading the xml config and compiling the score rules into a knowledge base only happens once
+ * per configuration variant. Every solve run gets its own clone of the cached template
+ * configuration with the run specific settings applied.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class HeuristicSolverFactoryCache {
+
+    /**
+     * System property that, when set to true, triggers warming up this cache as soon as the
+     * solver factory classes are loaded.
+     */
+    public static final String WARMUP_PROPERTY = "gridflex.solvers.heuristic.warmup";
+    private static final String CONFIG_FULLSAT =
+            "be/kuleuven/cs/gridflex/solvers/heuristic/solver/HeuristicSolverConfig_FullSat.xml";
+    private static final String CONFIG_BESTEFFORT =
+            "be/kuleuven/cs/gridflex/solvers/heuristic/solver/HeuristicSolverConfig_BestEffort.xml";
+    private static final String DRL_BASE_PATH = "src/main/resources/";
+    private static final Logger logger = LoggerFactory
+            .getLogger(HeuristicSolverFactoryCache.class);
+
+    private HeuristicSolverFactoryCache() {
+    }
+
+    /**
+     * Create a new solver factory for the given variant with seed and termination rules applied.
+     * The returned factory is private to the caller and can be modified freely.
+     *
+     * @param variant        The configuration variant.
+     * @param randomSeed     The random seed to configure.
+     * @param bestScoreLimit The best score limit to add as termination condition.
+     * @return A solver factory instance backed by the cached compiled score rules.
+     */
+    static SolverFactory<Allocation> createSolverFactory(ConfigVariant variant, long randomSeed,
+            String bestScoreLimit) {
+        SolverFactory<Allocation> solverFactory = variant.getTemplate().cloneSolverFactory();
+        SolverConfig solverConfig = solverFactory.getSolverConfig();
+        solverConfig.setRandomSeed(randomSeed);
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setBestScoreLimit(bestScoreLimit);
+        terminationConfig.setTerminationCompositionStyle(TerminationCompositionStyle.OR);
+        solverConfig.setTerminationConfig(terminationConfig);
+        return solverFactory;
+    }
+
+    /**
+     * Compile all configuration variants in the calling thread.
+     */
+    public static void warmUp() {
+        for (ConfigVariant variant : ConfigVariant.values()) {
+            variant.getTemplate();
+        }
+    }
+
+    /**
+     * Compile all configuration variants in a background daemon thread.
+     * Solve runs requesting a variant that is still being compiled will wait for it to finish.
+     */
+    public static void warmUpInBackground() {
+        Thread warmer = new Thread(HeuristicSolverFactoryCache::warmUp,
+                "heuristic-solver-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Warm up this cache in the background if requested through the {@link #WARMUP_PROPERTY}
+     * system property.
+     */
+    public static void warmUpIfRequested() {
+        if (Boolean.getBoolean(WARMUP_PROPERTY)) {
+            logger.info("Warming up heuristic solver factory cache.");
+            warmUpInBackground();
+        }
+    }
+
+    private static SolverFactory<Allocation> compile(String configResource,
+            @Nullable Class<? extends IncrementalScoreCalculator> incrementalCalculator) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Reading and compiling xml config at location: {}", configResource);
+        }
+        SolverFactory<Allocation> solverFactory = SolverFactory
+                .createFromXmlReader(
+                        new StringReader(HeuristicSolver.resourceToString(configResource)));
+        ScoreDirectorFactoryConfig scoreConfig = solverFactory.getSolverConfig()
+                .getScoreDirectorFactoryConfig();
+        List<String> scoreDrlList = scoreConfig.getScoreDrlList();
+        if (incrementalCalculator != null) {
+            scoreConfig.setScoreDrlList(null);
+            scoreConfig.setIncrementalScoreCalculatorClass(incrementalCalculator);
+        } else if (scoreDrlList != null && !scoreDrlList.isEmpty()) {
+            scoreConfig.setKieBase(buildKieBase(scoreDrlList));
+            scoreConfig.setScoreDrlList(null);
+        }
+        return solverFactory;
+    }
+
+    private static KieBase buildKieBase(List<String> scoreDrlList) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieResources kieResources = kieServices.getResources();
+        KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
+        ClassLoader classLoader = HeuristicSolverFactoryCache.class.getClassLoader();
+        for (String scoreDrl : scoreDrlList) {
+            kieFileSystem.write(DRL_BASE_PATH + scoreDrl,
+                    kieResources.newClassPathResource(scoreDrl, classLoader));
+        }
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem).buildAll();
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new IllegalStateException(
+                    "Score rules could not be compiled: " + kieBuilder.getResults());
+        }
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId())
+                .getKieBase();
+    }
+
+    /**
+     * The different solver configurations available to the heuristic solver.
+     */
+    enum ConfigVariant {
+        FULL_SAT(CONFIG_FULLSAT, null),
+        BEST_EFFORT(CONFIG_BESTEFFORT, null),
+        FULL_SAT_INCREMENTAL(CONFIG_FULLSAT, AllocationIncrementalScoreCalculator.FullSat.class),
+        BEST_EFFORT_INCREMENTAL(CONFIG_BESTEFFORT,
+                AllocationIncrementalScoreCalculator.BestEffort.class);
+
+        private final Supplier<SolverFactory<Allocation>> template;
+
+        ConfigVariant(String configResource,
+                @Nullable Class<? extends IncrementalScoreCalculator> incrementalCalculator) {
+            this.template = Suppliers
+                    .memoize(() -> compile(configResource, incrementalCalculator));
+        }
+
+        /**
+         * @return The shared template factory. Do not modify, clone instead.
+         */
+        SolverFactory<Allocation> getTemplate() {
+            return template.get();
+        }
+
+        static ConfigVariant from(boolean fullSat, boolean incrementalScoring) {
+            if (incrementalScoring) {
+                return fullSat ? FULL_SAT_INCREMENTAL : BEST_EFFORT_INCREMENTAL;
+            }
+            return fullSat ? FULL_SAT : BEST_EFFORT;
+        }
+    }
+}
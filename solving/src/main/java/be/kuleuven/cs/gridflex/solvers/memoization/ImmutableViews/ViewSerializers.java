@@ -0,0 +1,238 @@
+package be.kuleuven.cs.gridflex.solvers.memoization.immutableViews;
+
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
+import be.kuleuven.cs.gridflex.domain.util.data.DoublePowerCapabilityBand;
+import be.kuleuven.cs.gridflex.persistence.ContentHash;
+import be.kuleuven.cs.gridflex.persistence.StoreFormat;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compact MapDB serializers for the memoization views and store formats using them.
+ * Profiles are written as packed doubles, provider parameters as variable length integers
+ * where possible and allocation results as bitsets.
+ *
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public final class ViewSerializers {
+
+    /**
+     * Serializer for problem context views.
+     */
+    public static final Serializer<ImmutableSolverProblemContextView> CONTEXT_VIEW =
+            new ContextViewSerializer();
+    /**
+     * Serializer for allocation result views.
+     */
+    public static final Serializer<AllocResultsView> ALLOC_RESULTS =
+            new AllocResultsViewSerializer();
+    private static final String COMPACT_MAP_NAME = "map_compact_v1";
+    private static final String HASHED_MAP_NAME = "map_hashed_v1";
+    private static final int HASH_FORMAT_VERSION = 1;
+    private static final double FRACTION_SCALE = 4;
+
+    private ViewSerializers() {
+    }
+
+    /**
+     * Store format keeping full context views as keys, using the compact serializers.
+     *
+     * @return The store format.
+     */
+    public static StoreFormat<ImmutableSolverProblemContextView, AllocResultsView>
+    compactFormat() {
+        return StoreFormat.of(COMPACT_MAP_NAME, CONTEXT_VIEW, ALLOC_RESULTS);
+    }
+
+    /**
+     * Store format keeping only a 128-bit content hash of the context views as keys.
+     *
+     * @return The store format.
+     */
+    public static StoreFormat<ImmutableSolverProblemContextView, AllocResultsView>
+    hashedFormat() {
+        return StoreFormat.hashedKeys(HASHED_MAP_NAME, ViewSerializers::contentHash,
+                ALLOC_RESULTS);
+    }
+
+    /**
+     * Compute a 128-bit hash over the full content of a context view.
+     *
+     * @param view The view to hash.
+     * @return The content hash.
+     */
+    public static ContentHash contentHash(ImmutableSolverProblemContextView view) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(HASH_FORMAT_VERSION);
+        hasher.putLong(view.getSeedValue());
+        hasher.putInt(view.getProviders().size());
+        for (FlexibilityProviderView provider : view.getProviders()) {
+            DoublePowerCapabilityBand rate = provider.getFlexibilityActivationRate();
+            HourlyFlexConstraints constraints = provider.getFlexibilityActivationConstraints();
+            hasher.putDouble(rate.getDown()).putDouble(rate.getUp())
+                    .putDouble(constraints.getInterActivationTime())
+                    .putDouble(constraints.getActivationDuration())
+                    .putDouble(constraints.getMaximumActivations());
+        }
+        DoubleList profile = view.getInputProfile();
+        hasher.putInt(profile.size());
+        for (int i = 0; i < profile.size(); i++) {
+            hasher.putDouble(profile.getDouble(i));
+        }
+        return ContentHash.fromBytes(hasher.hash().asBytes());
+    }
+
+    /**
+     * Write a double as a variable length integer if it is a non-negative multiple of a quarter,
+     * which covers the usual hourly constraints and power ratings, or as a raw double otherwise.
+     */
+    private static void writeCompact(DataOutput2 out, double value) throws IOException {
+        double scaled = value * FRACTION_SCALE;
+        if (scaled >= 0 && scaled < Integer.MAX_VALUE && scaled == Math.rint(scaled)) {
+            out.packLong((long) scaled << 1);
+        } else {
+            out.packLong(1);
+            out.writeDouble(value);
+        }
+    }
+
+    private static double readCompact(DataInput2 in) throws IOException {
+        long header = in.unpackLong();
+        if ((header & 1) == 0) {
+            return (header >>> 1) / FRACTION_SCALE;
+        }
+        return in.readDouble();
+    }
+
+    private static void writeProvider(DataOutput2 out, FlexibilityProviderView provider)
+            throws IOException {
+        DoublePowerCapabilityBand rate = provider.getFlexibilityActivationRate();
+        HourlyFlexConstraints constraints = provider.getFlexibilityActivationConstraints();
+        writeCompact(out, rate.getDown());
+        writeCompact(out, rate.getUp());
+        writeCompact(out, constraints.getInterActivationTime());
+        writeCompact(out, constraints.getActivationDuration());
+        writeCompact(out, constraints.getMaximumActivations());
+    }
+
+    private static FlexibilityProviderView readProvider(DataInput2 in) throws IOException {
+        DoublePowerCapabilityBand rate = DoublePowerCapabilityBand
+                .create(readCompact(in), readCompact(in));
+        HourlyFlexConstraints constraints = HourlyFlexConstraints.builder()
+                .interActivationTime(readCompact(in)).activationDuration(readCompact(in))
+                .maximumActivations(readCompact(in)).build();
+        return new AutoValue_FlexibilityProviderView(rate, constraints);
+    }
+
+    private static final class ContextViewSerializer
+            implements Serializer<ImmutableSolverProblemContextView>, Serializable {
+        private static final long serialVersionUID = -1330417357384427236L;
+
+        @Override
+        public void serialize(DataOutput2 out, ImmutableSolverProblemContextView value)
+                throws IOException {
+            out.writeLong(value.getSeedValue());
+            out.packInt(value.getProviders().size());
+            for (FlexibilityProviderView provider : value.getProviders()) {
+                writeProvider(out, provider);
+            }
+            double[] profile = value.getInputProfile().toDoubleArray();
+            out.packInt(profile.length);
+            ByteBuffer buffer = ByteBuffer.allocate(profile.length * Double.BYTES);
+            buffer.asDoubleBuffer().put(profile);
+            out.write(buffer.array());
+        }
+
+        @Override
+        public ImmutableSolverProblemContextView deserialize(DataInput2 input, int available)
+                throws IOException {
+            long seed = input.readLong();
+            int providerCount = input.unpackInt();
+            ImmutableList.Builder<FlexibilityProviderView> providers = ImmutableList.builder();
+            for (int i = 0; i < providerCount; i++) {
+                providers.add(readProvider(input));
+            }
+            double[] profile = new double[input.unpackInt()];
+            byte[] bytes = new byte[profile.length * Double.BYTES];
+            input.readFully(bytes);
+            DoubleBuffer buffer = ByteBuffer.wrap(bytes).asDoubleBuffer();
+            buffer.get(profile);
+            return new AutoValue_ImmutableSolverProblemContextView(providers.build(),
+                    DoubleArrayList.wrap(profile), seed);
+        }
+
+        @Override
+        public int hashCode(ImmutableSolverProblemContextView view, int seed) {
+            return contentHash(view).hashCode() + seed;
+        }
+    }
+
+    private static final class AllocResultsViewSerializer
+            implements Serializer<AllocResultsView>, Serializable {
+        private static final long serialVersionUID = 6521958911305744523L;
+
+        @Override
+        public void serialize(DataOutput2 out, AllocResultsView value) throws IOException {
+            ListMultimap<FlexibilityProviderView, Boolean> results = value
+                    .getAllocationResults();
+            out.packInt(results.keySet().size());
+            for (FlexibilityProviderView provider : results.keySet()) {
+                writeProvider(out, provider);
+                List<Boolean> activations = results.get(provider);
+                BitSet bits = new BitSet(activations.size());
+                for (int i = 0; i < activations.size(); i++) {
+                    if (activations.get(i)) {
+                        bits.set(i);
+                    }
+                }
+                long[] words = bits.toLongArray();
+                out.packInt(activations.size());
+                out.packInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+            out.writeDouble(value.getObjective());
+            out.writeDouble(value.getObjectiveRelativeToUnconstrainedOptimal());
+        }
+
+        @Override
+        public AllocResultsView deserialize(DataInput2 input, int available)
+                throws IOException {
+            int providerCount = input.unpackInt();
+            ListMultimap<FlexibilityProviderView, Boolean> results = MultimapBuilder
+                    .linkedHashKeys(providerCount).arrayListValues().build();
+            for (int p = 0; p < providerCount; p++) {
+                FlexibilityProviderView provider = readProvider(input);
+                int size = input.unpackInt();
+                long[] words = new long[input.unpackInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = input.readLong();
+                }
+                BitSet bits = BitSet.valueOf(words);
+                List<Boolean> activations = results.get(provider);
+                for (int i = 0; i < size; i++) {
+                    activations.add(bits.get(i));
+                }
+            }
+            double objective = input.readDouble();
+            double relative = input.readDouble();
+            return new AutoValue_AllocResultsView(results, objective, relative);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package be.kuleuven.cs.gridflex.solvers.heuristic.domain;
+
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexProvider;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import be.kuleuven.cs.gridflex.solvers.common.QHFlexibilityProvider;
+import be.kuleuven.cs.gridflex.solvers.common.QHFlexibilityProviderDecorator;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class AllocationTest {
+    private Allocation allocation;
+    private CongestionProfile profile;
+    private ActivationAssignment aa1;
+    private ActivationAssignment aa2;
+    private ActivationAssignment aa3;
+
+    @Before
+    public void setUp() throws IOException {
+        this.profile = CongestionProfile.createFromCSV("smalltest.csv", "test");
+        QHFlexibilityProvider prov1 = new QHFlexibilityProviderDecorator(new FlexProvider(400,
+                HourlyFlexConstraints.builder().maximumActivations(2).interActivationTime(1)
+                        .activationDuration(0.5).build()));
+        QHFlexibilityProvider prov2 = new QHFlexibilityProviderDecorator(new FlexProvider(560,
+                HourlyFlexConstraints.builder().maximumActivations(1).interActivationTime(1)
+                        .activationDuration(0.5).build()));
+        aa1 = ActivationAssignment.create(0, prov1, profile);
+        aa2 = ActivationAssignment.create(1, prov1, profile);
+        aa3 = ActivationAssignment.create(2, prov2, profile);
+        allocation = new Allocation();
+        allocation.setProfile(profile);
+        allocation.setProviders(Lists.newArrayList(prov1, prov2));
+        allocation.setAssignments(Lists.newArrayList(aa1, aa2, aa3));
+    }
+
+    @Test
+    public void testResolvedCongestionFollowsChanges() {
+        assertEquals(0, allocation.getResolvedCongestion(), 0);
+        aa1.setStartIndex(14);
+        aa3.setStartIndex(15);
+        assertEquals(expectedResolved(), allocation.getResolvedCongestion(), 0.0001);
+        aa3.setStartIndex(2);
+        aa2.setStartIndex(15);
+        assertEquals(expectedResolved(), allocation.getResolvedCongestion(), 0.0001);
+        aa1.setStartIndex(null);
+        assertEquals(expectedResolved(), allocation.getResolvedCongestion(), 0.0001);
+    }
+
+    @Test
+    public void testIsActivated() {
+        aa1.setStartIndex(14);
+        aa2.setStartIndex(15);
+        assertTrue(allocation.isActivated(0, 14));
+        assertTrue(allocation.isActivated(0, 16));
+        assertFalse(allocation.isActivated(0, 17));
+        assertFalse(allocation.isActivated(1, 14));
+        aa2.setStartIndex(null);
+        assertFalse(allocation.isActivated(0, 16));
+        assertEquals(1, allocation.getAllocationMaps()[0][15]);
+    }
+
+    @Test
+    public void testCloneKeepsOwnState() {
+        aa1.setStartIndex(14);
+        aa3.setStartIndex(15);
+        double resolved = allocation.getResolvedCongestion();
+        Allocation clone = new AllocationSolutionCloner().cloneSolution(allocation);
+        aa1.setStartIndex(null);
+        aa3.setStartIndex(null);
+        assertEquals(resolved, clone.getResolvedCongestion(), 0);
+        assertEquals(0, allocation.getResolvedCongestion(), 0);
+    }
+
+    private double expectedResolved() {
+        List<QHFlexibilityProvider> providers = allocation.getProviders();
+        double sum = 0;
+        for (int i = 0; i < profile.length(); i++) {
+            double activated = 0;
+            boolean active = false;
+            for (QHFlexibilityProvider p : providers) {
+                for (ActivationAssignment aa : allocation.getAssignments()) {
+                    if (aa.getProvider() == p && aa.isBound() && ActivationAssignment
+                            .isActiveAt(aa, i)) {
+                        activated += p.getFlexibilityActivationRate().getUp();
+                        active = true;
+                        break;
+                    }
+                }
+            }
+            if (active) {
+                sum += Math.min(profile.value(i), activated);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,123 @@
+package be.kuleuven.cs.gridflex.solvers.heuristic.solver;
+
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexAllocProblemContext;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexProvider;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexibilityProvider;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
+import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import be.kuleuven.cs.gridflex.solvers.heuristic.domain.ActivationAssignment;
+import be.kuleuven.cs.gridflex.solvers.heuristic.domain.Allocation;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class AllocationIncrementalScoreCalculatorTest {
+    private static final int MOVES = 500;
+    private FlexAllocProblemContext context;
+    private CongestionProfile profile;
+
+    @Before
+    public void setUp() throws IOException {
+        this.profile = CongestionProfile.createFromCSV("test.csv", "test");
+        FlexibilityProvider first = new FlexProvider(400,
+                HourlyFlexConstraints.builder().maximumActivations(6).interActivationTime(2)
+                        .activationDuration(2).build());
+        FlexibilityProvider second = new FlexProvider(560,
+                HourlyFlexConstraints.builder().maximumActivations(6).interActivationTime(2)
+                        .activationDuration(0.5).build());
+        FlexibilityProvider third = new FlexProvider(250,
+                HourlyFlexConstraints.builder().maximumActivations(4).interActivationTime(1)
+                        .activationDuration(1).build());
+        this.context = new FlexAllocProblemContext() {
+
+            @Override
+            public Collection<FlexibilityProvider> getProviders() {
+                return Lists.newArrayList(first, second, third);
+            }
+
+            @Override
+            public TimeSeries getEnergyProfileToMinimizeWithFlex() {
+                return profile;
+            }
+        };
+    }
+
+    @Test
+    public void testFullSatScoresEqualDrools() {
+        assertScoresEqualDrools(HeuristicSolverFactoryCache.ConfigVariant.FULL_SAT,
+                new AllocationIncrementalScoreCalculator.FullSat());
+    }
+
+    @Test
+    public void testBestEffortScoresEqualDrools() {
+        assertScoresEqualDrools(HeuristicSolverFactoryCache.ConfigVariant.BEST_EFFORT,
+                new AllocationIncrementalScoreCalculator.BestEffort());
+    }
+
+    @Test
+    public void testIncrementalSolve() {
+        HeuristicSolver solver = HeuristicSolver.createIncrementalFullSatHeuristicSolver(context);
+        HeuristicSolver drlSolver = HeuristicSolver.createFullSatHeuristicSolver(context);
+        assertEquals(drlSolver.solve().getObjective(), solver.solve().getObjective(), 0.1);
+    }
+
+    @Test
+    public void testResetOnBoundSolution() {
+        Allocation allocation = HeuristicSolver.createFullSatHeuristicSolver(context)
+                .new AllocationGenerator().createAllocation();
+        ScoreDirector<Allocation> drools = HeuristicSolverFactoryCache.ConfigVariant.FULL_SAT
+                .getTemplate().buildSolver().getScoreDirectorFactory().buildScoreDirector();
+        Random random = new Random(4321);
+        for (ActivationAssignment aa : allocation.getAllocationList()) {
+            aa.setStartIndex(random.nextInt(5) == 0 ? null : random.nextInt(profile.length()));
+        }
+        AllocationIncrementalScoreCalculator calculator =
+                new AllocationIncrementalScoreCalculator.FullSat();
+        calculator.resetWorkingSolution(allocation);
+        drools.setWorkingSolution(allocation);
+        assertEquals(drools.calculateScore(), calculator.calculateScore());
+
+        ActivationAssignment aa = allocation.getAllocationList().get(0);
+        calculator.beforeVariableChanged(aa, "startIndex");
+        aa.setStartIndex(random.nextInt(profile.length()));
+        calculator.afterVariableChanged(aa, "startIndex");
+        calculator.resetWorkingSolution(allocation);
+        drools.setWorkingSolution(allocation);
+        assertEquals(drools.calculateScore(), calculator.calculateScore());
+    }
+
+    private void assertScoresEqualDrools(HeuristicSolverFactoryCache.ConfigVariant variant,
+            AllocationIncrementalScoreCalculator calculator) {
+        Allocation allocation = HeuristicSolver.createFullSatHeuristicSolver(context)
+                .new AllocationGenerator().createAllocation();
+        ScoreDirector<Allocation> drools = variant.getTemplate().buildSolver()
+                .getScoreDirectorFactory().buildScoreDirector();
+        List<ActivationAssignment> assignments = allocation.getAllocationList();
+        Random random = new Random(1234);
+
+        calculator.resetWorkingSolution(allocation);
+        drools.setWorkingSolution(allocation);
+        assertEquals(drools.calculateScore(), calculator.calculateScore());
+        for (int i = 0; i < MOVES; i++) {
+            ActivationAssignment aa = assignments.get(random.nextInt(assignments.size()));
+            calculator.beforeVariableChanged(aa, "startIndex");
+            aa.setStartIndex(random.nextInt(10) == 0 ? null : random.nextInt(profile.length()));
+            calculator.afterVariableChanged(aa, "startIndex");
+            drools.setWorkingSolution(allocation);
+            assertEquals("Score mismatch after move " + i, drools.calculateScore(),
+                    calculator.calculateScore());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package be.kuleuven.cs.gridflex.solvers.memoization.immutableViews;
+
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexAllocProblemContext;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexProvider;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.FlexibilityProvider;
+import be.kuleuven.cs.gridflex.domain.energy.dso.r3dp.HourlyFlexConstraints;
+import be.kuleuven.cs.gridflex.domain.util.data.TimeSeries;
+import be.kuleuven.cs.gridflex.domain.util.data.profiles.CongestionProfile;
+import be.kuleuven.cs.gridflex.persistence.MapDBMemoizationContext;
+import be.kuleuven.cs.gridflex.persistence.StoreFormat;
+import be.kuleuven.cs.gridflex.solvers.common.data.AllocResults;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * @author Kristof Coninx <kristof.coninx AT cs.kuleuven.be>
+ */
+public class ViewSerializersTest {
+    private static final String DB_NAME = "ViewSerializersTest.db";
+    private FlexibilityProvider first;
+    private FlexibilityProvider second;
+    private ImmutableSolverProblemContextView key;
+    private AllocResultsView value;
+
+    @Before
+    public void setUp() throws IOException {
+        CongestionProfile profile = CongestionProfile.createFromCSV("smalltest.csv", "test");
+        first = new FlexProvider(400,
+                HourlyFlexConstraints.builder().maximumActivations(2).interActivationTime(1)
+                        .activationDuration(0.5).build());
+        second = new FlexProvider(560.3,
+                HourlyFlexConstraints.builder().maximumActivations(3).interActivationTime(1.1)
+                        .activationDuration(0.5).build());
+        FlexAllocProblemContext context = new FlexAllocProblemContext() {
+
+            @Override
+            public Collection<FlexibilityProvider> getProviders() {
+                return Lists.newArrayList(first, second);
+            }
+
+            @Override
+            public TimeSeries getEnergyProfileToMinimizeWithFlex() {
+                return profile;
+            }
+        };
+        ListMultimap<FlexibilityProvider, Boolean> lmm = LinkedListMultimap.create();
+        for (int i = 0; i < 70; i++) {
+            lmm.put(first, i % 3 == 0);
+            lmm.put(second, i % 7 == 0);
+        }
+        key = ImmutableSolverProblemContextView.from(context);
+        value = AllocResultsView.from(AllocResults.create(lmm, 342.0, 2342.3));
+    }
+
+    @Test
+    public void testCompactFormatRoundTrip() {
+        assertRoundTrip(ViewSerializers.compactFormat());
+    }
+
+    @Test
+    public void testHashedFormatRoundTrip() {
+        assertRoundTrip(ViewSerializers.hashedFormat());
+    }
+
+    @Test
+    public void testContentHash() {
+        assertEquals(ViewSerializers.contentHash(key), ViewSerializers.contentHash(
+                new AutoValue_ImmutableSolverProblemContextView(key.getProviders(),
+                        key.getInputProfile(), key.getSeedValue())));
+        assertNotEquals(ViewSerializers.contentHash(key), ViewSerializers.contentHash(
+                new AutoValue_ImmutableSolverProblemContextView(key.getProviders(),
+                        key.getInputProfile(), key.getSeedValue() + 1)));
+    }
+
+    private void assertRoundTrip(
+            StoreFormat<ImmutableSolverProblemContextView, AllocResultsView> format) {
+        MapDBMemoizationContext<ImmutableSolverProblemContextView, AllocResultsView> target =
+                MapDBMemoizationContext.builder().setFileName(DB_NAME).setStoreFormat(format)
+                        .ensureFileExists().build();
+        target.memoizeEntry(key, value);
+        assertEquals(value, target.getMemoizedResultFor(key));
+        target.resetStore();
+    }
+}